@@ -0,0 +1,75 @@
+package anastasiia.demo.solver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result against a baseline and exits with status 1 when any benchmark present in
+ * both files got slower by more than the threshold (percent, default 10).
+ * <p>
+ * Allocation per operation ({@code gc.alloc.rate.norm}) is printed next to the time when it was profiled.
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <result.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %16s%n", "benchmark", "baseline", "current", "change", "alloc B/op");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) continue;
+            double was = before.path("primaryMetric").path("score").asDouble();
+            double now = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double change = (now - was) / was * 100;
+            // AverageTime: a larger score is slower.
+            boolean regressed = change > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %16s%s%n", entry.getKey(), was, now, change,
+                    allocation(before) + " -> " + allocation(entry.getValue()), regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            runs.put(key(run), run);
+        }
+        return runs;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        Map<String, String> params = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        return benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1) + params;
+    }
+
+    private static String allocation(JsonNode run) {
+        JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION);
+        return allocation.isMissingNode() ? "-" : String.format("%.0f", allocation.path("score").asDouble());
+    }
+}
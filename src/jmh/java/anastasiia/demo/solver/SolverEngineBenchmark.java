@@ -0,0 +1,63 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import org.ojalgo.optimisation.Optimisation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solve time of the engines on the small programs {@code AUTO} routes to the dense simplex,
+ * from a request (expression model) or from an assembled program.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="SolverEngine -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverEngineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Workload {
+
+        @Param({"3", "5", "8"})
+        public int ingredients;
+
+        @Param({"0", "3"})
+        public int constraints;
+
+        final DessertSolver expressions = new DessertSolver();
+
+        DessertRequestDTO request;
+        LinearProgram program;
+        double[] rhs;
+        boolean maximise;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            request = Workloads.request(ingredients, constraints, false, TargetType.PRICE, Direction.MINIMIZE);
+            program = LinearProgramAssembler.assemble(request);
+            rhs = program.rightHandSide(request);
+            maximise = LinearProgram.maximises(request);
+        }
+    }
+
+    @Benchmark
+    public Optimisation.Result expressionModel(Workload workload) {
+        return workload.expressions.buildModel(workload.request).maximise();
+    }
+
+    @Benchmark
+    public Optimisation.Result ojAlgoLinearSolver(Workload workload) {
+        return SolverEngine.OJALGO.solve(workload.program, workload.rhs, workload.maximise, 0);
+    }
+
+    @Benchmark
+    public Optimisation.Result denseSimplex(Workload workload) {
+        return SolverEngine.DENSE_SIMPLEX.solve(workload.program, workload.rhs, workload.maximise, 0);
+    }
+}
@@ -0,0 +1,132 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages of one solve, measured separately: model construction (expression and array assembly),
+ * {@code maximise()}, result mapping, request parsing, result writing and JSON and CBOR round trips of request and result.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec}; narrow the matrix with
+ * {@code -Djmh.args="SolverPipeline -p ingredients=3000 -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverPipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Workload {
+
+        @Param({"3", "30", "300", "3000", "10000"})
+        public int ingredients;
+
+        @Param({"0", "10", "50"})
+        public int constraints;
+
+        @Param({"false", "true"})
+        public boolean aesthetic;
+
+        @Param({"PRICE_MAXIMIZE", "PRICE_MINIMIZE", "CALORIES_MAXIMIZE", "CALORIES_MINIMIZE",
+                "INGREDIENT_MAXIMIZE", "INGREDIENT_MINIMIZE"})
+        public String goal;
+
+        final DessertSolver solver = new DessertSolver();
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectMapper cbor = new CBORMapper();
+
+        DessertRequestDTO request;
+        Optimisation.Result solved;
+        DessertResultDTO result;
+        byte[] json;
+        DessertResultDTO parsedResult;  // Over the ingredients as parsed, columns from 256 ingredients on
+
+        @Setup(Level.Trial)
+        public void generate() {
+            String[] parts = goal.split("_");
+            request = Workloads.request(ingredients, constraints, aesthetic,
+                    TargetType.valueOf(parts[0]), Direction.valueOf(parts[1]));
+            solved = solver.buildModel(request).maximise();
+            result = DessertSolver.buildResult(solved, request.ingredients);
+            try {
+                json = mapper.writeValueAsBytes(request);
+                parsedResult = DessertSolver.buildResult(solved, mapper.readValue(json, DessertRequestDTO.class).ingredients);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * {@code maximise()} changes the model, so every invocation gets a freshly built one.
+     */
+    @State(Scope.Thread)
+    public static class FreshModel {
+
+        ExpressionsBasedModel model;
+
+        @Setup(Level.Invocation)
+        public void build(Workload workload) {
+            model = workload.solver.buildModel(workload.request);
+        }
+    }
+
+    @Benchmark
+    public ExpressionsBasedModel buildModel(Workload workload) {
+        return workload.solver.buildModel(workload.request);
+    }
+
+    @Benchmark
+    public void assembleArrays(Workload workload, Blackhole blackhole) {
+        blackhole.consume(LinearProgramAssembler.assemble(workload.request));
+    }
+
+    @Benchmark
+    public Optimisation.Result maximise(FreshModel fresh) {
+        return fresh.model.maximise();
+    }
+
+    @Benchmark
+    public DessertResultDTO buildResult(Workload workload) {
+        return DessertSolver.buildResult(workload.solved, workload.request.ingredients);
+    }
+
+    @Benchmark
+    public DessertRequestDTO parseRequest(Workload workload) throws IOException {
+        return workload.mapper.readValue(workload.json, DessertRequestDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeParsedResult(Workload workload) throws IOException {
+        return workload.mapper.writeValueAsBytes(workload.parsedResult);
+    }
+
+    @Benchmark
+    public void cborRoundTrip(Workload workload, Blackhole blackhole) throws IOException {
+        byte[] request = workload.cbor.writeValueAsBytes(workload.request);
+        blackhole.consume(workload.cbor.readValue(request, DessertRequestDTO.class));
+        byte[] result = workload.cbor.writeValueAsBytes(workload.parsedResult);
+        blackhole.consume(workload.cbor.readValue(result, DessertResultDTO.class));
+    }
+
+    @Benchmark
+    public void jsonRoundTrip(Workload workload, Blackhole blackhole) throws IOException {
+        byte[] request = workload.mapper.writeValueAsBytes(workload.request);
+        blackhole.consume(workload.mapper.readValue(request, DessertRequestDTO.class));
+        byte[] result = workload.mapper.writeValueAsBytes(workload.result);
+        blackhole.consume(workload.mapper.readValue(result, DessertResultDTO.class));
+    }
+}
@@ -0,0 +1,82 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated, repeatable dessert requests for benchmarks.
+ * <p>
+ * Ingredient 0 is never capped, so the weight row can always be met; custom constraints rotate between a
+ * price cap, a calorie floor and a per-ingredient cap.
+ */
+final class Workloads {
+
+    private static final double TOTAL_WEIGHT = 10.0;
+
+    private Workloads() {
+    }
+
+    static DessertRequestDTO request(int ingredientCount, int constraintCount, boolean aesthetic,
+                                     TargetType target, Direction direction) {
+        Random random = new Random(31L * ingredientCount + constraintCount);
+
+        List<IngredientDTO> ingredients = new ArrayList<>(ingredientCount);
+        for (int i = 0; i < ingredientCount; i++) {
+            IngredientDTO ingredient = new IngredientDTO();
+            ingredient.name = "Ingredient" + i;
+            ingredient.price = 0.5 + 4.5 * random.nextDouble();
+            ingredient.calories = 50 + 550 * random.nextDouble();
+            ingredients.add(ingredient);
+        }
+
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 35.0;
+        block.maxCalories = 4000.0;
+        block.totalWeight = TOTAL_WEIGHT;
+        block.constraints = new ArrayList<>(constraintCount);
+        for (int c = 0; c < constraintCount; c++) {
+            DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+            switch (c % 3) {
+                case 0 -> {
+                    constraint.left = "price";
+                    constraint.op = ConstraintOp.LESS_THAN_OR_EQUAL;
+                    constraint.right = 40.0 + c;
+                }
+                case 1 -> {
+                    constraint.left = "calories";
+                    constraint.op = ConstraintOp.GREATER_THAN_OR_EQUAL;
+                    constraint.right = 1000.0 - c;
+                }
+                default -> {
+                    constraint.left = ingredients.get(ingredientCount > 1 ? 1 + random.nextInt(ingredientCount - 1) : 0).name;
+                    constraint.op = ConstraintOp.LESS_THAN_OR_EQUAL;
+                    constraint.right = 2.0 + 3.0 * random.nextDouble();
+                    constraint.allowDeviation = random.nextBoolean();
+                }
+            }
+            block.constraints.add(constraint);
+        }
+
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = ingredients;
+        request.constraintsBlock = block;
+        if (aesthetic) {
+            request.aestheticConstraint = new DessertRequestDTO.AestheticConstraint();
+            request.aestheticConstraint.ingredientName = ingredients.get(0).name;
+            request.aestheticConstraint.ruleType = "min";
+            request.aestheticConstraint.percent = 0.1;
+        }
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = target;
+        request.goal.targetName = ingredients.get(ingredientCount - 1).name;
+        request.goal.direction = direction;
+        return request;
+    }
+}
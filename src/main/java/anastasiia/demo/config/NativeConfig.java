@@ -0,0 +1,116 @@
+package anastasiia.demo.config;
+
+import anastasiia.demo.dto.AlternativeDTO;
+import anastasiia.demo.dto.BatchResultDTO;
+import anastasiia.demo.dto.CacheStatsDTO;
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.CatalogInfoDTO;
+import anastasiia.demo.dto.ConflictDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.JobDTO;
+import anastasiia.demo.dto.PlanRequestDTO;
+import anastasiia.demo.dto.PlanResultDTO;
+import anastasiia.demo.dto.PresolveReportDTO;
+import anastasiia.demo.dto.SessionDTO;
+import anastasiia.demo.dto.SensitivityDTO;
+import anastasiia.demo.dto.SessionDeltaDTO;
+import anastasiia.demo.dto.SweepRequestDTO;
+import anastasiia.demo.dto.SweepResultDTO;
+import anastasiia.demo.solver.IngredientsDeserializer;
+import anastasiia.demo.solver.QuantitiesSerializer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reflection metadata for the GraalVM native image: every DTO with the nested classes and enums its fields reach and
+ * the custom (de)serializers they name, for Jackson, and the ojAlgo classes that ojAlgo inspects reflectively.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.Hints.class)
+public class NativeConfig {
+
+    static final List<Class<?>> DTOS = List.of(
+            AlternativeDTO.class, BatchResultDTO.class, CacheStatsDTO.class, CatalogDTO.class, CatalogInfoDTO.class,
+            ConflictDTO.class, DessertRequestDTO.class, DessertResultDTO.class, IngredientDTO.class, JobDTO.class,
+            PlanRequestDTO.class, PlanResultDTO.class, PresolveReportDTO.class, SensitivityDTO.class, SessionDTO.class,
+            SessionDeltaDTO.class, SweepRequestDTO.class, SweepResultDTO.class);
+
+    // Named by @JsonSerialize/@JsonDeserialize on DTO fields and created by Jackson through their constructor.
+    static final List<Class<?>> CODECS = List.of(IngredientsDeserializer.class, QuantitiesSerializer.class);
+
+    // BasicMatrix implementations, created through their MatrixStore constructor by MatrixFactory.
+    static final List<String> OJALGO_MATRICES = List.of(
+            "org.ojalgo.matrix.Primitive64Matrix", "org.ojalgo.matrix.Primitive32Matrix", "org.ojalgo.matrix.ComplexMatrix",
+            "org.ojalgo.matrix.QuaternionMatrix", "org.ojalgo.matrix.RationalMatrix");
+
+    // Classes whose instance size MemoryEstimator works out from their declared fields, superclasses included.
+    static final List<String> OJALGO_SIZED = List.of(
+            "org.ojalgo.matrix.store.Primitive64Store", "org.ojalgo.array.BigArray", "org.ojalgo.array.ComplexArray",
+            "org.ojalgo.array.QuaternionArray", "org.ojalgo.array.RationalArray");
+
+    public static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+            Set<Class<?>> seen = new HashSet<>();
+            for (Class<?> dto : DTOS) {
+                registerBinding(bindings, hints, dto, seen);
+            }
+            for (Class<?> codec : CODECS) {
+                hints.reflection().registerType(codec, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+
+            for (String name : OJALGO_MATRICES) {
+                if (ClassUtils.isPresent(name, classLoader)) {
+                    hints.reflection().registerType(ClassUtils.resolveClassName(name, classLoader),
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                }
+            }
+            for (String name : OJALGO_SIZED) {
+                if (!ClassUtils.isPresent(name, classLoader)) continue;
+                for (Class<?> type = ClassUtils.resolveClassName(name, classLoader); type != Object.class; type = type.getSuperclass()) {
+                    hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS);
+                }
+            }
+        }
+
+        /**
+         * The DTOs are public fields rather than bean properties, which Spring's registrar does not follow, so walk
+         * the field types (list elements and map values included) down to our own nested classes and enums.
+         */
+        private static void registerBinding(BindingReflectionHintsRegistrar bindings, RuntimeHints hints, Class<?> type, Set<Class<?>> seen) {
+            if (!seen.add(type)) return;
+            bindings.registerReflectionHints(hints.reflection(), type);
+            for (Field field : type.getFields()) {
+                registerFieldType(bindings, hints, ResolvableType.forField(field), seen);
+            }
+        }
+
+        private static void registerFieldType(BindingReflectionHintsRegistrar bindings, RuntimeHints hints, ResolvableType type, Set<Class<?>> seen) {
+            Class<?> raw = type.resolve();
+            if (raw == null) return;
+            if (raw.isArray()) {
+                registerFieldType(bindings, hints, type.getComponentType(), seen);
+            } else if (raw.getPackageName().startsWith("anastasiia.demo")) {
+                registerBinding(bindings, hints, raw, seen);
+            }
+            for (ResolvableType generic : type.getGenerics()) {
+                registerFieldType(bindings, hints, generic, seen);
+            }
+        }
+    }
+}
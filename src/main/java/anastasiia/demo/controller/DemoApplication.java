@@ -1,14 +1,47 @@
 package anastasiia.demo.controller;
 
+import anastasiia.demo.dto.CacheStatsDTO;
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.CatalogInfoDTO;
 import anastasiia.demo.dto.DessertRequestDTO;
 import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.JobDTO;
+import anastasiia.demo.dto.PlanRequestDTO;
+import anastasiia.demo.dto.PlanResultDTO;
+import anastasiia.demo.dto.SessionDTO;
+import anastasiia.demo.dto.SessionDeltaDTO;
+import anastasiia.demo.dto.SweepRequestDTO;
+import anastasiia.demo.dto.SweepResultDTO;
+import anastasiia.demo.enums.JobPriority;
+import anastasiia.demo.solver.BatchSolver;
+import anastasiia.demo.solver.CatalogRegistry;
 import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.ProductionPlanner;
+import anastasiia.demo.solver.RequestCapture;
+import anastasiia.demo.solver.SolutionCache;
+import anastasiia.demo.solver.SolveJobManager;
+import anastasiia.demo.solver.SolveAdmission;
+import anastasiia.demo.solver.SolveSessionManager;
+import anastasiia.demo.solver.SweepSolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "anastasiia.demo")
@@ -16,9 +49,41 @@ import java.util.Map;
 public class DemoApplication {
 
 	private final DessertSolver solver;
+	private final SolutionCache solutionCache;
+	private final BatchSolver batchSolver;
+	private final SweepSolver sweepSolver;
+	private final SolveSessionManager sessions;
+	private final SolveAdmission admission;
+	private final CatalogRegistry catalogs;
+	private final ProductionPlanner planner;
+	private final SolveJobManager jobs;
+	private final RequestCapture capture;
+	private final Duration solveTimeout;
+	private final Duration sweepTimeout;
+	private final Duration batchTimeout;
+	private final Duration planTimeout;
 
-	public DemoApplication(DessertSolver solver) {
+	public DemoApplication(DessertSolver solver, SolutionCache solutionCache, BatchSolver batchSolver, SweepSolver sweepSolver,
+						   SolveSessionManager sessions, SolveAdmission admission, CatalogRegistry catalogs,
+						   ProductionPlanner planner, SolveJobManager jobs, RequestCapture capture,
+						   @Value("${dessert.admission.request-timeout:1m}") Duration solveTimeout,
+						   @Value("${dessert.sweep.request-timeout:10m}") Duration sweepTimeout,
+						   @Value("${dessert.batch.request-timeout:30m}") Duration batchTimeout,
+						   @Value("${dessert.plan.request-timeout:10m}") Duration planTimeout) {
 		this.solver = solver;
+		this.solutionCache = solutionCache;
+		this.batchSolver = batchSolver;
+		this.sweepSolver = sweepSolver;
+		this.sessions = sessions;
+		this.admission = admission;
+		this.catalogs = catalogs;
+		this.planner = planner;
+		this.jobs = jobs;
+		this.capture = capture;
+		this.solveTimeout = solveTimeout;
+		this.sweepTimeout = sweepTimeout;
+		this.batchTimeout = batchTimeout;
+		this.planTimeout = planTimeout;
 	}
 
 	public static void main(String[] args) {
@@ -37,7 +102,132 @@ public class DemoApplication {
 	}
 
 	@PostMapping("/solve-dessert")
-	public DessertResultDTO solveDessert(@RequestBody DessertRequestDTO request) {
-		return solver.solve(request);
+	public DeferredResult<DessertResultDTO> solveDessert(@RequestBody DessertRequestDTO request,
+														 @RequestHeader(value = "X-Solve-Time-Limit", required = false) Long timeLimitMs) {
+		catalogs.resolve(request);
+		capture.record(request);
+		long budget = timeLimitMs != null ? timeLimitMs : request.timeLimitMs;
+		return deferred(admission.submit(request, budget, r -> solutionCache.getOrSolve(r, solver::solve)), solveTimeout);
+	}
+
+	@PostMapping(value = "/solve-dessert/batch",
+			consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public WebAsyncTask<Void> solveDessertBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+		InputStream body = request.getInputStream();
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		return new WebAsyncTask<>(batchTimeout.toMillis(), () -> {
+			batchSolver.solve(body, ndjson, response.getOutputStream());
+			return null;
+		});
+	}
+
+	@PostMapping("/solve-dessert/sweep")
+	public DeferredResult<SweepResultDTO> solveDessertSweep(@RequestBody SweepRequestDTO request) {
+		if (request.base != null) {
+			catalogs.resolve(request.base);
+		}
+		return deferred(admission.run(() -> sweepSolver.sweep(request)), sweepTimeout);
+	}
+
+	@PostMapping("/solve-dessert/plan")
+	public DeferredResult<PlanResultDTO> planProduction(@RequestBody PlanRequestDTO request) {
+		PlanRequestDTO plan = resolveRecipes(request);
+		return deferred(admission.run(() -> planner.plan(plan)), planTimeout);
+	}
+
+	@PostMapping("/solve-dessert/jobs")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public JobDTO submitJob(@RequestBody DessertRequestDTO request,
+							@RequestParam(defaultValue = "NORMAL") JobPriority priority) {
+		return jobs.submit(catalogs.resolve(request), priority, r -> solutionCache.getOrSolve(r, solver::solve));
+	}
+
+	@PostMapping("/solve-dessert/plan/jobs")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public JobDTO submitPlanJob(@RequestBody PlanRequestDTO request,
+								@RequestParam(defaultValue = "NORMAL") JobPriority priority) {
+		return jobs.submitPlan(resolveRecipes(request), priority, planner::plan);
+	}
+
+	@GetMapping("/solve-dessert/jobs/{id}")
+	public JobDTO getJob(@PathVariable String id) {
+		return jobs.get(id);
+	}
+
+	@DeleteMapping("/solve-dessert/jobs/{id}")
+	public void cancelJob(@PathVariable String id) {
+		jobs.cancel(id);
+	}
+
+	@GetMapping("/solve-dessert/cache")
+	public CacheStatsDTO solutionCacheStats() {
+		return solutionCache.stats();
+	}
+
+	@DeleteMapping("/solve-dessert/cache")
+	public void clearSolutionCache() {
+		solutionCache.clear();
+	}
+
+	@PostMapping("/solve-dessert/sessions")
+	public SessionDTO createSession(@RequestBody DessertRequestDTO request) {
+		return sessions.create(catalogs.resolve(request));
+	}
+
+	@GetMapping("/solve-dessert/sessions/{id}")
+	public SessionDTO getSession(@PathVariable String id) {
+		return sessions.get(id);
+	}
+
+	@PostMapping("/solve-dessert/sessions/{id}/deltas")
+	public SessionDTO applySessionDeltas(@PathVariable String id, @RequestBody List<SessionDeltaDTO> deltas) {
+		return sessions.apply(id, deltas);
+	}
+
+	@DeleteMapping("/solve-dessert/sessions/{id}")
+	public void closeSession(@PathVariable String id) {
+		sessions.close(id);
+	}
+
+	@PutMapping("/catalogs/{id}")
+	public CatalogInfoDTO putCatalog(@PathVariable String id, @RequestBody CatalogDTO catalog) {
+		return catalogs.put(id, catalog);
+	}
+
+	@GetMapping("/catalogs/{id}")
+	public CatalogInfoDTO getCatalog(@PathVariable String id) {
+		return catalogs.get(id);
+	}
+
+	@DeleteMapping("/catalogs/{id}")
+	public void deleteCatalog(@PathVariable String id) {
+		catalogs.delete(id);
+	}
+
+	/**
+	 * Answer with the future's outcome, or 503 once the endpoint's timeout passes. A solve still queued by then is dropped.
+	 */
+	private static <T> DeferredResult<T> deferred(CompletableFuture<T> future, Duration timeout) {
+		DeferredResult<T> result = new DeferredResult<>(timeout.toMillis());
+		result.onTimeout(() -> future.cancel(false));
+		future.whenComplete((value, error) -> {
+			if (error == null) {
+				result.setResult(value);
+			} else {
+				result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+			}
+		});
+		return result;
+	}
+
+	private PlanRequestDTO resolveRecipes(PlanRequestDTO request) {
+		if (request.recipes != null) {
+			for (PlanRequestDTO.RecipeDTO recipe : request.recipes) {
+				if (recipe != null && recipe.request != null) catalogs.resolve(recipe.request);
+			}
+		}
+		return request;
 	}
 }
@@ -0,0 +1,50 @@
+package anastasiia.demo.controller;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.solver.SolverMetrics;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Times the JSON parse of a {@link DessertRequestDTO} body as the solver's {@link SolverMetrics.Phase#PARSE} phase.
+ */
+@ControllerAdvice
+public class RequestParseTimer extends RequestBodyAdviceAdapter {
+
+    private static final String STARTED = RequestParseTimer.class.getName() + ".started";
+
+    private final SolverMetrics metrics;
+
+    public RequestParseTimer(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == DessertRequestDTO.class;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes().setAttribute(STARTED, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        Object started = RequestContextHolder.currentRequestAttributes().getAttribute(STARTED, RequestAttributes.SCOPE_REQUEST);
+        if (started instanceof Long nanos) {
+            metrics.record(SolverMetrics.Phase.PARSE, nanos);
+        }
+        return body;
+    }
+}
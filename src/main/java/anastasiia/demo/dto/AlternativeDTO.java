@@ -0,0 +1,20 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.solver.QuantitiesSerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Map;
+
+public class AlternativeDTO {
+    @JsonSerialize(using = QuantitiesSerializer.class)
+    public Map<String, Double> ingredientsQuantities;
+    public double price;
+    public double totalWeight;
+    public double totalCalories;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Double> totals; // Total of every further ingredient attribute, by lower-case name
+    public double goal;                // Goal value of this recipe
+    public double goalLoss;            // How much worse the goal is than the optimum's, relative to it
+    public double distance;            // Total quantity change from the optimum: sum of absolute differences
+}
@@ -0,0 +1,10 @@
+package anastasiia.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultDTO {
+    public int index;                 // Position of the request in the submitted batch
+    public DessertResultDTO result;   // Present when the request was solved
+    public String error;              // Present when the request could not be read or solved
+}
@@ -0,0 +1,13 @@
+package anastasiia.demo.dto;
+
+public class CacheStatsDTO {
+    public long size;
+    public long maxSize;
+    public long ttlSeconds;
+    public long hits;
+    public long misses;
+    public long evictions;   // Entries dropped because the cache was full
+    public long expirations; // Entries dropped because their TTL elapsed
+    public long coalesced;   // Requests that waited for an identical solve in flight instead of solving
+    public long inFlight;    // Distinct requests being solved right now
+}
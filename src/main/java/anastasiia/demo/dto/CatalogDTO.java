@@ -0,0 +1,7 @@
+package anastasiia.demo.dto;
+
+import java.util.List;
+
+public class CatalogDTO {
+    public List<IngredientDTO> ingredients;  // Catalog entries; names must be unique ignoring case
+}
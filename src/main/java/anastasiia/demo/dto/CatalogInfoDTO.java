@@ -0,0 +1,7 @@
+package anastasiia.demo.dto;
+
+public class CatalogInfoDTO {
+    public String id;
+    public long version;    // Incremented on every PUT of the same id
+    public int size;        // Number of ingredients
+}
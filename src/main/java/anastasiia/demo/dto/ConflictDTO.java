@@ -0,0 +1,11 @@
+package anastasiia.demo.dto;
+
+import java.util.List;
+
+public class ConflictDTO {
+    public List<String> constraints;          // MaxPrice, MaxCalories, TotalWeight, AestheticConstraint, Custom_<left>[_<op>][#n]; empty = the quantity bounds alone
+    public List<Integer> customConstraints;   // Positions of the conflicting custom constraints in constraintsBlock.constraints
+    public boolean minimal;                   // False when a sub-solve gave no answer and its rule was kept to be safe
+    public int solves;                        // Sub-problems solved to find the conflict
+    public double millis;                     // Time spent on the diagnosis
+}
@@ -3,15 +3,33 @@ package anastasiia.demo.dto;
 import anastasiia.demo.enums.Direction;
 import anastasiia.demo.enums.ConstraintOp;
 import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.IngredientsDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.util.List;
 
 public class DessertRequestDTO {
 
-    public List<IngredientDTO> ingredients;
+    @JsonDeserialize(using = IngredientsDeserializer.class)
+    public List<IngredientDTO> ingredients;  // Large lists are parsed straight into columns and are read-only
+    public CatalogRef catalog;  // Registered catalog to take the ingredients from instead of sending them
     public AestheticConstraint aestheticConstraint;
     public GoalDTO goal;
     public ConstraintsBlock constraintsBlock;
+    public long timeLimitMs;    // Solve budget in milliseconds; 0 means no limit
+    public MipOptions mip;      // Branch-and-bound limits, used when an ingredient is integer or packed
+    public boolean debug;       // Attach the presolve report to the result
+    public boolean sparse;      // Leave near-zero quantities out of ingredientsQuantities
+    public boolean sensitivity; // Attach dual values, reduced costs and ranging to the result (continuous problems)
+    public boolean diagnose;    // On an INFEASIBLE result, attach a minimal set of conflicting constraints
+    public AlternativesOptions alternatives; // Also return different recipes with a goal close to the optimum
+
+    // Reference to a catalog registered with PUT /catalogs/{id}
+    public static class CatalogRef {
+        public String id;
+        public long version;           // Expected catalog version; 0 = whatever is current
+        public List<String> names;     // Subset of the catalog to use; null = every ingredient
+    }
 
     // Represents an aesthetic constraint on a specific ingredient
     public static class AestheticConstraint {
@@ -22,8 +40,8 @@ public class DessertRequestDTO {
 
     // Represents the optimization goal (what to maximize/minimize)
     public static class GoalDTO {
-        public TargetType targetType;   // Type: INGREDIENT, PRICE, CALORIES
-        public String targetName;       // Name if INGREDIENT
+        public TargetType targetType;   // Type: INGREDIENT, PRICE, CALORIES, ATTRIBUTE
+        public String targetName;       // Name if INGREDIENT or ATTRIBUTE
         public Direction direction;     // MINIMIZE or MAXIMIZE
     }
 
@@ -35,10 +53,22 @@ public class DessertRequestDTO {
         public List<ConstraintDTO> constraints;  // Custom user constraints
     }
 
+    // Limits for mixed-integer solves
+    public static class MipOptions {
+        public double gap;             // Accepted relative gap between incumbent and bound; 0 = solver default
+    }
+
+    // Near-optimal recipes returned next to the optimum
+    public static class AlternativesOptions {
+        public int count;              // Alternatives wanted besides the optimum
+        public double tolerance;       // Accepted goal loss relative to the optimum, e.g. 0.05; 0 = equally good only
+        public double minDistance;     // Least total quantity change from the optimum and from each other; 0 = any change
+    }
+
     // Represents a single custom constraint
     public static class ConstraintDTO {
-        public String left;            // Ingredient name or "price"/"calories"/"weight"
-        public ConstraintOp op;        // Operator: EQUALS, GREATER_THAN, etc.
+        public String left;            // Ingredient, attribute or "weight", or a linear expression such as "2*cream + sugar <= 0.3*weight"
+        public ConstraintOp op;        // Operator: EQUALS, GREATER_THAN, etc.; optional when left has its own comparison
         public double right;           // Target value
         public boolean allowDeviation; // Whether small deviation is allowed
     }
@@ -1,12 +1,30 @@
 package anastasiia.demo.dto;
 
+import anastasiia.demo.solver.QuantitiesSerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
 import java.util.Map;
 
 public class DessertResultDTO {
+    @JsonSerialize(using = QuantitiesSerializer.class)
     public Map<String, Double> ingredientsQuantities;
     public String status;
     public double price;
     public double totalWeight;
     public double totalCalories;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Double> totals; // Total of every further ingredient attribute, by lower-case name
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Double gap;              // Proven relative optimality gap; only set for mixed-integer solves
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public PresolveReportDTO presolve; // What presolve eliminated; only set for debug requests
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public SensitivityDTO sensitivity; // Dual values, reduced costs and ranging; only set for sensitivity requests
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public ConflictDTO conflict;       // Constraints that cannot hold together; only set for diagnose requests
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public List<AlternativeDTO> alternatives; // Different near-optimal recipes, best first; only set for alternatives requests
 }
 
@@ -1,7 +1,14 @@
 package anastasiia.demo.dto;
 
+import java.util.Map;
+
 public class IngredientDTO {
     public String name;
     public double price;
     public double calories;
+    public boolean integer;       // Quantity must be a whole number of units
+    public double packSize;       // Quantity must be a multiple of this size; 0 means continuous
+    public double minQuantity;    // Lower bound on the quantity
+    public Double maxQuantity;    // Upper bound on the quantity; null means unbounded
+    public Map<String, Double> attributes; // Further per-unit attributes such as sugar or fat, by name
 }
@@ -0,0 +1,22 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.enums.JobPriority;
+import anastasiia.demo.enums.JobState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobDTO {
+    public String id;
+    public JobState state;
+    public JobPriority priority;
+    public Integer queuePosition;     // Jobs that run before this one; only while queued
+    public Double progress;           // 0 while queued, 1 once finished; while running, the share of its time budget spent
+    public Instant submittedAt;
+    public Instant startedAt;
+    public Instant finishedAt;
+    public DessertResultDTO result;   // Result of a finished dessert job
+    public PlanResultDTO plan;        // Result of a finished plan job
+    public String error;              // Why a FAILED job failed
+}
@@ -0,0 +1,17 @@
+package anastasiia.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class PlanRequestDTO {
+    public List<RecipeDTO> recipes;          // Recipes planned together
+    public Map<String, Double> inventory;    // Shared stock: ingredient name -> most all recipes may use together
+    public long timeLimitMs;                 // Stop refining the plan after this long; 0 means no limit
+
+    // One recipe of the plan
+    public static class RecipeDTO {
+        public String name;                  // Unique name of the recipe within the plan
+        public DessertRequestDTO request;    // The recipe as a single dessert request
+        public double weight;                // Weight of the recipe's goal in the plan objective; 0 means 1
+    }
+}
@@ -0,0 +1,17 @@
+package anastasiia.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+public class PlanResultDTO {
+    public String status;                          // OPTIMAL, FEASIBLE (stopped early, see gap), INFEASIBLE or TIMEOUT (stopped before any plan fit the stock)
+    public double objective;                       // Sum of the weighted recipe goals, maximised (minimised goals count negative)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Double bound;                           // Proven upper bound on the objective
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Double gap;                             // Relative distance between objective and bound
+    public int iterations;                         // Decomposition rounds
+    public Map<String, DessertResultDTO> recipes;  // Result per recipe name, in request order
+    public Map<String, Double> inventoryUsed;      // Total use of every shared stock item
+}
@@ -0,0 +1,19 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.enums.PresolveReduction;
+
+import java.util.Map;
+
+public class PresolveReportDTO {
+    public int variables;                                 // Columns before presolve, pack counts included
+    public int rows;                                      // Constraint rows before presolve
+    public int reducedVariables;                          // Columns handed to the solver
+    public int reducedRows;                               // Rows handed to the solver
+    public int tightenedBounds;                           // Variable bounds tightened from row activities
+    public Map<String, PresolveReduction> eliminatedVariables;
+    public Map<String, PresolveReduction> removedRows;
+    public double coefficientRange;                       // max|a| / min|a| of the constraint matrix before scaling
+    public double scaledCoefficientRange;                 // The same ratio after row and column scaling
+    public double presolveMillis;
+    public double solveMillis;
+}
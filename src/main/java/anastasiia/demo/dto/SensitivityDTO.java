@@ -0,0 +1,31 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.enums.ConstraintType;
+
+import java.util.List;
+
+public class SensitivityDTO {
+    public List<ConstraintSensitivity> constraints;   // One entry per constraint row, in model order
+    public List<IngredientSensitivity> ingredients;   // One entry per ingredient, in request order
+
+    // Dual value of one constraint row and the right-hand-side range it stays valid over
+    public static class ConstraintSensitivity {
+        public String name;            // MaxPrice, MaxCalories, TotalWeight, AestheticConstraint, Custom_*, MinQuantity_*, MaxQuantity_*
+        public ConstraintType type;    // UPPER, LOWER or LEVEL
+        public double rhs;             // Right-hand side as solved
+        public double activity;        // Left-hand side at the optimum
+        public double dualValue;       // Change of the goal per unit increase of the right-hand side
+        public Double rhsLower;        // Lowest right-hand side the dual value holds for; null = no limit
+        public Double rhsUpper;        // Highest right-hand side the dual value holds for; null = no limit
+    }
+
+    // Reduced cost of one ingredient and the goal-coefficient range that keeps the mix optimal
+    public static class IngredientSensitivity {
+        public String name;
+        public double quantity;
+        public double reducedCost;     // Change of the goal per unit forced into the mix; 0 for ingredients in use
+        public double coefficient;     // The ingredient's goal coefficient, e.g. its price for a PRICE goal
+        public Double coefficientLower; // Lowest coefficient the mix stays optimal for; null = no limit
+        public Double coefficientUpper; // Highest coefficient the mix stays optimal for; null = no limit
+    }
+}
@@ -0,0 +1,8 @@
+package anastasiia.demo.dto;
+
+public class SessionDTO {
+    public String id;
+    public long revision;                   // Number of delta batches applied so far
+    public boolean reusedPreviousSolution;  // True when the last deltas provably kept the previous optimum
+    public DessertResultDTO result;
+}
@@ -0,0 +1,12 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.enums.SessionDeltaOp;
+
+public class SessionDeltaDTO {
+    public SessionDeltaOp op;
+    public String field;                                // SET: bound to change, same names as sweep parameters
+    public double value;                                // SET: new value
+    public DessertRequestDTO.ConstraintDTO constraint;  // ADD_CONSTRAINT: constraint to append
+    public int index;                                   // REMOVE_CONSTRAINT: position in the session's constraints
+    public String ingredient;                           // DROP_INGREDIENT: ingredient name
+}
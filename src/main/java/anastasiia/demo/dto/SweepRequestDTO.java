@@ -0,0 +1,13 @@
+package anastasiia.demo.dto;
+
+import anastasiia.demo.enums.SweepMode;
+
+public class SweepRequestDTO {
+    public DessertRequestDTO base;  // Request every point starts from
+    public SweepMode mode;          // PARAMETER (default) or PARETO
+    public String parameter;        // "maxPrice", "maxCalories", "totalWeight" or "constraints[i].right"
+    public double from;             // First value (PARETO: calorie cap; 0 and 0 = derive from the problem)
+    public double to;               // Last value, inclusive
+    public double step;             // Distance between points
+    public int points;              // Alternative to step: number of evenly spaced points
+}
@@ -0,0 +1,14 @@
+package anastasiia.demo.dto;
+
+import java.util.List;
+
+public class SweepResultDTO {
+    public String parameter;          // Swept parameter ("maxCalories" in PARETO mode)
+    public List<SweepPointDTO> points;
+
+    // One solved point of the sweep
+    public static class SweepPointDTO {
+        public double value;          // Parameter value used for this point
+        public DessertResultDTO result;
+    }
+}
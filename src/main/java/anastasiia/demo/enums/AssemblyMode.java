@@ -0,0 +1,6 @@
+package anastasiia.demo.enums;
+
+public enum AssemblyMode {
+    EXPRESSIONS, // One ojAlgo Variable/Expression per ingredient and constraint
+    ARRAYS       // Primitive standard-form arrays handed to ojAlgo's LinearSolver
+}
@@ -5,37 +5,60 @@ import org.ojalgo.optimisation.Expression;
 public enum ConstraintOp {
     EQUALS {
         @Override
-        public void applyTo(Expression expr, double value, double tolerance) {
-            expr.lower(value - tolerance);
-            expr.upper(value + tolerance);
+        public double lowerBound(double value, double tolerance) {
+            return value - tolerance;
+        }
+
+        @Override
+        public double upperBound(double value, double tolerance) {
+            return value + tolerance;
         }
     },
     LESS_THAN {
         @Override
-        public void applyTo(Expression expr, double value, double tolerance) {
-            expr.upper(value - EPSILON + tolerance);
+        public double upperBound(double value, double tolerance) {
+            return value - EPSILON + tolerance;
         }
     },
     LESS_THAN_OR_EQUAL {
         @Override
-        public void applyTo(Expression expr, double value, double tolerance) {
-            expr.upper(value + tolerance);
+        public double upperBound(double value, double tolerance) {
+            return value + tolerance;
         }
     },
     GREATER_THAN {
         @Override
-        public void applyTo(Expression expr, double value, double tolerance) {
-            expr.lower(value + EPSILON - tolerance);
+        public double lowerBound(double value, double tolerance) {
+            return value + EPSILON - tolerance;
         }
     },
     GREATER_THAN_OR_EQUAL {
         @Override
-        public void applyTo(Expression expr, double value, double tolerance) {
-            expr.lower(value - tolerance);
+        public double lowerBound(double value, double tolerance) {
+            return value - tolerance;
         }
     };
 
     private static final double EPSILON = 1e-6;
 
-    public abstract void applyTo(Expression expr, double value, double tolerance);
+    /**
+     * Lower limit implied by this operator, or NaN when the operator does not bound from below.
+     */
+    public double lowerBound(double value, double tolerance) {
+        return Double.NaN;
+    }
+
+    /**
+     * Upper limit implied by this operator, or NaN when the operator does not bound from above.
+     */
+    public double upperBound(double value, double tolerance) {
+        return Double.NaN;
+    }
+
+    public void applyTo(Expression expr, double value, double tolerance) {
+        double lower = lowerBound(value, tolerance);
+        double upper = upperBound(value, tolerance);
+        if (!Double.isNaN(lower)) expr.lower(lower);
+        if (!Double.isNaN(upper)) expr.upper(upper);
+    }
 }
@@ -0,0 +1,7 @@
+package anastasiia.demo.enums;
+
+public enum JobPriority {
+    HIGH,   // Runs before any waiting NORMAL or LOW job
+    NORMAL,
+    LOW     // Analyst and batch work that can wait
+}
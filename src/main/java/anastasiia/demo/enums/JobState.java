@@ -0,0 +1,9 @@
+package anastasiia.demo.enums;
+
+public enum JobState {
+    QUEUED,    // Waiting for a job worker
+    RUNNING,
+    DONE,      // Result available
+    FAILED,    // See the job's error
+    CANCELLED  // Cancelled before it finished; no result is kept
+}
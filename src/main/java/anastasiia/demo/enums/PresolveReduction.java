@@ -0,0 +1,11 @@
+package anastasiia.demo.enums;
+
+public enum PresolveReduction {
+    DOMINATED,  // Another ingredient is at least as good in every row and in the objective
+    FIXED,      // Lower and upper bound meet
+    FORCED,     // A row can only be met with the variable at one of its bounds
+    UNUSED,     // The variable appears in no remaining row, so the objective decides its value
+    REDUNDANT,  // The row holds for every value within the variable bounds
+    SINGLETON,  // A row on a single variable, turned into a bound
+    EMPTY       // Every variable of the row was eliminated
+}
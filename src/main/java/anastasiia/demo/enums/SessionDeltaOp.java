@@ -0,0 +1,8 @@
+package anastasiia.demo.enums;
+
+public enum SessionDeltaOp {
+    SET,                // Change a bound: "maxPrice", "maxCalories", "totalWeight" or "constraints[i].right"
+    ADD_CONSTRAINT,     // Append a custom constraint
+    REMOVE_CONSTRAINT,  // Remove the custom constraint at an index
+    DROP_INGREDIENT     // Remove an ingredient by name
+}
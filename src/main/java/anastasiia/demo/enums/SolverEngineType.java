@@ -0,0 +1,7 @@
+package anastasiia.demo.enums;
+
+public enum SolverEngineType {
+    AUTO,          // Dense simplex for small continuous problems, ojAlgo for everything else
+    OJALGO,        // Always ojAlgo, through the configured assembly mode
+    DENSE_SIMPLEX  // Dense simplex for every continuous problem; discrete ones still go to ojAlgo
+}
@@ -0,0 +1,6 @@
+package anastasiia.demo.enums;
+
+public enum SweepMode {
+    PARAMETER, // Vary one bound of the base request over a range
+    PARETO     // Trace the price-versus-calories frontier
+}
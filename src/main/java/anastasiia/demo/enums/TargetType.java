@@ -1,21 +1,8 @@
 package anastasiia.demo.enums;
 
-import anastasiia.demo.dto.IngredientDTO;
-
-import java.util.function.ToDoubleFunction;
-
 public enum TargetType {
-    INGREDIENT(null),
-    PRICE(ingredient -> ingredient.price),
-    CALORIES(ingredient -> ingredient.calories);
-
-    private final ToDoubleFunction<IngredientDTO> extractor;
-
-    TargetType(ToDoubleFunction<IngredientDTO> extractor) {
-        this.extractor = extractor;
-    }
-
-    public ToDoubleFunction<IngredientDTO> getExtractor() {
-        return extractor;
-    }
+    INGREDIENT,
+    PRICE,
+    CALORIES,
+    ATTRIBUTE   // Any ingredient attribute, named by the goal's targetName
 }
@@ -0,0 +1,199 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.AlternativeDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Finds different recipes whose goal is within a tolerance of the optimum, modelling-to-generate-alternatives
+ * style. The goal becomes a limit (no worse than the optimum by the tolerance) and each candidate pushes in another
+ * direction under it: away from all ingredients the optimum uses, away from one of them, or towards an unused one,
+ * the cheapest for the goal first. The candidates are independent and solved in parallel; the best of them that keep
+ * the minimum distance from the optimum and from each other are returned.
+ * <p>
+ * Continuous requests assemble their program once and add the goal row once; candidates share its arrays and only
+ * swap the objective. ojAlgo's model copies do not solve reliably, so with integer or packed ingredients each
+ * candidate builds its model on its own thread. Candidates run through {@link SubSolves}: a bounded number at a time,
+ * all within what is left of the request's time limit; one the deadline does not let start is left out.
+ */
+final class AlternativeFinder {
+
+    private static final String OBJECTIVE = "Objective"; // Named by DessertSolver.setObjective
+    private static final int MAX_CANDIDATES = 32;
+    private static final double EPSILON = 1e-6;   // Smallest quantity counted as used, and smallest distance
+    private static final double GOAL_SLACK = 1e-9; // Relative room on the goal limit for rounding
+
+    private AlternativeFinder() {
+    }
+
+    /**
+     * Up to {@code count} alternatives to the optimum {@code optimum} of a request that started at {@code started}
+     * ({@link System#nanoTime()}), best goal first.
+     */
+    static List<AlternativeDTO> find(DessertSolver solver, DessertRequestDTO request, AttributeColumns columns, double[] optimum,
+                                     long started) {
+        DessertRequestDTO.AlternativesOptions options = request.alternatives;
+        boolean maximise = LinearProgram.maximises(request);
+        LinearProgram program = LinearProgramAssembler.assemble(request, columns, true);
+        double[] coefficients = program != null ? program.objective : goalCoefficients(solver.buildModel(request, columns));
+        double best = dot(coefficients, optimum);
+        double room = Math.max(0, options.tolerance) * Math.abs(best) + GOAL_SLACK * Math.max(Math.abs(best), 1);
+        double limit = maximise ? best - room : best + room;
+
+        List<double[]> directions = directions(optimum, coefficients, maximise, Math.min(MAX_CANDIDATES, 4 * options.count + 1));
+        Optimisation.Result[] results = new Optimisation.Result[directions.size()];
+        try (SubSolves subSolves = solver.subSolves(request, started)) {
+            List<Future<Optimisation.Result>> futures = new ArrayList<>();
+            if (program != null) {
+                // One row caps the goal; the candidates share it and differ only in their objective.
+                LinearProgram limited = program.withRow("GoalLimit", coefficients, maximise ? -1 : 1, (r, c) -> limit, coefficients);
+                double[] rhs = limited.rightHandSide(request);
+                SolverEngine engine = solver.engineFor(limited);
+                for (double[] direction : directions) {
+                    futures.add(subSolves.submit(() -> subSolves.expired() ? null
+                            : engine.solve(limited.withObjective(direction), rhs, true, subSolves.remainingMillis())));
+                }
+            } else {
+                // Integer and packed ingredients: each candidate builds its own model, the goal bounded in place.
+                for (double[] direction : directions) {
+                    futures.add(subSolves.submit(() -> {
+                        if (subSolves.expired()) return null;
+                        ExpressionsBasedModel model = solver.buildModel(request, columns);
+                        Expression goal = model.getExpression(OBJECTIVE);
+                        goal.weight(0);
+                        if (maximise) goal.lower(limit);
+                        else goal.upper(limit);
+                        for (int i = 0; i < direction.length; i++) {
+                            if (direction[i] != 0) model.getVariable(i).weight(direction[i]);
+                        }
+                        DessertSolver.withTimeLimit(model.options, subSolves.remainingMillis());
+                        DessertSolver.withMipLimits(model.options, request.mip);
+                        return model.maximise();
+                    }));
+                }
+            }
+            for (int k = 0; k < results.length; k++) {
+                results[k] = futures.get(k).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Alternatives interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Alternative solve failed", e.getCause());
+        }
+
+        return pick(request, columns, optimum, coefficients, best, results);
+    }
+
+    private static double[] goalCoefficients(ExpressionsBasedModel model) {
+        Expression goal = model.getExpression(OBJECTIVE);
+        double[] coefficients = new double[model.getVariables().size()];
+        for (int i = 0; i < coefficients.length; i++) {
+            BigDecimal coefficient = goal.get(model.getVariable(i));
+            coefficients[i] = coefficient == null ? 0 : coefficient.doubleValue();
+        }
+        return coefficients;
+    }
+
+    /**
+     * Weights to maximise, one array per candidate: all used ingredients down, each used one down, then unused
+     * ones up in the order they would cost the goal the least.
+     */
+    private static List<double[]> directions(double[] optimum, double[] coefficients, boolean maximise, int limit) {
+        int n = optimum.length;
+        List<double[]> directions = new ArrayList<>();
+        double[] away = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (optimum[i] > EPSILON) away[i] = -1;
+        }
+        directions.add(away);
+        for (int i = 0; i < n && directions.size() < limit; i++) {
+            if (optimum[i] > EPSILON) directions.add(unit(n, i, -1));
+        }
+        Comparator<Integer> cheapest = Comparator.comparingDouble(i -> maximise ? -coefficients[i] : coefficients[i]);
+        IntStream.range(0, n).filter(i -> optimum[i] <= EPSILON).boxed().sorted(cheapest)
+                .limit(Math.max(0, limit - directions.size()))
+                .forEach(i -> directions.add(unit(n, i, 1)));
+        return directions;
+    }
+
+    /**
+     * Best goal first, skipping recipes closer than the minimum distance to the optimum or to one already taken.
+     */
+    private static List<AlternativeDTO> pick(DessertRequestDTO request, AttributeColumns columns, double[] optimum,
+                                             double[] coefficients, double best, Optimisation.Result[] results) {
+        DessertRequestDTO.AlternativesOptions options = request.alternatives;
+        double sense = LinearProgram.maximises(request) ? -1 : 1;
+        List<Candidate> found = new ArrayList<>();
+        for (Optimisation.Result result : results) {
+            // A candidate past the deadline, or an unbounded direction, has no recipe to offer.
+            if (result == null || !result.getState().isFeasible() || result.getState() == Optimisation.State.UNBOUNDED) continue;
+            double[] quantities = DessertSolver.quantities(result, optimum.length);
+            found.add(new Candidate(result, quantities, dot(coefficients, quantities)));
+        }
+        found.sort(Comparator.comparingDouble(candidate -> sense * candidate.goal));
+
+        double minDistance = Math.max(options.minDistance, EPSILON);
+        List<double[]> taken = new ArrayList<>(List.of(optimum));
+        List<AlternativeDTO> alternatives = new ArrayList<>();
+        for (Candidate candidate : found) {
+            if (alternatives.size() == options.count) break;
+            if (taken.stream().anyMatch(other -> distance(candidate.quantities, other) < minDistance)) continue;
+            taken.add(candidate.quantities);
+            alternatives.add(alternative(request, columns, candidate, best, optimum));
+        }
+        return alternatives;
+    }
+
+    private static AlternativeDTO alternative(DessertRequestDTO request, AttributeColumns columns, Candidate candidate,
+                                              double best, double[] optimum) {
+        DessertResultDTO recipe = DessertSolver.buildResult(candidate.result, request.ingredients, columns, request.sparse);
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.ingredientsQuantities = recipe.ingredientsQuantities;
+        alternative.price = recipe.price;
+        alternative.totalWeight = recipe.totalWeight;
+        alternative.totalCalories = recipe.totalCalories;
+        alternative.totals = recipe.totals;
+        alternative.goal = candidate.goal;
+        double loss = LinearProgram.maximises(request) ? best - alternative.goal : alternative.goal - best;
+        alternative.goalLoss = Math.max(0, loss) / Math.max(Math.abs(best), EPSILON);
+        alternative.distance = distance(candidate.quantities, optimum);
+        return alternative;
+    }
+
+    private record Candidate(Optimisation.Result result, double[] quantities, double goal) {
+    }
+
+    private static double[] unit(int n, int i, double value) {
+        double[] direction = new double[n];
+        direction[i] = value;
+        return direction;
+    }
+
+    private static double dot(double[] coefficients, double[] quantities) {
+        double sum = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            sum += coefficients[i] * quantities[i];
+        }
+        return sum;
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += Math.abs(a[i] - b[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,153 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.IngredientDTO;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Per-unit ingredient attributes of one request, transposed into one {@code double[]} per attribute.
+ * <p>
+ * {@code price} and {@code calories} are always present; every other attribute is named by the ingredients'
+ * {@code attributes} maps, case-insensitively, and is 0 for ingredients that do not list it. Catalog ingredients
+ * are read straight from the catalog's columns, and only the columns a model uses are copied into arrays.
+ * <p>
+ * Ingredient names must be present and unique ignoring case, as in a catalog: results and cached solutions are
+ * matched up by folded name.
+ */
+final class AttributeColumns {
+
+    /**
+     * Names that cannot be used for other attributes: the fixed ingredient fields and the quantity itself.
+     */
+    static final Set<String> RESERVED = Set.of(
+            IngredientCatalog.PRICE, IngredientCatalog.CALORIES, "weight", "integer", "packsize", "minquantity", "maxquantity");
+
+    private final int size;
+    private final Map<String, double[]> columns;              // Folded attribute name -> value per ingredient
+    private final Map<String, IntToDoubleFunction> sources;   // Catalog columns by folded name, in order; null for DTOs
+
+    private AttributeColumns(int size, Map<String, double[]> columns, Map<String, IntToDoubleFunction> sources) {
+        this.size = size;
+        this.columns = columns;
+        this.sources = sources;
+    }
+
+    static AttributeColumns of(List<IngredientDTO> ingredients) {
+        int size = ingredients.size();
+        if (ingredients instanceof IngredientList catalogIngredients) {
+            // Catalog columns stay where they are, mapped or on the heap; only the ones a model reads are copied.
+            Map<String, IntToDoubleFunction> sources = new LinkedHashMap<>();
+            sources.put(IngredientCatalog.PRICE, orZero(catalogIngredients.column(IngredientCatalog.PRICE)));
+            sources.put(IngredientCatalog.CALORIES, orZero(catalogIngredients.column(IngredientCatalog.CALORIES)));
+            for (String attribute : catalogIngredients.attributes()) {
+                sources.put(attribute, orZero(catalogIngredients.column(attribute)));
+            }
+            return new AttributeColumns(size, new ConcurrentHashMap<>(), sources);
+        }
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        double[] price = new double[size];
+        double[] calories = new double[size];
+        columns.put(IngredientCatalog.PRICE, price);
+        columns.put(IngredientCatalog.CALORIES, calories);
+        Set<String> names = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            IngredientDTO ingredient = ingredients.get(i);
+            if (ingredient == null || ingredient.name == null || ingredient.name.isEmpty()) {
+                throw new IllegalArgumentException("Ingredient " + i + " has no name");
+            }
+            if (!names.add(RequestFingerprint.fold(ingredient.name))) {
+                throw new IllegalArgumentException("Duplicate ingredient " + ingredient.name);
+            }
+            price[i] = ingredient.price;
+            calories[i] = ingredient.calories;
+            if (ingredient.attributes == null) continue;
+            for (Map.Entry<String, Double> attribute : ingredient.attributes.entrySet()) {
+                if (attribute.getValue() == null) continue;
+                String name = attributeName(attribute.getKey());
+                columns.computeIfAbsent(name, k -> new double[size])[i] = attribute.getValue();
+            }
+        }
+        return new AttributeColumns(size, columns, null);
+    }
+
+    /**
+     * Folded name of a user attribute; reserved and blank names are rejected.
+     */
+    static String attributeName(String name) {
+        String folded = RequestFingerprint.fold(name).strip();
+        if (folded.isEmpty() || RESERVED.contains(folded)) {
+            throw new IllegalArgumentException("Invalid ingredient attribute name: '" + name + "'");
+        }
+        return folded;
+    }
+
+    /**
+     * The attribute's value per ingredient ignoring case, or null when no ingredient has it.
+     * The array is shared and must not be modified. A catalog column is copied on its first use.
+     */
+    double[] column(String attribute) {
+        String name = RequestFingerprint.fold(attribute);
+        if (sources == null) return columns.get(name);
+        IntToDoubleFunction source = sources.get(name);
+        return source == null ? null : columns.computeIfAbsent(name, k -> read(source, size));
+    }
+
+    double[] price() {
+        return column(IngredientCatalog.PRICE);
+    }
+
+    double[] calories() {
+        return column(IngredientCatalog.CALORIES);
+    }
+
+    /**
+     * Totals of every attribute for the given quantities, in attribute order; one dot product per column over the
+     * ingredients in the mix. Catalog columns no model read are summed in place rather than copied.
+     */
+    Map<String, Double> totals(double[] quantities) {
+        Map<String, Double> totals = new LinkedHashMap<>((sources == null ? columns : sources).size() * 2);
+        if (sources == null) {
+            for (Map.Entry<String, double[]> column : columns.entrySet()) {
+                totals.put(column.getKey(), total(quantities, column.getValue()));
+            }
+            return totals;
+        }
+        for (Map.Entry<String, IntToDoubleFunction> source : sources.entrySet()) {
+            double[] values = columns.get(source.getKey());
+            totals.put(source.getKey(), values != null ? total(quantities, values) : total(quantities, source.getValue()));
+        }
+        return totals;
+    }
+
+    private double total(double[] quantities, double[] values) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += quantities[i] * values[i];
+        }
+        return total;
+    }
+
+    private double total(double[] quantities, IntToDoubleFunction values) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            if (quantities[i] != 0) total += quantities[i] * values.applyAsDouble(i);
+        }
+        return total;
+    }
+
+    private static IntToDoubleFunction orZero(IntToDoubleFunction column) {
+        return column == null ? i -> 0 : column;
+    }
+
+    private static double[] read(IntToDoubleFunction column, int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) values[i] = column.applyAsDouble(i);
+        return values;
+    }
+}
@@ -0,0 +1,217 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.BatchResultDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Solves a stream of dessert requests concurrently and writes one NDJSON line per result
+ * as soon as it is available. At most {@code parallelism} requests are held in memory at a time,
+ * and each solve goes through {@link SolveAdmission} like a single request does; an item rejected
+ * there is reported inline. The first failed write cancels the rest of the batch.
+ */
+@Service
+public class BatchSolver {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final DessertSolver solver;
+    private final SolutionCache solutionCache;
+    private final CatalogRegistry catalogs;
+    private final SolveAdmission admission;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final int parallelism;
+
+    public BatchSolver(DessertSolver solver,
+                       SolutionCache solutionCache,
+                       CatalogRegistry catalogs,
+                       SolveAdmission admission,
+                       ObjectMapper objectMapper,
+                       @Value("${dessert.batch.parallelism:0}") int parallelism) {
+        this.solver = solver;
+        this.solutionCache = solutionCache;
+        this.catalogs = catalogs;
+        this.admission = admission;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(BatchResultDTO.class);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Read requests from {@code in} (a JSON array, or NDJSON when {@code ndjson} is set)
+     * and stream tagged results to {@code out} in completion order.
+     *
+     * @throws IOException if the input is malformed or a result could not be written
+     */
+    public void solve(InputStream in, boolean ndjson, OutputStream out) throws IOException {
+        Batch batch;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            batch = new Batch(executor, out);
+            if (ndjson) {
+                readLines(in, batch);
+            } else {
+                readArray(in, batch);
+            }
+        }
+        IOException failure = batch.failure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void readLines(InputStream in, Batch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while (!batch.failed() && (line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            batch.submit(index++, line);
+        }
+    }
+
+    private void readArray(InputStream in, Batch batch) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Batch body must be a JSON array of requests");
+            }
+            int index = 0;
+            while (!batch.failed() && parser.nextToken() != JsonToken.END_ARRAY) {
+                // Read each element as a tree so that a binding error only affects that element.
+                JsonNode node = parser.readValueAsTree();
+                batch.submit(index++, node);
+            }
+        }
+    }
+
+    /**
+     * State of one {@link #solve} call: the output it writes to and the solves still in flight.
+     */
+    private final class Batch {
+
+        private final ExecutorService executor;
+        private final OutputStream out;
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final Set<CompletableFuture<DessertResultDTO>> pending = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+        Batch(ExecutorService executor, OutputStream out) {
+            this.executor = executor;
+            this.out = out;
+        }
+
+        boolean failed() {
+            return failure.get() != null;
+        }
+
+        void submit(int index, Object source) {
+            permits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        BatchResultDTO result = solveOne(index, source);
+                        if (result != null) {
+                            write(result);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The batch was cancelled between the check in the read loop and here.
+                permits.release();
+            }
+        }
+
+        /**
+         * Solve one element, or return {@code null} if the batch was cancelled while it waited.
+         */
+        private BatchResultDTO solveOne(int index, Object source) {
+            BatchResultDTO output = new BatchResultDTO();
+            output.index = index;
+            try {
+                DessertRequestDTO request = source instanceof JsonNode node
+                        ? objectMapper.treeToValue(node, DessertRequestDTO.class)
+                        : objectMapper.readValue((String) source, DessertRequestDTO.class);
+                CompletableFuture<DessertResultDTO> future =
+                        admission.submit(catalogs.resolve(request), r -> solutionCache.getOrSolve(r, solver::solve));
+                pending.add(future);
+                if (failed()) {
+                    future.cancel(true);
+                }
+                try {
+                    output.result = future.get();
+                } finally {
+                    pending.remove(future);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (CancellationException e) {
+                return null;
+            } catch (ExecutionException e) {
+                output.error = describe(e.getCause());
+            } catch (Exception e) {
+                output.error = describe(e);
+            }
+            return output;
+        }
+
+        private void write(BatchResultDTO result) {
+            if (failed()) return;
+            try {
+                byte[] line = resultWriter.writeValueAsBytes(result);
+                writeLock.lock();
+                try {
+                    out.write(line);
+                    out.write(NEWLINE);
+                    out.flush();
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (IOException e) {
+                if (failure.compareAndSet(null, e)) {
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Drop queued solves and stop the workers still waiting on one; solves already running finish on their own.
+         */
+        private void cancel() {
+            pending.forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(Throwable e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+}
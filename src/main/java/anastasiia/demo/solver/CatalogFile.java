@@ -0,0 +1,260 @@
+package anastasiia.demo.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Columnar catalog file ({@code .dcat}), memory-mapped when opened so that nothing is parsed up front and
+ * the columns stay off the heap.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ * header     "DCAT", int format, long version, int rows, int columns, int indexCapacity, int reserved
+ * directory  per column: short length and the UTF-8 attribute name; padded to 8 bytes
+ * columns    one block of rows doubles per attribute, in directory order
+ * names      int[rows + 1] offsets into the UTF-8 name blob that follows it; padded to 8 bytes
+ * index      int[indexCapacity], row + 1 or 0 when empty; linear probing from the mixed hashCode of the
+ *            case-folded name
+ * </pre>
+ * Files are written to a temporary file and moved into place, so a mapped file is never modified.
+ */
+final class CatalogFile {
+
+    static final String EXTENSION = ".dcat";
+
+    private static final int MAGIC = 0x54414344; // "DCAT"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private CatalogFile() {
+    }
+
+    /**
+     * Write a catalog; every column must have one value per name.
+     */
+    static void write(Path path, long version, List<String> names, Map<String, double[]> columns) throws IOException {
+        int rows = names.size();
+        int capacity = Integer.highestOneBit(Math.max(2, rows) * 2 - 1) << 1;
+        int[] index = new int[capacity];
+        byte[][] encoded = new byte[rows][];
+        for (int row = 0; row < rows; row++) {
+            encoded[row] = names.get(row).getBytes(StandardCharsets.UTF_8);
+            int slot = slot(names.get(row), capacity);
+            while (index[slot] != 0) slot = (slot + 1) & (capacity - 1);
+            index[slot] = row + 1;
+        }
+
+        Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC).putInt(FORMAT).putLong(version).putInt(rows).putInt(columns.size()).putInt(capacity).putInt(0);
+            for (String attribute : columns.keySet()) {
+                byte[] name = attribute.getBytes(StandardCharsets.UTF_8);
+                out.putShort((short) name.length).put(name);
+            }
+            out.align();
+            for (Map.Entry<String, double[]> column : columns.entrySet()) {
+                if (column.getValue().length != rows) {
+                    throw new IllegalArgumentException("Column " + column.getKey() + " has " + column.getValue().length + " values for " + rows + " rows");
+                }
+                for (double value : column.getValue()) out.putDouble(value);
+            }
+            int offset = 0;
+            out.putInt(0);
+            for (byte[] name : encoded) out.putInt(offset += name.length);
+            for (byte[] name : encoded) out.put(name);
+            out.align();
+            for (int slot : index) out.putInt(slot);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a catalog file; only the header and the column directory are read.
+     */
+    static Mapped open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) throw new IOException(path + " is not a catalog file");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, 1 << 16)).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT) throw new IOException(path + " is not a catalog file");
+            long version = header.getLong();
+            int rows = header.getInt();
+            int columnCount = header.getInt();
+            int capacity = header.getInt();
+            header.getInt();
+
+            List<String> attributes = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                byte[] name = new byte[header.getShort()];
+                header.get(name);
+                attributes.add(new String(name, StandardCharsets.UTF_8));
+            }
+            long position = align(header.position());
+
+            Map<String, DoubleBuffer> columns = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                columns.put(attribute, map(channel, position, 8L * rows).asDoubleBuffer());
+                position += 8L * rows;
+            }
+            IntBuffer offsets = map(channel, position, 4L * (rows + 1)).asIntBuffer();
+            position += 4L * (rows + 1);
+            int blobBytes = offsets.get(rows);
+            ByteBuffer blob = map(channel, position, blobBytes);
+            position = align(position + blobBytes);
+            IntBuffer index = map(channel, position, 4L * capacity).asIntBuffer();
+            if (position + 4L * capacity != fileSize) throw new IOException(path + " is truncated or corrupt");
+            return new Mapped(version, rows, columns, offsets, blob, index, capacity);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static int slot(String name, int capacity) {
+        int h = RequestFingerprint.fold(name).hashCode();
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+
+    /**
+     * A mapped catalog file. Mappings stay valid after the channel is closed and are released by the GC.
+     */
+    static final class Mapped implements CatalogStorage {
+
+        final long version;
+        private final int rows;
+        private final Map<String, DoubleBuffer> columns;
+        private final IntBuffer offsets;
+        private final ByteBuffer blob;
+        private final IntBuffer index;
+        private final int capacity;
+
+        private Mapped(long version, int rows, Map<String, DoubleBuffer> columns, IntBuffer offsets, ByteBuffer blob,
+                       IntBuffer index, int capacity) {
+            this.version = version;
+            this.rows = rows;
+            this.columns = columns;
+            this.offsets = offsets;
+            this.blob = blob;
+            this.index = index;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public int size() {
+            return rows;
+        }
+
+        @Override
+        public String name(int row) {
+            int start = offsets.get(row);
+            byte[] bytes = new byte[offsets.get(row + 1) - start];
+            blob.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int indexOf(String name) {
+            if (name == null) return -1;
+            for (int slot = slot(name, capacity); ; slot = (slot + 1) & (capacity - 1)) {
+                int entry = index.get(slot);
+                if (entry == 0) return -1;
+                if (name(entry - 1).equalsIgnoreCase(name)) return entry - 1;
+            }
+        }
+
+        @Override
+        public IntToDoubleFunction column(String attribute) {
+            DoubleBuffer values = columns.get(attribute);
+            return values == null ? null : values::get;
+        }
+
+        @Override
+        public List<String> attributes() {
+            return List.copyOf(columns.keySet());
+        }
+    }
+
+    /**
+     * Buffered little-endian writes to a channel.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        Output putShort(short value) throws IOException {
+            room(2).putShort(value);
+            return this;
+        }
+
+        Output putInt(int value) throws IOException {
+            room(4).putInt(value);
+            return this;
+        }
+
+        Output putLong(long value) throws IOException {
+            room(8).putLong(value);
+            return this;
+        }
+
+        Output putDouble(double value) throws IOException {
+            room(8).putDouble(value);
+            return this;
+        }
+
+        Output put(byte[] bytes) throws IOException {
+            for (int start = 0; start < bytes.length; ) {
+                int length = Math.min(bytes.length - start, buffer.capacity());
+                room(length).put(bytes, start, length);
+                start += length;
+            }
+            return this;
+        }
+
+        void align() throws IOException {
+            long position = written + buffer.position();
+            for (long pad = CatalogFile.align(position) - position; pad > 0; pad--) room(1).put((byte) 0);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) written += channel.write(buffer);
+            buffer.clear();
+        }
+
+        private ByteBuffer room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.CatalogInfoDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Ingredient catalogs registered once and referenced by id from requests.
+ * <p>
+ * Only the current version of each catalog is kept. A request that names an older version gets a
+ * {@link StaleCatalogException}; an unknown id gets a {@link NoSuchElementException}.
+ * <p>
+ * With {@code dessert.catalogs.directory} set, every {@code <id>.dcat} file in it is memory-mapped at startup
+ * and registered catalogs are written there, so they survive restarts and live off the heap.
+ */
+@Service
+public class CatalogRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRegistry.class);
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    private final Map<String, IngredientCatalog> catalogs = new ConcurrentHashMap<>();
+    private final int maxCatalogs;
+    private final Path directory; // null when catalogs are kept on the heap
+
+    public CatalogRegistry(@Value("${dessert.catalogs.max-catalogs:100}") int maxCatalogs,
+                           @Value("${dessert.catalogs.directory:}") String directory) {
+        this.maxCatalogs = maxCatalogs;
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        if (this.directory != null) {
+            mapDirectory();
+        }
+    }
+
+    /**
+     * Register or replace a catalog; replacing it bumps the version.
+     */
+    public synchronized CatalogInfoDTO put(String id, CatalogDTO catalog) {
+        if (id == null || !ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Catalog id must be 1-128 letters, digits, '.', '_' or '-'");
+        }
+        IngredientCatalog previous = catalogs.get(id);
+        if (previous == null && catalogs.size() >= maxCatalogs) {
+            throw new IllegalArgumentException("Catalog limit of " + maxCatalogs + " reached");
+        }
+        long version = previous == null ? 1 : previous.version + 1;
+        List<String> names = new ArrayList<>();
+        Map<String, double[]> columns = IngredientCatalog.columnsOf(id, catalog == null ? null : catalog.ingredients, names);
+        IngredientCatalog registered;
+        if (directory == null) {
+            registered = new IngredientCatalog(id, version, new HeapCatalogStorage(names, columns));
+        } else {
+            try {
+                Path file = directory.resolve(id + CatalogFile.EXTENSION);
+                CatalogFile.write(file, version, names, columns);
+                registered = new IngredientCatalog(id, version, CatalogFile.open(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not store catalog " + id, e);
+            }
+        }
+        catalogs.put(id, registered);
+        return info(registered);
+    }
+
+    public CatalogInfoDTO get(String id) {
+        return info(lookup(id));
+    }
+
+    public synchronized void delete(String id) {
+        if (catalogs.remove(id) == null) {
+            throw new NoSuchElementException("Unknown catalog: " + id);
+        }
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory.resolve(id + CatalogFile.EXTENSION));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete catalog " + id, e);
+            }
+        }
+    }
+
+    /**
+     * Fill the request's ingredients from its catalog reference and pin the reference to the version used.
+     * Requests without a reference are returned unchanged.
+     */
+    public DessertRequestDTO resolve(DessertRequestDTO request) {
+        DessertRequestDTO.CatalogRef ref = request.catalog;
+        if (ref == null) return request;
+        if (request.ingredients != null && !request.ingredients.isEmpty()) {
+            throw new IllegalArgumentException("Send either ingredients or a catalog reference, not both");
+        }
+        IngredientCatalog catalog = lookup(ref.id);
+        if (ref.version != 0 && ref.version != catalog.version) {
+            throw new StaleCatalogException("Catalog " + ref.id + " is at version " + catalog.version + ", not " + ref.version);
+        }
+        ref.version = catalog.version;
+        request.ingredients = ref.names == null ? catalog.all() : catalog.select(ref.names);
+        return request;
+    }
+
+    private IngredientCatalog lookup(String id) {
+        IngredientCatalog catalog = id == null ? null : catalogs.get(id);
+        if (catalog == null) {
+            throw new NoSuchElementException("Unknown catalog: " + id);
+        }
+        return catalog;
+    }
+
+    // A file that cannot be mapped is skipped, so one bad catalog does not keep the service down.
+    private void mapDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CatalogFile.EXTENSION)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String id = name.substring(0, name.length() - CatalogFile.EXTENSION.length());
+                    try {
+                        CatalogFile.Mapped storage = CatalogFile.open(file);
+                        catalogs.put(id, new IngredientCatalog(id, storage.version, storage));
+                        log.info("Mapped catalog {} v{}: {} ingredients, {} attributes", id, storage.version, storage.size(), storage.attributes().size());
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Skipping catalog file {}: {}", file, e.toString());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read catalog directory " + directory, e);
+        }
+    }
+
+    private static CatalogInfoDTO info(IngredientCatalog catalog) {
+        CatalogInfoDTO info = new CatalogInfoDTO();
+        info.id = catalog.id;
+        info.version = catalog.version;
+        info.size = catalog.size();
+        return info;
+    }
+}
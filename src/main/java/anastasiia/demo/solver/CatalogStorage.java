@@ -0,0 +1,27 @@
+package anastasiia.demo.solver;
+
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Storage behind an {@link IngredientCatalog}: ingredient names, a case-insensitive name index and one
+ * {@code double} column per attribute. Implementations are immutable and safe to share between threads.
+ */
+interface CatalogStorage {
+
+    int size();
+
+    String name(int row);
+
+    /**
+     * Row of the named ingredient ignoring case, or -1.
+     */
+    int indexOf(String name);
+
+    /**
+     * The attribute's column, or null when the catalog does not have it.
+     */
+    IntToDoubleFunction column(String attribute);
+
+    List<String> attributes();
+}
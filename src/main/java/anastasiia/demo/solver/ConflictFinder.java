@@ -0,0 +1,238 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.ConflictDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import org.ojalgo.optimisation.Optimisation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Finds a minimal set of request rules that cannot hold together (an irreducible infeasible subset): the block's
+ * MaxPrice, MaxCalories and TotalWeight, each custom constraint and the aesthetic rule. Ingredient quantity bounds
+ * are part of every sub-problem, never of the answer.
+ * <p>
+ * A deletion filter: each round drops every remaining rule on its own, in parallel. A rule whose removal makes the
+ * rest feasible belongs to the conflict; the others are dropped together when that stays infeasible, else the first
+ * of them alone, and the smaller set goes on to the next round. The request is assembled once with its quantity
+ * bounds as rows, and each sub-problem is that program without some rows, run through phase one only; its Farkas
+ * certificate narrows an infeasible set to the rows it needs, so most rules leave in the first solve. For integer
+ * and packed ingredients this program is the linear relaxation: its conflict is a conflict of the request too, and
+ * re-solving edited copies of the request then shrinks it to one that is minimal for the request itself. Those
+ * re-solves bypass the template cache and the solver metrics.
+ * <p>
+ * Sub-solves run through {@link SubSolves}: a bounded number at a time, all within what is left of the request's
+ * time limit. One that the deadline stops, or never lets start, keeps its rule and makes the answer non-minimal.
+ */
+final class ConflictFinder {
+
+    private final DessertSolver solver;
+    private final DessertRequestDTO request;
+    private final boolean discrete;
+    private final LinearProgram program;
+    private final long started;
+    private final AtomicInteger solves = new AtomicInteger();
+    private boolean minimal = true;
+
+    private ConflictFinder(DessertSolver solver, DessertRequestDTO request, AttributeColumns columns, long started) {
+        this.solver = solver.quiet();
+        this.started = started;
+        this.request = request;
+        this.discrete = DessertSolver.anyDiscrete(request.ingredients);
+        this.program = LinearProgramAssembler.relaxation(request, columns);
+    }
+
+    /**
+     * The conflict of an infeasible request that started at {@code started} ({@link System#nanoTime()}), or null when
+     * the sub-solves cannot confirm the infeasibility.
+     */
+    static ConflictDTO find(DessertSolver solver, DessertRequestDTO request, AttributeColumns columns, long started) {
+        long diagnosing = System.nanoTime();
+        ConflictFinder finder = new ConflictFinder(solver, request, columns, started);
+        ConflictDTO conflict = finder.find();
+        if (conflict != null) {
+            conflict.solves = finder.solves.get();
+            conflict.millis = (System.nanoTime() - diagnosing) / 1e6;
+        }
+        return conflict;
+    }
+
+    private ConflictDTO find() {
+        BitSet candidates = rules();
+        try (SubSolves subSolves = solver.subSolves(request, started)) {
+            Outcome full = program != null ? testProgram(subSolves, candidates) : null;
+            if (full != null && full.state == Optimisation.State.INFEASIBLE) {
+                candidates = filter(subSolves, full.needed, kept -> testProgram(subSolves, kept));
+            } else if (!discrete) {
+                return null;
+            }
+            if (discrete) {
+                // The relaxation's conflict, or else every rule, is infeasible for the request: re-solves finish it.
+                minimal = true;
+                candidates = filter(subSolves, candidates, kept -> testRequest(subSolves, kept));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Diagnosis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Diagnosis sub-solve failed", e.getCause());
+        }
+        return conflict(candidates);
+    }
+
+    /**
+     * Shrink an infeasible set of rules until leaving out any one of them makes the rest feasible.
+     */
+    private BitSet filter(SubSolves subSolves, BitSet infeasible, Function<BitSet, Outcome> test)
+            throws InterruptedException, ExecutionException {
+        BitSet candidates = infeasible;
+        BitSet necessary = new BitSet();
+        while (true) {
+            BitSet unknown = (BitSet) candidates.clone();
+            unknown.andNot(necessary);
+            if (unknown.isEmpty()) return candidates;
+
+            List<Integer> dropped = new ArrayList<>();
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int rule = unknown.nextSetBit(0); rule >= 0; rule = unknown.nextSetBit(rule + 1)) {
+                BitSet kept = (BitSet) candidates.clone();
+                kept.clear(rule);
+                dropped.add(rule);
+                futures.add(subSolves.submit(() -> test.apply(kept)));
+            }
+            Outcome shrunk = null;
+            BitSet droppable = new BitSet();
+            for (int k = 0; k < futures.size(); k++) {
+                Outcome outcome = futures.get(k).get();
+                if (outcome.state == Optimisation.State.INFEASIBLE) {
+                    if (shrunk == null) shrunk = outcome;
+                    droppable.set(dropped.get(k));
+                    continue;
+                }
+                // Without the rule the rest is feasible, so every infeasible subset needs it. No answer: keep it.
+                necessary.set(dropped.get(k));
+                if (outcome.state != Optimisation.State.FEASIBLE) minimal = false;
+            }
+            if (shrunk == null) return candidates;
+            if (droppable.cardinality() > 1) {
+                // Rules that are each droppable often all are: one more solve can save a round per rule.
+                BitSet rest = (BitSet) candidates.clone();
+                rest.andNot(droppable);
+                Outcome together = test.apply(rest);
+                if (together.state == Optimisation.State.INFEASIBLE) shrunk = together;
+            }
+            candidates = shrunk.needed;
+        }
+    }
+
+    /**
+     * Every rule the request sets.
+     */
+    private BitSet rules() {
+        BitSet rules = new BitSet();
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        if (block != null) {
+            if (block.maxPrice > 0) rules.set(LinearProgram.MAX_PRICE);
+            if (block.maxCalories > 0) rules.set(LinearProgram.MAX_CALORIES);
+            if (block.totalWeight > 0) rules.set(LinearProgram.TOTAL_WEIGHT);
+            if (block.constraints != null) {
+                rules.set(LinearProgram.FIRST_CUSTOM, LinearProgram.FIRST_CUSTOM + block.constraints.size());
+            }
+        }
+        // An aesthetic rule on an unknown ingredient, or without a percent or rule type, adds no row.
+        if (program != null && IntStream.of(program.rowRules).anyMatch(rule -> rule == LinearProgram.AESTHETIC)) {
+            rules.set(LinearProgram.AESTHETIC);
+        }
+        return rules;
+    }
+
+    /**
+     * Phase one of the program with only the kept rules; an infeasible outcome needs just the certificate's rules.
+     */
+    private Outcome testProgram(SubSolves subSolves, BitSet kept) {
+        if (subSolves.expired()) return new Outcome(Optimisation.State.FAILED, null);
+        solves.incrementAndGet();
+        LinearProgram sub = program.withRules(kept);
+        DenseSimplexEngine.Feasibility feasibility =
+                DenseSimplexEngine.feasibility(sub, sub.rightHandSide(request), subSolves.remainingMillis());
+        if (feasibility.state() != Optimisation.State.INFEASIBLE) return new Outcome(feasibility.state(), null);
+        BitSet needed = new BitSet();
+        for (int i = 0; i < sub.rowCount(); i++) {
+            if (feasibility.certificate()[i] && sub.rowRules[i] != LinearProgram.NO_RULE) needed.set(sub.rowRules[i]);
+        }
+        return new Outcome(Optimisation.State.INFEASIBLE, needed);
+    }
+
+    /**
+     * A full solve of the request with only the kept rules; an infeasible outcome needs all of them.
+     */
+    private Outcome testRequest(SubSolves subSolves, BitSet kept) {
+        if (subSolves.expired()) return new Outcome(Optimisation.State.FAILED, null);
+        solves.incrementAndGet();
+        DessertRequestDTO sub = withRules(kept);
+        sub.timeLimitMs = subSolves.remainingMillis();
+        return switch (solver.solve(sub).status) {
+            case "INFEASIBLE" -> new Outcome(Optimisation.State.INFEASIBLE, kept);
+            case "OPTIMAL", "DISTINCT", "FEASIBLE", "UNBOUNDED" -> new Outcome(Optimisation.State.FEASIBLE, null);
+            default -> new Outcome(Optimisation.State.FAILED, null);
+        };
+    }
+
+    /**
+     * Copy of the request without the rules that are not kept and without its reports; custom constraints keep
+     * their order.
+     */
+    private DessertRequestDTO withRules(BitSet kept) {
+        DessertRequestDTO copy = RequestEdits.copy(request);
+        copy.diagnose = false;
+        copy.sensitivity = false;
+        copy.alternatives = null;
+        copy.debug = false;
+        DessertRequestDTO.ConstraintsBlock block = copy.constraintsBlock;
+        if (!kept.get(LinearProgram.MAX_PRICE)) block.maxPrice = 0;
+        if (!kept.get(LinearProgram.MAX_CALORIES)) block.maxCalories = 0;
+        if (!kept.get(LinearProgram.TOTAL_WEIGHT)) block.totalWeight = 0;
+        if (!kept.get(LinearProgram.AESTHETIC)) copy.aestheticConstraint = null;
+        List<DessertRequestDTO.ConstraintDTO> constraints = new ArrayList<>();
+        for (int k = 0; k < block.constraints.size(); k++) {
+            if (kept.get(LinearProgram.FIRST_CUSTOM + k)) constraints.add(block.constraints.get(k));
+        }
+        block.constraints = constraints;
+        return copy;
+    }
+
+    private ConflictDTO conflict(BitSet rules) {
+        ConflictDTO conflict = new ConflictDTO();
+        conflict.constraints = new ArrayList<>();
+        conflict.customConstraints = new ArrayList<>();
+        conflict.minimal = minimal;
+        Map<DessertRequestDTO.ConstraintDTO, String> names =
+                LinearProgramAssembler.customRowNames(RequestFingerprint.canonicalConstraints(request.constraintsBlock));
+        for (int rule = rules.nextSetBit(0); rule >= 0; rule = rules.nextSetBit(rule + 1)) {
+            if (rule >= LinearProgram.FIRST_CUSTOM) {
+                int position = rule - LinearProgram.FIRST_CUSTOM;
+                DessertRequestDTO.ConstraintDTO constraint = request.constraintsBlock.constraints.get(position);
+                conflict.constraints.add(names.get(constraint));
+                conflict.customConstraints.add(position);
+                continue;
+            }
+            conflict.constraints.add(switch (rule) {
+                case LinearProgram.MAX_PRICE -> "MaxPrice";
+                case LinearProgram.MAX_CALORIES -> "MaxCalories";
+                case LinearProgram.TOTAL_WEIGHT -> "TotalWeight";
+                default -> "AestheticConstraint";
+            });
+        }
+        return conflict;
+    }
+
+    private record Outcome(Optimisation.State state, BitSet needed) {
+    }
+}
@@ -0,0 +1,464 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The left side of a custom constraint as a linear expression over ingredients, {@code weight} and attributes,
+ * e.g. {@code 2*cream + sugar <= 0.3*weight} or {@code calories/weight <= 2.5}.
+ * <p>
+ * A left side that names an ingredient, {@code weight} or an attribute keeps its plain meaning, and so does text
+ * without operators, which names nothing and leaves an empty row. Anything else is parsed once into
+ * {@code sum(coefficient * name) + constant OP 0} and cached by its text; a ratio is multiplied out by its
+ * denominator, which is taken as non-negative, so it needs its limit in the text. Compiling resolves the names into a
+ * sparse coefficient vector over the request's ingredients; for a whole registered catalog the vector is cached with
+ * the catalog version by text, so repeated requests neither parse nor resolve.
+ */
+final class ConstraintExpression {
+
+    private static final int PARSED_CACHE_SIZE = 1024;
+    static final int COMPILED_CACHE_SIZE = 128;    // Per catalog version
+
+    private static final Map<String, ConstraintExpression> PARSED = lru(PARSED_CACHE_SIZE);
+
+    private final String text;
+    private final String[] names;          // Folded ingredient, attribute or "weight" names
+    private final double[] coefficients;
+    private final double constant;
+    private final ConstraintOp op;         // Comparison in the text; null when there is none
+
+    private ConstraintExpression(String text, Linear form, ConstraintOp op) {
+        this.text = text;
+        this.names = form.terms.keySet().toArray(new String[0]);
+        this.coefficients = form.terms.values().stream().mapToDouble(Double::doubleValue).toArray();
+        this.constant = form.constant;
+        this.op = op;
+    }
+
+    /**
+     * The constraint's left side compiled against the ingredients, or null when it is a plain name or has no
+     * operators and keeps its plain meaning. Unknown names and non-linear expressions are rejected.
+     */
+    static Compiled compile(String left, List<IngredientDTO> ingredients, AttributeColumns columns) {
+        if (left == null || !hasOperator(left)) return null;
+        Map<String, Compiled> cache = ingredients instanceof IngredientList list ? list.expressions() : null;
+        if (cache != null) {
+            synchronized (cache) {
+                Compiled cached = cache.get(left);
+                if (cached != null) return cached;
+            }
+        }
+        if (indexOf(ingredients, left) != -1 || "weight".equalsIgnoreCase(left) || columns.column(left) != null) return null;
+
+        Compiled compiled = parse(left).resolve(ingredients, columns);
+        if (cache != null) {
+            synchronized (cache) {
+                cache.put(left, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Whether the text carries its own comparison, so the constraint needs no {@code op}.
+     */
+    static boolean hasComparison(String left) {
+        return left != null && (left.indexOf('<') >= 0 || left.indexOf('>') >= 0 || left.indexOf('=') >= 0);
+    }
+
+    /**
+     * The text with every name in it replaced by what {@code rename} maps it to, unless that is null; numbers,
+     * operators and spacing are kept. The result must name things the way the text did to compute the same.
+     */
+    static String renameNames(String text, UnaryOperator<String> rename) {
+        return new Parser(text).rename(rename);
+    }
+
+    static ConstraintExpression parse(String text) {
+        synchronized (PARSED) {
+            ConstraintExpression cached = PARSED.get(text);
+            if (cached != null) return cached;
+        }
+        ConstraintExpression parsed = new Parser(text).parse();
+        synchronized (PARSED) {
+            PARSED.put(text, parsed);
+        }
+        return parsed;
+    }
+
+    private Compiled resolve(List<IngredientDTO> ingredients, AttributeColumns columns) {
+        int n = ingredients.size();
+        int[] index = new int[names.length];
+        double[][] dense = new double[names.length][];
+        boolean sparse = true;
+        for (int t = 0; t < names.length; t++) {
+            index[t] = indexOf(ingredients, names[t]);
+            if (index[t] != -1) continue;
+            if ("weight".equals(names[t])) {
+                dense[t] = new double[n];
+                Arrays.fill(dense[t], 1.0);
+            } else {
+                dense[t] = columns.column(names[t]);
+            }
+            if (dense[t] == null) {
+                throw new IllegalArgumentException("Unknown name '" + names[t] + "' in constraint expression '" + text + "'");
+            }
+            sparse = false;
+        }
+
+        double[] values = new double[sparse ? names.length : n];
+        int[] positions = new int[values.length];
+        int size = 0;
+        if (sparse) {
+            for (int t = 0; t < names.length; t++) {
+                int at = 0;
+                while (at < size && positions[at] != index[t]) at++;
+                if (at == size) positions[size++] = index[t];
+                values[at] += coefficients[t];
+            }
+        } else {
+            for (int t = 0; t < names.length; t++) {
+                if (dense[t] == null) {
+                    values[index[t]] += coefficients[t];
+                    continue;
+                }
+                for (int i = 0; i < n; i++) values[i] += coefficients[t] * dense[t][i];
+            }
+            for (int i = 0; i < n; i++) positions[i] = i;
+            size = n;
+        }
+
+        int kept = 0;
+        for (int j = 0; j < size; j++) {
+            if (values[j] == 0) continue;
+            positions[kept] = positions[j];
+            values[kept++] = values[j];
+        }
+        return new Compiled(text, Arrays.copyOf(positions, kept), Arrays.copyOf(values, kept), op, -constant);
+    }
+
+    /**
+     * Whether the text has operator characters, so it is an expression unless it names something outright.
+     */
+    static boolean hasOperator(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if ("+-*/<>=()".indexOf(text.charAt(i)) >= 0) return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(List<IngredientDTO> ingredients, String name) {
+        if (ingredients instanceof IngredientList catalogIngredients) {
+            return catalogIngredients.positionOf(name);
+        }
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (name.equalsIgnoreCase(ingredients.get(i).name)) return i;
+        }
+        return -1;
+    }
+
+    static <V> Map<String, V> lru(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * A left side resolved against one ingredient list: {@code sum(value[j] * x[index[j]]) OP right + offset}.
+     * Shared between requests and must not be modified.
+     */
+    static final class Compiled {
+        final int[] index;                 // Ingredient positions with a non-zero coefficient
+        final double[] value;
+        final double offset;               // Constant moved to the right-hand side
+        private final String text;
+        private final ConstraintOp op;
+
+        private Compiled(String text, int[] index, double[] value, ConstraintOp op, double offset) {
+            this.text = text;
+            this.index = index;
+            this.value = value;
+            this.op = op;
+            this.offset = offset;
+        }
+
+        /**
+         * The text's comparison, else the constraint's {@code op}; both may be given when they agree.
+         */
+        ConstraintOp op(DessertRequestDTO.ConstraintDTO constraint) {
+            if (op == null && constraint.op == null) {
+                throw new IllegalArgumentException("Constraint '" + text + "' needs an op or a comparison");
+            }
+            if (op != null && constraint.op != null && op != constraint.op) {
+                throw new IllegalArgumentException("Constraint '" + text + "' compares with " + op + " but its op is " + constraint.op);
+            }
+            return op != null ? op : constraint.op;
+        }
+
+        double right(DessertRequestDTO.ConstraintDTO constraint) {
+            return constraint.right + offset;
+        }
+
+        double tolerance(DessertRequestDTO.ConstraintDTO constraint) {
+            return constraint.allowDeviation ? right(constraint) * 0.10 : 0;
+        }
+    }
+
+    /**
+     * {@code sum(terms) + constant}, names folded.
+     */
+    private static final class Linear {
+        final Map<String, Double> terms = new LinkedHashMap<>();
+        double constant;
+
+        static Linear of(double constant) {
+            Linear linear = new Linear();
+            linear.constant = constant;
+            return linear;
+        }
+
+        boolean isConstant() {
+            return terms.isEmpty();
+        }
+
+        Linear plus(Linear other, double factor) {
+            Linear sum = times(1);
+            other.terms.forEach((name, coefficient) -> sum.terms.merge(name, factor * coefficient, Double::sum));
+            sum.constant += factor * other.constant;
+            return sum;
+        }
+
+        Linear times(double factor) {
+            Linear product = of(constant * factor);
+            terms.forEach((name, coefficient) -> product.terms.put(name, coefficient * factor));
+            return product;
+        }
+    }
+
+    /**
+     * A parsed operand: a linear form, or a ratio of two when {@code denominator} is set.
+     */
+    private record Side(Linear numerator, Linear denominator) {
+        Side(Linear linear) {
+            this(linear, null);
+        }
+    }
+
+    /**
+     * Recursive descent over {@code sum [comparison sum]}, with {@code + - * /}, unary signs, parentheses, numbers,
+     * names and quoted names for names with spaces.
+     */
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        ConstraintExpression parse() {
+            Side left = sum();
+            ConstraintOp op = comparison();
+            Linear form;
+            if (op == null) {
+                if (left.denominator() != null) throw error("a ratio needs its limit in the expression, e.g. calories/weight <= 2.5");
+                form = left.numerator();
+            } else {
+                form = normalise(left, sum());
+            }
+            skipSpaces();
+            if (pos < text.length()) throw error("unexpected '" + text.charAt(pos) + "'");
+            return new ConstraintExpression(text, form, op);
+        }
+
+        // left OP right as one linear form compared with 0; a ratio is multiplied out by its denominator.
+        private Linear normalise(Side left, Side right) {
+            if (left.denominator() != null && right.denominator() != null) throw error("only one side can be a ratio");
+            if (left.denominator() != null) {
+                if (!right.numerator().isConstant()) throw error("a ratio can only be compared with a number");
+                return left.numerator().plus(left.denominator(), -right.numerator().constant);
+            }
+            if (right.denominator() != null) {
+                if (!left.numerator().isConstant()) throw error("a ratio can only be compared with a number");
+                return right.denominator().times(left.numerator().constant).plus(right.numerator(), -1);
+            }
+            return left.numerator().plus(right.numerator(), -1);
+        }
+
+        private ConstraintOp comparison() {
+            skipSpaces();
+            if (accept("<=")) return ConstraintOp.LESS_THAN_OR_EQUAL;
+            if (accept(">=")) return ConstraintOp.GREATER_THAN_OR_EQUAL;
+            if (accept("==") || accept("=")) return ConstraintOp.EQUALS;
+            if (accept("<")) return ConstraintOp.LESS_THAN;
+            if (accept(">")) return ConstraintOp.GREATER_THAN;
+            return null;
+        }
+
+        private Side sum() {
+            Side result = product();
+            while (true) {
+                skipSpaces();
+                double sign;
+                if (accept("+")) sign = 1;
+                else if (accept("-")) sign = -1;
+                else return result;
+                Side term = product();
+                if (result.denominator() != null || term.denominator() != null) throw error("a ratio must be a whole side of the comparison");
+                result = new Side(result.numerator().plus(term.numerator(), sign));
+            }
+        }
+
+        private Side product() {
+            Side result = unary();
+            while (true) {
+                skipSpaces();
+                if (accept("*")) {
+                    result = multiply(result, unary());
+                } else if (accept("/")) {
+                    result = divide(result, unary());
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        private Side multiply(Side a, Side b) {
+            if (a.denominator() == null && a.numerator().isConstant()) return scale(b, a.numerator().constant);
+            if (b.denominator() == null && b.numerator().isConstant()) return scale(a, b.numerator().constant);
+            throw error("only products with a number are linear");
+        }
+
+        private Side divide(Side a, Side b) {
+            if (b.denominator() != null) throw error("cannot divide by a ratio");
+            Linear divisor = b.numerator();
+            if (divisor.isConstant()) {
+                if (divisor.constant == 0) throw error("division by zero");
+                return scale(a, 1 / divisor.constant);
+            }
+            if (a.denominator() != null) throw error("cannot divide a ratio again");
+            if (divisor.constant < 0 || divisor.terms.values().stream().anyMatch(c -> c < 0)) {
+                throw error("the denominator of a ratio cannot have negative coefficients");
+            }
+            return new Side(a.numerator(), divisor);
+        }
+
+        private static Side scale(Side side, double factor) {
+            return new Side(side.numerator().times(factor), side.denominator());
+        }
+
+        private Side unary() {
+            skipSpaces();
+            if (accept("-")) return scale(unary(), -1);
+            if (accept("+")) return unary();
+            return primary();
+        }
+
+        private Side primary() {
+            skipSpaces();
+            if (pos == text.length()) throw error("unexpected end");
+            char c = text.charAt(pos);
+            if (accept("(")) {
+                Side inner = sum();
+                skipSpaces();
+                if (!accept(")")) throw error("missing ')'");
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') return new Side(Linear.of(number()));
+            if (startsName(c)) return term(name());
+            throw error("unexpected '" + c + "'");
+        }
+
+        /**
+         * The text with each name replaced, everything else as written; a name {@code rename} maps to null stays too.
+         */
+        String rename(UnaryOperator<String> rename) {
+            StringBuilder renamed = new StringBuilder(text.length());
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                int start = pos;
+                if (Character.isDigit(c) || c == '.') {
+                    number();
+                    renamed.append(text, start, pos);
+                } else if (startsName(c)) {
+                    String replacement = rename.apply(name());
+                    renamed.append(replacement != null ? replacement : text.substring(start, pos));
+                } else {
+                    renamed.append(c);
+                    pos++;
+                }
+            }
+            return renamed.toString();
+        }
+
+        private static boolean startsName(char c) {
+            return c == '\'' || c == '"' || Character.isLetter(c) || c == '_';
+        }
+
+        // A quoted name without its quotes, or a bare one.
+        private String name() {
+            char c = text.charAt(pos);
+            if (c == '\'' || c == '"') {
+                int end = text.indexOf(c, pos + 1);
+                if (end < 0) throw error("unclosed quote");
+                String name = text.substring(pos + 1, end);
+                pos = end + 1;
+                return name;
+            }
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) pos++;
+            return text.substring(start, pos);
+        }
+
+        private Side term(String name) {
+            String folded = RequestFingerprint.fold(name).strip();
+            if (folded.isEmpty()) throw error("empty name");
+            Linear linear = new Linear();
+            linear.terms.put(folded, 1.0);
+            return new Side(linear);
+        }
+
+        private double number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) pos++;
+            if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                int mark = pos++;
+                if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) pos++;
+                if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+                } else {
+                    pos = mark;
+                }
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("invalid number '" + text.substring(start, pos) + "'");
+            }
+        }
+
+        private boolean accept(String token) {
+            if (!text.startsWith(token, pos)) return false;
+            pos += token.length();
+            return true;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("Invalid constraint expression '" + text + "': " + reason);
+        }
+    }
+}
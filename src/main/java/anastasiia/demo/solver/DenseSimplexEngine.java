@@ -0,0 +1,430 @@
+package anastasiia.demo.solver;
+
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.type.context.NumberContext;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-phase primal simplex on a dense tableau, for programs with a handful of ingredients and rows.
+ * <p>
+ * At that size setting up ojAlgo's solver costs more than the pivots. The tableau, basis and costs live in
+ * a workspace that only grows, borrowed for each solve from a small pool shared by all threads: virtual threads
+ * (sweeps, diagnoses, alternatives) are new for every task, so workspaces kept per thread would be allocated afresh
+ * on each of their solves. Once the pool holds workspaces large enough, a solve allocates nothing but the returned
+ * solution. A workspace grown past {@link #RETAINED_CELLS} by a large program, such as a sensitivity request, is
+ * dropped after that solve instead of going back to the pool. Rows whose slack can start in the basis get no
+ * artificial column.
+ * Pivots follow Dantzig's rule and switch to Bland's rule after a run of degenerate pivots, so the method
+ * cannot cycle.
+ * <p>
+ * {@link #analyse} also reads dual values, reduced costs and ranging off the final tableau.
+ */
+final class DenseSimplexEngine implements SolverEngine {
+
+    private static final double PIVOT_TOLERANCE = 1e-9;
+    private static final double FEASIBILITY_TOLERANCE = 1e-9;
+    private static final int DEGENERATE_PIVOTS_BEFORE_BLAND = 50;
+    // The expression-based model reports quantities in this context, so both paths print 0.9 rather than 0.8999999999999999.
+    private static final NumberContext SOLUTION = new Optimisation.Options().solution;
+
+    // Largest tableau the pool keeps between solves, 512 KB; far above what AUTO sends here, far below sensitivity's 8 MB.
+    private static final int RETAINED_CELLS = 1 << 16;
+
+    // Idle workspaces; one per solve running at once is enough, and a full pool drops what is handed back.
+    private static final ArrayBlockingQueue<Workspace> POOL =
+            new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    @Override
+    public Optimisation.Result solve(LinearProgram program, double[] rhs, boolean maximise, long timeLimitMs) {
+        Workspace tableau = acquire();
+        try {
+            return solve(tableau, program, rhs, maximise, timeLimitMs);
+        } finally {
+            release(tableau);
+        }
+    }
+
+    private static Optimisation.Result solve(Workspace tableau, LinearProgram program, double[] rhs, boolean maximise, long timeLimitMs) {
+        long deadline = timeLimitMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimitMs) : Long.MAX_VALUE;
+        tableau.load(program, rhs, maximise);
+
+        tableau.phaseOneObjective();
+        Optimisation.State phaseOne = tableau.iterate(deadline);
+        if (phaseOne != Optimisation.State.OPTIMAL) {
+            return tableau.result(Optimisation.State.FAILED, false);
+        }
+        if (tableau.infeasibility() > FEASIBILITY_TOLERANCE * (1 + tableau.rhsScale)) {
+            return tableau.result(Optimisation.State.INFEASIBLE, false);
+        }
+        tableau.driveOutArtificials();
+
+        tableau.phaseTwoObjective();
+        Optimisation.State phaseTwo = tableau.iterate(deadline);
+        // Out of iterations or time, the current basis is still a feasible point.
+        return tableau.result(phaseTwo == Optimisation.State.FAILED ? Optimisation.State.FEASIBLE : phaseTwo, true);
+    }
+
+    /**
+     * A solve with its sensitivity data, which is null unless the solve reached an optimum.
+     */
+    record Analysis(Optimisation.Result result, @Nullable Sensitivity sensitivity) {
+    }
+
+    /**
+     * Sensitivity of an optimum, in the goal's own sense (positive means the goal value goes up). Per row: the dual
+     * value and the right-hand-side range over which it holds. Per ingredient: the reduced cost and the goal
+     * coefficient range over which the basis stays optimal. Ranges are infinite where there is no limit.
+     */
+    record Sensitivity(double[] duals, double[] rhsLower, double[] rhsUpper,
+                       double[] reducedCosts, double[] coefficientLower, double[] coefficientUpper) {
+    }
+
+    /**
+     * Solve like {@link #solve} and, at an optimum, take the sensitivity from the same tableau.
+     */
+    static Analysis analyse(LinearProgram program, double[] rhs, boolean maximise, long timeLimitMs) {
+        Workspace tableau = acquire();
+        try {
+            Optimisation.Result result = solve(tableau, program, rhs, maximise, timeLimitMs);
+            return new Analysis(result, result.getState() == Optimisation.State.OPTIMAL
+                    ? tableau.sensitivity(program, rhs, maximise) : null);
+        } finally {
+            release(tableau);
+        }
+    }
+
+    /**
+     * Outcome of phase one alone: FEASIBLE, INFEASIBLE, or FAILED when it ran out of iterations or time. An
+     * infeasible program comes with the rows of its phase-one certificate.
+     */
+    record Feasibility(Optimisation.State state, @Nullable boolean[] certificate) {
+    }
+
+    /**
+     * Run phase one only. When the program is infeasible, the rows with a nonzero phase-one dual value are a Farkas
+     * certificate: those rows alone are already infeasible, so the others can be left out of a conflict.
+     */
+    static Feasibility feasibility(LinearProgram program, double[] rhs, long timeLimitMs) {
+        long deadline = timeLimitMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimitMs) : Long.MAX_VALUE;
+        Workspace tableau = acquire();
+        try {
+            tableau.load(program, rhs, false);
+            tableau.phaseOneObjective();
+            if (tableau.iterate(deadline) != Optimisation.State.OPTIMAL) {
+                return new Feasibility(Optimisation.State.FAILED, null);
+            }
+            if (tableau.infeasibility() <= FEASIBILITY_TOLERANCE * (1 + tableau.rhsScale)) {
+                return new Feasibility(Optimisation.State.FEASIBLE, null);
+            }
+            return new Feasibility(Optimisation.State.INFEASIBLE, tableau.certificate());
+        } finally {
+            release(tableau);
+        }
+    }
+
+    private static Workspace acquire() {
+        Workspace workspace = POOL.poll();
+        return workspace != null ? workspace : new Workspace();
+    }
+
+    /**
+     * Return the workspace to the pool, unless a large program has grown it past {@link #RETAINED_CELLS}.
+     */
+    private static void release(Workspace workspace) {
+        if (workspace.tableau.length <= RETAINED_CELLS) {
+            POOL.offer(workspace);
+        }
+    }
+
+    /**
+     * Row-major tableau: {@code m} constraint rows and the reduced-cost row below them. Columns are the
+     * program's {@code n} columns, one artificial per row, then the right-hand side.
+     */
+    private static final class Workspace {
+
+        private double[] tableau = new double[0];
+        private int[] basis = new int[0];
+        private double[] cost = new double[0];
+        private int[] unit = new int[0];       // Column that started as row i's unit vector; its column now holds B^-1 e_i
+        private boolean[] flipped = new boolean[0]; // Row negated at load for a non-negative right-hand side
+        private int m;
+        private int n;
+        private int width;
+        private double rhsScale;
+
+        void load(LinearProgram program, double[] rhs, boolean maximise) {
+            m = program.rowCount();
+            n = program.columnCount;
+            width = n + m + 1;
+            int cells = (m + 1) * width;
+            if (tableau.length < cells) tableau = new double[cells];
+            if (basis.length < m) {
+                basis = new int[m];
+                unit = new int[m];
+                flipped = new boolean[m];
+            }
+            if (cost.length < n) cost = new double[n];
+            Arrays.fill(tableau, 0, cells, 0);
+
+            // Minimise, like LinearSolver: a maximised goal uses the negated coefficients.
+            for (int j = 0; j < n; j++) {
+                cost[j] = j < program.ingredientCount ? (maximise ? -program.objective[j] : program.objective[j]) : 0;
+            }
+            rhsScale = 0;
+            for (int i = 0; i < m; i++) {
+                int row = i * width;
+                double sign = rhs[i] < 0 ? -1 : 1;
+                basis[i] = -1;
+                for (int k = program.rowStart[i]; k < program.rowStart[i + 1]; k++) {
+                    int column = program.columnIndex[k];
+                    double value = sign * program.values[k];
+                    tableau[row + column] += value;
+                    // A slack only appears in its own row, so with coefficient +1 it is a unit column.
+                    if (column >= program.ingredientCount && value == 1 && basis[i] == -1) basis[i] = column;
+                }
+                tableau[row + width - 1] = sign * rhs[i];
+                rhsScale = Math.max(rhsScale, Math.abs(rhs[i]));
+                if (basis[i] == -1) {
+                    tableau[row + n + i] = 1;
+                    basis[i] = n + i;
+                }
+                unit[i] = basis[i];
+                flipped[i] = sign < 0;
+            }
+        }
+
+        /**
+         * Reduced costs of minimising the sum of the artificials.
+         */
+        void phaseOneObjective() {
+            int objective = m * width;
+            for (int i = 0; i < m; i++) {
+                if (basis[i] < n) continue;
+                int row = i * width;
+                for (int j = 0; j < n; j++) {
+                    tableau[objective + j] -= tableau[row + j];
+                }
+                tableau[objective + width - 1] -= tableau[row + width - 1];
+            }
+        }
+
+        /**
+         * Rows with a nonzero phase-one dual value. The dual is the phase-one cost of the row's unit column (1 for an
+         * artificial, 0 for a slack) minus that column's reduced cost.
+         */
+        boolean[] certificate() {
+            int objective = m * width;
+            boolean[] rows = new boolean[m];
+            for (int i = 0; i < m; i++) {
+                double dual = (unit[i] >= n ? 1 : 0) - tableau[objective + unit[i]];
+                rows[i] = Math.abs(dual) > FEASIBILITY_TOLERANCE;
+            }
+            return rows;
+        }
+
+        /**
+         * Sum of the artificials after phase one.
+         */
+        double infeasibility() {
+            return -tableau[m * width + width - 1];
+        }
+
+        /**
+         * Pivot artificials still basic at zero out of the basis. One that cannot leave sits in a redundant
+         * row whose program columns are all zero, so it stays at zero in phase two.
+         */
+        void driveOutArtificials() {
+            for (int i = 0; i < m; i++) {
+                if (basis[i] < n) continue;
+                int row = i * width;
+                for (int j = 0; j < n; j++) {
+                    if (Math.abs(tableau[row + j]) > PIVOT_TOLERANCE) {
+                        pivot(i, j);
+                        break;
+                    }
+                }
+            }
+        }
+
+        void phaseTwoObjective() {
+            int objective = m * width;
+            Arrays.fill(tableau, objective, objective + width, 0);
+            System.arraycopy(cost, 0, tableau, objective, n);
+            for (int i = 0; i < m; i++) {
+                int b = basis[i];
+                if (b >= n || cost[b] == 0) continue;
+                double factor = cost[b];
+                int row = i * width;
+                for (int j = 0; j < width; j++) {
+                    tableau[objective + j] -= factor * tableau[row + j];
+                }
+            }
+        }
+
+        /**
+         * Pivot until no column improves the objective. Artificial columns never enter.
+         */
+        Optimisation.State iterate(long deadline) {
+            int limit = 50 * (m + n) + 100;
+            int degenerate = 0;
+            for (int iteration = 0; ; iteration++) {
+                int entering = entering(degenerate >= DEGENERATE_PIVOTS_BEFORE_BLAND);
+                if (entering < 0) return Optimisation.State.OPTIMAL;
+                int leaving = leaving(entering);
+                if (leaving < 0) return Optimisation.State.UNBOUNDED;
+                if (iteration >= limit || (deadline != Long.MAX_VALUE && System.nanoTime() > deadline)) {
+                    return Optimisation.State.FAILED;
+                }
+                degenerate = tableau[leaving * width + width - 1] <= FEASIBILITY_TOLERANCE ? degenerate + 1 : 0;
+                pivot(leaving, entering);
+            }
+        }
+
+        private int entering(boolean bland) {
+            int objective = m * width;
+            int best = -1;
+            double mostNegative = -PIVOT_TOLERANCE;
+            for (int j = 0; j < n; j++) {
+                double reducedCost = tableau[objective + j];
+                if (reducedCost < mostNegative) {
+                    if (bland) return j;
+                    mostNegative = reducedCost;
+                    best = j;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Minimum ratio test; ties go to the lowest basic column, as Bland's rule needs.
+         */
+        private int leaving(int entering) {
+            int best = -1;
+            double bestRatio = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < m; i++) {
+                double a = tableau[i * width + entering];
+                if (a <= PIVOT_TOLERANCE) continue;
+                double ratio = tableau[i * width + width - 1] / a;
+                if (ratio < bestRatio || (ratio == bestRatio && basis[i] < basis[best])) {
+                    bestRatio = ratio;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        private void pivot(int pivotRow, int pivotColumn) {
+            int source = pivotRow * width;
+            double inverse = 1 / tableau[source + pivotColumn];
+            for (int j = 0; j < width; j++) {
+                tableau[source + j] *= inverse;
+            }
+            tableau[source + pivotColumn] = 1;
+            for (int i = 0; i <= m; i++) {
+                if (i == pivotRow) continue;
+                int row = i * width;
+                double factor = tableau[row + pivotColumn];
+                if (factor == 0) continue;
+                for (int j = 0; j < width; j++) {
+                    double value = tableau[source + j];
+                    if (value != 0) tableau[row + j] -= factor * value;
+                }
+                tableau[row + pivotColumn] = 0;
+            }
+            basis[pivotRow] = pivotColumn;
+        }
+
+        /**
+         * Read the sensitivity of the optimal tableau. Row {@code i}'s dual is minus the reduced cost of its unit
+         * column; a right-hand-side change moves the basic values along that column, and a basic ingredient's cost
+         * change shifts the reduced costs along its row. Artificials still basic sit in redundant rows and must stay
+         * at zero, so any change that moves one pins the range.
+         */
+        Sensitivity sensitivity(LinearProgram program, double[] rhs, boolean maximise) {
+            int objective = m * width;
+            double sense = maximise ? -1 : 1;
+            double[] duals = new double[m];
+            double[] rhsLower = new double[m];
+            double[] rhsUpper = new double[m];
+            for (int i = 0; i < m; i++) {
+                double sign = flipped[i] ? -1 : 1;
+                duals[i] = clean(-sense * sign * tableau[objective + unit[i]]);
+                double lower = Double.NEGATIVE_INFINITY;
+                double upper = Double.POSITIVE_INFINITY;
+                for (int r = 0; r < m; r++) {
+                    double beta = tableau[r * width + unit[i]];
+                    if (Math.abs(beta) <= PIVOT_TOLERANCE) continue;
+                    if (basis[r] >= n) {
+                        lower = 0;
+                        upper = 0;
+                        break;
+                    }
+                    double limit = -tableau[r * width + width - 1] / beta;
+                    if (beta > 0) lower = Math.max(lower, limit);
+                    else upper = Math.min(upper, limit);
+                }
+                rhsLower[i] = rhs[i] + (flipped[i] ? -upper : lower);
+                rhsUpper[i] = rhs[i] + (flipped[i] ? -lower : upper);
+            }
+
+            int ingredients = program.ingredientCount;
+            int[] rowOf = new int[n];
+            Arrays.fill(rowOf, -1);
+            for (int r = 0; r < m; r++) {
+                if (basis[r] < n) rowOf[basis[r]] = r;
+            }
+            double[] reducedCosts = new double[ingredients];
+            double[] coefficientLower = new double[ingredients];
+            double[] coefficientUpper = new double[ingredients];
+            for (int j = 0; j < ingredients; j++) {
+                double lower = Double.NEGATIVE_INFINITY;
+                double upper = Double.POSITIVE_INFINITY;
+                if (rowOf[j] < 0) {
+                    double reducedCost = tableau[objective + j];
+                    reducedCosts[j] = clean(sense * reducedCost);
+                    lower = -reducedCost;
+                } else {
+                    int row = rowOf[j] * width;
+                    for (int k = 0; k < n; k++) {
+                        double a = tableau[row + k];
+                        if (rowOf[k] >= 0 || Math.abs(a) <= PIVOT_TOLERANCE) continue;
+                        double limit = tableau[objective + k] / a;
+                        if (a > 0) upper = Math.min(upper, limit);
+                        else lower = Math.max(lower, limit);
+                    }
+                }
+                // Ranges are of the minimised cost; a maximised goal is its negation.
+                coefficientLower[j] = maximise ? -(cost[j] + upper) : cost[j] + lower;
+                coefficientUpper[j] = maximise ? -(cost[j] + lower) : cost[j] + upper;
+            }
+            return new Sensitivity(duals, rhsLower, rhsUpper, reducedCosts, coefficientLower, coefficientUpper);
+        }
+
+        private static double clean(double value) {
+            return Math.abs(value) < FEASIBILITY_TOLERANCE ? 0 : value;
+        }
+
+        /**
+         * The basic solution, or all zeros without {@code point}. Quantities are rounded to ojAlgo's solution
+         * precision and rounding noise below zero is clamped.
+         */
+        Optimisation.Result result(Optimisation.State state, boolean point) {
+            double[] x = new double[n];
+            double value = 0;
+            if (point) {
+                for (int i = 0; i < m; i++) {
+                    if (basis[i] < n) x[basis[i]] = Math.max(0.0, SOLUTION.enforce(tableau[i * width + width - 1]));
+                }
+                for (int j = 0; j < n; j++) {
+                    value += cost[j] * x[j];
+                }
+            }
+            return new Optimisation.Result(state, value, Primitive64Store.wrap(x));
+        }
+    }
+}
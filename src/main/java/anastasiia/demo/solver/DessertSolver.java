@@ -3,17 +3,28 @@ package anastasiia.demo.solver;
 import anastasiia.demo.dto.DessertRequestDTO;
 import anastasiia.demo.dto.DessertResultDTO;
 import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.PresolveReportDTO;
+import anastasiia.demo.dto.SensitivityDTO;
+import anastasiia.demo.enums.AssemblyMode;
 import anastasiia.demo.enums.Direction;
 import anastasiia.demo.enums.ConstraintType;
+import anastasiia.demo.enums.SolverEngineType;
 import anastasiia.demo.enums.TargetType;
 import anastasiia.demo.enums.ConstraintOp;
 
 import org.ojalgo.optimisation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import java.util.function.ToDoubleFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Solver for the dessert optimization problem based on provided constraints and goals.
@@ -22,35 +33,409 @@ import java.util.List;
 public class DessertSolver {
 
     private static final double DEFAULT_WEIGHT_COEFFICIENT = 1.0;
-    private static final double EPSILON = 1e-6;
+    static final double EPSILON = 1e-6;
+    private static final double SPARSE_ZERO = 1e-9;   // Quantities below this are left out of sparse results
+
+    /**
+     * Status reported when the request's time budget ran out before the solver proved optimality.
+     */
+    public static final String TIMEOUT = "TIMEOUT";
+
+    /**
+     * Largest standard-form program, in rows times columns, that {@link SolverEngineType#AUTO} hands to the
+     * dense simplex: about a dozen ingredients with a dozen constraint rows.
+     */
+    public static final int DEFAULT_DENSE_MAX_CELLS = 400;
+
+    /**
+     * Largest standard-form program, in rows times columns, that a sensitivity request may have: the dense
+     * simplex keeps its whole tableau, about 8 MB at this size.
+     */
+    public static final int DEFAULT_SENSITIVITY_MAX_CELLS = 1 << 20;
+
+    private final AssemblyMode assembly;
+    private final boolean presolve;
+    private final ModelTemplateCache templates; // null unless compiled template mode is enabled
+    private final SolverMetrics metrics;
+    private final SolverEngineType engine;
+    private final int denseMaxCells;
+    private final int sensitivityMaxCells;
+    private final int reportParallelism;
+
+    public DessertSolver() {
+        this(AssemblyMode.EXPRESSIONS, null);
+    }
+
+    public DessertSolver(AssemblyMode assembly, @Nullable ModelTemplateCache templates) {
+        this(assembly, templates, SolverMetrics.disabled());
+    }
+
+    public DessertSolver(AssemblyMode assembly, @Nullable ModelTemplateCache templates, SolverMetrics metrics) {
+        this(assembly, true, templates, metrics);
+    }
+
+    public DessertSolver(AssemblyMode assembly, boolean presolve, @Nullable ModelTemplateCache templates, SolverMetrics metrics) {
+        this(assembly, presolve, templates, metrics, SolverEngineType.AUTO, DEFAULT_DENSE_MAX_CELLS);
+    }
+
+    public DessertSolver(AssemblyMode assembly, boolean presolve, @Nullable ModelTemplateCache templates, SolverMetrics metrics,
+                         SolverEngineType engine, int denseMaxCells) {
+        this(assembly, presolve, templates, metrics, engine, denseMaxCells, DEFAULT_SENSITIVITY_MAX_CELLS);
+    }
+
+    public DessertSolver(AssemblyMode assembly, boolean presolve, @Nullable ModelTemplateCache templates, SolverMetrics metrics,
+                         SolverEngineType engine, int denseMaxCells, int sensitivityMaxCells) {
+        this(assembly, presolve, templates, metrics, engine, denseMaxCells, sensitivityMaxCells, 0);
+    }
+
+    @Autowired
+    public DessertSolver(@Value("${dessert.solver.assembly:EXPRESSIONS}") AssemblyMode assembly,
+                         @Value("${dessert.solver.presolve.enabled:true}") boolean presolve,
+                         @Nullable ModelTemplateCache templates,
+                         SolverMetrics metrics,
+                         @Value("${dessert.solver.engine:AUTO}") SolverEngineType engine,
+                         @Value("${dessert.solver.dense-simplex.max-cells:" + DEFAULT_DENSE_MAX_CELLS + "}") int denseMaxCells,
+                         @Value("${dessert.solver.sensitivity.max-cells:" + DEFAULT_SENSITIVITY_MAX_CELLS + "}") int sensitivityMaxCells,
+                         @Value("${dessert.solver.reports.parallelism:0}") int reportParallelism) {
+        this.assembly = assembly;
+        this.presolve = presolve;
+        this.templates = templates;
+        this.metrics = metrics;
+        this.engine = engine;
+        this.denseMaxCells = denseMaxCells;
+        this.sensitivityMaxCells = sensitivityMaxCells;
+        this.reportParallelism = reportParallelism > 0 ? reportParallelism : Runtime.getRuntime().availableProcessors();
+    }
 
     /**
      * Main entry point to solve the optimization request.
      */
     public DessertResultDTO solve(DessertRequestDTO request) {
+        return solve(request, templates);
+    }
+
+    /**
+     * Solve through the given template cache when there is one, otherwise through the configured assembly path.
+     * Lets callers that re-solve one structure many times (sweeps, sessions) keep their own templates.
+     * Sensitivity requests are assembled afresh, quantity bounds as rows, and solved by the dense simplex,
+     * whose final tableau gives the sensitivity of the reported mix. Infeasible diagnose requests get their
+     * conflicting constraints from a {@link ConflictFinder}, optimal alternatives requests their near-optimal
+     * recipes from an {@link AlternativeFinder}.
+     */
+    DessertResultDTO solve(DessertRequestDTO request, @Nullable ModelTemplateCache templateCache) {
+        List<IngredientDTO> ingredients = request.ingredients;
+        long started = System.nanoTime();
+        metrics.started();
+        try {
+            AttributeColumns columns = AttributeColumns.of(ingredients);
+            LinearProgram program = null;
+            if (request.sensitivity) {
+                program = LinearProgramAssembler.assemble(request, columns, true);
+            } else if (templateCache != null) {
+                program = templateCache.template(request).orElse(null);
+            } else if (assembly == AssemblyMode.ARRAYS || takesDenseSimplex(request)) {
+                program = LinearProgramAssembler.assemble(request, columns);
+            }
+
+            Optimisation.Result result;
+            Double gap = null;
+            PresolveReportDTO report = null;
+            SensitivityDTO sensitivity = null;
+            Predicate<Optimisation.Result> feasible;
+            Supplier<String> dump;
+            long solving;
+            if (program != null) {
+                LinearProgram compiled = program;
+                metrics.recordModel(compiled);
+                solving = System.nanoTime();
+                metrics.record(SolverMetrics.Phase.BUILD, started);
+                if (request.sensitivity) {
+                    long cells = (long) compiled.rowCount() * (compiled.columnCount + compiled.rowCount());
+                    if (cells > sensitivityMaxCells) {
+                        throw new IllegalArgumentException("Sensitivity is limited to " + sensitivityMaxCells
+                                + " rows x columns, this request has " + cells);
+                    }
+                    double[] rhs = compiled.rightHandSide(request);
+                    DenseSimplexEngine.Analysis analysis = DenseSimplexEngine.analyse(compiled, rhs, LinearProgram.maximises(request), request.timeLimitMs);
+                    result = analysis.result();
+                    if (analysis.sensitivity() != null) {
+                        sensitivity = SensitivityReport.of(compiled, rhs, analysis.sensitivity(), ingredients, result);
+                    }
+                } else {
+                    result = compiled.solve(engineFor(compiled), request);
+                }
+                feasible = r -> compiled.satisfies(compiled.rightHandSide(request), quantities(r, compiled.ingredientCount), EPSILON);
+                dump = compiled::toString;
+            } else {
+                ExpressionsBasedModel model = buildModel(request, columns);
+                metrics.recordModel(model);
+                long presolving = System.nanoTime();
+                metrics.record(SolverMetrics.Phase.BUILD, started);
+                ModelPresolver.Presolved presolved = presolve ? ModelPresolver.presolve(model) : null;
+                solving = System.nanoTime();
+                if (presolve) {
+                    metrics.record(SolverMetrics.Phase.PRESOLVE, presolving);
+                }
+                ExpressionsBasedModel solvable = presolved != null ? presolved.model : model;
+                withTimeLimit(solvable.options, request.timeLimitMs);
+                boolean discrete = anyDiscrete(ingredients);
+                if (discrete) {
+                    withMipLimits(solvable.options, request.mip);
+                }
+                Supplier<Optimisation.Result> maximise = presolved != null ? presolved::maximise : model::maximise;
+                result = maximise.get();
+                if (discrete) {
+                    gap = provenGap(result, relaxation(solvable, maximise, request.timeLimitMs, started), solvable.options.mip_gap);
+                }
+                if (presolved != null && request.debug) {
+                    report = presolved.report;
+                    report.presolveMillis = (solving - presolving) / 1e6;
+                    report.solveMillis = (System.nanoTime() - solving) / 1e6;
+                }
+                feasible = model::validate;
+                dump = model::toString;
+            }
+            long mapping = System.nanoTime();
+            metrics.record(SolverMetrics.Phase.SOLVE, solving);
+
+            DessertResultDTO output = buildResult(result, request, columns, feasible, mapping - started);
+            output.gap = gap;
+            output.presolve = report;
+            output.sensitivity = sensitivity;
+            if (request.diagnose && Optimisation.State.INFEASIBLE.name().equals(output.status)) {
+                output.conflict = ConflictFinder.find(this, request, columns, started);
+            }
+            if (request.alternatives != null && request.alternatives.count > 0 && result.getState().isOptimal()
+                    && !TIMEOUT.equals(output.status)) {
+                output.alternatives = AlternativeFinder.find(this, request, columns, quantities(result, ingredients.size()), started);
+            }
+            metrics.record(SolverMetrics.Phase.RESULT, mapping);
+            metrics.finished(started, output.status, dump);
+            return output;
+        } finally {
+            metrics.stopped();
+        }
+    }
+
+    /**
+     * The same solver without a template cache or metrics, for sub-solves that are not requests of their own.
+     */
+    DessertSolver quiet() {
+        return new DessertSolver(assembly, presolve, null, SolverMetrics.disabled(), engine, denseMaxCells, sensitivityMaxCells,
+                reportParallelism);
+    }
+
+    /**
+     * Parallel sub-solves for a report on the request, sharing what is left of its time limit since {@code started}.
+     */
+    SubSolves subSolves(DessertRequestDTO request, long started) {
+        return new SubSolves(reportParallelism, started, request.timeLimitMs);
+    }
+
+    /**
+     * Engine for a standard-form program: the dense simplex when configured, or under {@code AUTO} when the
+     * program is small enough; ojAlgo otherwise.
+     */
+    SolverEngine engineFor(LinearProgram program) {
+        return switch (engine) {
+            case OJALGO -> SolverEngine.OJALGO;
+            case DENSE_SIMPLEX -> SolverEngine.DENSE_SIMPLEX;
+            case AUTO -> (long) program.rowCount() * program.columnCount <= denseMaxCells
+                    ? SolverEngine.DENSE_SIMPLEX : SolverEngine.OJALGO;
+        };
+    }
+
+    /**
+     * Whether an expression-assembled request should go to the dense simplex instead. The row count is
+     * estimated before assembly, so AUTO skips building arrays for requests that are plainly too big;
+     * debug requests keep the expression path for its presolve report.
+     */
+    private boolean takesDenseSimplex(DessertRequestDTO request) {
+        if (engine == SolverEngineType.OJALGO || (request.debug && presolve)) return false;
+        if (engine == SolverEngineType.DENSE_SIMPLEX) return true;
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        long rows = 4 + (block == null || block.constraints == null ? 0 : block.constraints.size());
+        return rows * (request.ingredients.size() + rows) <= denseMaxCells;
+    }
+
+    /**
+     * Build the ExpressionsBasedModel for the request: one variable per ingredient, all constraints and the objective.
+     */
+    ExpressionsBasedModel buildModel(DessertRequestDTO request) {
+        return buildModel(request, AttributeColumns.of(request.ingredients));
+    }
+
+    ExpressionsBasedModel buildModel(DessertRequestDTO request, AttributeColumns columns) {
         List<IngredientDTO> ingredients = request.ingredients;
         Variable[] variables = createVariables(ingredients);
         ExpressionsBasedModel model = new ExpressionsBasedModel();
 
         addVariablesToModel(model, variables);
-        addConstraints(model, variables, ingredients, request);
-        setObjective(model, variables, ingredients, request);
+        addPackSizes(model, variables, ingredients);
+        addConstraints(model, variables, ingredients, columns, request);
+        setObjective(model, variables, ingredients, columns, request);
+        return model;
+    }
+
+    /**
+     * Result for a request whose budget ran out before it was solved: every quantity is zero.
+     */
+    public static DessertResultDTO timedOut(DessertRequestDTO request) {
+        DessertResultDTO output = new DessertResultDTO();
+        output.ingredientsQuantities = quantities(request.ingredients, new double[request.ingredients.size()], request.sparse);
+        output.status = TIMEOUT;
+        return output;
+    }
+
+    static boolean isDiscrete(IngredientDTO ingredient) {
+        return ingredient.integer || ingredient.packSize > 0;
+    }
+
+    /**
+     * Whether the ingredient needs more than a plain {@code x >= 0} column.
+     */
+    static boolean hasQuantityRules(IngredientDTO ingredient) {
+        return isDiscrete(ingredient) || ingredient.minQuantity > 0 || ingredient.maxQuantity != null;
+    }
+
+    // Fields by position; catalog and streamed ingredients are read from their columns without building DTOs.
+
+    static String name(List<IngredientDTO> ingredients, int i) {
+        return ingredients instanceof IngredientList list ? list.name(i) : ingredients.get(i).name;
+    }
+
+    static boolean integer(List<IngredientDTO> ingredients, int i) {
+        return ingredients instanceof IngredientList list ? list.integer(i) : ingredients.get(i).integer;
+    }
+
+    static double packSize(List<IngredientDTO> ingredients, int i) {
+        return ingredients instanceof IngredientList list ? list.packSize(i) : ingredients.get(i).packSize;
+    }
+
+    static double minQuantity(List<IngredientDTO> ingredients, int i) {
+        return ingredients instanceof IngredientList list ? list.minQuantity(i) : ingredients.get(i).minQuantity;
+    }
+
+    /**
+     * Maximum quantity of the ingredient at the position, NaN when unbounded.
+     */
+    static double maxQuantity(List<IngredientDTO> ingredients, int i) {
+        if (ingredients instanceof IngredientList list) return list.maxQuantity(i);
+        Double max = ingredients.get(i).maxQuantity;
+        return max == null ? Double.NaN : max;
+    }
+
+    static boolean isDiscrete(List<IngredientDTO> ingredients, int i) {
+        return integer(ingredients, i) || packSize(ingredients, i) > 0;
+    }
+
+    static boolean anyDiscrete(List<IngredientDTO> ingredients) {
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (isDiscrete(ingredients, i)) return true;
+        }
+        return false;
+    }
+
+    static boolean hasQuantityRules(List<IngredientDTO> ingredients, int i) {
+        return isDiscrete(ingredients, i) || minQuantity(ingredients, i) > 0 || !Double.isNaN(maxQuantity(ingredients, i));
+    }
+
+    /**
+     * Apply the request's accepted gap. There is no node limit: ojAlgo 48's iteration cap also stops the LP solve at
+     * every node, which then reads as infeasible, so a branch-and-bound search is only bounded by gap and time.
+     */
+    static void withMipLimits(Optimisation.Options options, @Nullable DessertRequestDTO.MipOptions mip) {
+        if (mip != null && mip.gap > 0) {
+            options.mip_gap = mip.gap;
+        }
+    }
+
+    /**
+     * The LP relaxation of a solved model on what is left of the budget, or null when nothing is left. Its integer
+     * variables are made continuous for the one solve and restored afterwards, so nothing is assembled or
+     * presolved again.
+     */
+    @Nullable
+    private static Optimisation.Result relaxation(ExpressionsBasedModel solvable, Supplier<Optimisation.Result> maximise,
+                                                  long timeLimitMs, long started) {
+        if (timeLimitMs > 0) {
+            long remaining = timeLimitMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (remaining <= 0) return null;
+            solvable.options.time_abort = remaining;
+        }
+        List<Variable> integers = solvable.getVariables().stream().filter(Variable::isInteger).toList();
+        integers.forEach(variable -> variable.setInteger(false));
+        try {
+            return maximise.get();
+        } finally {
+            integers.forEach(variable -> variable.setInteger(true));
+        }
+    }
+
+    /**
+     * Relative distance between the incumbent and the LP relaxation, which bounds every integer solution.
+     * An optimal MIP answer is also proven within the solver's own gap tolerance, so the smaller value is reported.
+     */
+    @Nullable
+    private static Double provenGap(Optimisation.Result incumbent, @Nullable Optimisation.Result relaxation, double mipGap) {
+        if (relaxation == null || !incumbent.getState().isFeasible() || !relaxation.getState().isFeasible()) return null;
+        double gap = Math.max(0, relaxation.getValue() - incumbent.getValue()) / Math.max(Math.abs(incumbent.getValue()), EPSILON);
+        return incumbent.getState().isOptimal() ? Math.min(gap, mipGap) : gap;
+    }
+
+    static double[] quantities(Optimisation.Result result, int count) {
+        double[] quantities = new double[count];
+        for (int j = 0; j < count; j++) {
+            quantities[j] = result.doubleValue(j);
+        }
+        return quantities;
+    }
 
-        Optimisation.Result result = model.maximise();
-        return buildResult(result, variables, ingredients);
+    /**
+     * Let ojAlgo abort once the budget is spent; it then returns the best point found so far.
+     */
+    static Optimisation.Options withTimeLimit(Optimisation.Options options, long timeLimitMs) {
+        if (timeLimitMs > 0) {
+            options.time_abort = timeLimitMs;
+        }
+        return options;
     }
 
     /**
-     * Create optimization variables for each ingredient.
+     * Create optimization variables for each ingredient, with its quantity bounds and whole units.
      */
     private Variable[] createVariables(List<IngredientDTO> ingredients) {
         Variable[] variables = new Variable[ingredients.size()];
         for (int i = 0; i < ingredients.size(); i++) {
-            variables[i] = Variable.make(ingredients.get(i).name).lower(0);
+            variables[i] = Variable.make(name(ingredients, i)).lower(Math.max(0, minQuantity(ingredients, i)));
+            double max = maxQuantity(ingredients, i);
+            if (!Double.isNaN(max)) {
+                variables[i].upper(max);
+            }
+            if (integer(ingredients, i) && packSize(ingredients, i) <= 0) {
+                variables[i].integer(true);
+            }
         }
         return variables;
     }
 
+    /**
+     * Tie each packed ingredient to an integer pack count: quantity - packSize * packs = 0.
+     * Pack variables are added after the ingredient variables, so result indices are unchanged.
+     */
+    private void addPackSizes(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients) {
+        for (int i = 0; i < variables.length; i++) {
+            double packSize = packSize(ingredients, i);
+            if (packSize <= 0) continue;
+            String name = name(ingredients, i);
+            Variable packs = model.addVariable(name + "_packs").integer(true).lower(0);
+            Expression expr = model.addExpression("Pack_" + name);
+            expr.set(variables[i], DEFAULT_WEIGHT_COEFFICIENT);
+            expr.set(packs, -packSize);
+            expr.level(0);
+        }
+    }
+
     /**
      * Add all created variables into the optimization model.
      */
@@ -63,15 +448,15 @@ public class DessertSolver {
     /**
      * Add constraints (maximum price, calories, weight, aesthetic, and custom).
      */
-    private void addConstraints(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, DessertRequestDTO request) {
+    private void addConstraints(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, AttributeColumns columns, DessertRequestDTO request) {
         if (request.constraintsBlock != null) {
             if (request.constraintsBlock.maxPrice > 0)
-                addSimpleConstraint(model, variables, ingredients, "MaxPrice", i -> i.price, ConstraintType.UPPER, request.constraintsBlock.maxPrice);
+                addSimpleConstraint(model, variables, "MaxPrice", coefficients(columns.price()), ConstraintType.UPPER, request.constraintsBlock.maxPrice);
             if (request.constraintsBlock.maxCalories > 0)
-                addSimpleConstraint(model, variables, ingredients, "MaxCalories", i -> i.calories, ConstraintType.UPPER, request.constraintsBlock.maxCalories);
+                addSimpleConstraint(model, variables, "MaxCalories", coefficients(columns.calories()), ConstraintType.UPPER, request.constraintsBlock.maxCalories);
             if (request.constraintsBlock.totalWeight > 0)
-                addSimpleConstraint(model, variables, null, "TotalWeight", i -> DEFAULT_WEIGHT_COEFFICIENT, ConstraintType.LEVEL, request.constraintsBlock.totalWeight);
-            if (request.constraintsBlock.constraints != null) addCustomConstraints(model, variables, ingredients, request);
+                addSimpleConstraint(model, variables, "TotalWeight", i -> DEFAULT_WEIGHT_COEFFICIENT, ConstraintType.LEVEL, request.constraintsBlock.totalWeight);
+            if (request.constraintsBlock.constraints != null) addCustomConstraints(model, variables, ingredients, columns, request);
         }
         if (request.aestheticConstraint != null && request.aestheticConstraint.ingredientName != null && !request.aestheticConstraint.ingredientName.isEmpty()) {
             addAestheticConstraint(model, variables, ingredients, request);
@@ -81,26 +466,24 @@ public class DessertSolver {
     private void addSimpleConstraint(
             ExpressionsBasedModel model,
             Variable[] variables,
-            List<IngredientDTO> ingredients,
             String name,
-            ToDoubleFunction<IngredientDTO> coefficientExtractor,
+            IntToDoubleFunction coefficients,
             ConstraintType type,
             double value
     ) {
-        addLinearConstraint(model, name, variables, ingredients, coefficientExtractor, type, value);
+        addLinearConstraint(model, name, variables, coefficients, type, value);
     }
 
     private void addLinearConstraint(
             ExpressionsBasedModel model,
             String name,
             Variable[] variables,
-            List<IngredientDTO> ingredients,
-            ToDoubleFunction<IngredientDTO> coefficientExtractor,
+            IntToDoubleFunction coefficients,
             ConstraintType type,
             double value
     ) {
         Expression expr = model.addExpression(name);
-        fillLinearExpression(expr, variables, ingredients, coefficientExtractor);
+        fillLinearExpression(expr, variables, coefficients);
 
         switch (type) {
             case UPPER -> expr.upper(value);
@@ -133,41 +516,47 @@ public class DessertSolver {
     }
 
 
-    private void addCustomConstraints(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, DessertRequestDTO request) {
+    private void addCustomConstraints(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, AttributeColumns columns, DessertRequestDTO request) {
+        Map<DessertRequestDTO.ConstraintDTO, String> names =
+                LinearProgramAssembler.customRowNames(RequestFingerprint.canonicalConstraints(request.constraintsBlock));
         for (DessertRequestDTO.ConstraintDTO constraint : request.constraintsBlock.constraints) {
-            Expression expr = model.addExpression("Custom_" + constraint.left + "_" + constraint.op + "_" + constraint.right);
+            Expression expr = model.addExpression(names.get(constraint));
+
+            ConstraintExpression.Compiled expression = ConstraintExpression.compile(constraint.left, ingredients, columns);
+            if (expression != null) {
+                for (int j = 0; j < expression.index.length; j++) {
+                    expr.set(variables[expression.index[j]], expression.value[j]);
+                }
+                expression.op(constraint).applyTo(expr, expression.right(constraint), expression.tolerance(constraint));
+                continue;
+            }
 
             int index = findIngredientIndexByName(ingredients, constraint.left.toLowerCase());
 
             if (index != -1) {
                 expr.set(variables[index], DEFAULT_WEIGHT_COEFFICIENT);
             } else {
-                ToDoubleFunction<IngredientDTO> extractor = switch (constraint.left.toLowerCase()) {
-                    case "price" -> i -> i.price;
-                    case "calories" -> i -> i.calories;
-                    case "weight" -> i -> DEFAULT_WEIGHT_COEFFICIENT;
-                    default -> null;
-                };
-
-                if (extractor != null) {
-                    for (int i = 0; i < variables.length; i++) {
-                        expr.set(variables[i], extractor.applyAsDouble(ingredients.get(i)));
-                    }
+                // Otherwise the total weight or any attribute; an unknown name leaves the row empty.
+                double[] attribute = columns.column(constraint.left);
+                if ("weight".equalsIgnoreCase(constraint.left)) {
+                    fillLinearExpression(expr, variables, i -> DEFAULT_WEIGHT_COEFFICIENT);
+                } else if (attribute != null) {
+                    fillLinearExpression(expr, variables, coefficients(attribute));
                 }
             }
 
             double tolerance = constraint.allowDeviation ? constraint.right * 0.10 : 0;
-            constraint.op.applyTo(expr, constraint.right, tolerance); // 💥 единая логика
+            constraint.op.applyTo(expr, constraint.right, tolerance);
         }
     }
     /**
      * Define the optimization objective (maximize/minimize according to the goal).
      */
-    private void setObjective(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, DessertRequestDTO request) {
+    private void setObjective(ExpressionsBasedModel model, Variable[] variables, List<IngredientDTO> ingredients, AttributeColumns columns, DessertRequestDTO request) {
         Expression objective = model.addExpression("Objective");
 
         if (request.goal == null || request.goal.targetType == null) {
-            applyLinearExpression(objective, variables, ingredients, i -> i.price);
+            fillLinearExpression(objective, variables, coefficients(columns.price()));
             objective.weight(DEFAULT_WEIGHT_COEFFICIENT);
             return;
         }
@@ -178,9 +567,9 @@ public class DessertSolver {
                 objective.set(variables[index], DEFAULT_WEIGHT_COEFFICIENT);
             }
         } else {
-            ToDoubleFunction<IngredientDTO> extractor = request.goal.targetType.getExtractor();
-            if (extractor != null) {
-                applyLinearExpression(objective, variables, ingredients, extractor);
+            double[] attribute = objectiveColumn(columns, request.goal);
+            if (attribute != null) {
+                fillLinearExpression(objective, variables, coefficients(attribute));
             }
         }
 
@@ -191,31 +580,38 @@ public class DessertSolver {
         objective.weight(weight);
     }
 
-    private void applyLinearExpression(
-            Expression expression,
-            Variable[] variables,
-            List<IngredientDTO> ingredients,
-            ToDoubleFunction<IngredientDTO> coefficientExtractor
-    ) {
-        fillLinearExpression(expression, variables, ingredients, coefficientExtractor);
-    }
-
     private void fillLinearExpression(
             Expression expression,
             Variable[] variables,
-            List<IngredientDTO> ingredients,
-            ToDoubleFunction<IngredientDTO> coefficientExtractor
+            IntToDoubleFunction coefficients
     ) {
         for (int i = 0; i < variables.length; i++) {
-            double coefficient = (ingredients != null)
-                    ? coefficientExtractor.applyAsDouble(ingredients.get(i))
-                    : coefficientExtractor.applyAsDouble(null);
-            expression.set(variables[i], coefficient);
+            expression.set(variables[i], coefficients.applyAsDouble(i));
         }
     }
 
+    private static IntToDoubleFunction coefficients(double[] column) {
+        return i -> column[i];
+    }
+
+    /**
+     * Attribute column a PRICE, CALORIES or ATTRIBUTE goal optimises, or null when there is none.
+     */
+    @Nullable
+    static double[] objectiveColumn(AttributeColumns columns, DessertRequestDTO.GoalDTO goal) {
+        return switch (goal.targetType) {
+            case PRICE -> columns.price();
+            case CALORIES -> columns.calories();
+            case ATTRIBUTE -> goal.targetName == null ? null : columns.column(goal.targetName);
+            case INGREDIENT -> null;
+        };
+    }
+
 
     private int findIngredientIndexByName(List<IngredientDTO> ingredients, String name) {
+        if (ingredients instanceof IngredientList catalogIngredients) {
+            return catalogIngredients.positionOf(name);
+        }
         for (int i = 0; i < ingredients.size(); i++) {
             if (ingredients.get(i).name.equalsIgnoreCase(name)) {
                 return i;
@@ -224,29 +620,69 @@ public class DessertSolver {
         return -1; // not found
     }
     /**
-     * Builds the DessertResultDTO from the optimization result.
+     * Result of a solve that took {@code elapsedNanos} of the request's budget. When the solver stopped because the
+     * budget ran out, the result is {@link #TIMEOUT} and keeps the solver's point only if it meets every constraint.
      */
-    private DessertResultDTO buildResult(Optimisation.Result result, Variable[] variables, List<IngredientDTO> ingredients) {
+    static DessertResultDTO buildResult(Optimisation.Result result, DessertRequestDTO request, AttributeColumns columns,
+                                        Predicate<Optimisation.Result> feasible, long elapsedNanos) {
+        if (request.timeLimitMs > 0 && !result.getState().isOptimal()
+                && elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(request.timeLimitMs)) {
+            DessertResultDTO output = feasible.test(result)
+                    ? buildResult(result, request.ingredients, columns, request.sparse) : timedOut(request);
+            output.status = TIMEOUT;
+            return output;
+        }
+        return buildResult(result, request.ingredients, columns, request.sparse);
+    }
+
+    static DessertResultDTO buildResult(Optimisation.Result result, List<IngredientDTO> ingredients) {
+        return buildResult(result, ingredients, AttributeColumns.of(ingredients));
+    }
+
+    static DessertResultDTO buildResult(Optimisation.Result result, List<IngredientDTO> ingredients, AttributeColumns columns) {
+        return buildResult(result, ingredients, columns, false);
+    }
+
+    static DessertResultDTO buildResult(Optimisation.Result result, List<IngredientDTO> ingredients, AttributeColumns columns, boolean sparse) {
         DessertResultDTO output = new DessertResultDTO();
-        output.ingredientsQuantities = new LinkedHashMap<>();
 
         double totalWeight = 0;
-        double totalPrice = 0;
-        double totalCalories = 0;
-
-        for (int i = 0; i < variables.length; i++) {
+        double[] quantities = new double[ingredients.size()];
+        for (int i = 0; i < quantities.length; i++) {
             double qty = result.get(i).doubleValue();
-            output.ingredientsQuantities.put(ingredients.get(i).name, qty);
             totalWeight += qty;
-            totalPrice += qty * ingredients.get(i).price;
-            totalCalories += qty * ingredients.get(i).calories;
+            quantities[i] = qty;
         }
+        output.ingredientsQuantities = quantities(ingredients, quantities, sparse);
+        Map<String, Double> totals = columns.totals(quantities);
 
         output.status = result.getState().toString();
-        output.price = totalPrice;
+        output.price = totals.remove(IngredientCatalog.PRICE);
         output.totalWeight = totalWeight;
-        output.totalCalories = totalCalories;
+        output.totalCalories = totals.remove(IngredientCatalog.CALORIES);
+        output.totals = totals;
 
         return output;
     }
+
+    /**
+     * Quantities by ingredient name in list order; sparse leaves out near-zero ones. Catalog and streamed
+     * ingredients get a map over the array itself.
+     */
+    static Map<String, Double> quantities(List<IngredientDTO> ingredients, double[] quantities, boolean sparse) {
+        if (ingredients instanceof IngredientList list) {
+            return new IngredientQuantities(list, quantities, sparse);
+        }
+        Map<String, Double> byName = new LinkedHashMap<>();
+        for (int i = 0; i < quantities.length; i++) {
+            if (!sparse || !nearZero(quantities[i])) {
+                byName.put(ingredients.get(i).name, quantities[i]);
+            }
+        }
+        return byName;
+    }
+
+    static boolean nearZero(double quantity) {
+        return Math.abs(quantity) < SPARSE_ZERO;
+    }
 }
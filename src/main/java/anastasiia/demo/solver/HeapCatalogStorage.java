@@ -0,0 +1,64 @@
+package anastasiia.demo.solver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Catalog columns held in heap arrays, for catalogs registered without a catalog directory and for large ingredient
+ * arrays parsed by {@link IngredientsDeserializer}.
+ */
+final class HeapCatalogStorage implements CatalogStorage {
+
+    private final String[] names;
+    private final int size;
+    private final Map<String, double[]> columns;
+    private final Map<String, Integer> index;
+
+    HeapCatalogStorage(List<String> names, Map<String, double[]> columns) {
+        this(names.toArray(new String[0]), names.size(), columns);
+    }
+
+    /**
+     * Storage over the first {@code size} names and column values; the arrays are used as they are.
+     */
+    HeapCatalogStorage(String[] names, int size, Map<String, double[]> columns) {
+        this.names = names;
+        this.size = size;
+        this.columns = columns;
+        this.index = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            if (index.put(RequestFingerprint.fold(this.names[i]), i) != null) {
+                throw new IllegalArgumentException("Duplicate ingredient " + this.names[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String name(int row) {
+        return names[row];
+    }
+
+    @Override
+    public int indexOf(String name) {
+        Integer row = name == null ? null : index.get(RequestFingerprint.fold(name));
+        return row == null ? -1 : row;
+    }
+
+    @Override
+    public IntToDoubleFunction column(String attribute) {
+        double[] values = columns.get(attribute);
+        return values == null ? null : row -> values[row];
+    }
+
+    @Override
+    public List<String> attributes() {
+        return List.copyOf(columns.keySet());
+    }
+}
@@ -0,0 +1,214 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.IngredientDTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A registered ingredient catalog over column storage, either heap arrays or a mapped {@link CatalogFile}.
+ * <p>
+ * Ingredient fields are columns with fixed names; every other column is a further attribute under its
+ * lower-case name.
+ * {@link IngredientDTO}s are only created on access, so a catalog costs no heap per ingredient.
+ */
+final class IngredientCatalog {
+
+    static final String PRICE = "price";
+    static final String CALORIES = "calories";
+    static final String INTEGER = "integer";               // 1 for whole units, 0 otherwise
+    static final String PACK_SIZE = "packSize";
+    static final String MIN_QUANTITY = "minQuantity";
+    static final String MAX_QUANTITY = "maxQuantity";      // NaN when unbounded
+
+    private static final IntToDoubleFunction ZERO = row -> 0;
+    private static final IntToDoubleFunction UNBOUNDED = row -> Double.NaN;
+    static final List<String> FIELDS = List.of(PRICE, CALORIES, INTEGER, PACK_SIZE, MIN_QUANTITY, MAX_QUANTITY);
+
+    final String id;
+    final long version;
+    private final CatalogStorage storage;
+    private final IntToDoubleFunction price;
+    private final IntToDoubleFunction calories;
+    private final IntToDoubleFunction integer;
+    private final IntToDoubleFunction packSize;
+    private final IntToDoubleFunction minQuantity;
+    private final IntToDoubleFunction maxQuantity;
+    private final List<String> attributes;
+    private final IngredientList all;
+
+    IngredientCatalog(String id, long version, CatalogStorage storage) {
+        this.id = id;
+        this.version = version;
+        this.storage = storage;
+        this.price = columnOr(PRICE, ZERO);
+        this.calories = columnOr(CALORIES, ZERO);
+        this.integer = columnOr(INTEGER, ZERO);
+        this.packSize = columnOr(PACK_SIZE, ZERO);
+        this.minQuantity = columnOr(MIN_QUANTITY, ZERO);
+        this.maxQuantity = columnOr(MAX_QUANTITY, UNBOUNDED);
+        this.attributes = storage.attributes().stream().filter(attribute -> !FIELDS.contains(attribute)).toList();
+        this.all = new IngredientList(this, null);
+    }
+
+    /**
+     * Names and attribute columns of the ingredients; names must be present and unique ignoring case.
+     */
+    static Map<String, double[]> columnsOf(String id, List<IngredientDTO> ingredients, List<String> names) {
+        if (ingredients == null || ingredients.isEmpty()) {
+            throw new IllegalArgumentException("Catalog " + id + " needs at least one ingredient");
+        }
+        int size = ingredients.size();
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        for (String attribute : FIELDS) {
+            columns.put(attribute, new double[size]);
+        }
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            IngredientDTO ingredient = ingredients.get(i);
+            if (ingredient == null || ingredient.name == null || ingredient.name.isEmpty()) {
+                throw new IllegalArgumentException("Catalog " + id + ": ingredient " + i + " has no name");
+            }
+            if (!seen.add(RequestFingerprint.fold(ingredient.name))) {
+                throw new IllegalArgumentException("Catalog " + id + ": duplicate ingredient " + ingredient.name);
+            }
+            names.add(ingredient.name);
+            columns.get(PRICE)[i] = ingredient.price;
+            columns.get(CALORIES)[i] = ingredient.calories;
+            columns.get(INTEGER)[i] = ingredient.integer ? 1 : 0;
+            columns.get(PACK_SIZE)[i] = ingredient.packSize;
+            columns.get(MIN_QUANTITY)[i] = ingredient.minQuantity;
+            columns.get(MAX_QUANTITY)[i] = ingredient.maxQuantity == null ? Double.NaN : ingredient.maxQuantity;
+            if (ingredient.attributes == null) continue;
+            for (Map.Entry<String, Double> attribute : ingredient.attributes.entrySet()) {
+                if (attribute.getValue() == null) continue;
+                String name = AttributeColumns.attributeName(attribute.getKey());
+                columns.computeIfAbsent(name, k -> new double[size])[i] = attribute.getValue();
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Heap-backed catalog of the given ingredients.
+     */
+    static IngredientCatalog of(String id, long version, List<IngredientDTO> ingredients) {
+        List<String> names = new ArrayList<>();
+        Map<String, double[]> columns = columnsOf(id, ingredients, names);
+        return new IngredientCatalog(id, version, new HeapCatalogStorage(names, columns));
+    }
+
+    int size() {
+        return storage.size();
+    }
+
+    /**
+     * Row of the named ingredient ignoring case, or -1.
+     */
+    int indexOf(String name) {
+        return storage.indexOf(name);
+    }
+
+    String name(int row) {
+        return storage.name(row);
+    }
+
+    /**
+     * The attribute's column, or null when the catalog does not have it.
+     */
+    IntToDoubleFunction column(String attribute) {
+        return storage.column(attribute);
+    }
+
+    /**
+     * Names of the further attribute columns, beyond the ingredient fields.
+     */
+    List<String> attributes() {
+        return attributes;
+    }
+
+    /**
+     * Every ingredient, in catalog order.
+     */
+    IngredientList all() {
+        return all;
+    }
+
+    /**
+     * The named ingredients, in the order given.
+     */
+    IngredientList select(List<String> selected) {
+        int[] rows = new int[selected.size()];
+        Set<Integer> seen = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = indexOf(selected.get(i));
+            if (rows[i] < 0) unknown.add(selected.get(i));
+            else if (!seen.add(rows[i])) throw new IllegalArgumentException("Ingredient listed twice: " + selected.get(i));
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Not in catalog " + id + ": " + String.join(", ", unknown));
+        }
+        return new IngredientList(this, rows);
+    }
+
+    double price(int row) {
+        return price.applyAsDouble(row);
+    }
+
+    double calories(int row) {
+        return calories.applyAsDouble(row);
+    }
+
+    boolean integer(int row) {
+        return integer.applyAsDouble(row) != 0;
+    }
+
+    double packSize(int row) {
+        return packSize.applyAsDouble(row);
+    }
+
+    double minQuantity(int row) {
+        return minQuantity.applyAsDouble(row);
+    }
+
+    /**
+     * The row's maximum quantity, NaN when unbounded.
+     */
+    double maxQuantity(int row) {
+        return maxQuantity.applyAsDouble(row);
+    }
+
+    /**
+     * A new DTO read from the row's columns.
+     */
+    IngredientDTO view(int row) {
+        IngredientDTO ingredient = new IngredientDTO();
+        ingredient.name = storage.name(row);
+        ingredient.price = price.applyAsDouble(row);
+        ingredient.calories = calories.applyAsDouble(row);
+        ingredient.integer = integer.applyAsDouble(row) != 0;
+        ingredient.packSize = packSize.applyAsDouble(row);
+        ingredient.minQuantity = minQuantity.applyAsDouble(row);
+        double max = maxQuantity.applyAsDouble(row);
+        ingredient.maxQuantity = Double.isNaN(max) ? null : max;
+        if (!attributes.isEmpty()) {
+            ingredient.attributes = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                double value = storage.column(attribute).applyAsDouble(row);
+                if (value != 0) ingredient.attributes.put(attribute, value);
+            }
+        }
+        return ingredient;
+    }
+
+    private IntToDoubleFunction columnOr(String attribute, IntToDoubleFunction missing) {
+        IntToDoubleFunction column = storage.column(attribute);
+        return column == null ? missing : column;
+    }
+}
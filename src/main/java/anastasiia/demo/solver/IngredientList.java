@@ -0,0 +1,144 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.IngredientDTO;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Request ingredients drawn from a catalog: a read-only list over catalog rows whose names resolve
+ * through a hash index instead of a scan. {@link #get} builds a new DTO each time; the solver reads names and
+ * quantity rules through the column accessors instead.
+ */
+final class IngredientList extends AbstractList<IngredientDTO> implements RandomAccess {
+
+    private final IngredientCatalog catalog;
+    private final int[] rows;                      // null for the whole catalog in catalog order
+    private final Map<String, Integer> positions;  // Subsets only
+    private final String key;                      // null for a request's own streamed ingredients
+    private final String orderedKey;               // key() with the names in list order
+    private final Map<String, ConstraintExpression.Compiled> expressions;
+
+    IngredientList(IngredientCatalog catalog, int[] rows) {
+        this.catalog = catalog;
+        this.rows = rows;
+        if (rows == null) {
+            this.positions = null;
+            this.key = catalog.id == null ? null : "K[" + catalog.id + '@' + catalog.version + ":*]";
+            this.orderedKey = key;
+            this.expressions = catalog.id == null ? null : ConstraintExpression.lru(ConstraintExpression.COMPILED_CACHE_SIZE);
+        } else {
+            this.positions = new HashMap<>(rows.length * 2);
+            String[] folded = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                folded[i] = RequestFingerprint.fold(catalog.name(rows[i]));
+                positions.put(folded[i], i);
+            }
+            this.orderedKey = "K[" + catalog.id + '@' + catalog.version + ':' + String.join(";", folded) + ']';
+            Arrays.sort(folded);
+            this.key = "K[" + catalog.id + '@' + catalog.version + ':' + String.join(";", folded) + ']';
+            this.expressions = null;
+        }
+    }
+
+    @Override
+    public IngredientDTO get(int index) {
+        return catalog.view(row(index));
+    }
+
+    @Override
+    public int size() {
+        return rows == null ? catalog.size() : rows.length;
+    }
+
+    /**
+     * Position of the named ingredient in this list ignoring case, or -1.
+     */
+    int positionOf(String name) {
+        if (rows == null) return catalog.indexOf(name);
+        Integer position = name == null ? null : positions.get(RequestFingerprint.fold(name));
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Name of the ingredient at the position, without building its DTO.
+     */
+    String name(int index) {
+        return catalog.name(row(index));
+    }
+
+    double price(int index) {
+        return catalog.price(row(index));
+    }
+
+    double calories(int index) {
+        return catalog.calories(row(index));
+    }
+
+    boolean integer(int index) {
+        return catalog.integer(row(index));
+    }
+
+    double packSize(int index) {
+        return catalog.packSize(row(index));
+    }
+
+    double minQuantity(int index) {
+        return catalog.minQuantity(row(index));
+    }
+
+    /**
+     * Maximum quantity of the ingredient at the position, NaN when unbounded.
+     */
+    double maxQuantity(int index) {
+        return catalog.maxQuantity(row(index));
+    }
+
+    /**
+     * The attribute's values in list order, read straight from the catalog column; null when it has none.
+     */
+    IntToDoubleFunction column(String attribute) {
+        IntToDoubleFunction column = catalog.column(attribute);
+        if (column == null || rows == null) return column;
+        return index -> column.applyAsDouble(rows[index]);
+    }
+
+    /**
+     * Names of the catalog's further attribute columns.
+     */
+    List<String> attributes() {
+        return catalog.attributes();
+    }
+
+    /**
+     * Order-independent fingerprint of the selection: catalog id, version and the chosen names; null when the
+     * ingredients are not from a registered catalog.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Like {@link #key()}, but with the chosen names in list order, for keys that depend on column order.
+     */
+    String orderedKey() {
+        return orderedKey;
+    }
+
+    /**
+     * Compiled constraint expressions by text when this is every ingredient of a registered catalog, so that they
+     * live as long as the catalog version; null otherwise. Guarded by the map itself.
+     */
+    Map<String, ConstraintExpression.Compiled> expressions() {
+        return expressions;
+    }
+
+    private int row(int index) {
+        return rows == null ? index : rows[index];
+    }
+}
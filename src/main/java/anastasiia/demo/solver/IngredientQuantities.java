@@ -0,0 +1,108 @@
+package anastasiia.demo.solver;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Result quantities over an {@link IngredientList} and the solver's quantity array: a read-only map in ingredient
+ * order that {@link QuantitiesSerializer} writes without boxing a value or copying a name. A sparse map leaves out
+ * near-zero quantities.
+ */
+final class IngredientQuantities extends AbstractMap<String, Double> {
+
+    private final IngredientList ingredients;
+    private final double[] quantities;
+    private final boolean sparse;
+    private final int size;
+
+    IngredientQuantities(IngredientList ingredients, double[] quantities, boolean sparse) {
+        this.ingredients = ingredients;
+        this.quantities = quantities;
+        this.sparse = sparse;
+        int kept = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            if (included(i)) kept++;
+        }
+        this.size = kept;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    public Double get(Object key) {
+        int position = position(key);
+        return position < 0 ? null : quantities[position];
+    }
+
+    @Override
+    public Set<Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < quantities.length;
+                    }
+
+                    @Override
+                    public Entry<String, Double> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        Entry<String, Double> entry = new SimpleImmutableEntry<>(ingredients.name(next), quantities[next]);
+                        next = advance(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Write the entries as fields of the current JSON object.
+     */
+    void writeFields(JsonGenerator generator) throws IOException {
+        for (int i = 0; i < quantities.length; i++) {
+            if (!included(i)) continue;
+            generator.writeFieldName(ingredients.name(i));
+            generator.writeNumber(quantities[i]);
+        }
+    }
+
+    private boolean included(int i) {
+        return !sparse || !DessertSolver.nearZero(quantities[i]);
+    }
+
+    private int advance(int from) {
+        int i = from;
+        while (i < quantities.length && !included(i)) i++;
+        return i;
+    }
+
+    // Keys are exact names, like a map filled from them; the list's own lookup ignores case.
+    private int position(Object key) {
+        if (!(key instanceof String name)) return -1;
+        int position = ingredients.positionOf(name);
+        return position >= 0 && ingredients.name(position).equals(name) && included(position) ? position : -1;
+    }
+}
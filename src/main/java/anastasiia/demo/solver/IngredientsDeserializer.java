@@ -0,0 +1,224 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.IngredientDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a request's ingredient array. Small arrays bind to {@link IngredientDTO}s as usual; past
+ * {@link #STREAM_THRESHOLD} ingredients the rest of the array is parsed token by token straight into columns, and the
+ * request gets an {@link IngredientList} over them instead of one object, name map and boxed value per ingredient.
+ * <p>
+ * Every ingredient, bound or streamed, needs a name, unique ignoring case.
+ */
+public class IngredientsDeserializer extends StdDeserializer<List<IngredientDTO>> {
+
+    static final int STREAM_THRESHOLD = 256;
+
+    public IngredientsDeserializer() {
+        super(List.class);
+    }
+
+    @Override
+    public List<IngredientDTO> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            return castList(context.handleUnexpectedToken(List.class, parser));
+        }
+        List<IngredientDTO> bound = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (bound.size() == STREAM_THRESHOLD) {
+                return stream(parser, context, bound);
+            }
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                return castList(context.reportInputMismatch(this, "Ingredient %d is null", bound.size()));
+            }
+            IngredientDTO ingredient = context.readValue(parser, IngredientDTO.class);
+            if (ingredient.name == null || ingredient.name.isEmpty()) {
+                return castList(context.reportInputMismatch(this, "Ingredient %d has no name", bound.size()));
+            }
+            if (!names.add(RequestFingerprint.fold(ingredient.name))) {
+                return castList(context.reportInputMismatch(this, "Duplicate ingredient %s", ingredient.name));
+            }
+            bound.add(ingredient);
+        }
+        return bound;
+    }
+
+    /**
+     * Move the ingredients bound so far into columns, then read the remaining ones into them; the parser is on the
+     * first unread element.
+     */
+    private List<IngredientDTO> stream(JsonParser parser, DeserializationContext context, List<IngredientDTO> bound) throws IOException {
+        Columns columns = new Columns(bound.size() * 4);
+        for (IngredientDTO ingredient : bound) {
+            try {
+                columns.add(ingredient);
+            } catch (IllegalArgumentException e) {
+                return castList(context.reportInputMismatch(this, e.getMessage()));
+            }
+        }
+        do {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return castList(context.reportInputMismatch(this, "Ingredient %d is not an object", columns.size));
+            }
+            readIngredient(parser, context, columns);
+        } while (parser.nextToken() != JsonToken.END_ARRAY);
+
+        try {
+            return new IngredientCatalog(null, 0, columns.storage()).all();
+        } catch (IllegalArgumentException e) {
+            return castList(context.reportInputMismatch(this, e.getMessage()));
+        }
+    }
+
+    private void readIngredient(JsonParser parser, DeserializationContext context, Columns columns) throws IOException {
+        int row = columns.next();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> columns.names[row] = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "price" -> columns.price[row] = number(parser, context);
+                case "calories" -> columns.calories[row] = number(parser, context);
+                case "integer" -> columns.integer[row] = parser.getValueAsBoolean() ? 1 : 0;
+                case "packSize" -> columns.packSize[row] = number(parser, context);
+                case "minQuantity" -> columns.minQuantity[row] = number(parser, context);
+                case "maxQuantity" -> columns.maxQuantity[row] = value == JsonToken.VALUE_NULL ? Double.NaN : number(parser, context);
+                case "attributes" -> readAttributes(parser, context, columns, row);
+                default -> context.handleUnknownProperty(parser, this, IngredientDTO.class, field);
+            }
+        }
+        String name = columns.names[row];
+        if (name == null || name.isEmpty()) {
+            context.reportInputMismatch(this, "Ingredient %d has no name", row);
+        }
+    }
+
+    private void readAttributes(JsonParser parser, DeserializationContext context, Columns columns, int row) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) return;
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            context.reportInputMismatch(this, "Attributes of ingredient %d are not an object", row);
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String attribute = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) continue;
+            String name;
+            try {
+                name = AttributeColumns.attributeName(attribute);
+            } catch (IllegalArgumentException e) {
+                context.reportInputMismatch(this, e.getMessage());
+                return;
+            }
+            columns.attribute(name)[row] = number(parser, context);
+        }
+    }
+
+    // Numbers read without boxing; anything else is coerced the way a double field would be. Decimals of a text
+    // format are parsed from the parser's buffer, which getDoubleValue() would first copy into a String; the fast
+    // parser rounds exactly like Double.parseDouble.
+    private static double number(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT && parser.getNumberTypeFP() == JsonParser.NumberTypeFP.UNKNOWN) {
+            return NumberInput.parseDouble(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), true);
+        }
+        if (parser.currentToken().isNumeric()) return parser.getDoubleValue();
+        Double value = context.readValue(parser, Double.class);
+        return value == null ? 0 : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<IngredientDTO> castList(Object value) {
+        return (List<IngredientDTO>) value;
+    }
+
+    /**
+     * Growable ingredient columns, in the layout {@link IngredientCatalog} reads.
+     */
+    private static final class Columns {
+        int size;
+        String[] names;
+        double[] price;
+        double[] calories;
+        double[] integer;
+        double[] packSize;
+        double[] minQuantity;
+        double[] maxQuantity;
+        final Map<String, double[]> attributes = new LinkedHashMap<>();
+
+        Columns(int capacity) {
+            names = new String[capacity];
+            price = new double[capacity];
+            calories = new double[capacity];
+            integer = new double[capacity];
+            packSize = new double[capacity];
+            minQuantity = new double[capacity];
+            maxQuantity = new double[capacity];
+        }
+
+        /**
+         * Row for the next ingredient, with the defaults an {@link IngredientDTO} has.
+         */
+        int next() {
+            if (size == names.length) {
+                int capacity = size * 2;
+                names = Arrays.copyOf(names, capacity);
+                price = Arrays.copyOf(price, capacity);
+                calories = Arrays.copyOf(calories, capacity);
+                integer = Arrays.copyOf(integer, capacity);
+                packSize = Arrays.copyOf(packSize, capacity);
+                minQuantity = Arrays.copyOf(minQuantity, capacity);
+                maxQuantity = Arrays.copyOf(maxQuantity, capacity);
+                attributes.replaceAll((name, values) -> Arrays.copyOf(values, capacity));
+            }
+            maxQuantity[size] = Double.NaN;
+            return size++;
+        }
+
+        double[] attribute(String name) {
+            return attributes.computeIfAbsent(name, k -> new double[names.length]);
+        }
+
+        void add(IngredientDTO ingredient) {
+            int row = next();
+            names[row] = ingredient.name;
+            price[row] = ingredient.price;
+            calories[row] = ingredient.calories;
+            integer[row] = ingredient.integer ? 1 : 0;
+            packSize[row] = ingredient.packSize;
+            minQuantity[row] = ingredient.minQuantity;
+            maxQuantity[row] = ingredient.maxQuantity == null ? Double.NaN : ingredient.maxQuantity;
+            if (ingredient.attributes == null) return;
+            for (Map.Entry<String, Double> attribute : ingredient.attributes.entrySet()) {
+                if (attribute.getValue() == null) continue;
+                attribute(AttributeColumns.attributeName(attribute.getKey()))[row] = attribute.getValue();
+            }
+        }
+
+        /**
+         * Storage over the first {@code size} rows; the arrays are handed over as they are, spare capacity included.
+         */
+        CatalogStorage storage() {
+            Map<String, double[]> columns = new LinkedHashMap<>();
+            columns.put(IngredientCatalog.PRICE, price);
+            columns.put(IngredientCatalog.CALORIES, calories);
+            columns.put(IngredientCatalog.INTEGER, integer);
+            columns.put(IngredientCatalog.PACK_SIZE, packSize);
+            columns.put(IngredientCatalog.MIN_QUANTITY, minQuantity);
+            columns.put(IngredientCatalog.MAX_QUANTITY, maxQuantity);
+            columns.putAll(attributes);
+            return new HeapCatalogStorage(names, size, columns);
+        }
+    }
+}
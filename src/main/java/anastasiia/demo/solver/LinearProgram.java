@@ -0,0 +1,246 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.enums.Direction;
+
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Optimisation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Dessert problem in standard form: {@code A x = b, x >= 0}.
+ * <p>
+ * Columns {@code 0..ingredientCount-1} are ingredient quantities, the remaining columns are one slack
+ * per inequality row. Rows are stored in CSR form. The right-hand side is not stored: each row knows
+ * how to read its bound from a request, so one program can be re-solved for every request with the
+ * same {@link RequestFingerprint#structureOf structure}.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+final class LinearProgram {
+
+    // Request rule a row comes from, for infeasibility diagnosis; custom constraints count by their position.
+    static final int NO_RULE = -1;             // Ingredient quantity bounds
+    static final int MAX_PRICE = 0;
+    static final int MAX_CALORIES = 1;
+    static final int TOTAL_WEIGHT = 2;
+    static final int AESTHETIC = 3;
+    static final int FIRST_CUSTOM = 4;
+
+    final int ingredientCount;
+    final int columnCount;
+    final String[] rowNames;
+    final int[] rowStart;
+    final int[] columnIndex;
+    final double[] values;
+    final double[] objective; // Ingredient coefficients of the goal, in the maximise sense
+    final int[] rowRules;
+    private final RowBound[] bounds;
+
+    private volatile MatrixStore<Double> equalities;
+
+    LinearProgram(int ingredientCount, int columnCount, String[] rowNames, int[] rowStart, int[] columnIndex,
+                  double[] values, RowBound[] bounds, double[] objective, int[] rowRules) {
+        this.ingredientCount = ingredientCount;
+        this.columnCount = columnCount;
+        this.rowNames = rowNames;
+        this.rowStart = rowStart;
+        this.columnIndex = columnIndex;
+        this.values = values;
+        this.bounds = bounds;
+        this.objective = objective;
+        this.rowRules = rowRules;
+    }
+
+    /**
+     * The rows of the kept rules and every quantity-bound row, sharing this program's columns; a dropped row's slack
+     * column is left empty.
+     */
+    LinearProgram withRules(BitSet kept) {
+        int rows = 0;
+        int nonZeros = 0;
+        for (int i = 0; i < rowCount(); i++) {
+            if (keeps(kept, i)) {
+                rows++;
+                nonZeros += rowStart[i + 1] - rowStart[i];
+            }
+        }
+        String[] names = new String[rows];
+        int[] starts = new int[rows + 1];
+        int[] columns = new int[nonZeros];
+        double[] entries = new double[nonZeros];
+        RowBound[] rowBounds = new RowBound[rows];
+        int[] rules = new int[rows];
+        int row = 0;
+        int k = 0;
+        for (int i = 0; i < rowCount(); i++) {
+            if (!keeps(kept, i)) continue;
+            int length = rowStart[i + 1] - rowStart[i];
+            System.arraycopy(columnIndex, rowStart[i], columns, k, length);
+            System.arraycopy(values, rowStart[i], entries, k, length);
+            names[row] = rowNames[i];
+            rowBounds[row] = bounds[i];
+            rules[row] = rowRules[i];
+            k += length;
+            starts[++row] = k;
+        }
+        return new LinearProgram(ingredientCount, columnCount, names, starts, columns, entries, rowBounds, objective, rules);
+    }
+
+    /**
+     * This program with one more row after the others, {@code coefficients} over the ingredients held below
+     * ({@code slackSign} 1) or above (-1) {@code bound}, and the given objective. The other arrays are copied once.
+     */
+    LinearProgram withRow(String name, double[] coefficients, int slackSign, RowBound bound, double[] objective) {
+        int rows = rowCount();
+        int nonZeros = values.length;
+        int[] columns = Arrays.copyOf(columnIndex, nonZeros + ingredientCount + 1);
+        double[] entries = Arrays.copyOf(values, columns.length);
+        for (int j = 0; j < ingredientCount; j++) {
+            if (coefficients[j] == 0) continue;
+            columns[nonZeros] = j;
+            entries[nonZeros++] = coefficients[j];
+        }
+        columns[nonZeros] = columnCount;
+        entries[nonZeros++] = slackSign;
+        int[] starts = Arrays.copyOf(rowStart, rows + 2);
+        starts[rows + 1] = nonZeros;
+        String[] names = Arrays.copyOf(rowNames, rows + 1);
+        names[rows] = name;
+        RowBound[] rowBounds = Arrays.copyOf(bounds, rows + 1);
+        rowBounds[rows] = bound;
+        int[] rules = Arrays.copyOf(rowRules, rows + 1);
+        rules[rows] = NO_RULE;
+        return new LinearProgram(ingredientCount, columnCount + 1, names, starts, Arrays.copyOf(columns, nonZeros),
+                Arrays.copyOf(entries, nonZeros), rowBounds, objective, rules);
+    }
+
+    /**
+     * The same rows with another objective; nothing is copied.
+     */
+    LinearProgram withObjective(double[] objective) {
+        return new LinearProgram(ingredientCount, columnCount, rowNames, rowStart, columnIndex, values, bounds, objective, rowRules);
+    }
+
+    private boolean keeps(BitSet kept, int row) {
+        return rowRules[row] == NO_RULE || kept.get(rowRules[row]);
+    }
+
+    int rowCount() {
+        return rowNames.length;
+    }
+
+    /**
+     * +1 when the row is an upper bound, -1 for a lower bound, 0 for an equality.
+     */
+    int slackSign(int row) {
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            if (columnIndex[k] >= ingredientCount) return (int) Math.signum(values[k]);
+        }
+        return 0;
+    }
+
+    /**
+     * Value of the row's ingredient part at the given quantities.
+     */
+    double activity(int row, double[] quantities) {
+        double sum = 0;
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            if (columnIndex[k] < ingredientCount) sum += values[k] * quantities[columnIndex[k]];
+        }
+        return sum;
+    }
+
+    /**
+     * Whether the ingredient quantities are non-negative and meet every row for the given right-hand side.
+     */
+    boolean satisfies(double[] rhs, double[] quantities, double tolerance) {
+        for (int j = 0; j < ingredientCount; j++) {
+            if (quantities[j] < -tolerance) return false;
+        }
+        for (int row = 0; row < rhs.length; row++) {
+            double gap = rhs[row] - activity(row, quantities);
+            int sign = slackSign(row);
+            if (sign == 0 ? Math.abs(gap) > tolerance : sign * gap < -tolerance) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Rough heap footprint, including the dense matrix built on first solve.
+     */
+    long estimatedBytes() {
+        return 4L * (rowStart.length + columnIndex.length)
+                + 8L * (values.length + objective.length)
+                + 8L * rowCount() * columnCount
+                + 64L * rowCount();
+    }
+
+    /**
+     * Right-hand side of every row for the given request.
+     */
+    double[] rightHandSide(DessertRequestDTO request) {
+        List<DessertRequestDTO.ConstraintDTO> custom = RequestFingerprint.canonicalConstraints(request.constraintsBlock);
+        double[] rhs = new double[bounds.length];
+        for (int i = 0; i < rhs.length; i++) {
+            rhs[i] = bounds[i].value(request, custom);
+        }
+        return rhs;
+    }
+
+    /**
+     * Same sign convention as DessertSolver.setObjective: no goal maximises price.
+     */
+    static boolean maximises(DessertRequestDTO request) {
+        return request.goal == null || request.goal.targetType == null || request.goal.direction == Direction.MAXIMIZE;
+    }
+
+    /**
+     * Solve the program with the bounds and direction of the given request.
+     * The first {@code ingredientCount} entries of the result are the ingredient quantities.
+     */
+    Optimisation.Result solve(DessertRequestDTO request) {
+        return solve(SolverEngine.OJALGO, request);
+    }
+
+    Optimisation.Result solve(SolverEngine engine, DessertRequestDTO request) {
+        return engine.solve(this, rightHandSide(request), maximises(request), request.timeLimitMs);
+    }
+
+    /**
+     * Constraint matrix as a dense column-major array wrapped for ojAlgo, built once per program.
+     */
+    MatrixStore<Double> equalities() {
+        MatrixStore<Double> store = equalities;
+        if (store == null) {
+            int rows = rowCount();
+            double[] dense = new double[rows * columnCount];
+            for (int i = 0; i < rows; i++) {
+                for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                    dense[columnIndex[k] * rows + i] = values[k];
+                }
+            }
+            store = Primitive64Store.wrap(dense, rows);
+            equalities = store;
+        }
+        return store;
+    }
+
+    @Override
+    public String toString() {
+        return "LinearProgram[" + rowCount() + " rows x " + columnCount + " columns, " + values.length + " nonzeros: "
+                + String.join(", ", rowNames) + "]";
+    }
+
+    /**
+     * Computes the right-hand side of one row from a request and its canonically sorted custom constraints.
+     */
+    @FunctionalInterface
+    interface RowBound {
+        double value(DessertRequestDTO request, List<DessertRequestDTO.ConstraintDTO> customConstraints);
+    }
+}
@@ -0,0 +1,313 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.TargetType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link LinearProgram} straight from a request using primitive arrays.
+ * <p>
+ * Ingredient attributes come as {@link AttributeColumns}, so assembly never goes through
+ * per-element {@code ToDoubleFunction} calls or per-entry map inserts. Rows follow the same rules as
+ * the expression-based path in {@link DessertSolver}; custom constraints are laid out in canonical order
+ * so the program can also serve as a compiled template.
+ */
+final class LinearProgramAssembler {
+
+    private static final double DEFAULT_WEIGHT_COEFFICIENT = 1.0;
+
+    private final List<IngredientDTO> ingredients;
+    private final int n;
+    private final AttributeColumns columns;
+
+    private final List<String> rowNames = new ArrayList<>();
+    private final List<LinearProgram.RowBound> bounds = new ArrayList<>();
+    private int[] rowStart = new int[16];
+    private int[] rowRules = new int[16];
+    private int rule = LinearProgram.NO_RULE;
+    private int[] columnIndex;
+    private double[] values;
+    private int nonZeros;
+    private int slacks;
+
+    private LinearProgramAssembler(List<IngredientDTO> ingredients, AttributeColumns columns) {
+        this.ingredients = ingredients;
+        this.n = ingredients.size();
+        this.columns = columns;
+        this.columnIndex = new int[Math.max(16, n * 2)];
+        this.values = new double[columnIndex.length];
+    }
+
+    /**
+     * Assemble the request, or return null when it has no constraint rows (the standard-form solver
+     * needs at least one) or has integer, packed or bounded ingredients (left to the expression path).
+     */
+    static LinearProgram assemble(DessertRequestDTO request) {
+        return assemble(request, AttributeColumns.of(request.ingredients));
+    }
+
+    static LinearProgram assemble(DessertRequestDTO request, AttributeColumns columns) {
+        return assemble(request, columns, false);
+    }
+
+    /**
+     * With {@code boundRows} set, continuous minimum and maximum quantities become rows ({@code MinQuantity_<name>},
+     * {@code MaxQuantity_<name>}) after the others, so they get dual values; only integer and packed ingredients are
+     * left to the expression path.
+     */
+    static LinearProgram assemble(DessertRequestDTO request, AttributeColumns columns, boolean boundRows) {
+        List<IngredientDTO> ingredients = request.ingredients;
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (boundRows ? DessertSolver.isDiscrete(ingredients, i) : DessertSolver.hasQuantityRules(ingredients, i)) return null;
+        }
+        return assembleRows(request, columns, boundRows);
+    }
+
+    /**
+     * The program with bound rows, integer and packed ingredients taken as continuous: the linear relaxation, which
+     * is infeasible whenever the request is.
+     */
+    static LinearProgram relaxation(DessertRequestDTO request, AttributeColumns columns) {
+        return assembleRows(request, columns, true);
+    }
+
+    private static LinearProgram assembleRows(DessertRequestDTO request, AttributeColumns columns, boolean boundRows) {
+        LinearProgramAssembler assembler = new LinearProgramAssembler(request.ingredients, columns);
+
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        if (block != null) {
+            assembler.rule = LinearProgram.MAX_PRICE;
+            if (block.maxPrice > 0)
+                assembler.addDense("MaxPrice", columns.price(), 1, (r, c) -> r.constraintsBlock.maxPrice);
+            assembler.rule = LinearProgram.MAX_CALORIES;
+            if (block.maxCalories > 0)
+                assembler.addDense("MaxCalories", columns.calories(), 1, (r, c) -> r.constraintsBlock.maxCalories);
+            assembler.rule = LinearProgram.TOTAL_WEIGHT;
+            if (block.totalWeight > 0)
+                assembler.addUniform("TotalWeight", DEFAULT_WEIGHT_COEFFICIENT, 0, (r, c) -> r.constraintsBlock.totalWeight);
+
+            // Rows are in canonical order, their rules keep the request's positions.
+            Map<DessertRequestDTO.ConstraintDTO, Integer> positions = new IdentityHashMap<>();
+            if (block.constraints != null) {
+                for (int k = 0; k < block.constraints.size(); k++) positions.put(block.constraints.get(k), k);
+            }
+            List<DessertRequestDTO.ConstraintDTO> custom = RequestFingerprint.canonicalConstraints(block);
+            Map<DessertRequestDTO.ConstraintDTO, String> names = customRowNames(custom);
+            for (int k = 0; k < custom.size(); k++) {
+                assembler.rule = LinearProgram.FIRST_CUSTOM + positions.get(custom.get(k));
+                assembler.addCustom(names.get(custom.get(k)), custom.get(k), k);
+            }
+        }
+        if (request.aestheticConstraint != null && request.aestheticConstraint.ingredientName != null
+                && !request.aestheticConstraint.ingredientName.isEmpty()) {
+            assembler.rule = LinearProgram.AESTHETIC;
+            assembler.addAesthetic(request.aestheticConstraint);
+        }
+        if (boundRows) {
+            assembler.rule = LinearProgram.NO_RULE;
+            assembler.addQuantityBounds();
+        }
+
+        if (assembler.rowNames.isEmpty()) return null;
+        return assembler.build(assembler.objective(request.goal));
+    }
+
+    private void addCustom(String name, DessertRequestDTO.ConstraintDTO constraint, int k) {
+        ConstraintExpression.Compiled expression = ConstraintExpression.compile(constraint.left, ingredients, columns);
+        ConstraintOp op = expression == null ? constraint.op : expression.op(constraint);
+        double offset = expression == null ? 0 : expression.offset;
+
+        if (op == ConstraintOp.EQUALS && !constraint.allowDeviation) {
+            addCustomRow(name, constraint.left, expression, 0, (r, c) -> c.get(k).right + offset);
+            return;
+        }
+        if (!Double.isNaN(op.lowerBound(0, 0))) {
+            addCustomRow(name, constraint.left, expression, -1,
+                    (r, c) -> op.lowerBound(c.get(k).right + offset, tolerance(c.get(k), offset)));
+        }
+        if (!Double.isNaN(op.upperBound(0, 0))) {
+            addCustomRow(name, constraint.left, expression, 1,
+                    (r, c) -> op.upperBound(c.get(k).right + offset, tolerance(c.get(k), offset)));
+        }
+    }
+
+    /**
+     * Row name of each custom constraint, given in canonical order: {@code Custom_<left>_<op>}, just
+     * {@code Custom_<left>} for an expression that carries its own comparison, and {@code #2}, {@code #3}... appended
+     * to repeats. Every solve path and report names a constraint by this.
+     */
+    static Map<DessertRequestDTO.ConstraintDTO, String> customRowNames(List<DessertRequestDTO.ConstraintDTO> canonical) {
+        Map<DessertRequestDTO.ConstraintDTO, String> names = new IdentityHashMap<>();
+        Map<String, Integer> repeats = new HashMap<>();
+        for (DessertRequestDTO.ConstraintDTO constraint : canonical) {
+            String name = "Custom_" + constraint.left + (constraint.op == null ? "" : "_" + constraint.op);
+            int seen = repeats.merge(name, 1, Integer::sum);
+            names.put(constraint, seen == 1 ? name : name + "#" + seen);
+        }
+        return names;
+    }
+
+    private void addCustomRow(String name, String left, ConstraintExpression.Compiled expression, int slackSign, LinearProgram.RowBound bound) {
+        if (expression != null) {
+            beginRow(name, bound);
+            for (int j = 0; j < expression.index.length; j++) {
+                put(expression.index[j], expression.value[j]);
+            }
+            endRow(slackSign);
+            return;
+        }
+        int index = indexOf(left);
+        if (index != -1) {
+            beginRow(name, bound);
+            put(index, DEFAULT_WEIGHT_COEFFICIENT);
+            endRow(slackSign);
+            return;
+        }
+        double[] attribute = columns.column(left);
+        if ("weight".equalsIgnoreCase(left)) {
+            addUniform(name, DEFAULT_WEIGHT_COEFFICIENT, slackSign, bound);
+        } else if (attribute != null) {
+            addDense(name, attribute, slackSign, bound);
+        } else {
+            // Unknown left side: an empty row that only constrains 0 against the bound.
+            beginRow(name, bound);
+            endRow(slackSign);
+        }
+    }
+
+    private void addAesthetic(DessertRequestDTO.AestheticConstraint aesthetic) {
+        int targetIndex = indexOf(aesthetic.ingredientName);
+        if (targetIndex == -1 || aesthetic.percent <= 0) return;
+
+        int slackSign;
+        if ("min".equalsIgnoreCase(aesthetic.ruleType)) slackSign = -1;
+        else if ("max".equalsIgnoreCase(aesthetic.ruleType)) slackSign = 1;
+        else return;
+
+        beginRow("AestheticConstraint", (r, c) -> 0);
+        for (int i = 0; i < n; i++) {
+            put(i, i == targetIndex ? DEFAULT_WEIGHT_COEFFICIENT - aesthetic.percent : -aesthetic.percent);
+        }
+        endRow(slackSign);
+    }
+
+    private void addQuantityBounds() {
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            if (DessertSolver.minQuantity(ingredients, i) > 0) {
+                beginRow("MinQuantity_" + DessertSolver.name(ingredients, i), (r, c) -> DessertSolver.minQuantity(r.ingredients, index));
+                put(i, DEFAULT_WEIGHT_COEFFICIENT);
+                endRow(-1);
+            }
+            if (!Double.isNaN(DessertSolver.maxQuantity(ingredients, i))) {
+                beginRow("MaxQuantity_" + DessertSolver.name(ingredients, i), (r, c) -> DessertSolver.maxQuantity(r.ingredients, index));
+                put(i, DEFAULT_WEIGHT_COEFFICIENT);
+                endRow(1);
+            }
+        }
+    }
+
+    private double[] objective(DessertRequestDTO.GoalDTO goal) {
+        if (goal == null || goal.targetType == null) {
+            return columns.price().clone();
+        }
+        if (goal.targetType != TargetType.INGREDIENT) {
+            double[] attribute = DessertSolver.objectiveColumn(columns, goal);
+            return attribute == null ? new double[n] : attribute.clone();
+        }
+        double[] coefficients = new double[n];
+        int index = indexOf(goal.targetName);
+        if (index != -1) coefficients[index] = DEFAULT_WEIGHT_COEFFICIENT;
+        return coefficients;
+    }
+
+    /**
+     * {@code slackSign} is +1 for an upper bound, -1 for a lower bound and 0 for an equality.
+     */
+    private void addDense(String name, double[] coefficients, int slackSign, LinearProgram.RowBound bound) {
+        beginRow(name, bound);
+        for (int i = 0; i < n; i++) {
+            put(i, coefficients[i]);
+        }
+        endRow(slackSign);
+    }
+
+    private void addUniform(String name, double coefficient, int slackSign, LinearProgram.RowBound bound) {
+        beginRow(name, bound);
+        for (int i = 0; i < n; i++) {
+            put(i, coefficient);
+        }
+        endRow(slackSign);
+    }
+
+    private void beginRow(String name, LinearProgram.RowBound bound) {
+        int row = rowNames.size();
+        if (row + 2 > rowStart.length) {
+            rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+            rowRules = Arrays.copyOf(rowRules, rowStart.length);
+        }
+        rowStart[row] = nonZeros;
+        rowRules[row] = rule;
+        rowNames.add(name);
+        bounds.add(bound);
+    }
+
+    private void endRow(int slackSign) {
+        if (slackSign != 0) {
+            put(n + slacks++, slackSign);
+        }
+        rowStart[rowNames.size()] = nonZeros;
+    }
+
+    private void put(int column, double value) {
+        if (value == 0) return;
+        if (nonZeros == values.length) {
+            columnIndex = Arrays.copyOf(columnIndex, nonZeros * 2);
+            values = Arrays.copyOf(values, nonZeros * 2);
+        }
+        columnIndex[nonZeros] = column;
+        values[nonZeros++] = value;
+    }
+
+    private LinearProgram build(double[] objective) {
+        int rows = rowNames.size();
+        return new LinearProgram(
+                n,
+                n + slacks,
+                rowNames.toArray(new String[0]),
+                Arrays.copyOf(rowStart, rows + 1),
+                Arrays.copyOf(columnIndex, nonZeros),
+                Arrays.copyOf(values, nonZeros),
+                bounds.toArray(new LinearProgram.RowBound[0]),
+                objective,
+                Arrays.copyOf(rowRules, rows));
+    }
+
+    /**
+     * Catalog ingredients resolve through their index; otherwise a linear scan without allocation,
+     * since requests only resolve a handful of names.
+     */
+    private int indexOf(String name) {
+        if (ingredients instanceof IngredientList catalogIngredients) {
+            return catalogIngredients.positionOf(name);
+        }
+        for (int i = 0; i < n; i++) {
+            if (ingredients.get(i).name.equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static double tolerance(DessertRequestDTO.ConstraintDTO constraint, double offset) {
+        return constraint.allowDeviation ? (constraint.right + offset) * 0.10 : 0;
+    }
+}
@@ -0,0 +1,610 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.PresolveReportDTO;
+import anastasiia.demo.enums.PresolveReduction;
+
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.structure.Structure1D;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Presolve and scaling for a model built by {@link DessertSolver}, read as a maximisation.
+ * <p>
+ * Reductions run in passes until nothing changes: singleton rows become bounds, bounds are tightened from
+ * row activities, rows that always hold are dropped, rows that can only hold at one corner fix their
+ * variables, variables whose bounds meet or that sit in no row are fixed, and a continuous column that
+ * another column matches or beats in every row and in the objective is fixed at zero. Every reduction
+ * keeps at least one optimum of the original model.
+ * <p>
+ * The remaining matrix is scaled by powers of two, geometric mean over rows then columns; integer columns
+ * keep scale 1. {@link Presolved#maximise} solves the reduced model and maps its point back onto every
+ * original variable, in the original order.
+ */
+final class ModelPresolver {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final double MIN_TIGHTENING = 1e-3; // Relative; smaller steps are not worth another pass
+    private static final int MAX_PASSES = 16;
+    private static final int SCALING_PASSES = 4;
+    private static final int MAX_DOMINATORS = 256;      // Per group, keeps the dominance search near linear
+
+    private final int columns;
+    private final String[] names;
+    private final double[] lower;
+    private final double[] upper;
+    private final double[] cost;                        // Objective coefficient in the maximise sense
+    private final boolean[] integer;
+    private final int[] upperSource;                    // Row that implied the upper bound, -1 when it was given
+    private final boolean[] upperGiven;                 // A finite upper bound came from the model or a singleton row
+
+    private final String[] rowNames;
+    private final int[][] rowColumns;
+    private final double[][] rowValues;
+    private final double[] rowLower;                    // Shifted by the value of every fixed column
+    private final double[] rowUpper;
+    private final int[][] columnRows;
+    private final double[][] columnValues;
+
+    private final boolean[] rowAlive;
+    private final boolean[] columnAlive;
+    private final double[] fixedValue;
+
+    private final Map<String, PresolveReduction> eliminated = new LinkedHashMap<>();
+    private final Map<String, PresolveReduction> removed = new LinkedHashMap<>();
+    private int tightened;
+    private boolean infeasible;
+
+    /**
+     * Presolve the model, or return null when it is not linear or presolve proves it infeasible;
+     * the original model should then be solved as is, so the solver reports the state.
+     */
+    static Presolved presolve(ExpressionsBasedModel model) {
+        for (Expression expression : model.getExpressions()) {
+            if (expression.isAnyQuadraticFactorNonZero()) return null;
+        }
+        ModelPresolver presolver = new ModelPresolver(model);
+        presolver.reduce();
+        return presolver.infeasible ? null : presolver.build();
+    }
+
+    private ModelPresolver(ExpressionsBasedModel model) {
+        List<Variable> variables = model.getVariables();
+        columns = variables.size();
+        names = new String[columns];
+        lower = new double[columns];
+        upper = new double[columns];
+        cost = new double[columns];
+        integer = new boolean[columns];
+        upperSource = new int[columns];
+        upperGiven = new boolean[columns];
+        for (int j = 0; j < columns; j++) {
+            Variable variable = variables.get(j);
+            names[j] = variable.getName();
+            integer[j] = variable.isInteger();
+            lower[j] = limit(variable.getLowerLimit(), Double.NEGATIVE_INFINITY);
+            upper[j] = limit(variable.getUpperLimit(), Double.POSITIVE_INFINITY);
+            upperSource[j] = -1;
+            upperGiven[j] = upper[j] < Double.POSITIVE_INFINITY;
+            if (integer[j]) {
+                lower[j] = Math.ceil(lower[j] - TOLERANCE);
+                upper[j] = Math.floor(upper[j] + TOLERANCE);
+            }
+            if (variable.isObjective()) cost[j] += variable.getContributionWeight().doubleValue();
+            infeasible |= lower[j] > upper[j] + tolerance(upper[j]);
+        }
+
+        List<Expression> rows = new ArrayList<>();
+        for (Expression expression : model.getExpressions()) {
+            if (expression.isObjective()) {
+                double weight = expression.getContributionWeight().doubleValue();
+                for (Map.Entry<Structure1D.IntIndex, BigDecimal> entry : expression.getLinearEntrySet()) {
+                    cost[entry.getKey().index] += weight * entry.getValue().doubleValue();
+                }
+            }
+            if (expression.isConstraint()) rows.add(expression);
+        }
+
+        int rowCount = rows.size();
+        rowNames = new String[rowCount];
+        rowColumns = new int[rowCount][];
+        rowValues = new double[rowCount][];
+        rowLower = new double[rowCount];
+        rowUpper = new double[rowCount];
+        int[] columnCounts = new int[columns];
+        for (int i = 0; i < rowCount; i++) {
+            Expression expression = rows.get(i);
+            List<Map.Entry<Structure1D.IntIndex, BigDecimal>> entries = new ArrayList<>(expression.getLinearEntrySet());
+            entries.removeIf(e -> e.getValue().signum() == 0);
+            entries.sort(Comparator.comparingInt(e -> e.getKey().index));
+            rowNames[i] = expression.getName();
+            rowColumns[i] = new int[entries.size()];
+            rowValues[i] = new double[entries.size()];
+            for (int k = 0; k < entries.size(); k++) {
+                rowColumns[i][k] = entries.get(k).getKey().index;
+                rowValues[i][k] = entries.get(k).getValue().doubleValue();
+                columnCounts[rowColumns[i][k]]++;
+            }
+            rowLower[i] = limit(expression.getLowerLimit(), Double.NEGATIVE_INFINITY);
+            rowUpper[i] = limit(expression.getUpperLimit(), Double.POSITIVE_INFINITY);
+        }
+
+        columnRows = new int[columns][];
+        columnValues = new double[columns][];
+        for (int j = 0; j < columns; j++) {
+            columnRows[j] = new int[columnCounts[j]];
+            columnValues[j] = new double[columnCounts[j]];
+            columnCounts[j] = 0;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                int j = rowColumns[i][k];
+                columnRows[j][columnCounts[j]] = i;
+                columnValues[j][columnCounts[j]++] = rowValues[i][k];
+            }
+        }
+
+        rowAlive = new boolean[rowCount];
+        columnAlive = new boolean[columns];
+        fixedValue = new double[columns];
+        Arrays.fill(rowAlive, true);
+        Arrays.fill(columnAlive, true);
+    }
+
+    private void reduce() {
+        boolean changed = true;
+        for (int pass = 0; changed && !infeasible && pass < MAX_PASSES; pass++) {
+            changed = reduceRows();
+            if (!infeasible) changed |= reduceColumns();
+            if (!infeasible) changed |= removeDominated();
+        }
+    }
+
+    // ---- Rows ----
+
+    private boolean reduceRows() {
+        boolean changed = false;
+        for (int i = 0; i < rowAlive.length && !infeasible; i++) {
+            if (!rowAlive[i]) continue;
+            Activity activity = activity(i);
+            if (activity.live == 0) {
+                infeasible = rowLower[i] > tolerance(rowLower[i]) || rowUpper[i] < -tolerance(rowUpper[i]);
+                removeRow(i, PresolveReduction.EMPTY);
+                changed = true;
+            } else if (activity.live == 1) {
+                singletonToBound(i, activity.lastLive);
+                changed = true;
+            } else if (activity.min > rowUpper[i] + tolerance(rowUpper[i]) || activity.max < rowLower[i] - tolerance(rowLower[i])) {
+                infeasible = true;
+            } else if (activity.min >= rowLower[i] - tolerance(rowLower[i]) && activity.max <= rowUpper[i] + tolerance(rowUpper[i])) {
+                removeRow(i, PresolveReduction.REDUNDANT);
+                changed = true;
+            } else if (activity.min >= rowUpper[i] - tolerance(rowUpper[i])) {
+                force(i, true);
+                changed = true;
+            } else if (activity.max <= rowLower[i] + tolerance(rowLower[i])) {
+                force(i, false);
+                changed = true;
+            } else {
+                changed |= propagate(i, activity);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * A row on one live column is a bound on that column.
+     */
+    private void singletonToBound(int row, int k) {
+        int j = rowColumns[row][k];
+        double a = rowValues[row][k];
+        double low = (a > 0 ? rowLower[row] : rowUpper[row]) / a;
+        double high = (a > 0 ? rowUpper[row] : rowLower[row]) / a;
+        removeRow(row, PresolveReduction.SINGLETON);
+        tightenLower(j, low, -1);
+        tightenUpper(j, high, -1);
+    }
+
+    /**
+     * The row only holds with every column at the bound that minimises (or maximises) the activity.
+     */
+    private void force(int row, boolean atMinimum) {
+        for (int k = 0; k < rowColumns[row].length; k++) {
+            int j = rowColumns[row][k];
+            if (!columnAlive[j]) continue;
+            boolean toLower = (rowValues[row][k] > 0) == atMinimum;
+            fix(j, toLower ? lower[j] : upper[j], PresolveReduction.FORCED);
+        }
+        removeRow(row, PresolveReduction.EMPTY);
+    }
+
+    /**
+     * Implied bounds: with every other column at its most helpful bound, how far can this one go.
+     */
+    private boolean propagate(int row, Activity activity) {
+        boolean changed = false;
+        for (int k = 0; k < rowColumns[row].length; k++) {
+            int j = rowColumns[row][k];
+            if (!columnAlive[j]) continue;
+            double a = rowValues[row][k];
+            if (activity.minInfinite == 0 && rowUpper[row] < Double.POSITIVE_INFINITY) {
+                double slack = rowUpper[row] - activity.min;
+                changed |= a > 0 ? tightenUpper(j, lower[j] + slack / a, row) : tightenLower(j, upper[j] + slack / a, row);
+            }
+            if (activity.maxInfinite == 0 && rowLower[row] > Double.NEGATIVE_INFINITY) {
+                double slack = activity.max - rowLower[row];
+                changed |= a > 0 ? tightenLower(j, upper[j] - slack / a, row) : tightenUpper(j, lower[j] - slack / a, row);
+            }
+            if (infeasible) return false;
+        }
+        return changed;
+    }
+
+    private Activity activity(int row) {
+        Activity activity = new Activity();
+        for (int k = 0; k < rowColumns[row].length; k++) {
+            int j = rowColumns[row][k];
+            if (!columnAlive[j]) continue;
+            double a = rowValues[row][k];
+            double atMin = a > 0 ? lower[j] : upper[j];
+            double atMax = a > 0 ? upper[j] : lower[j];
+            if (Double.isInfinite(atMin)) activity.minInfinite++;
+            else activity.min += a * atMin;
+            if (Double.isInfinite(atMax)) activity.maxInfinite++;
+            else activity.max += a * atMax;
+            activity.live++;
+            activity.lastLive = k;
+        }
+        if (activity.minInfinite > 0) activity.min = Double.NEGATIVE_INFINITY;
+        if (activity.maxInfinite > 0) activity.max = Double.POSITIVE_INFINITY;
+        return activity;
+    }
+
+    /**
+     * Bounds the row implied lose their justification with it and stand on their own from now on.
+     */
+    private void removeRow(int row, PresolveReduction reason) {
+        rowAlive[row] = false;
+        removed.put(rowNames[row], reason);
+        for (int j : rowColumns[row]) {
+            if (upperSource[j] == row) upperGiven[j] = true;
+        }
+    }
+
+    // ---- Columns ----
+
+    private boolean reduceColumns() {
+        boolean changed = false;
+        for (int j = 0; j < columns; j++) {
+            if (!columnAlive[j]) continue;
+            if (upper[j] - lower[j] <= tolerance(upper[j])) {
+                fix(j, lower[j], PresolveReduction.FIXED);
+                changed = true;
+            } else if (!inAnyRow(j)) {
+                // Only the objective sees the column; an unbounded improving direction is left to the solver.
+                double value = cost[j] > 0 ? upper[j] : cost[j] < 0 ? lower[j]
+                        : Double.isFinite(lower[j]) ? lower[j] : Double.isFinite(upper[j]) ? upper[j] : 0;
+                if (Double.isFinite(value)) {
+                    fix(j, value, PresolveReduction.UNUSED);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Column j is dominated by k when moving j's quantity onto k never breaks a row nor lowers the objective:
+     * equal coefficients in two-sided rows, no larger in upper rows, no smaller in lower rows, and no worse cost.
+     * Then some optimum has j at zero. Columns are grouped by their two-sided rows and scanned best cost first,
+     * so each one is only compared with the undominated columns before it.
+     */
+    private boolean removeDominated() {
+        Map<Long, List<Integer>> groups = new HashMap<>();
+        for (int j = 0; j < columns; j++) {
+            if (!columnAlive[j] || integer[j]) continue;
+            boolean canGo = Math.abs(lower[j]) <= TOLERANCE;
+            boolean canTake = unboundedAbove(j);
+            if (canGo || canTake) groups.computeIfAbsent(twoSidedSignature(j), key -> new ArrayList<>()).add(j);
+        }
+
+        boolean changed = false;
+        for (List<Integer> group : groups.values()) {
+            if (group.size() < 2) continue;
+            double[] order = new double[columns];
+            for (int j : group) order[j] = oneSidedSum(j);
+            group.sort(Comparator.<Integer>comparingDouble(j -> -cost[j])
+                    .thenComparingDouble(j -> order[j])
+                    .thenComparingInt(j -> j));
+            List<Integer> dominators = new ArrayList<>();
+            for (int j : group) {
+                boolean dominated = false;
+                if (Math.abs(lower[j]) <= TOLERANCE) {
+                    for (int k : dominators) {
+                        if (dominates(k, j)) {
+                            dominated = true;
+                            break;
+                        }
+                    }
+                }
+                if (dominated) {
+                    fix(j, 0, PresolveReduction.DOMINATED);
+                    changed = true;
+                } else if (unboundedAbove(j) && dominators.size() < MAX_DOMINATORS) {
+                    dominators.add(j);
+                }
+            }
+        }
+        return changed;
+    }
+
+    // A bound implied by live rows cannot stop a move that keeps every row satisfied.
+    private boolean unboundedAbove(int j) {
+        return !upperGiven[j];
+    }
+
+    private boolean dominates(int k, int j) {
+        if (cost[k] < cost[j] - TOLERANCE) return false;
+        int[] rowsK = columnRows[k], rowsJ = columnRows[j];
+        int p = 0, q = 0;
+        while (p < rowsK.length || q < rowsJ.length) {
+            int rowK = p < rowsK.length ? rowsK[p] : Integer.MAX_VALUE;
+            int rowJ = q < rowsJ.length ? rowsJ[q] : Integer.MAX_VALUE;
+            int row = Math.min(rowK, rowJ);
+            double ak = rowK == row ? columnValues[k][p++] : 0;
+            double aj = rowJ == row ? columnValues[j][q++] : 0;
+            if (!rowAlive[row]) continue;
+            boolean hasLower = rowLower[row] > Double.NEGATIVE_INFINITY;
+            boolean hasUpper = rowUpper[row] < Double.POSITIVE_INFINITY;
+            if (hasLower && hasUpper ? Math.abs(ak - aj) > TOLERANCE
+                    : hasUpper ? ak > aj + TOLERANCE : ak < aj - TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long twoSidedSignature(int j) {
+        long signature = 17;
+        for (int k = 0; k < columnRows[j].length; k++) {
+            int row = columnRows[j][k];
+            if (!rowAlive[row] || rowLower[row] == Double.NEGATIVE_INFINITY || rowUpper[row] == Double.POSITIVE_INFINITY) continue;
+            signature = 31 * (31 * signature + row) + Double.doubleToLongBits(columnValues[j][k]);
+        }
+        return signature;
+    }
+
+    /**
+     * Sum that a dominating column never exceeds: upper-row coefficients minus lower-row coefficients.
+     */
+    private double oneSidedSum(int j) {
+        double sum = 0;
+        for (int k = 0; k < columnRows[j].length; k++) {
+            int row = columnRows[j][k];
+            if (!rowAlive[row]) continue;
+            boolean hasLower = rowLower[row] > Double.NEGATIVE_INFINITY;
+            boolean hasUpper = rowUpper[row] < Double.POSITIVE_INFINITY;
+            if (hasUpper && !hasLower) sum += columnValues[j][k];
+            if (hasLower && !hasUpper) sum -= columnValues[j][k];
+        }
+        return sum;
+    }
+
+    private boolean inAnyRow(int j) {
+        for (int row : columnRows[j]) {
+            if (rowAlive[row]) return true;
+        }
+        return false;
+    }
+
+    private void fix(int j, double value, PresolveReduction reason) {
+        columnAlive[j] = false;
+        fixedValue[j] = value;
+        eliminated.put(names[j], reason);
+        for (int k = 0; k < columnRows[j].length; k++) {
+            int row = columnRows[j][k];
+            if (!rowAlive[row]) continue;
+            double shift = columnValues[j][k] * value;
+            rowLower[row] -= shift;
+            rowUpper[row] -= shift;
+        }
+    }
+
+    /**
+     * Raise the lower bound; {@code source} is the row that implies it, or -1 for a bound that stands on its own.
+     */
+    private boolean tightenLower(int j, double value, int source) {
+        if (integer[j]) value = Math.ceil(value - TOLERANCE);
+        if (!(value > lower[j]) || source >= 0 && value - lower[j] < MIN_TIGHTENING * Math.max(1, Math.abs(value))) return false;
+        if (value > upper[j] + tolerance(upper[j])) {
+            infeasible = true;
+            return false;
+        }
+        lower[j] = Math.min(value, upper[j]);
+        tightened++;
+        return true;
+    }
+
+    private boolean tightenUpper(int j, double value, int source) {
+        if (integer[j]) value = Math.floor(value + TOLERANCE);
+        if (!(value < upper[j]) || source >= 0 && upper[j] - value < MIN_TIGHTENING * Math.max(1, Math.abs(value))) return false;
+        if (value < lower[j] - tolerance(lower[j])) {
+            infeasible = true;
+            return false;
+        }
+        upper[j] = Math.max(value, lower[j]);
+        upperSource[j] = source;
+        upperGiven[j] |= source < 0;
+        tightened++;
+        return true;
+    }
+
+    // ---- Scaling and the reduced model ----
+
+    private Presolved build() {
+        double[] rowScale = new double[rowAlive.length];
+        double[] columnScale = new double[columns];
+        Arrays.fill(rowScale, 1);
+        Arrays.fill(columnScale, 1);
+        double rangeBefore = coefficientRange(rowScale, columnScale);
+        for (int pass = 0; pass < SCALING_PASSES; pass++) {
+            for (int i = 0; i < rowAlive.length; i++) {
+                if (!rowAlive[i]) continue;
+                double max = 0, min = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < rowColumns[i].length; k++) {
+                    int j = rowColumns[i][k];
+                    if (!columnAlive[j]) continue;
+                    double a = Math.abs(rowValues[i][k] * columnScale[j]);
+                    max = Math.max(max, a);
+                    min = Math.min(min, a);
+                }
+                rowScale[i] = powerOfTwo(max, min);
+            }
+            for (int j = 0; j < columns; j++) {
+                if (!columnAlive[j] || integer[j]) continue;
+                double max = 0, min = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < columnRows[j].length; k++) {
+                    int row = columnRows[j][k];
+                    if (!rowAlive[row]) continue;
+                    double a = Math.abs(columnValues[j][k] * rowScale[row]);
+                    max = Math.max(max, a);
+                    min = Math.min(min, a);
+                }
+                columnScale[j] = powerOfTwo(max, min);
+            }
+        }
+
+        ExpressionsBasedModel reduced = new ExpressionsBasedModel();
+        Variable[] variables = new Variable[columns];
+        for (int j = 0; j < columns; j++) {
+            if (!columnAlive[j]) continue;
+            Variable variable = Variable.make(names[j]);
+            if (lower[j] > Double.NEGATIVE_INFINITY) variable.lower(lower[j] / columnScale[j]);
+            if (upper[j] < Double.POSITIVE_INFINITY) variable.upper(upper[j] / columnScale[j]);
+            if (integer[j]) variable.integer(true);
+            reduced.addVariable(variable);
+            variables[j] = variable;
+        }
+        Expression objective = reduced.addExpression("Objective");
+        for (int j = 0; j < columns; j++) {
+            if (variables[j] != null && cost[j] != 0) objective.set(variables[j], cost[j] * columnScale[j]);
+        }
+        objective.weight(1);
+        int rowsLeft = 0;
+        for (int i = 0; i < rowAlive.length; i++) {
+            if (!rowAlive[i]) continue;
+            Expression expression = reduced.addExpression(rowNames[i]);
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                int j = rowColumns[i][k];
+                if (variables[j] != null) expression.set(variables[j], rowValues[i][k] * rowScale[i] * columnScale[j]);
+            }
+            if (rowLower[i] > Double.NEGATIVE_INFINITY) expression.lower(rowLower[i] * rowScale[i]);
+            if (rowUpper[i] < Double.POSITIVE_INFINITY) expression.upper(rowUpper[i] * rowScale[i]);
+            rowsLeft++;
+        }
+
+        PresolveReportDTO report = new PresolveReportDTO();
+        report.variables = columns;
+        report.rows = rowAlive.length;
+        report.reducedVariables = reduced.getVariables().size();
+        report.reducedRows = rowsLeft;
+        report.tightenedBounds = tightened;
+        report.eliminatedVariables = eliminated;
+        report.removedRows = removed;
+        report.coefficientRange = rangeBefore;
+        report.scaledCoefficientRange = coefficientRange(rowScale, columnScale);
+        return new Presolved(reduced, report, columnAlive, columnScale, fixedValue, cost);
+    }
+
+    private double coefficientRange(double[] rowScale, double[] columnScale) {
+        double max = 0, min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < rowAlive.length; i++) {
+            if (!rowAlive[i]) continue;
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                int j = rowColumns[i][k];
+                if (!columnAlive[j]) continue;
+                double a = Math.abs(rowValues[i][k] * rowScale[i] * columnScale[j]);
+                max = Math.max(max, a);
+                min = Math.min(min, a);
+            }
+        }
+        return max == 0 ? 1 : max / min;
+    }
+
+    // Power of two nearest to 1 / sqrt(max * min), so scaling adds no rounding error.
+    private static double powerOfTwo(double max, double min) {
+        if (max == 0) return 1;
+        return Math.scalb(1.0, (int) Math.round(-0.5 * (Math.log(max) + Math.log(min)) / Math.log(2)));
+    }
+
+    private static double limit(BigDecimal value, double none) {
+        return value == null ? none : value.doubleValue();
+    }
+
+    private static double tolerance(double value) {
+        return TOLERANCE * Math.max(1, Double.isFinite(value) ? Math.abs(value) : 0);
+    }
+
+    private static final class Activity {
+        double min;
+        double max;
+        int minInfinite;
+        int maxInfinite;
+        int live;
+        int lastLive;
+    }
+
+    /**
+     * The reduced model and how to map its solution back onto the original variables.
+     */
+    static final class Presolved {
+
+        final ExpressionsBasedModel model;
+        final PresolveReportDTO report;
+        private final boolean[] kept;
+        private final double[] scale;
+        private final double[] fixed;
+        private final double[] cost;
+
+        private Presolved(ExpressionsBasedModel model, PresolveReportDTO report, boolean[] kept, double[] scale,
+                          double[] fixed, double[] cost) {
+            this.model = model;
+            this.report = report;
+            this.kept = kept;
+            this.scale = scale;
+            this.fixed = fixed;
+            this.cost = cost;
+        }
+
+        /**
+         * Solve the reduced model; the result holds every original variable in the original order.
+         */
+        Optimisation.Result maximise() {
+            if (model.getVariables().isEmpty()) {
+                return expand(new Optimisation.Result(Optimisation.State.OPTIMAL, Primitive64Store.FACTORY.make(0, 1)));
+            }
+            return expand(model.maximise());
+        }
+
+        private Optimisation.Result expand(Optimisation.Result reduced) {
+            double[] values = new double[kept.length];
+            double objective = 0;
+            for (int j = 0, next = 0; j < kept.length; j++) {
+                values[j] = kept[j] ? scale[j] * reduced.doubleValue(next++) : fixed[j];
+                objective += cost[j] * values[j];
+            }
+            return new Optimisation.Result(reduced.getState(), objective, Primitive64Store.wrap(values));
+        }
+    }
+}
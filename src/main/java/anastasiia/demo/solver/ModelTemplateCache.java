@@ -0,0 +1,55 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU of compiled model templates, keyed by structural fingerprint.
+ * <p>
+ * A template is the request's {@link LinearProgram}: its constraint matrix and objective coefficients
+ * are built once, and later requests with the same structure only supply new right-hand sides and
+ * a goal direction. A live {@code ExpressionsBasedModel} is not kept, because ojAlgo 48 fixes variable
+ * values and caches presolve flags on the model after each solve, so re-solving a mutated model is
+ * not reliable.
+ * <p>
+ * Only registered when {@code dessert.solver.templates.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "dessert.solver.templates.enabled", havingValue = "true")
+public class ModelTemplateCache {
+
+    private final Map<RequestFingerprint, Optional<LinearProgram>> templates;
+
+    public ModelTemplateCache(@Value("${dessert.solver.templates.max-size:256}") int maxSize) {
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestFingerprint, Optional<LinearProgram>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * The compiled program for the request's structure, compiling it on first use.
+     */
+    Optional<LinearProgram> template(DessertRequestDTO request) {
+        RequestFingerprint key = RequestFingerprint.structureOf(request);
+        synchronized (templates) {
+            Optional<LinearProgram> cached = templates.get(key);
+            if (cached != null) return cached;
+        }
+        // Compile outside the lock; two threads racing on a new structure just compile it twice.
+        Optional<LinearProgram> compiled = Optional.ofNullable(LinearProgramAssembler.assemble(request));
+        synchronized (templates) {
+            templates.putIfAbsent(key, compiled);
+        }
+        return compiled;
+    }
+}
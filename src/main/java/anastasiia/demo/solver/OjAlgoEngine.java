@@ -0,0 +1,42 @@
+package anastasiia.demo.solver;
+
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.linear.LinearSolver;
+
+/**
+ * ojAlgo's {@link LinearSolver} on the program's dense constraint matrix.
+ */
+final class OjAlgoEngine implements SolverEngine {
+
+    // Tighter than ConstraintOp's strictness epsilon, so "x < 0" stays infeasible.
+    private static final double FEASIBILITY_TOLERANCE = 1e-9;
+
+    @Override
+    public Optimisation.Result solve(LinearProgram program, double[] rhs, boolean maximise, long timeLimitMs) {
+        // LinearSolver always minimises, so a maximised goal uses the negated coefficients.
+        double[] cost = new double[program.columnCount];
+        for (int j = 0; j < program.ingredientCount; j++) {
+            cost[j] = maximise ? -program.objective[j] : program.objective[j];
+        }
+        Optimisation.Result result = LinearSolver.getBuilder(Primitive64Store.wrap(cost))
+                .equalities(program.equalities(), Primitive64Store.wrap(rhs))
+                .build(DessertSolver.withTimeLimit(new Optimisation.Options(), timeLimitMs))
+                .solve();
+        return checkNonNegative(result);
+    }
+
+    /**
+     * The simplex accepts slightly negative columns within its own tolerance; a negative slack means a
+     * violated row, which the expression-based path would have reported as infeasible.
+     */
+    private static Optimisation.Result checkNonNegative(Optimisation.Result result) {
+        if (!result.getState().isFeasible()) return result;
+        for (int j = 0; j < result.count(); j++) {
+            if (result.doubleValue(j) < -FEASIBILITY_TOLERANCE) {
+                return new Optimisation.Result(Optimisation.State.INFEASIBLE, result);
+            }
+        }
+        return result;
+    }
+}
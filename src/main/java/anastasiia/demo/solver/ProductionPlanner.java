@@ -0,0 +1,554 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.PlanRequestDTO;
+import anastasiia.demo.dto.PlanResultDTO;
+
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.optimisation.linear.LinearSolver;
+import org.ojalgo.structure.Structure1D;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Plans many recipes that draw on shared stock as one problem, by Dantzig-Wolfe decomposition.
+ * <p>
+ * Each recipe keeps its own model. A small master program combines proposed mixes of every recipe under the
+ * stock limits, and its prices on the stock rows are handed back to the recipes, which are re-solved in
+ * parallel for a better mix at those prices. Rounds end when no recipe can improve the master, which proves
+ * the plan optimal for continuous recipes. Recipes with discrete quantities are then fixed to one of their
+ * proposals, including their best whole-unit mix within the stock the continuous plan gives them, so their
+ * plan is the best combination of the mixes found and its gap is measured against the decomposition bound.
+ * <p>
+ * The time limit and the round limit stop the rounds early. Once the proposals give a plan within the stock, that
+ * plan is returned as {@code FEASIBLE}; before that there is no plan to return, and the result is {@code TIMEOUT}
+ * with every recipe at zero. Each recipe solve only gets what is left of the time limit, and a round that the limit
+ * cuts short proves nothing, so it neither ends the rounds as converged nor tightens the bound.
+ */
+@Service
+public class ProductionPlanner {
+
+    private static final double TOLERANCE = 1e-7;
+    private static final String OPTIMAL = "OPTIMAL";
+    private static final String FEASIBLE = "FEASIBLE";
+    private static final String INFEASIBLE = "INFEASIBLE";
+
+    private final DessertSolver solver;
+    private final int parallelism;
+    private final int maxRecipes;
+    private final int maxIterations;
+    private final SolveAdmission admission; // null when plans are not run through admission
+
+    public ProductionPlanner(DessertSolver solver, int parallelism, int maxRecipes, int maxIterations) {
+        this(solver, parallelism, maxRecipes, maxIterations, null);
+    }
+
+    @Autowired
+    public ProductionPlanner(DessertSolver solver,
+                             @Value("${dessert.plan.parallelism:0}") int parallelism,
+                             @Value("${dessert.plan.max-recipes:1000}") int maxRecipes,
+                             @Value("${dessert.plan.max-iterations:100}") int maxIterations,
+                             @Nullable SolveAdmission admission) {
+        this.solver = solver;
+        this.admission = admission;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxRecipes = maxRecipes;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Plan every recipe of the request at once; recipe requests must already carry their ingredients.
+     */
+    public PlanResultDTO plan(PlanRequestDTO plan) {
+        long deadline = plan.timeLimitMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plan.timeLimitMs) : Long.MAX_VALUE;
+        List<String> stock = new ArrayList<>();
+        double[] limits = inventory(plan.inventory, stock);
+        Recipe[] recipes = recipes(plan.recipes, stock);
+        int m = limits.length;
+
+        // Start from each recipe's own optimum and from its leanest mix in shared stock.
+        double[] lean = new double[m];
+        Arrays.fill(lean, -1);
+        Proposal[] standalone = priceAll(recipes, 1, new double[m], deadline);
+        for (Proposal proposal : standalone) {
+            if (proposal == null) return unsolved(recipes, stock, 0, System.nanoTime() > deadline ? DessertSolver.TIMEOUT : INFEASIBLE);
+            proposal.recipe.add(proposal);
+        }
+        for (Proposal proposal : priceAll(recipes, 0, lean, deadline)) {
+            if (proposal != null) proposal.recipe.add(proposal);
+        }
+
+        int iterations = 0;
+        Master master = solveMaster(recipes, limits, true);
+        while (master.value > TOLERANCE * (1 + sum(limits))) {
+            if (iterations >= maxIterations || System.nanoTime() > deadline) {
+                // Still looking for any mix of proposals within the stock, so there is no incumbent yet.
+                return unsolved(recipes, stock, iterations, DessertSolver.TIMEOUT);
+            }
+            iterations++;
+            Proposal[] priced = priceAll(recipes, 0, master.stockPrices(m), deadline);
+            if (!addImproving(recipes, priced, 0, master, m)) {
+                return unsolved(recipes, stock, iterations, System.nanoTime() > deadline ? DessertSolver.TIMEOUT : INFEASIBLE);
+            }
+            master = solveMaster(recipes, limits, true);
+        }
+
+        Double bound = null;
+        master = solveMaster(recipes, limits, false);
+        boolean converged = false;
+        while (iterations < maxIterations && System.nanoTime() <= deadline) {
+            iterations++;
+            double[] prices = master.stockPrices(m);
+            Proposal[] priced = priceAll(recipes, 1, prices, deadline);
+            if (System.nanoTime() > deadline) break;
+            double roundBound = 0;
+            for (int i = 0; i < m; i++) {
+                roundBound -= prices[i] * limits[i];
+            }
+            for (Proposal proposal : priced) {
+                roundBound = proposal == null ? Double.NaN : roundBound + proposal.priced(1, prices);
+            }
+            if (!Double.isNaN(roundBound)) {
+                bound = bound == null ? roundBound : Math.min(bound, roundBound);
+            }
+            if (!addImproving(recipes, priced, 1, master, m)) {
+                converged = true;
+                break;
+            }
+            master = solveMaster(recipes, limits, false);
+        }
+        return result(recipes, stock, limits, master, bound, converged, iterations, deadline);
+    }
+
+    private double[] inventory(Map<String, Double> inventory, List<String> stock) {
+        if (inventory == null) return new double[0];
+        double[] limits = new double[inventory.size()];
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, Double> item : inventory.entrySet()) {
+            if (item.getValue() == null || item.getValue() < 0) {
+                throw new IllegalArgumentException("Inventory of " + item.getKey() + " must be a non-negative amount");
+            }
+            if (!seen.add(RequestFingerprint.fold(item.getKey()))) {
+                throw new IllegalArgumentException("Inventory lists " + item.getKey() + " twice");
+            }
+            limits[stock.size()] = item.getValue();
+            stock.add(item.getKey());
+        }
+        return limits;
+    }
+
+    private Recipe[] recipes(List<PlanRequestDTO.RecipeDTO> specs, List<String> stock) {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("Plan needs at least one recipe");
+        }
+        if (specs.size() > maxRecipes) {
+            throw new IllegalArgumentException("Plan has " + specs.size() + " recipes; the limit is " + maxRecipes);
+        }
+        Map<String, Integer> stockRows = new HashMap<>();
+        for (int i = 0; i < stock.size(); i++) {
+            stockRows.put(RequestFingerprint.fold(stock.get(i)), i);
+        }
+        Recipe[] recipes = new Recipe[specs.size()];
+        Set<String> names = new HashSet<>();
+        for (int r = 0; r < recipes.length; r++) {
+            PlanRequestDTO.RecipeDTO spec = specs.get(r);
+            if (spec == null || spec.name == null || !names.add(RequestFingerprint.fold(spec.name))) {
+                throw new IllegalArgumentException("Recipe " + r + " needs a unique name");
+            }
+            if (spec.request == null || spec.request.ingredients == null || spec.request.ingredients.isEmpty()) {
+                throw new IllegalArgumentException("Recipe " + spec.name + " needs a request with ingredients");
+            }
+            if (spec.weight < 0) {
+                throw new IllegalArgumentException("Recipe " + spec.name + " has a negative weight");
+            }
+            recipes[r] = new Recipe(r, spec, stockRows);
+        }
+        return recipes;
+    }
+
+    /**
+     * Best mix of the recipe for {@code alpha} times its weighted goal plus the stock it uses at the given prices,
+     * or null when the recipe is infeasible.
+     */
+    private Proposal propose(Recipe recipe, double alpha, double[] prices, long deadline) {
+        return propose(recipe, alpha, prices, null, deadline);
+    }
+
+    /**
+     * With {@code allotment} set, the recipe also may not use more of any stock item than allotted. Past the
+     * deadline ({@link System#nanoTime()}) there is no time to solve and the answer is null too.
+     */
+    private Proposal propose(Recipe recipe, double alpha, double[] prices, double[] allotment, long deadline) {
+        long now = System.nanoTime();
+        if (now > deadline) return null;
+        ExpressionsBasedModel model = solver.buildModel(recipe.request);
+        if (deadline != Long.MAX_VALUE) {
+            // Rounded up, so a solve the limit stops has always reached the deadline.
+            DessertSolver.withTimeLimit(model.options, TimeUnit.NANOSECONDS.toMillis(deadline - now) + 1);
+        }
+        Expression objective = model.getExpression("Objective");
+        BigDecimal direction = objective.getContributionWeight();
+        double goalWeight = recipe.weight * (direction == null ? 0 : direction.doubleValue());
+        objective.weight(alpha * goalWeight);
+        Expression stockPrices = model.addExpression("StockPrices");
+        List<Variable> variables = model.getVariables();
+        for (int j = 0; j < recipe.stockOf.length; j++) {
+            if (recipe.stockOf[j] >= 0 && prices[recipe.stockOf[j]] != 0) {
+                stockPrices.set(variables.get(j), prices[recipe.stockOf[j]]);
+            }
+        }
+        stockPrices.weight(1);
+        if (allotment != null) {
+            Expression[] allotted = new Expression[allotment.length];
+            for (int j = 0; j < recipe.stockOf.length; j++) {
+                int item = recipe.stockOf[j];
+                if (item < 0) continue;
+                if (allotted[item] == null) {
+                    allotted[item] = model.addExpression("Allotted_" + item).upper(allotment[item] * (1 + TOLERANCE) + TOLERANCE);
+                }
+                allotted[item].set(variables.get(j), 1);
+            }
+        }
+
+        Optimisation.Result result = model.maximise();
+        if (result.getState() == Optimisation.State.UNBOUNDED) {
+            throw new IllegalArgumentException("Recipe " + recipe.name + " is unbounded; give it a totalWeight or upper limits");
+        }
+        if (!result.getState().isFeasible()) return null;
+
+        double[] quantities = new double[recipe.stockOf.length];
+        double[] usage = new double[prices.length];
+        for (int j = 0; j < quantities.length; j++) {
+            quantities[j] = result.doubleValue(j);
+            if (recipe.stockOf[j] >= 0) usage[recipe.stockOf[j]] += quantities[j];
+        }
+        double goal = 0;
+        for (Map.Entry<Structure1D.IntIndex, BigDecimal> entry : objective.getLinearEntrySet()) {
+            goal += entry.getValue().doubleValue() * quantities[entry.getKey().index];
+        }
+        return new Proposal(recipe, quantities, usage, goalWeight * goal);
+    }
+
+    /**
+     * Price every recipe in parallel segments; entries are null for recipes without a feasible mix.
+     */
+    private Proposal[] priceAll(Recipe[] recipes, double alpha, double[] prices, long deadline) {
+        return solveAll(recipes.length, r -> propose(recipes[r], alpha, prices, deadline));
+    }
+
+    private Proposal[] solveAll(int count, IntFunction<Proposal> task) {
+        Proposal[] proposals = new Proposal[count];
+        // Like a sweep, a plan holds one admission slot and only spreads out onto the idle ones.
+        int slots = admission == null ? parallelism : Math.min(parallelism, 1 + admission.idle());
+        int segments = Math.min(slots, count);
+        int segmentSize = (count + segments - 1) / segments;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int start = 0; start < count; start += segmentSize) {
+                int from = start;
+                int to = Math.min(count, start + segmentSize);
+                futures.add(executor.submit(() -> {
+                    for (int r = from; r < to; r++) {
+                        proposals[r] = task.apply(r);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Plan interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Recipe solve failed", e.getCause());
+        }
+        return proposals;
+    }
+
+    /**
+     * Add every proposal whose reduced value improves the master; false when none does.
+     */
+    private static boolean addImproving(Recipe[] recipes, Proposal[] priced, double alpha, Master master, int m) {
+        double[] prices = master.stockPrices(m);
+        double tolerance = TOLERANCE * (1 + Math.abs(master.value));
+        boolean added = false;
+        for (int r = 0; r < recipes.length; r++) {
+            Proposal proposal = priced[r];
+            if (proposal != null && proposal.priced(alpha, prices) + master.duals[m + r] > tolerance) {
+                added |= recipes[r].add(proposal);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Master over the proposals in standard form, minimising: stock rows {@code usage + slack (- shortfall) = limit}
+     * and one convexity row per recipe. Phase one minimises the shortfall, phase two the negated plan value.
+     */
+    private static Master solveMaster(Recipe[] recipes, double[] limits, boolean phaseOne) {
+        int m = limits.length;
+        int rows = m + recipes.length;
+        List<Proposal> columns = new ArrayList<>();
+        for (Recipe recipe : recipes) columns.addAll(recipe.proposals);
+        int p = columns.size();
+        int n = p + m + (phaseOne ? m : 0);
+
+        double[] a = new double[rows * n];
+        double[] cost = new double[n];
+        double[] rhs = new double[rows];
+        for (int k = 0; k < p; k++) {
+            Proposal proposal = columns.get(k);
+            System.arraycopy(proposal.usage, 0, a, k * rows, m);
+            a[k * rows + m + proposal.recipe.index] = 1;
+            cost[k] = phaseOne ? 0 : -proposal.value;
+        }
+        for (int i = 0; i < m; i++) {
+            a[(p + i) * rows + i] = 1;
+            if (phaseOne) {
+                a[(p + m + i) * rows + i] = -1;
+                cost[p + m + i] = 1;
+            }
+            rhs[i] = limits[i];
+        }
+        for (int r = 0; r < recipes.length; r++) rhs[m + r] = 1;
+
+        Optimisation.Result result = LinearSolver.getBuilder(Primitive64Store.wrap(cost))
+                .equalities(Primitive64Store.wrap(a, rows), Primitive64Store.wrap(rhs))
+                .build(new Optimisation.Options())
+                .solve();
+        if (!result.getState().isFeasible() || result.getMultipliers().isEmpty()) {
+            throw new IllegalStateException("Plan master problem failed: " + result.getState());
+        }
+        double[] lambdas = new double[p];
+        for (int k = 0; k < p; k++) lambdas[k] = result.doubleValue(k);
+        double[] duals = new double[rows];
+        for (int i = 0; i < rows; i++) duals[i] = result.getMultipliers().get().doubleValue(i);
+        return new Master(columns, lambdas, duals, result.getValue());
+    }
+
+    private PlanResultDTO result(Recipe[] recipes, List<String> stock, double[] limits, Master master, Double bound,
+                                 boolean converged, int iterations, long deadline) {
+        double[][] quantities = new double[recipes.length][];
+        for (Recipe recipe : recipes) quantities[recipe.index] = new double[recipe.stockOf.length];
+        double objective = 0;
+
+        boolean discrete = false;
+        for (Recipe recipe : recipes) discrete |= recipe.discrete;
+        if (!discrete) {
+            for (int k = 0; k < master.columns.size(); k++) {
+                Proposal proposal = master.columns.get(k);
+                double lambda = Math.max(0, master.lambdas[k]);
+                if (lambda == 0) continue;
+                for (int j = 0; j < proposal.quantities.length; j++) {
+                    quantities[proposal.recipe.index][j] += lambda * proposal.quantities[j];
+                }
+                objective += lambda * proposal.value;
+            }
+        } else {
+            allotDiscrete(recipes, master, limits.length, deadline);
+            Double fixed = chooseProposals(recipes, limits, quantities);
+            if (fixed == null) return unsolved(recipes, stock, iterations, INFEASIBLE);
+            objective = fixed;
+        }
+
+        PlanResultDTO output = new PlanResultDTO();
+        output.objective = objective;
+        output.iterations = iterations;
+        if (bound != null) {
+            output.bound = Math.max(bound, objective);
+            output.gap = (output.bound - objective) / Math.max(Math.abs(objective), TOLERANCE);
+        }
+        boolean proven = converged && !discrete || output.gap != null && output.gap <= 1e-6;
+        output.status = proven ? OPTIMAL : FEASIBLE;
+        output.recipes = new LinkedHashMap<>();
+        double[] used = new double[limits.length];
+        for (Recipe recipe : recipes) {
+            double[] x = quantities[recipe.index];
+            for (int j = 0; j < x.length; j++) {
+                if (recipe.stockOf[j] >= 0) used[recipe.stockOf[j]] += x[j];
+            }
+            DessertResultDTO result = DessertSolver.buildResult(
+                    new Optimisation.Result(Optimisation.State.FEASIBLE, Primitive64Store.wrap(x)), recipe.request.ingredients);
+            result.status = output.status;
+            output.recipes.put(recipe.name, result);
+        }
+        output.inventoryUsed = new LinkedHashMap<>();
+        for (int i = 0; i < used.length; i++) output.inventoryUsed.put(stock.get(i), used[i]);
+        return output;
+    }
+
+    /**
+     * Give every discrete recipe the stock its share of the continuous plan uses and add its best whole-unit mix
+     * within that as a proposal. Together these mixes fit the stock, and they need not be extreme points of the
+     * recipe, which the decomposition alone never proposes.
+     */
+    private void allotDiscrete(Recipe[] recipes, Master master, int m, long deadline) {
+        double[][] allotments = new double[recipes.length][m];
+        for (int k = 0; k < master.columns.size(); k++) {
+            Proposal proposal = master.columns.get(k);
+            double lambda = Math.max(0, master.lambdas[k]);
+            for (int i = 0; i < m; i++) {
+                allotments[proposal.recipe.index][i] += lambda * proposal.usage[i];
+            }
+        }
+        double[] none = new double[m];
+        Proposal[] allotted = solveAll(recipes.length,
+                r -> recipes[r].discrete ? propose(recipes[r], 1, none, allotments[r], deadline) : null);
+        for (Proposal proposal : allotted) {
+            if (proposal != null) proposal.recipe.add(proposal);
+        }
+    }
+
+    /**
+     * Fix every discrete recipe to one of its proposals (continuous recipes may still mix theirs) and return the
+     * plan value, or null when no such combination fits the stock.
+     */
+    private static Double chooseProposals(Recipe[] recipes, double[] limits, double[][] quantities) {
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Expression[] stockRows = new Expression[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            stockRows[i] = model.addExpression("Stock_" + i).upper(limits[i]);
+        }
+        List<Proposal> columns = new ArrayList<>();
+        List<Variable> lambdas = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            Expression convexity = model.addExpression("Recipe_" + recipe.index).level(1);
+            for (Proposal proposal : recipe.proposals) {
+                Variable lambda = model.addVariable("P_" + columns.size()).lower(0).upper(1).weight(proposal.value);
+                lambda.integer(recipe.discrete);
+                convexity.set(lambda, 1);
+                for (int i = 0; i < limits.length; i++) {
+                    if (proposal.usage[i] != 0) stockRows[i].set(lambda, proposal.usage[i]);
+                }
+                columns.add(proposal);
+                lambdas.add(lambda);
+            }
+        }
+        Optimisation.Result result = model.maximise();
+        if (!result.getState().isFeasible()) return null;
+        double objective = 0;
+        for (int k = 0; k < columns.size(); k++) {
+            Proposal proposal = columns.get(k);
+            double lambda = Math.max(0, result.doubleValue(k));
+            for (int j = 0; j < proposal.quantities.length; j++) {
+                quantities[proposal.recipe.index][j] += lambda * proposal.quantities[j];
+            }
+            objective += lambda * proposal.value;
+        }
+        return objective;
+    }
+
+    /**
+     * Plan without quantities, for when the rounds found no mix within the stock: every recipe at zero with the given status.
+     */
+    private static PlanResultDTO unsolved(Recipe[] recipes, List<String> stock, int iterations, String status) {
+        PlanResultDTO output = new PlanResultDTO();
+        output.status = status;
+        output.iterations = iterations;
+        output.recipes = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            DessertResultDTO result = DessertSolver.timedOut(recipe.request);
+            result.status = status;
+            output.recipes.put(recipe.name, result);
+        }
+        output.inventoryUsed = new LinkedHashMap<>();
+        for (String item : stock) output.inventoryUsed.put(item, 0.0);
+        return output;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) sum += value;
+        return sum;
+    }
+
+    private static final class Recipe {
+        final int index;
+        final String name;
+        final DessertRequestDTO request;
+        final double weight;
+        final int[] stockOf;        // Shared stock row per ingredient, or -1
+        final boolean discrete;
+        final List<Proposal> proposals = new ArrayList<>();
+
+        Recipe(int index, PlanRequestDTO.RecipeDTO spec, Map<String, Integer> stockRows) {
+            this.index = index;
+            this.name = spec.name;
+            this.request = spec.request;
+            this.weight = spec.weight > 0 ? spec.weight : 1;
+            List<IngredientDTO> ingredients = spec.request.ingredients;
+            this.stockOf = new int[ingredients.size()];
+            boolean discrete = false;
+            for (int j = 0; j < stockOf.length; j++) {
+                stockOf[j] = stockRows.getOrDefault(RequestFingerprint.fold(ingredients.get(j).name), -1);
+                discrete |= DessertSolver.isDiscrete(ingredients.get(j));
+            }
+            this.discrete = discrete;
+        }
+
+        /**
+         * Keep the proposal unless the recipe already has the same mix.
+         */
+        boolean add(Proposal proposal) {
+            for (Proposal existing : proposals) {
+                if (sameMix(existing.quantities, proposal.quantities)) return false;
+            }
+            proposals.add(proposal);
+            return true;
+        }
+
+        private static boolean sameMix(double[] a, double[] b) {
+            for (int j = 0; j < a.length; j++) {
+                if (Math.abs(a[j] - b[j]) > TOLERANCE * (1 + Math.abs(a[j]))) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One mix of a recipe: its ingredient quantities, its use of each stock item and its weighted goal value.
+     */
+    private record Proposal(Recipe recipe, double[] quantities, double[] usage, double value) {
+
+        double priced(double alpha, double[] prices) {
+            double priced = alpha * value;
+            for (int i = 0; i < prices.length; i++) priced += prices[i] * usage[i];
+            return priced;
+        }
+    }
+
+    /**
+     * Solved master: weights of the proposal columns, the duals of every row (stock rows first) and its value.
+     */
+    private record Master(List<Proposal> columns, double[] lambdas, double[] duals, double value) {
+
+        double[] stockPrices(int m) {
+            return Arrays.copyOf(duals, m);
+        }
+    }
+}
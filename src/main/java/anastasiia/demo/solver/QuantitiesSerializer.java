@@ -0,0 +1,39 @@
+package anastasiia.demo.solver;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes result quantities field by field: array-backed {@link IngredientQuantities} straight from their arrays, any
+ * other map entry by entry, with null quantities as JSON null.
+ */
+public class QuantitiesSerializer extends StdSerializer<Map<String, Double>> {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public QuantitiesSerializer() {
+        super((Class) Map.class);
+    }
+
+    @Override
+    public void serialize(Map<String, Double> quantities, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(quantities);
+        if (quantities instanceof IngredientQuantities arrays) {
+            arrays.writeFields(generator);
+        } else {
+            for (Map.Entry<String, Double> entry : quantities.entrySet()) {
+                if (entry.getKey() == null) {
+                    provider.findNullKeySerializer(provider.constructType(String.class), null).serialize(null, generator, provider);
+                } else {
+                    generator.writeFieldName(entry.getKey());
+                }
+                if (entry.getValue() == null) generator.writeNull();
+                else generator.writeNumber(entry.getValue().doubleValue());
+            }
+        }
+        generator.writeEndObject();
+    }
+}
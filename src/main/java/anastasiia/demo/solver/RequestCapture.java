@@ -0,0 +1,321 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Records {@code /solve-dessert} requests to rotating NDJSON files for {@code TrafficReplay} (in {@code src/tools/java}).
+ * <p>
+ * Off unless {@code dessert.capture.enabled} is set. Each line is {@code {"at": <epoch ms>, "request": {...}}} with the
+ * request as the solver saw it: catalog references are resolved into their ingredients, and ingredient names are
+ * replaced by aliases ({@code I0}, {@code I1}, ...) everywhere they are referenced, inside constraint expressions too,
+ * so recipes are not stored in clear but replay the same problem. Attribute names and all numbers are kept. A file is
+ * closed once it would pass {@code max-file-size}, and the oldest files beyond {@code max-files} are deleted.
+ * <p>
+ * Requests are handed to a single writer thread through a queue of {@code queue-size} lines, so a slow disk never holds
+ * up a solve: when the queue is full the line is dropped and counted. Ingredients drawn from a catalog, or parsed into
+ * columns, are read-only, so only a reference to them is queued and they are expanded and sanitized on the writer
+ * thread; the calling thread serializes just the rest of the request.
+ */
+@Service
+public class RequestCapture {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCapture.class);
+    private static final String PREFIX = "capture-";
+    static final String SUFFIX = ".ndjson";
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final Object STOP = new Object();
+    static final int DEFAULT_QUEUE_SIZE = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final double sampleRate;
+    private final BlockingQueue<Object> queue;     // Lines, pending entries, flush requests and STOP, in order
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    // Owned by the writer thread
+    private OutputStream out;
+    private long written;
+    private long lastFlush;
+    private int fileSequence;
+
+    public RequestCapture(ObjectMapper objectMapper, boolean enabled, String directory, DataSize maxFileSize, int maxFiles,
+                          double sampleRate) {
+        this(objectMapper, enabled, directory, maxFileSize, maxFiles, sampleRate, DEFAULT_QUEUE_SIZE);
+    }
+
+    @Autowired
+    public RequestCapture(ObjectMapper objectMapper,
+                          @Value("${dessert.capture.enabled:false}") boolean enabled,
+                          @Value("${dessert.capture.directory:capture}") String directory,
+                          @Value("${dessert.capture.max-file-size:64MB}") DataSize maxFileSize,
+                          @Value("${dessert.capture.max-files:10}") int maxFiles,
+                          @Value("${dessert.capture.sample-rate:1.0}") double sampleRate,
+                          @Value("${dessert.capture.queue-size:" + DEFAULT_QUEUE_SIZE + "}") int queueSize) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxFileSize = Math.max(1, maxFileSize.toBytes());
+        this.maxFiles = Math.max(1, maxFiles);
+        this.sampleRate = sampleRate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        if (enabled) {
+            this.writer = new Thread(this::drain, "request-capture");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a sanitized copy of {@code request} for writing, subject to the sample rate. A request that cannot be
+     * serialized is logged and skipped, one that finds the queue full is counted in {@link #dropped()}; capture never
+     * fails or delays a solve.
+     */
+    public void record(DessertRequestDTO request) {
+        if (!enabled || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) return;
+        Object item;
+        try {
+            if (request.ingredients instanceof IngredientList ingredients) {
+                DessertRequestDTO rest = RequestEdits.copy(request);
+                rest.ingredients = null;
+                rest.constraintsBlock = request.constraintsBlock;
+                item = new Pending(System.currentTimeMillis(), objectMapper.valueToTree(rest), ingredients);
+            } else {
+                item = line(System.currentTimeMillis(), sanitized(objectMapper.valueToTree(request)));
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Skipping captured request: {}", e.toString());
+            return;
+        }
+        if (!queue.offer(item) && dropped.incrementAndGet() == 1) {
+            log.warn("Capture queue is full; requests are dropped until the writer catches up");
+        }
+    }
+
+    /**
+     * Requests dropped because the writer queue was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Wait until every line queued so far is written through to the current file.
+     */
+    public void flush() throws IOException {
+        if (writer == null || !writer.isAlive()) return;
+        CountDownLatch flushed = new CountDownLatch(1);
+        try {
+            queue.put(flushed);
+            flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing the capture");
+        }
+    }
+
+    /**
+     * Write what is queued, close the current file and stop the writer.
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null || !writer.isAlive()) return;
+        try {
+            queue.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Object item = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (item == STOP) break;
+                if (item instanceof byte[] line) {
+                    write(line);
+                } else if (item instanceof Pending pending) {
+                    write(pending);
+                }
+                long now = System.currentTimeMillis();
+                if (item == null || item instanceof CountDownLatch || now - lastFlush >= FLUSH_INTERVAL_MS) {
+                    flushQuietly();
+                    lastFlush = now;
+                }
+                if (item instanceof CountDownLatch flushed) {
+                    flushed.countDown();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void write(byte[] line) {
+        try {
+            if (out != null && written > 0 && written + line.length + 1 > maxFileSize) {
+                out.close();
+                out = null;
+            }
+            if (out == null) open();
+            out.write(line);
+            out.write('\n');
+            written += line.length + 1;
+        } catch (IOException e) {
+            log.warn("Capture write to {} failed: {}", directory, e.toString());
+            closeQuietly();
+        }
+    }
+
+    private void write(Pending pending) {
+        byte[] line;
+        try {
+            pending.body().set("ingredients", objectMapper.valueToTree(pending.ingredients()));
+            line = line(pending.at(), sanitized(pending.body()));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Skipping captured request: {}", e.toString());
+            return;
+        }
+        write(line);
+    }
+
+    private byte[] line(long at, ObjectNode request) throws JsonProcessingException {
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("at", at);
+        entry.set("request", request);
+        return objectMapper.writeValueAsBytes(entry);
+    }
+
+    private void flushQuietly() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Capture flush to {} failed: {}", directory, e.toString());
+            closeQuietly();
+        }
+    }
+
+    /**
+     * The request's JSON tree with the catalog reference dropped and ingredient names aliased, in place.
+     */
+    private static ObjectNode sanitized(ObjectNode body) {
+        body.remove("catalog");
+        Map<String, String> aliases = new HashMap<>();
+        Set<String> attributes = new HashSet<>(AttributeColumns.RESERVED);
+        for (JsonNode ingredient : body.path("ingredients")) {
+            String name = RequestFingerprint.fold(ingredient.path("name").asText(null));
+            ((ObjectNode) ingredient).put("name", aliases.computeIfAbsent(name, key -> "I" + aliases.size()));
+            ingredient.path("attributes").fieldNames().forEachRemaining(attribute -> attributes.add(RequestFingerprint.fold(attribute)));
+        }
+        // Ingredient names win over attributes and "weight" in constraint rows, as in the solver; any other text with
+        // operators is an expression, whose ingredient names are aliased one by one.
+        for (JsonNode constraint : body.path("constraintsBlock").path("constraints")) {
+            String left = constraint.path("left").asText(null);
+            if (left == null || aliases.containsKey(RequestFingerprint.fold(left))) {
+                alias(constraint, "left", aliases, false);
+            } else if (ConstraintExpression.hasOperator(left) && !attributes.contains(RequestFingerprint.fold(left))) {
+                ((ObjectNode) constraint).put("left",
+                        ConstraintExpression.renameNames(left, name -> aliases.get(RequestFingerprint.fold(name))));
+            }
+        }
+        alias(body.path("aestheticConstraint"), "ingredientName", aliases, true);
+        JsonNode goal = body.path("goal");
+        if ("INGREDIENT".equals(goal.path("targetType").asText())) {
+            alias(goal, "targetName", aliases, true);
+        }
+        return body;
+    }
+
+    /**
+     * Replace a name by its alias. A name matching no ingredient is kept, or with {@code ingredientOnly} replaced by
+     * one that matches none either.
+     */
+    private static void alias(JsonNode node, String field, Map<String, String> aliases, boolean ingredientOnly) {
+        if (!(node instanceof ObjectNode object) || !node.path(field).isTextual()) return;
+        String alias = aliases.get(RequestFingerprint.fold(node.get(field).asText()));
+        if (alias != null) {
+            object.put(field, alias);
+        } else if (ingredientOnly) {
+            object.put(field, "unknown");
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("%s%d-%04d%s", PREFIX, System.currentTimeMillis(), fileSequence++, SUFFIX));
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024);
+        written = 0;
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(RequestCapture::isCaptureFile).sorted().toList();
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Closing capture file failed: {}", e.toString());
+        }
+        out = null;
+    }
+
+    /**
+     * A request whose read-only ingredients are serialized on the writer thread.
+     */
+    private record Pending(long at, ObjectNode body, IngredientList ingredients) {
+    }
+
+    static boolean isCaptureFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+}
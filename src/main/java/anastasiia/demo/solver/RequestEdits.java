@@ -0,0 +1,106 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copying and bound-editing helpers for requests that are re-solved with small changes
+ * (sweeps and editing sessions).
+ */
+final class RequestEdits {
+
+    private static final Pattern CONSTRAINT_PARAMETER = Pattern.compile("constraints\\[(\\d+)](\\.right)?");
+
+    private RequestEdits() {
+    }
+
+    /**
+     * Setter for a named bound of the request: "maxPrice", "maxCalories", "totalWeight"
+     * or "constraints[i].right" (index into the request's own constraint order).
+     */
+    static BiConsumer<DessertRequestDTO, Double> parameter(DessertRequestDTO base, String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Parameter name is required");
+        }
+        switch (name) {
+            case "maxPrice" -> { return (r, v) -> r.constraintsBlock.maxPrice = v; }
+            case "maxCalories" -> { return (r, v) -> r.constraintsBlock.maxCalories = v; }
+            case "totalWeight" -> { return (r, v) -> r.constraintsBlock.totalWeight = v; }
+            default -> { }
+        }
+        Matcher matcher = CONSTRAINT_PARAMETER.matcher(name);
+        int size = base.constraintsBlock == null || base.constraintsBlock.constraints == null ? 0 : base.constraintsBlock.constraints.size();
+        if (!matcher.matches() || Integer.parseInt(matcher.group(1)) >= size) {
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+        int index = Integer.parseInt(matcher.group(1));
+        return (r, v) -> r.constraintsBlock.constraints.get(index).right = v;
+    }
+
+    /**
+     * Copy of everything an edit may change. The ingredient list, the goal, the aesthetic rule, the
+     * MIP and the alternatives options are shared, so a catalog list stays a view; the constraints block and
+     * each custom constraint are new. Callers that drop ingredients copy the list themselves.
+     */
+    static DessertRequestDTO copy(DessertRequestDTO base) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = base.ingredients == null ? List.of() : base.ingredients;
+        request.aestheticConstraint = base.aestheticConstraint;
+        request.goal = base.goal;
+        request.timeLimitMs = base.timeLimitMs;
+        request.mip = base.mip;
+        request.debug = base.debug;
+        request.sparse = base.sparse;
+        request.sensitivity = base.sensitivity;
+        request.diagnose = base.diagnose;
+        request.alternatives = base.alternatives;
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        if (base.constraintsBlock != null) {
+            request.constraintsBlock.maxPrice = base.constraintsBlock.maxPrice;
+            request.constraintsBlock.maxCalories = base.constraintsBlock.maxCalories;
+            request.constraintsBlock.totalWeight = base.constraintsBlock.totalWeight;
+        }
+        request.constraintsBlock.constraints = new ArrayList<>();
+        if (base.constraintsBlock != null && base.constraintsBlock.constraints != null) {
+            for (DessertRequestDTO.ConstraintDTO constraint : base.constraintsBlock.constraints) {
+                request.constraintsBlock.constraints.add(copy(constraint));
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Shallow copy of the request with another time limit, for callers that solve on what is left of a budget
+     * without writing it back into the caller's request.
+     */
+    static DessertRequestDTO withTimeLimit(DessertRequestDTO base, long timeLimitMs) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = base.ingredients;
+        request.catalog = base.catalog;
+        request.aestheticConstraint = base.aestheticConstraint;
+        request.goal = base.goal;
+        request.constraintsBlock = base.constraintsBlock;
+        request.timeLimitMs = timeLimitMs;
+        request.mip = base.mip;
+        request.debug = base.debug;
+        request.sparse = base.sparse;
+        request.sensitivity = base.sensitivity;
+        request.diagnose = base.diagnose;
+        request.alternatives = base.alternatives;
+        return request;
+    }
+
+    static DessertRequestDTO.ConstraintDTO copy(DessertRequestDTO.ConstraintDTO constraint) {
+        DessertRequestDTO.ConstraintDTO copy = new DessertRequestDTO.ConstraintDTO();
+        copy.left = constraint.left;
+        copy.op = constraint.op;
+        copy.right = constraint.right;
+        copy.allowDeviation = constraint.allowDeviation;
+        return copy;
+    }
+}
@@ -0,0 +1,273 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Canonical, order-independent key of a dessert request.
+ * Two requests that only differ in ingredient order, name casing or the order of
+ * custom constraints produce equal fingerprints. Requests for a presolve, sensitivity or conflict report are the
+ * exception: those reports name ingredients and constraints as the request spells them, and conflicts point at
+ * constraints by position, so such requests also keep their names in request order and spelling.
+ * <p>
+ * {@link #structureOf} is the coarser key used for compiled model templates: it ignores every
+ * right-hand side and the goal direction, but keeps ingredients in request order.
+ * <p>
+ * Ingredients from a registered catalog are keyed by catalog id, version and selection; streamed ones are read
+ * from their columns, so neither builds an {@link IngredientDTO} per row.
+ */
+public final class RequestFingerprint {
+
+    /**
+     * Order in which custom constraints are canonicalised; shared with compiled templates so that
+     * the k-th template row always receives the right-hand side of the k-th sorted constraint.
+     */
+    static final Comparator<DessertRequestDTO.ConstraintDTO> CONSTRAINT_ORDER = Comparator
+            .comparing((DessertRequestDTO.ConstraintDTO c) -> fold(c.left))
+            .thenComparing(c -> c.op, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(c -> c.allowDeviation)
+            .thenComparingDouble(c -> c.right);
+
+    private final String canonical;
+    private final int hash;
+
+    private RequestFingerprint(String canonical) {
+        this.canonical = canonical;
+        this.hash = canonical.hashCode();
+    }
+
+    /**
+     * Build the canonical fingerprint of the given request.
+     */
+    public static RequestFingerprint of(DessertRequestDTO request) {
+        StringBuilder key = new StringBuilder(256);
+        appendIngredients(key, request.ingredients);
+        appendConstraints(key, request.constraintsBlock);
+        appendAesthetic(key, request.aestheticConstraint);
+        appendGoal(key, request.goal);
+        if (request.mip != null) {
+            key.append("M[").append(number(request.mip.gap)).append(']');
+        }
+        if (request.debug) {
+            key.append('D');
+        }
+        if (request.sensitivity) {
+            key.append('S');
+        }
+        if (request.diagnose) {
+            key.append('X');
+        }
+        if (request.debug || request.sensitivity || request.diagnose) {
+            appendNames(key, request);
+        }
+        if (request.alternatives != null) {
+            key.append("A[").append(request.alternatives.count).append(';').append(number(request.alternatives.tolerance))
+                    .append(';').append(number(request.alternatives.minDistance)).append(']');
+        }
+        return new RequestFingerprint(key.toString());
+    }
+
+    /**
+     * Build the structural fingerprint: everything that shapes the constraint matrix and objective
+     * coefficients, but none of the bound values.
+     */
+    public static RequestFingerprint structureOf(DessertRequestDTO request) {
+        StringBuilder key = new StringBuilder(256).append("S:");
+        List<IngredientDTO> ingredients = request.ingredients;
+        if (ingredients instanceof IngredientList list && list.orderedKey() != null) {
+            key.append(list.orderedKey());
+        } else {
+            key.append("I[");
+            if (ingredients != null) {
+                for (int i = 0; i < ingredients.size(); i++) {
+                    key.append(entry(ingredients, i, DessertSolver.name(ingredients, i))).append(';');
+                }
+            }
+            key.append(']');
+        }
+        key.append("C[");
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        if (block != null) {
+            key.append(block.maxPrice > 0 ? 'P' : '-')
+                    .append(block.maxCalories > 0 ? 'K' : '-')
+                    .append(block.totalWeight > 0 ? 'W' : '-');
+            for (DessertRequestDTO.ConstraintDTO constraint : canonicalConstraints(block)) {
+                key.append(';').append(fold(constraint.left)).append(':')
+                        .append(constraint.op).append(':')
+                        .append(constraint.allowDeviation);
+            }
+        }
+        key.append(']');
+        appendAesthetic(key, request.aestheticConstraint);
+        key.append("G[");
+        if (request.goal != null && request.goal.targetType != null) {
+            key.append(request.goal.targetType).append(':').append(fold(request.goal.targetName));
+        }
+        key.append(']');
+        return new RequestFingerprint(key.toString());
+    }
+
+    /**
+     * Custom constraints of the block in canonical order (empty when there are none).
+     */
+    static List<DessertRequestDTO.ConstraintDTO> canonicalConstraints(DessertRequestDTO.ConstraintsBlock block) {
+        if (block == null || block.constraints == null) return List.of();
+        List<DessertRequestDTO.ConstraintDTO> sorted = new ArrayList<>(block.constraints);
+        sorted.sort(CONSTRAINT_ORDER);
+        return sorted;
+    }
+
+    /**
+     * Case-folded form of a name as used in fingerprints and cached quantities.
+     */
+    static String fold(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static void appendIngredients(StringBuilder key, List<IngredientDTO> ingredients) {
+        if (ingredients instanceof IngredientList catalogIngredients && catalogIngredients.key() != null) {
+            key.append(catalogIngredients.key());
+            return;
+        }
+        key.append("I[");
+        if (ingredients != null) {
+            List<String> entries = new ArrayList<>(ingredients.size());
+            for (int i = 0; i < ingredients.size(); i++) {
+                entries.add(entry(ingredients, i, fold(DessertSolver.name(ingredients, i))));
+            }
+            entries.sort(Comparator.naturalOrder());
+            key.append(String.join(";", entries));
+        }
+        key.append(']');
+    }
+
+    // Streamed ingredients are read from their columns and spell the same as the DTOs they stand for.
+    private static String entry(List<IngredientDTO> ingredients, int i, String name) {
+        if (ingredients instanceof IngredientList list) {
+            return name + ':' + number(list.price(i)) + ':' + number(list.calories(i)) + quantityRules(ingredients, i)
+                    + attributes(list, i);
+        }
+        IngredientDTO ingredient = ingredients.get(i);
+        return name + ':' + number(ingredient.price) + ':' + number(ingredient.calories) + quantityRules(ingredients, i)
+                + attributes(ingredient);
+    }
+
+    // Empty for plain continuous ingredients, so their keys are unchanged.
+    private static String quantityRules(List<IngredientDTO> ingredients, int i) {
+        if (!DessertSolver.hasQuantityRules(ingredients, i)) return "";
+        double max = DessertSolver.maxQuantity(ingredients, i);
+        return ":Q" + (DessertSolver.integer(ingredients, i) ? "i" : "") + number(DessertSolver.packSize(ingredients, i))
+                + '/' + number(DessertSolver.minQuantity(ingredients, i)) + '/' + (Double.isNaN(max) ? "-" : number(max));
+    }
+
+    // Empty without further attributes; otherwise sorted, zero values dropped since they equal a missing one.
+    private static String attributes(IngredientDTO ingredient) {
+        if (ingredient.attributes == null || ingredient.attributes.isEmpty()) return "";
+        List<String> entries = new ArrayList<>(ingredient.attributes.size());
+        ingredient.attributes.forEach((name, value) -> {
+            if (value != null && value != 0) entries.add(fold(name) + '=' + number(value));
+        });
+        return attributes(entries);
+    }
+
+    private static String attributes(IngredientList list, int i) {
+        List<String> entries = new ArrayList<>();
+        for (String name : list.attributes()) {
+            double value = list.column(name).applyAsDouble(i);
+            if (value != 0) entries.add(fold(name) + '=' + number(value));
+        }
+        return attributes(entries);
+    }
+
+    private static String attributes(List<String> entries) {
+        if (entries.isEmpty()) return "";
+        entries.sort(Comparator.naturalOrder());
+        return ":A" + String.join(",", entries);
+    }
+
+    // Catalog ingredients are always spelled and ordered the same, so their names are already in the catalog key.
+    private static void appendNames(StringBuilder key, DessertRequestDTO request) {
+        key.append("N[");
+        if (request.ingredients != null && !(request.ingredients instanceof IngredientList list && list.key() != null)) {
+            for (int i = 0; i < request.ingredients.size(); i++) {
+                key.append(request.ingredients instanceof IngredientList list ? list.name(i) : request.ingredients.get(i).name).append(';');
+            }
+        }
+        key.append('|');
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        if (block != null && block.constraints != null) {
+            for (DessertRequestDTO.ConstraintDTO constraint : block.constraints) {
+                key.append(constraint.left).append(':').append(constraint.op).append(';');
+            }
+        }
+        key.append(']');
+    }
+
+    private static void appendConstraints(StringBuilder key, DessertRequestDTO.ConstraintsBlock block) {
+        key.append("C[");
+        if (block != null) {
+            // Non-positive limits are ignored by the solver, so they all collapse to 0.
+            key.append(number(positiveOrZero(block.maxPrice))).append(';')
+                    .append(number(positiveOrZero(block.maxCalories))).append(';')
+                    .append(number(positiveOrZero(block.totalWeight)));
+            for (DessertRequestDTO.ConstraintDTO constraint : canonicalConstraints(block)) {
+                key.append(';').append(fold(constraint.left)).append(':')
+                        .append(constraint.op).append(':')
+                        .append(number(constraint.right)).append(':')
+                        .append(constraint.allowDeviation);
+            }
+        }
+        key.append(']');
+    }
+
+    private static void appendAesthetic(StringBuilder key, DessertRequestDTO.AestheticConstraint aesthetic) {
+        key.append("A[");
+        if (aesthetic != null && aesthetic.ingredientName != null && !aesthetic.ingredientName.isEmpty()) {
+            key.append(fold(aesthetic.ingredientName)).append(':')
+                    .append(fold(aesthetic.ruleType)).append(':')
+                    .append(number(aesthetic.percent));
+        }
+        key.append(']');
+    }
+
+    private static void appendGoal(StringBuilder key, DessertRequestDTO.GoalDTO goal) {
+        key.append("G[");
+        if (goal != null && goal.targetType != null) {
+            key.append(goal.targetType).append(':')
+                    .append(fold(goal.targetName)).append(':')
+                    .append(goal.direction);
+        }
+        key.append(']');
+    }
+
+    private static double positiveOrZero(double value) {
+        return value > 0 ? value : 0;
+    }
+
+    private static String number(double value) {
+        // Adding 0.0 turns -0.0 into 0.0 so both spell the same.
+        return Double.toString(value + 0.0);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof RequestFingerprint that)) return false;
+        return hash == that.hash && canonical.equals(that.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return canonical;
+    }
+}
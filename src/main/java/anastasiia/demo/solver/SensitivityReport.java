@@ -0,0 +1,58 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SensitivityDTO;
+import anastasiia.demo.enums.ConstraintType;
+import org.ojalgo.optimisation.Optimisation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Names the rows and columns of a {@link DenseSimplexEngine.Sensitivity} for the result.
+ */
+final class SensitivityReport {
+
+    private SensitivityReport() {
+    }
+
+    static SensitivityDTO of(LinearProgram program, double[] rhs, DenseSimplexEngine.Sensitivity sensitivity,
+                             List<IngredientDTO> ingredients, Optimisation.Result result) {
+        double[] quantities = DessertSolver.quantities(result, program.ingredientCount);
+        SensitivityDTO report = new SensitivityDTO();
+
+        report.constraints = new ArrayList<>(program.rowCount());
+        for (int i = 0; i < program.rowCount(); i++) {
+            SensitivityDTO.ConstraintSensitivity row = new SensitivityDTO.ConstraintSensitivity();
+            row.name = program.rowNames[i];
+            row.type = switch (program.slackSign(i)) {
+                case 1 -> ConstraintType.UPPER;
+                case -1 -> ConstraintType.LOWER;
+                default -> ConstraintType.LEVEL;
+            };
+            row.rhs = rhs[i];
+            row.activity = program.activity(i, quantities);
+            row.dualValue = sensitivity.duals()[i];
+            row.rhsLower = finite(sensitivity.rhsLower()[i]);
+            row.rhsUpper = finite(sensitivity.rhsUpper()[i]);
+            report.constraints.add(row);
+        }
+
+        report.ingredients = new ArrayList<>(program.ingredientCount);
+        for (int j = 0; j < program.ingredientCount; j++) {
+            SensitivityDTO.IngredientSensitivity column = new SensitivityDTO.IngredientSensitivity();
+            column.name = ingredients instanceof IngredientList list ? list.name(j) : ingredients.get(j).name;
+            column.quantity = quantities[j];
+            column.reducedCost = sensitivity.reducedCosts()[j];
+            column.coefficient = program.objective[j];
+            column.coefficientLower = finite(sensitivity.coefficientLower()[j]);
+            column.coefficientUpper = finite(sensitivity.coefficientUpper()[j]);
+            report.ingredients.add(column);
+        }
+        return report;
+    }
+
+    private static Double finite(double value) {
+        return Double.isInfinite(value) ? null : value;
+    }
+}
@@ -0,0 +1,424 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.AlternativeDTO;
+import anastasiia.demo.dto.CacheStatsDTO;
+import anastasiia.demo.dto.ConflictDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.PresolveReportDTO;
+import anastasiia.demo.dto.SensitivityDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU cache of solved requests, keyed by {@link RequestFingerprint}.
+ * Entries expire when the cache grows past its maximum size or when their TTL elapses.
+ * <p>
+ * With coalescing on, concurrent identical requests are solved once: the first becomes the leader and
+ * the others wait for its result, each within its own {@code timeLimitMs}. A leader that fails on the
+ * request passes its exception to the waiters, since they would fail the same way. A leader that is
+ * cancelled or interrupted, or whose own budget ran out, hands over instead: one waiter becomes the next
+ * leader and solves it.
+ */
+@Component
+public class SolutionCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final boolean coalesce;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<RequestFingerprint, CachedSolution> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Completes with the leader's solution, or with null when the leader timed out.
+    private final ConcurrentHashMap<RequestFingerprint, CompletableFuture<CachedSolution>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SolutionCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, true);
+    }
+
+    @Autowired
+    public SolutionCache(@Value("${dessert.cache.max-size:1000}") int maxSize,
+                         @Value("${dessert.cache.ttl:10m}") Duration ttl,
+                         @Value("${dessert.cache.coalesce:true}") boolean coalesce) {
+        this(maxSize, ttl, coalesce, System::nanoTime);
+    }
+
+    SolutionCache(int maxSize, Duration ttl, boolean coalesce, LongSupplier clock) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.coalesce = coalesce;
+        this.clock = clock;
+    }
+
+    /**
+     * Return the cached result for an equivalent request, wait for an equivalent request already being
+     * solved, or solve it and remember the result.
+     */
+    public DessertResultDTO getOrSolve(DessertRequestDTO request, Function<DessertRequestDTO, DessertResultDTO> solver) {
+        if (maxSize == 0 && !coalesce) {
+            return solver.apply(request);
+        }
+
+        RequestFingerprint key = RequestFingerprint.of(request);
+        long started = System.nanoTime();
+        boolean waited = false;
+        while (true) {
+            CachedSolution cached = maxSize > 0 ? lookup(key) : null;
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.toResult(request);
+            }
+            if (!coalesce) {
+                misses.incrementAndGet();
+                return solve(key, request, solver);
+            }
+
+            CompletableFuture<CachedSolution> flight = new CompletableFuture<>();
+            CompletableFuture<CachedSolution> leader = inFlight.putIfAbsent(key, flight);
+            if (leader == null) {
+                misses.incrementAndGet();
+                return lead(key, flight, request, solver, started);
+            }
+            if (!waited) {
+                coalesced.incrementAndGet();
+                waited = true;
+            }
+            long remaining = remainingMillis(request, started);
+            if (remaining <= 0) {
+                return DessertSolver.timedOut(request);
+            }
+            CachedSolution shared = await(leader, remaining);
+            if (shared == TIMED_OUT) {
+                return DessertSolver.timedOut(request);
+            }
+            if (shared != null) {
+                return shared.toResult(request);
+            }
+            // The leader gave up without a result: take over.
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     */
+    public CacheStatsDTO stats() {
+        CacheStatsDTO stats = new CacheStatsDTO();
+        synchronized (entries) {
+            stats.size = entries.size();
+        }
+        stats.maxSize = maxSize;
+        stats.ttlSeconds = Duration.ofNanos(ttlNanos).toSeconds();
+        stats.hits = hits.get();
+        stats.misses = misses.get();
+        stats.evictions = evictions.get();
+        stats.expirations = expirations.get();
+        stats.coalesced = coalesced.get();
+        stats.inFlight = inFlight.size();
+        return stats;
+    }
+
+    /**
+     * Drop every cached entry. Counters are kept; solves in flight are not affected.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private DessertResultDTO solve(RequestFingerprint key, DessertRequestDTO request, Function<DessertRequestDTO, DessertResultDTO> solver) {
+        DessertResultDTO result = solver.apply(request);
+        // A timed-out result depends on the budget, not only on the problem.
+        if (maxSize > 0 && !DessertSolver.TIMEOUT.equals(result.status)) {
+            store(key, new CachedSolution(result, clock.getAsLong() + ttlNanos));
+        }
+        return result;
+    }
+
+    /**
+     * Solve as the leader for the key and publish the outcome to the requests waiting on {@code flight}.
+     * The result is cached before the flight is removed, so a request that no longer finds the flight finds the entry.
+     */
+    private DessertResultDTO lead(RequestFingerprint key, CompletableFuture<CachedSolution> flight, DessertRequestDTO request,
+                                  Function<DessertRequestDTO, DessertResultDTO> solver, long started) {
+        DessertResultDTO result;
+        try {
+            // A waiter taking over only has what is left of its own budget; the caller's request keeps its limit.
+            long remaining = remainingMillis(request, started);
+            result = solver.apply(remaining == Long.MAX_VALUE || remaining >= request.timeLimitMs
+                    ? request : RequestEdits.withTimeLimit(request, Math.max(1, remaining)));
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            boolean abandoned = e instanceof CancellationException || Thread.currentThread().isInterrupted();
+            flight.completeExceptionally(abandoned ? new CancellationException("Leader solve was cancelled") : e);
+            throw e;
+        }
+        CachedSolution solution = DessertSolver.TIMEOUT.equals(result.status)
+                ? null : new CachedSolution(result, clock.getAsLong() + ttlNanos);
+        if (solution != null && maxSize > 0) {
+            store(key, solution);
+        }
+        inFlight.remove(key, flight);
+        flight.complete(solution);
+        return result;
+    }
+
+    /**
+     * The leader's solution; null when the leader gave up and a waiter should take over; {@link #TIMED_OUT}
+     * when the caller's own budget ran out first. A failure of the leader is rethrown as is.
+     */
+    private static CachedSolution await(CompletableFuture<CachedSolution> leader, long remainingMillis) {
+        try {
+            return remainingMillis == Long.MAX_VALUE ? leader.get() : leader.get(remainingMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return TIMED_OUT;
+        } catch (CancellationException e) {
+            // CompletableFuture.get throws a cancelled leader's exception directly rather than wrapped.
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an identical solve");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static long remainingMillis(DessertRequestDTO request, long started) {
+        if (request.timeLimitMs <= 0) return Long.MAX_VALUE;
+        return request.timeLimitMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private CachedSolution lookup(RequestFingerprint key) {
+        synchronized (entries) {
+            CachedSolution cached = entries.get(key);
+            if (cached == null) return null;
+            if (cached.expiresAt - clock.getAsLong() <= 0) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void store(RequestFingerprint key, CachedSolution solution) {
+        synchronized (entries) {
+            entries.put(key, solution);
+            purgeExpired();
+            Iterator<CachedSolution> eldest = entries.values().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        long now = clock.getAsLong();
+        Iterator<CachedSolution> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt - now <= 0) {
+                iterator.remove();
+                expirations.incrementAndGet();
+            }
+        }
+    }
+
+    private static final CachedSolution TIMED_OUT = new CachedSolution(new DessertResultDTO(), 0);
+
+    /**
+     * Immutable copy of a solved result, with the quantities of the recipe and of its alternatives keyed by
+     * case-folded ingredient name so that it can be replayed for any request with the same fingerprint. Solved
+     * requests never have two names that fold alike: {@link AttributeColumns} rejects them. The presolve, sensitivity
+     * and conflict reports name rows and columns as the first request spelled them; their requests only share a
+     * fingerprint with requests spelled and ordered the same, so they are replayed as they are.
+     */
+    private static final class CachedSolution {
+        private final Map<String, Double> quantities;
+        private final List<Map<String, Double>> alternativeQuantities; // Folded, one map per entry of extras.alternatives
+        private final String status;
+        private final double price;
+        private final double totalWeight;
+        private final double totalCalories;
+        private final Map<String, Double> totals;
+        private final DessertResultDTO extras; // Only the gap, presolve report, sensitivity, conflict and alternatives; never handed out
+        private final long expiresAt;
+
+        CachedSolution(DessertResultDTO result, long expiresAt) {
+            this.quantities = folded(result.ingredientsQuantities);
+            this.alternativeQuantities = result.alternatives == null ? List.of()
+                    : result.alternatives.stream().map(alternative -> folded(alternative.ingredientsQuantities)).toList();
+            this.status = result.status;
+            this.price = result.price;
+            this.totalWeight = result.totalWeight;
+            this.totalCalories = result.totalCalories;
+            this.totals = result.totals == null ? null : new LinkedHashMap<>(result.totals);
+            this.extras = new DessertResultDTO();
+            copyExtras(result, extras);
+            if (extras.presolve != null) {
+                // A hit neither presolves nor solves, so it must not report the first solve's timings.
+                extras.presolve.presolveMillis = 0;
+                extras.presolve.solveMillis = 0;
+            }
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Rebuild a result DTO, its alternatives included, in the caller's ingredient order and spelling, sparse if
+         * the caller asked for it.
+         */
+        DessertResultDTO toResult(DessertRequestDTO request) {
+            DessertResultDTO output = new DessertResultDTO();
+            List<IngredientDTO> ingredients = request.ingredients == null ? List.of() : request.ingredients;
+            output.ingredientsQuantities = unfolded(quantities, ingredients, request.sparse);
+            output.status = status;
+            output.price = price;
+            output.totalWeight = totalWeight;
+            output.totalCalories = totalCalories;
+            output.totals = totals == null ? null : new LinkedHashMap<>(totals);
+            copyExtras(extras, output);
+            for (int k = 0; k < alternativeQuantities.size(); k++) {
+                output.alternatives.get(k).ingredientsQuantities = unfolded(alternativeQuantities.get(k), ingredients, request.sparse);
+            }
+            return output;
+        }
+
+        private static Map<String, Double> folded(Map<String, Double> quantities) {
+            Map<String, Double> folded = new HashMap<>();
+            if (quantities != null) {
+                quantities.forEach((name, qty) -> folded.put(RequestFingerprint.fold(name), qty));
+            }
+            return folded;
+        }
+
+        /**
+         * Folded quantities in the caller's ingredient order and spelling; quantities a sparse result left out are zero.
+         */
+        private static Map<String, Double> unfolded(Map<String, Double> folded, List<IngredientDTO> ingredients, boolean sparse) {
+            double[] values = new double[ingredients.size()];
+            for (int i = 0; i < values.length; i++) {
+                String name = ingredients instanceof IngredientList list ? list.name(i) : ingredients.get(i).name;
+                values[i] = folded.getOrDefault(RequestFingerprint.fold(name), 0.0);
+            }
+            return DessertSolver.quantities(ingredients, values, sparse);
+        }
+
+        /**
+         * Deep copy of the gap, presolve report, sensitivity, conflict and alternatives, so that neither the result
+         * the entry was made from nor any replayed result shares a mutable object with the entry.
+         */
+        private static void copyExtras(DessertResultDTO from, DessertResultDTO to) {
+            to.gap = from.gap;
+            to.presolve = copy(from.presolve);
+            to.sensitivity = copy(from.sensitivity);
+            to.conflict = copy(from.conflict);
+            to.alternatives = copy(from.alternatives, CachedSolution::copy);
+        }
+
+        private static <T> List<T> copy(List<T> list, UnaryOperator<T> element) {
+            if (list == null) return null;
+            List<T> copy = new ArrayList<>(list.size());
+            for (T item : list) copy.add(element.apply(item));
+            return copy;
+        }
+
+        private static PresolveReportDTO copy(PresolveReportDTO report) {
+            if (report == null) return null;
+            PresolveReportDTO copy = new PresolveReportDTO();
+            copy.variables = report.variables;
+            copy.rows = report.rows;
+            copy.reducedVariables = report.reducedVariables;
+            copy.reducedRows = report.reducedRows;
+            copy.tightenedBounds = report.tightenedBounds;
+            copy.eliminatedVariables = report.eliminatedVariables == null ? null : new LinkedHashMap<>(report.eliminatedVariables);
+            copy.removedRows = report.removedRows == null ? null : new LinkedHashMap<>(report.removedRows);
+            copy.coefficientRange = report.coefficientRange;
+            copy.scaledCoefficientRange = report.scaledCoefficientRange;
+            copy.presolveMillis = report.presolveMillis;
+            copy.solveMillis = report.solveMillis;
+            return copy;
+        }
+
+        private static SensitivityDTO copy(SensitivityDTO sensitivity) {
+            if (sensitivity == null) return null;
+            SensitivityDTO copy = new SensitivityDTO();
+            copy.constraints = copy(sensitivity.constraints, row -> {
+                SensitivityDTO.ConstraintSensitivity c = new SensitivityDTO.ConstraintSensitivity();
+                c.name = row.name;
+                c.type = row.type;
+                c.rhs = row.rhs;
+                c.activity = row.activity;
+                c.dualValue = row.dualValue;
+                c.rhsLower = row.rhsLower;
+                c.rhsUpper = row.rhsUpper;
+                return c;
+            });
+            copy.ingredients = copy(sensitivity.ingredients, column -> {
+                SensitivityDTO.IngredientSensitivity i = new SensitivityDTO.IngredientSensitivity();
+                i.name = column.name;
+                i.quantity = column.quantity;
+                i.reducedCost = column.reducedCost;
+                i.coefficient = column.coefficient;
+                i.coefficientLower = column.coefficientLower;
+                i.coefficientUpper = column.coefficientUpper;
+                return i;
+            });
+            return copy;
+        }
+
+        private static ConflictDTO copy(ConflictDTO conflict) {
+            if (conflict == null) return null;
+            ConflictDTO copy = new ConflictDTO();
+            copy.constraints = conflict.constraints == null ? null : new ArrayList<>(conflict.constraints);
+            copy.customConstraints = conflict.customConstraints == null ? null : new ArrayList<>(conflict.customConstraints);
+            copy.minimal = conflict.minimal;
+            copy.solves = conflict.solves;
+            copy.millis = conflict.millis;
+            return copy;
+        }
+
+        private static AlternativeDTO copy(AlternativeDTO alternative) {
+            AlternativeDTO copy = new AlternativeDTO();
+            copy.ingredientsQuantities = alternative.ingredientsQuantities == null ? null : new LinkedHashMap<>(alternative.ingredientsQuantities);
+            copy.price = alternative.price;
+            copy.totalWeight = alternative.totalWeight;
+            copy.totalCalories = alternative.totalCalories;
+            copy.totals = alternative.totals == null ? null : new LinkedHashMap<>(alternative.totals);
+            copy.goal = alternative.goal;
+            copy.goalLoss = alternative.goalLoss;
+            copy.distance = alternative.distance;
+            return copy;
+        }
+    }
+}
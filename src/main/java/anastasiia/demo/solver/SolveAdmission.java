@@ -0,0 +1,108 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor in front of the solver.
+ * <p>
+ * At most {@code concurrency} solves run at once and at most {@code queue-depth} wait; anything beyond
+ * that is rejected immediately with {@link SolverOverloadedException} instead of queueing behind slow
+ * solves. Time spent waiting counts against the request's {@code timeLimitMs}: a request whose budget
+ * ran out in the queue is answered with {@link DessertSolver#TIMEOUT} without being solved.
+ */
+@Component
+public class SolveAdmission {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+
+    public SolveAdmission(@Value("${dessert.admission.concurrency:0}") int concurrency,
+                          @Value("${dessert.admission.queue-depth:64}") int queueDepth,
+                          @Value("${dessert.admission.retry-after:1s}") Duration retryAfter) {
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueDepth)),
+                task -> {
+                    Thread thread = new Thread(task, "dessert-solve-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Queue the solve, or throw {@link SolverOverloadedException} if the queue is full.
+     */
+    public CompletableFuture<DessertResultDTO> submit(DessertRequestDTO request, Function<DessertRequestDTO, DessertResultDTO> solve) {
+        return submit(request, request.timeLimitMs, solve);
+    }
+
+    /**
+     * Queue the solve under the given budget instead of the request's own {@code timeLimitMs}. The request is
+     * left as it is; the solve gets a copy carrying what is left of the budget once it leaves the queue.
+     */
+    public CompletableFuture<DessertResultDTO> submit(DessertRequestDTO request, long timeLimitMs,
+                                                      Function<DessertRequestDTO, DessertResultDTO> solve) {
+        long admitted = System.nanoTime();
+        return run(() -> {
+            long remaining = timeLimitMs;
+            if (timeLimitMs > 0) {
+                remaining -= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - admitted);
+                if (remaining <= 0) {
+                    return DessertSolver.timedOut(request);
+                }
+            }
+            return solve.apply(remaining == request.timeLimitMs ? request : RequestEdits.withTimeLimit(request, remaining));
+        });
+    }
+
+    /**
+     * Queue work that runs many solves, such as a sweep, as one unit: it takes a single slot for as long as it
+     * runs, and should spread out no further than {@link #idle()} allows. Throws {@link SolverOverloadedException}
+     * if the queue is full.
+     */
+    public <T> CompletableFuture<T> run(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            throw new SolverOverloadedException("Solver is at capacity (" + executor.getMaximumPoolSize()
+                    + " running, " + executor.getQueue().size() + " queued)", retryAfter);
+        }
+    }
+
+    /**
+     * Threads not running anything at this moment. Only a snapshot: work queued right after may take them.
+     */
+    public int idle() {
+        return Math.max(0, executor.getMaximumPoolSize() - executor.getActiveCount());
+    }
+
+    /**
+     * Solves waiting for a thread.
+     */
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
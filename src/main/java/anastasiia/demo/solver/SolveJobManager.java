@@ -0,0 +1,284 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.JobDTO;
+import anastasiia.demo.dto.PlanRequestDTO;
+import anastasiia.demo.dto.PlanResultDTO;
+import anastasiia.demo.enums.JobPriority;
+import anastasiia.demo.enums.JobState;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs solves and plans as background jobs on a worker pool of its own.
+ * <p>
+ * Jobs wait in priority order, first come first served within a priority; at most {@code queue-depth}
+ * wait and anything beyond that is rejected with {@link SolverOverloadedException}. Unlike
+ * {@link SolveAdmission}, time spent in the queue does not count against the job's {@code timeLimitMs}.
+ * Finished jobs are kept for {@code ttl} and at most {@code max-retained} of them, oldest first out;
+ * queued and running jobs are never dropped. An unknown or expired id raises {@link NoSuchElementException}.
+ */
+@Service
+public class SolveJobManager {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueDepth;
+    private final int maxRetained;
+    private final Duration ttl;
+    private final Duration retryAfter;
+    private final Clock clock;
+
+    private final Map<String, Job> jobs = new HashMap<>();
+    private final ArrayDeque<Job> finished = new ArrayDeque<>();
+    private long sequence;
+
+    @Autowired
+    public SolveJobManager(@Value("${dessert.jobs.concurrency:2}") int concurrency,
+                           @Value("${dessert.jobs.queue-depth:1000}") int queueDepth,
+                           @Value("${dessert.jobs.max-retained:1000}") int maxRetained,
+                           @Value("${dessert.jobs.ttl:1h}") Duration ttl,
+                           @Value("${dessert.jobs.retry-after:30s}") Duration retryAfter) {
+        this(concurrency, queueDepth, maxRetained, ttl, retryAfter, Clock.systemUTC());
+    }
+
+    SolveJobManager(int concurrency, int queueDepth, int maxRetained, Duration ttl, Duration retryAfter, Clock clock) {
+        int threads = Math.max(1, concurrency);
+        AtomicInteger count = new AtomicInteger();
+        // execute() hands the Job itself to the queue, so the queue orders jobs by Job.compareTo.
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "dessert-job-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.queueDepth = Math.max(1, queueDepth);
+        this.maxRetained = Math.max(1, maxRetained);
+        this.ttl = ttl;
+        this.retryAfter = retryAfter;
+        this.clock = clock;
+    }
+
+    /**
+     * Queue a solve; {@code solve} runs on a job worker.
+     */
+    public JobDTO submit(DessertRequestDTO request, JobPriority priority, Function<DessertRequestDTO, DessertResultDTO> solve) {
+        if (request == null || request.ingredients == null) {
+            throw new IllegalArgumentException("Job needs a request with ingredients");
+        }
+        return enqueue(priority, request.timeLimitMs, job -> job.result = solve.apply(request));
+    }
+
+    /**
+     * Queue a production plan; {@code plan} runs on a job worker.
+     */
+    public JobDTO submitPlan(PlanRequestDTO request, JobPriority priority, Function<PlanRequestDTO, PlanResultDTO> plan) {
+        if (request == null || request.recipes == null) {
+            throw new IllegalArgumentException("Job needs a plan with recipes");
+        }
+        return enqueue(priority, request.timeLimitMs, job -> job.plan = plan.apply(request));
+    }
+
+    /**
+     * Status of a job, with its result once it is done.
+     */
+    public JobDTO get(String id) {
+        synchronized (this) {
+            purge();
+            return lookup(id).view();
+        }
+    }
+
+    /**
+     * Cancel a queued or running job, or forget a finished one. A running solve is not interrupted,
+     * but its result is discarded.
+     */
+    public void cancel(String id) {
+        synchronized (this) {
+            purge();
+            Job job = lookup(id);
+            switch (job.state) {
+                case QUEUED -> {
+                    executor.remove(job);
+                    job.state = JobState.CANCELLED;
+                    retire(job);
+                }
+                case RUNNING -> job.state = JobState.CANCELLED;
+                default -> {
+                    jobs.remove(id);
+                    finished.remove(job);
+                }
+            }
+        }
+    }
+
+    /**
+     * Jobs waiting for a worker.
+     */
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private JobDTO enqueue(JobPriority priority, long budgetMs, Consumer<Job> work) {
+        synchronized (this) {
+            purge();
+            if (executor.getQueue().size() >= queueDepth) {
+                throw new SolverOverloadedException("Job queue is full (" + executor.getQueue().size() + " queued)", retryAfter);
+            }
+            Job job = new Job(UUID.randomUUID().toString(), priority == null ? JobPriority.NORMAL : priority,
+                    sequence++, budgetMs, work);
+            job.submittedAt = clock.instant();
+            jobs.put(job.id, job);
+            executor.execute(job);
+            return job.view();
+        }
+    }
+
+    private Job lookup(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new NoSuchElementException("Unknown job: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Move a job to the finished store and evict the oldest finished jobs past the cap.
+     */
+    private void retire(Job job) {
+        job.finishedAt = clock.instant();
+        finished.addLast(job);
+        while (finished.size() > maxRetained) {
+            jobs.remove(finished.removeFirst().id);
+        }
+    }
+
+    private void purge() {
+        Instant cutoff = clock.instant().minus(ttl);
+        while (!finished.isEmpty() && finished.peekFirst().finishedAt.isBefore(cutoff)) {
+            jobs.remove(finished.removeFirst().id);
+        }
+    }
+
+    private final class Job implements Runnable, Comparable<Job> {
+
+        final String id;
+        final JobPriority priority;
+        final long order;
+        final long budgetMs;
+        final Consumer<Job> work;
+
+        JobState state = JobState.QUEUED;
+        Instant submittedAt;
+        Instant startedAt;
+        Instant finishedAt;
+        DessertResultDTO result;
+        PlanResultDTO plan;
+        String error;
+
+        Job(String id, JobPriority priority, long order, long budgetMs, Consumer<Job> work) {
+            this.id = id;
+            this.priority = priority;
+            this.order = order;
+            this.budgetMs = budgetMs;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            synchronized (SolveJobManager.this) {
+                if (state != JobState.QUEUED) return;
+                state = JobState.RUNNING;
+                startedAt = clock.instant();
+            }
+            String failure = null;
+            Error fatal = null;
+            try {
+                work.accept(this);
+            } catch (Throwable e) {
+                // Errors from a deep solve (out of memory, stack overflow) still finish the job, then go on to the pool.
+                failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+                if (e instanceof Error error) fatal = error;
+            }
+            synchronized (SolveJobManager.this) {
+                if (state == JobState.CANCELLED) {
+                    result = null;
+                    plan = null;
+                } else if (failure != null) {
+                    state = JobState.FAILED;
+                    error = failure;
+                } else {
+                    state = JobState.DONE;
+                }
+                if (jobs.get(id) == this) {
+                    retire(this);
+                }
+            }
+            if (fatal != null) throw fatal;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+
+        /**
+         * Called with the manager locked.
+         */
+        JobDTO view() {
+            JobDTO dto = new JobDTO();
+            dto.id = id;
+            dto.state = state;
+            dto.priority = priority;
+            dto.submittedAt = submittedAt;
+            dto.startedAt = startedAt;
+            dto.finishedAt = finishedAt;
+            dto.result = result;
+            dto.plan = plan;
+            dto.error = error;
+            switch (state) {
+                case QUEUED -> {
+                    int ahead = 0;
+                    for (Runnable queued : executor.getQueue()) {
+                        if (queued instanceof Job other && other.compareTo(this) < 0) ahead++;
+                    }
+                    dto.queuePosition = ahead;
+                    dto.progress = 0.0;
+                }
+                case RUNNING -> {
+                    if (budgetMs > 0) {
+                        long elapsed = Duration.between(startedAt, clock.instant()).toMillis();
+                        dto.progress = Math.min(0.99, (double) elapsed / budgetMs);
+                    }
+                }
+                default -> dto.progress = 1.0;
+            }
+            return dto;
+        }
+    }
+}
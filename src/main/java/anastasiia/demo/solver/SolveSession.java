@@ -0,0 +1,230 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SessionDTO;
+import anastasiia.demo.dto.SessionDeltaDTO;
+import anastasiia.demo.enums.SessionDeltaOp;
+import anastasiia.demo.enums.TargetType;
+
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.optimisation.Optimisation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One editing session: the current request, its compiled {@link LinearProgram} and the last optimum.
+ * <p>
+ * Deltas are applied to a copy of the request and committed only when all of them are valid. A batch of
+ * bound changes keeps the compiled program and only replaces the right-hand side; other edits recompile
+ * it. Before solving, the previous optimum is checked against the edited problem: when the edit only
+ * tightened rows the optimum still satisfies, or loosened rows it did not touch, it is still optimal and
+ * no solve runs.
+ * <p>
+ * Sessions return the recipe only: the debug, sensitivity, diagnosis and alternatives reports are dropped from the
+ * request when the session is created, since a reused optimum has none of them and rebuilding them would cost the
+ * full solves that sessions avoid.
+ * <p>
+ * Not thread-safe; {@link SolveSessionManager} serialises access to each session.
+ */
+final class SolveSession {
+
+    private static final double TOLERANCE = 1e-9;
+
+    final String id;
+    private final DessertSolver solver;
+
+    private DessertRequestDTO request;
+    private RequestFingerprint structure;
+    private LinearProgram program;    // null when the request has no rows; solved through DessertSolver then
+    private double[] rhs;
+    private double[] quantities;      // Last optimum, null when the last solve was not optimal
+    private Optimisation.State state;
+    private DessertResultDTO result;
+    private long revision;
+    private boolean reused;
+
+    long lastAccess;
+
+    SolveSession(String id, DessertRequestDTO request, DessertSolver solver) {
+        this.id = id;
+        this.solver = solver;
+        this.request = RequestEdits.copy(request);
+        // Dropping ingredients edits the list, and kept quantities are matched up by ingredient identity.
+        this.request.ingredients = new ArrayList<>(this.request.ingredients);
+        this.request.debug = false;
+        this.request.sensitivity = false;
+        this.request.diagnose = false;
+        this.request.alternatives = null;
+        this.structure = RequestFingerprint.structureOf(this.request);
+        this.program = LinearProgramAssembler.assemble(this.request);
+        this.rhs = program == null ? null : program.rightHandSide(this.request);
+        solve();
+    }
+
+    /**
+     * Apply a batch of deltas and bring the solution up to date.
+     */
+    void apply(List<SessionDeltaDTO> deltas) {
+        DessertRequestDTO edited = RequestEdits.copy(request);
+        edited.ingredients = new ArrayList<>(request.ingredients);
+        boolean boundsOnly = true;
+        boolean tighteningOnly = true;
+        for (SessionDeltaDTO delta : deltas) {
+            if (delta == null || delta.op == null) {
+                throw new IllegalArgumentException("Every delta needs an op");
+            }
+            edit(edited, delta);
+            boundsOnly &= delta.op == SessionDeltaOp.SET;
+            tighteningOnly &= delta.op == SessionDeltaOp.ADD_CONSTRAINT || delta.op == SessionDeltaOp.DROP_INGREDIENT;
+        }
+
+        RequestFingerprint editedStructure = RequestFingerprint.structureOf(edited);
+        boolean sameProgram = program != null && editedStructure.equals(structure);
+        LinearProgram editedProgram = sameProgram ? program : LinearProgramAssembler.assemble(edited);
+        double[] editedRhs = editedProgram == null ? null : editedProgram.rightHandSide(edited);
+
+        double[] kept = null;
+        if (quantities != null && editedProgram != null) {
+            if (sameProgram && boundsOnly) {
+                kept = stillOptimalAfterBoundChange(editedRhs) ? quantities : null;
+            } else if (tighteningOnly) {
+                kept = stillOptimalAfterRestriction(edited, editedProgram, editedRhs);
+            }
+        }
+
+        request = edited;
+        structure = editedStructure;
+        program = editedProgram;
+        rhs = editedRhs;
+        revision++;
+        reused = kept != null;
+        if (reused) {
+            quantities = kept;
+            result = DessertSolver.buildResult(new Optimisation.Result(state, Primitive64Store.wrap(kept)), request.ingredients,
+                    AttributeColumns.of(request.ingredients), request.sparse);
+        } else {
+            solve();
+        }
+    }
+
+    SessionDTO snapshot() {
+        SessionDTO dto = new SessionDTO();
+        dto.id = id;
+        dto.revision = revision;
+        dto.reusedPreviousSolution = reused;
+        dto.result = result;
+        return dto;
+    }
+
+    /**
+     * Rough heap footprint, used for the manager's memory cap.
+     */
+    long estimatedBytes() {
+        int ingredients = request.ingredients.size();
+        int constraints = request.constraintsBlock.constraints.size();
+        long bytes = 512 + 160L * ingredients + 64L * constraints;
+        if (program != null) {
+            bytes += program.estimatedBytes() + 8L * rhs.length + 8L * ingredients;
+        }
+        return bytes;
+    }
+
+    private void solve() {
+        if (program == null) {
+            result = solver.solve(request);
+            quantities = null;
+            return;
+        }
+        long started = System.nanoTime();
+        Optimisation.Result solved = solver.engineFor(program).solve(program, rhs, LinearProgram.maximises(request), request.timeLimitMs);
+        state = solved.getState();
+        result = DessertSolver.buildResult(solved, request, AttributeColumns.of(request.ingredients),
+                r -> program.satisfies(rhs, DessertSolver.quantities(r, program.ingredientCount), DessertSolver.EPSILON),
+                System.nanoTime() - started);
+        if (state == Optimisation.State.OPTIMAL || state == Optimisation.State.DISTINCT) {
+            quantities = new double[program.ingredientCount];
+            for (int j = 0; j < quantities.length; j++) {
+                quantities[j] = solved.doubleValue(j);
+            }
+        } else {
+            quantities = null;
+        }
+    }
+
+    private static void edit(DessertRequestDTO request, SessionDeltaDTO delta) {
+        List<DessertRequestDTO.ConstraintDTO> constraints = request.constraintsBlock.constraints;
+        switch (delta.op) {
+            case SET -> RequestEdits.parameter(request, delta.field).accept(request, delta.value);
+            case ADD_CONSTRAINT -> {
+                if (delta.constraint == null || delta.constraint.left == null
+                        || delta.constraint.op == null && !ConstraintExpression.hasComparison(delta.constraint.left)) {
+                    throw new IllegalArgumentException("ADD_CONSTRAINT needs a constraint with left and op, or a comparison in left");
+                }
+                constraints.add(RequestEdits.copy(delta.constraint));
+            }
+            case REMOVE_CONSTRAINT -> {
+                if (delta.index < 0 || delta.index >= constraints.size()) {
+                    throw new IllegalArgumentException("No constraint at index " + delta.index);
+                }
+                constraints.remove(delta.index);
+            }
+            case DROP_INGREDIENT -> request.ingredients.remove(indexOf(request.ingredients, delta.ingredient));
+        }
+    }
+
+    /**
+     * Same rows, new bounds. A tightened row is fine while the optimum still satisfies it; a loosened row
+     * is fine while it was not binding, because then its multiplier is zero and the optimality conditions
+     * do not change. Equality rows always re-solve.
+     */
+    private boolean stillOptimalAfterBoundChange(double[] editedRhs) {
+        for (int row = 0; row < editedRhs.length; row++) {
+            if (editedRhs[row] == rhs[row]) continue;
+            int sign = program.slackSign(row);
+            if (sign == 0) return false;
+            double activity = program.activity(row, quantities);
+            // Upper rows (sign +1) read activity <= bound, lower rows (sign -1) read activity >= bound.
+            double slackBefore = sign * (rhs[row] - activity);
+            double slackAfter = sign * (editedRhs[row] - activity);
+            boolean tightened = sign * (editedRhs[row] - rhs[row]) < 0;
+            if (tightened ? slackAfter < -TOLERANCE : slackBefore <= TOLERANCE) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Added constraints and dropped ingredients only shrink the feasible set, so the previous optimum is
+     * still optimal if it lies in the smaller set: every dropped ingredient was at zero and the remaining
+     * quantities satisfy the new rows. Dropping the goal or aesthetic ingredient changes more than the set.
+     */
+    private double[] stillOptimalAfterRestriction(DessertRequestDTO edited, LinearProgram editedProgram, double[] editedRhs) {
+        double[] kept = new double[edited.ingredients.size()];
+        int next = 0;
+        for (int j = 0; j < request.ingredients.size(); j++) {
+            IngredientDTO ingredient = request.ingredients.get(j);
+            if (next < kept.length && edited.ingredients.get(next) == ingredient) {
+                kept[next++] = quantities[j];
+            } else if (quantities[j] > TOLERANCE || isReferenced(ingredient.name)) {
+                return null;
+            }
+        }
+        return editedProgram.satisfies(editedRhs, kept, TOLERANCE) ? kept : null;
+    }
+
+    private static int indexOf(List<IngredientDTO> ingredients, String name) {
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (ingredients.get(i).name.equalsIgnoreCase(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown ingredient: " + name);
+    }
+
+    private boolean isReferenced(String name) {
+        boolean goal = request.goal != null && request.goal.targetType == TargetType.INGREDIENT
+                && name.equalsIgnoreCase(request.goal.targetName);
+        boolean aesthetic = request.aestheticConstraint != null && name.equalsIgnoreCase(request.aestheticConstraint.ingredientName);
+        return goal || aesthetic;
+    }
+}
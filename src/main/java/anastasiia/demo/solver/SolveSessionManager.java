@@ -0,0 +1,163 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.SessionDTO;
+import anastasiia.demo.dto.SessionDeltaDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps {@link SolveSession}s for interactive editors.
+ * <p>
+ * Sessions are held in access order and dropped when they sit idle past the timeout, when there are more
+ * than the maximum number of sessions, or when their estimated footprint together exceeds the memory cap;
+ * the least recently used session goes first. An unknown or evicted id raises {@link NoSuchElementException}.
+ */
+@Service
+public class SolveSessionManager {
+
+    private final DessertSolver solver;
+    private final int maxSessions;
+    private final long idleNanos;
+    private final long maxBytes;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<String, SolveSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> footprints = new HashMap<>();
+    private long totalBytes;
+
+    @Autowired
+    public SolveSessionManager(DessertSolver solver,
+                               @Value("${dessert.sessions.max-sessions:10000}") int maxSessions,
+                               @Value("${dessert.sessions.idle-timeout:15m}") Duration idleTimeout,
+                               @Value("${dessert.sessions.max-memory:256MB}") DataSize maxMemory) {
+        this(solver, maxSessions, idleTimeout, maxMemory, System::nanoTime);
+    }
+
+    SolveSessionManager(DessertSolver solver, int maxSessions, Duration idleTimeout, DataSize maxMemory, LongSupplier clock) {
+        this.solver = solver;
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleNanos = idleTimeout.toNanos();
+        this.maxBytes = maxMemory.toBytes();
+        this.clock = clock;
+    }
+
+    /**
+     * Solve the request and keep it as a new session.
+     */
+    public SessionDTO create(DessertRequestDTO request) {
+        if (request == null || request.ingredients == null) {
+            throw new IllegalArgumentException("Session needs a request with ingredients");
+        }
+        SolveSession session = new SolveSession(UUID.randomUUID().toString(), request, solver);
+        long bytes = session.estimatedBytes();
+        if (bytes > maxBytes) {
+            throw new IllegalArgumentException("Session needs about " + bytes + " bytes, the limit is " + maxBytes);
+        }
+        session.lastAccess = clock.getAsLong();
+        synchronized (sessions) {
+            sessions.put(session.id, session);
+            account(session.id, bytes);
+        }
+        return session.snapshot();
+    }
+
+    public SessionDTO get(String id) {
+        SolveSession session = lookup(id);
+        synchronized (session) {
+            return session.snapshot();
+        }
+    }
+
+    /**
+     * Apply the deltas in order and re-solve; either all deltas are applied or none.
+     */
+    public SessionDTO apply(String id, List<SessionDeltaDTO> deltas) {
+        SolveSession session = lookup(id);
+        SessionDTO snapshot;
+        long bytes;
+        synchronized (session) {
+            session.apply(deltas == null ? List.of() : deltas);
+            snapshot = session.snapshot();
+            bytes = session.estimatedBytes();
+        }
+        synchronized (sessions) {
+            if (sessions.get(id) == session) {
+                account(id, bytes);
+            }
+        }
+        return snapshot;
+    }
+
+    public void close(String id) {
+        synchronized (sessions) {
+            if (sessions.remove(id) == null) {
+                throw new NoSuchElementException("Unknown session: " + id);
+            }
+            totalBytes -= footprints.remove(id);
+        }
+    }
+
+    /**
+     * Number of live sessions.
+     */
+    public int size() {
+        synchronized (sessions) {
+            purgeIdle(clock.getAsLong());
+            return sessions.size();
+        }
+    }
+
+    private SolveSession lookup(String id) {
+        long now = clock.getAsLong();
+        synchronized (sessions) {
+            purgeIdle(now);
+            SolveSession session = sessions.get(id);
+            if (session == null) {
+                throw new NoSuchElementException("Unknown session: " + id);
+            }
+            session.lastAccess = now;
+            return session;
+        }
+    }
+
+    /**
+     * Record the session's footprint and evict least recently used sessions until both caps hold.
+     * The session being accounted is never evicted here.
+     */
+    private void account(String id, long bytes) {
+        Long previous = footprints.put(id, bytes);
+        totalBytes += bytes - (previous == null ? 0 : previous);
+        Iterator<Map.Entry<String, SolveSession>> eldest = sessions.entrySet().iterator();
+        while ((sessions.size() > maxSessions || totalBytes > maxBytes) && eldest.hasNext()) {
+            String candidate = eldest.next().getKey();
+            if (candidate.equals(id)) continue;
+            eldest.remove();
+            totalBytes -= footprints.remove(candidate);
+        }
+    }
+
+    // Access order means the eldest entries are the longest idle, so stop at the first live one.
+    private void purgeIdle(long now) {
+        Iterator<Map.Entry<String, SolveSession>> eldest = sessions.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<String, SolveSession> entry = eldest.next();
+            if (now - entry.getValue().lastAccess <= idleNanos) break;
+            eldest.remove();
+            totalBytes -= footprints.remove(entry.getKey());
+        }
+    }
+}
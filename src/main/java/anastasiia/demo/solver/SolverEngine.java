@@ -0,0 +1,17 @@
+package anastasiia.demo.solver;
+
+import org.ojalgo.optimisation.Optimisation;
+
+/**
+ * Solves a {@link LinearProgram} for one right-hand side.
+ * <p>
+ * Implementations must be thread-safe. The first {@code ingredientCount} entries of the result are the
+ * ingredient quantities; its value is the objective in the minimise sense, like ojAlgo's {@code LinearSolver}.
+ */
+interface SolverEngine {
+
+    SolverEngine OJALGO = new OjAlgoEngine();
+    SolverEngine DENSE_SIMPLEX = new DenseSimplexEngine();
+
+    Optimisation.Result solve(LinearProgram program, double[] rhs, boolean maximise, long timeLimitMs);
+}
@@ -0,0 +1,133 @@
+package anastasiia.demo.solver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instruments for the solve pipeline: a timer per phase, model size distributions,
+ * result status counts and the number of solves in flight.
+ * <p>
+ * Every instrument is registered once, so recording is a few atomic updates per solve. Solves slower than
+ * {@code dessert.metrics.slow-threshold} have their model logged with probability
+ * {@code dessert.metrics.slow-dump-rate} (0 turns dumps off).
+ */
+@Component
+public class SolverMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(SolverMetrics.class);
+
+    public enum Phase {
+        PARSE,   // JSON body to DessertRequestDTO
+        BUILD,   // Model construction, or template lookup and compilation
+        PRESOLVE, // Reductions and scaling before the solve
+        SOLVE,   // The ojAlgo solve
+        RESULT   // Optimisation.Result to DessertResultDTO
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final DistributionSummary variables;
+    private final DistributionSummary expressions;
+    private final DistributionSummary nonzeros;
+    private final Map<String, Counter> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final long slowNanos;
+    private final double dumpRate;
+
+    @Autowired
+    public SolverMetrics(MeterRegistry registry,
+                         @Value("${dessert.metrics.slow-threshold:1s}") Duration slowThreshold,
+                         @Value("${dessert.metrics.slow-dump-rate:0}") double dumpRate) {
+        this.registry = registry;
+        this.slowNanos = slowThreshold.toNanos();
+        this.dumpRate = dumpRate;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("dessert.solver.phase")
+                    .description("Time spent in one phase of a dessert solve")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.variables = summary("dessert.solver.model.variables", "Variables per solved model");
+        this.expressions = summary("dessert.solver.model.expressions", "Constraint rows per solved model");
+        this.nonzeros = summary("dessert.solver.model.nonzeros", "Nonzero constraint coefficients per solved model");
+        registry.gauge("dessert.solver.active", active);
+    }
+
+    /**
+     * Instruments backed by an empty registry, for solvers created outside Spring.
+     */
+    public static SolverMetrics disabled() {
+        return new SolverMetrics(new CompositeMeterRegistry(), Duration.ofNanos(Long.MAX_VALUE), 0);
+    }
+
+    public void record(Phase phase, long startNanos) {
+        phases.get(phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void started() {
+        active.incrementAndGet();
+    }
+
+    void stopped() {
+        active.decrementAndGet();
+    }
+
+    /**
+     * Count the result status and dump the model if the whole solve was slow and this one is sampled.
+     */
+    void finished(long startNanos, String status, Supplier<String> model) {
+        statuses.computeIfAbsent(status, s -> Counter.builder("dessert.solver.results")
+                .description("Solved requests by result status")
+                .tag("status", s)
+                .register(registry)).increment();
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed > slowNanos && dumpRate > 0 && ThreadLocalRandom.current().nextDouble() < dumpRate) {
+            log.warn("Slow solve: {} ms, status {}, model:\n{}", TimeUnit.NANOSECONDS.toMillis(elapsed), status, model.get());
+        }
+    }
+
+    void recordModel(ExpressionsBasedModel model) {
+        long count = 0;
+        for (Expression expression : model.getExpressions()) {
+            count += expression.getLinearKeySet().size();
+        }
+        recordModel(model.countVariables(), model.countExpressions(), count);
+    }
+
+    void recordModel(LinearProgram program) {
+        recordModel(program.columnCount, program.rowCount(), program.values.length);
+    }
+
+    private void recordModel(int variableCount, int expressionCount, long nonzeroCount) {
+        variables.record(variableCount);
+        expressions.record(expressionCount);
+        nonzeros.record(nonzeroCount);
+    }
+
+    private DistributionSummary summary(String name, String description) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
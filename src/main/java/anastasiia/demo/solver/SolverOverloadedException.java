@@ -0,0 +1,20 @@
+package anastasiia.demo.solver;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a solve cannot be admitted because every solver thread is busy and the queue is full.
+ */
+public class SolverOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public SolverOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,168 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a fixed set of requests through JSON parsing, {@link DessertSolver} and result serialization before the
+ * application reports ready, so the first real requests do not pay for class loading and interpreted code.
+ * <p>
+ * The set covers both solver engines, discrete quantities and a debug solve with presolve. Up to {@code rounds} rounds
+ * run, stopping early after {@code max-time}. With {@code exit} set the application stops once warm, which is how the
+ * class-data-sharing training run in the Dockerfile records the solver's classes as well as Spring's.
+ */
+@Component
+public class SolverWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SolverWarmup.class);
+
+    private final DessertSolver solver;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+    private final boolean enabled;
+    private final int rounds;
+    private final Duration maxTime;
+    private final boolean exit;
+
+    public SolverWarmup(DessertSolver solver,
+                        ObjectMapper objectMapper,
+                        ConfigurableApplicationContext context,
+                        @Value("${dessert.warmup.enabled:false}") boolean enabled,
+                        @Value("${dessert.warmup.rounds:200}") int rounds,
+                        @Value("${dessert.warmup.max-time:5s}") Duration maxTime,
+                        @Value("${dessert.warmup.exit:false}") boolean exit) {
+        this.solver = solver;
+        this.objectMapper = objectMapper;
+        this.context = context;
+        this.enabled = enabled;
+        this.rounds = rounds;
+        this.maxTime = maxTime;
+        this.exit = exit;
+    }
+
+    /**
+     * How a warmup went: rounds run, solves, and the first, last and total time in milliseconds.
+     */
+    public record Result(int rounds, int solves, double firstRoundMs, double lastRoundMs, double totalMs) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) return;
+        Result result = warmUp(rounds, maxTime);
+        log.info("Warmed up in {} ms: {} rounds, {} solves, first round {} ms, last round {} ms",
+                Math.round(result.totalMs()), result.rounds(), result.solves(),
+                String.format("%.2f", result.firstRoundMs()), String.format("%.2f", result.lastRoundMs()));
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    /**
+     * Solve every sample request each round, parsing and writing JSON the way the endpoint does.
+     */
+    public Result warmUp(int rounds, Duration maxTime) throws IOException {
+        List<byte[]> bodies = new ArrayList<>();
+        for (DessertRequestDTO request : sampleRequests()) {
+            bodies.add(objectMapper.writeValueAsBytes(request));
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxTime.toNanos();
+        double first = 0;
+        double last = 0;
+        int round = 0;
+        int solves = 0;
+        while (round < rounds && (round == 0 || System.nanoTime() < deadline)) {
+            long roundStart = System.nanoTime();
+            for (byte[] body : bodies) {
+                DessertRequestDTO request = objectMapper.readValue(body, DessertRequestDTO.class);
+                objectMapper.writeValueAsBytes(solver.solve(request));
+                solves++;
+            }
+            last = (System.nanoTime() - roundStart) / 1e6;
+            if (round++ == 0) first = last;
+        }
+        return new Result(round, solves, first, last, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * A small continuous problem (dense simplex), a larger one with attributes (ojAlgo), a discrete one
+     * (branch and bound) and a debug solve (presolve report).
+     */
+    public static List<DessertRequestDTO> sampleRequests() {
+        DessertRequestDTO small = request(3, TargetType.PRICE, null, Direction.MINIMIZE);
+        small.constraintsBlock.constraints.add(constraint("I1", ConstraintOp.LESS_THAN_OR_EQUAL, 0.5));
+        small.aestheticConstraint = new DessertRequestDTO.AestheticConstraint();
+        small.aestheticConstraint.ingredientName = "I0";
+        small.aestheticConstraint.ruleType = "min";
+        small.aestheticConstraint.percent = 0.1;
+
+        DessertRequestDTO large = request(30, TargetType.ATTRIBUTE, "sugar", Direction.MINIMIZE);
+        large.constraintsBlock.maxPrice = 40;
+        large.constraintsBlock.constraints.add(constraint("fat", ConstraintOp.GREATER_THAN_OR_EQUAL, 2));
+        large.constraintsBlock.constraints.add(constraint("I3", ConstraintOp.EQUALS, 0.5));
+        large.constraintsBlock.constraints.add(constraint("weight", ConstraintOp.LESS_THAN_OR_EQUAL, 10));
+        large.ingredients.get(5).maxQuantity = 1.0; // bounded, so it stays on ojAlgo whatever its size
+
+        DessertRequestDTO discrete = request(4, TargetType.CALORIES, null, Direction.MAXIMIZE);
+        discrete.constraintsBlock.maxPrice = 20;
+        discrete.ingredients.get(0).integer = true;
+        discrete.ingredients.get(1).packSize = 0.25;
+
+        DessertRequestDTO debug = request(30, TargetType.INGREDIENT, "I2", Direction.MAXIMIZE);
+        debug.constraintsBlock.maxCalories = 5000;
+        debug.debug = true;
+        return List.of(small, large, discrete, debug);
+    }
+
+    private static DessertRequestDTO request(int ingredients, TargetType target, String targetName, Direction direction) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>();
+        for (int i = 0; i < ingredients; i++) {
+            IngredientDTO ingredient = new IngredientDTO();
+            ingredient.name = "I" + i;
+            ingredient.price = 1 + (i * 7) % 10;
+            ingredient.calories = 100 + (i * 130) % 500;
+            Map<String, Double> attributes = new HashMap<>();
+            attributes.put("sugar", (double) ((i * 3) % 8));
+            attributes.put("fat", (double) ((i * 5) % 6));
+            ingredient.attributes = attributes;
+            request.ingredients.add(ingredient);
+        }
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 5;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = target;
+        request.goal.targetName = targetName;
+        request.goal.direction = direction;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+}
@@ -0,0 +1,11 @@
+package anastasiia.demo.solver;
+
+/**
+ * Thrown when a request names a catalog version that has since been replaced.
+ */
+public class StaleCatalogException extends RuntimeException {
+
+    public StaleCatalogException(String message) {
+        super(message);
+    }
+}
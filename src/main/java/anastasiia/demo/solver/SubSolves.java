@@ -0,0 +1,63 @@
+package anastasiia.demo.solver;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parallel sub-solves behind one request's report: each runs on a virtual thread, at most {@code parallelism} of
+ * them at once, and all of them share the request's deadline instead of each getting the whole time limit again.
+ */
+final class SubSolves implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final long started;
+    private final long timeLimitNanos; // 0 = no limit
+
+    /**
+     * Sub-solves of a request that started at {@code started} ({@link System#nanoTime()}) with the given time limit.
+     */
+    SubSolves(int parallelism, long started, long timeLimitMs) {
+        this.permits = new Semaphore(Math.max(1, parallelism));
+        this.started = started;
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeLimitMs));
+    }
+
+    /**
+     * Run the task once a permit is free.
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(() -> {
+            permits.acquire();
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Whether the deadline has passed; a sub-solve that has not started by then is not started at all.
+     */
+    boolean expired() {
+        return timeLimitNanos > 0 && System.nanoTime() - started >= timeLimitNanos;
+    }
+
+    /**
+     * Time limit for a sub-solve starting now: what is left until the deadline, at least 1 ms, or 0 without one.
+     */
+    long remainingMillis() {
+        if (timeLimitNanos == 0) return 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeLimitNanos - (System.nanoTime() - started)));
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
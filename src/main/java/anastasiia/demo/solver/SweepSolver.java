@@ -0,0 +1,209 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.SweepRequestDTO;
+import anastasiia.demo.dto.SweepResultDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SweepMode;
+import anastasiia.demo.enums.TargetType;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleFunction;
+
+/**
+ * Solves a base request at many values of one parameter.
+ * <p>
+ * Every point of a sweep shares the structure of the base request, so the points are solved through a
+ * sweep-local {@link ModelTemplateCache}: the model is compiled once and each point only supplies new
+ * bounds. Consecutive points are split into segments that run in parallel. A sweep holds one admission slot, so
+ * it only adds a segment for each slot that is idle when it starts; with every other slot busy it runs as one.
+ */
+@Service
+public class SweepSolver {
+
+    private static final String PARETO_PARAMETER = "maxCalories";
+
+    private final DessertSolver solver;
+    private final int parallelism;
+    private final int maxPoints;
+    private final SolveAdmission admission; // null when sweeps are not run through admission
+
+    public SweepSolver(DessertSolver solver, int parallelism, int maxPoints) {
+        this(solver, parallelism, maxPoints, null);
+    }
+
+    @Autowired
+    public SweepSolver(DessertSolver solver,
+                       @Value("${dessert.sweep.parallelism:0}") int parallelism,
+                       @Value("${dessert.sweep.max-points:2000}") int maxPoints,
+                       @Nullable SolveAdmission admission) {
+        this.solver = solver;
+        this.admission = admission;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Run the sweep described by the request and return its points in parameter order.
+     */
+    public SweepResultDTO sweep(SweepRequestDTO sweep) {
+        if (sweep.base == null || sweep.base.ingredients == null) {
+            throw new IllegalArgumentException("Sweep needs a base request with ingredients");
+        }
+        return sweep.mode == SweepMode.PARETO ? pareto(sweep) : parameterSweep(sweep);
+    }
+
+    private SweepResultDTO parameterSweep(SweepRequestDTO sweep) {
+        BiConsumer<DessertRequestDTO, Double> parameter = RequestEdits.parameter(sweep.base, sweep.parameter);
+        double[] values = values(sweep.from, sweep.to, sweep.step, sweep.points);
+
+        SweepResultDTO output = new SweepResultDTO();
+        output.parameter = sweep.parameter;
+        output.points = solveAll(values, value -> {
+            DessertRequestDTO request = pointRequest(sweep.base);
+            parameter.accept(request, value);
+            return request;
+        });
+        return output;
+    }
+
+    /**
+     * Epsilon-constraint trace of the price/calories frontier: minimise price under a moving calorie cap,
+     * then drop dominated points.
+     */
+    private SweepResultDTO pareto(SweepRequestDTO sweep) {
+        double from = sweep.from;
+        double to = sweep.to;
+        SweepResultDTO output = new SweepResultDTO();
+        output.parameter = PARETO_PARAMETER;
+
+        if (from == 0 && to == 0) {
+            DessertResultDTO leanest = solver.solve(withGoal(pointRequest(sweep.base), TargetType.CALORIES));
+            DessertResultDTO cheapest = solver.solve(withGoal(pointRequest(sweep.base), TargetType.PRICE));
+            if (!isOptimal(leanest) || !isOptimal(cheapest)) {
+                output.points = List.of(point(0, isOptimal(leanest) ? cheapest : leanest));
+                return output;
+            }
+            from = leanest.totalCalories;
+            to = Math.max(from, cheapest.totalCalories);
+        }
+        double[] caps = values(from, to, sweep.step, sweep.points > 0 || sweep.step > 0 ? sweep.points : 20);
+
+        List<SweepResultDTO.SweepPointDTO> frontier = new ArrayList<>();
+        for (SweepResultDTO.SweepPointDTO point : solveAll(caps, cap -> withCalorieCap(withGoal(pointRequest(sweep.base), TargetType.PRICE), cap))) {
+            if (!isOptimal(point.result)) continue;
+            // Caps ascend, so a point is dominated exactly when it is not cheaper than the previous kept point.
+            if (!frontier.isEmpty() && point.result.price >= frontier.get(frontier.size() - 1).result.price - 1e-9) continue;
+            frontier.add(point);
+        }
+        output.points = frontier;
+        return output;
+    }
+
+    private List<SweepResultDTO.SweepPointDTO> solveAll(double[] values, DoubleFunction<DessertRequestDTO> requestAt) {
+        SweepResultDTO.SweepPointDTO[] points = new SweepResultDTO.SweepPointDTO[values.length];
+        // The sweep's own slot plus the idle ones, so it never runs more solves than admission has threads.
+        int slots = admission == null ? parallelism : Math.min(parallelism, 1 + admission.idle());
+        int segments = Math.min(slots, values.length);
+        int segmentSize = (values.length + segments - 1) / Math.max(1, segments);
+
+        // One template cache per sweep: the structure is shared by every point and dropped afterwards.
+        ModelTemplateCache templates = new ModelTemplateCache(4);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int start = 0; start < values.length; start += segmentSize) {
+                int from = start;
+                int to = Math.min(values.length, start + segmentSize);
+                futures.add(executor.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        points[i] = point(values[i], solver.solve(requestAt.apply(values[i]), templates));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep point failed", e.getCause());
+        }
+        return List.of(points);
+    }
+
+    private double[] values(double from, double to, double step, int count) {
+        if (count < 1 && step <= 0) {
+            throw new IllegalArgumentException("Sweep needs a positive step or a number of points");
+        }
+        if (to < from) {
+            throw new IllegalArgumentException("Sweep range must satisfy from <= to");
+        }
+        if (step <= 0) {
+            step = count > 1 ? (to - from) / (count - 1) : 0;
+        } else {
+            count = (int) Math.min(Integer.MAX_VALUE, Math.floor((to - from) / step + 1e-9) + 1);
+        }
+        if (count > maxPoints) {
+            throw new IllegalArgumentException("Sweep has " + count + " points, the limit is " + maxPoints);
+        }
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.min(to, from + i * step);
+        }
+        return values;
+    }
+
+    /**
+     * Copy of the base request for one point. Sensitivity, diagnosis and alternatives would multiply the work of
+     * every point, so points are solved without them.
+     */
+    private static DessertRequestDTO pointRequest(DessertRequestDTO base) {
+        DessertRequestDTO request = RequestEdits.copy(base);
+        request.sensitivity = false;
+        request.diagnose = false;
+        request.alternatives = null;
+        return request;
+    }
+
+    private static DessertRequestDTO withGoal(DessertRequestDTO request, TargetType targetType) {
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = targetType;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static DessertRequestDTO withCalorieCap(DessertRequestDTO request, double cap) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = IngredientCatalog.CALORIES;
+        constraint.op = ConstraintOp.LESS_THAN_OR_EQUAL;
+        constraint.right = cap;
+        request.constraintsBlock.constraints.add(constraint);
+        return request;
+    }
+
+    private static SweepResultDTO.SweepPointDTO point(double value, DessertResultDTO result) {
+        SweepResultDTO.SweepPointDTO point = new SweepResultDTO.SweepPointDTO();
+        point.value = value;
+        point.result = result;
+        return point;
+    }
+
+    private static boolean isOptimal(DessertResultDTO result) {
+        return "OPTIMAL".equals(result.status) || "DISTINCT".equals(result.status);
+    }
+}
@@ -0,0 +1,172 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.AlternativeDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SolverEngineType;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolutionCache;
+import anastasiia.demo.solver.SolverMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Alternatives Tests")
+class AlternativesTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given a tolerance and a distance when alternatives are requested then different valid recipes come best first within the tolerance")
+    void givenToleranceAndDistance_whenAlternativesRequested_thenDifferentNearOptimalRecipes() {
+        DessertRequestDTO request = request();
+        request.alternatives = options(3, 0.5, 2);
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        assertEquals(10.0, result.price, 1e-9);
+        assertEquals(3, result.alternatives.size());
+        List<Map<String, Double>> recipes = new ArrayList<>(List.of(result.ingredientsQuantities));
+        double previous = result.price;
+        for (AlternativeDTO alternative : result.alternatives) {
+            assertEquals(alternative.price, alternative.goal, 1e-9);
+            assertTrue(alternative.goal >= previous - 1e-9, "best first");
+            assertTrue(alternative.price <= 15 + 1e-6, "within tolerance: " + alternative.price);
+            assertEquals((alternative.price - 10) / 10, alternative.goalLoss, 1e-9);
+            assertEquals(10.0, alternative.totalWeight, 1e-6);
+            assertTrue(alternative.totals.get("sugar") >= 8 - 1e-6);
+            assertEquals(distance(result.ingredientsQuantities, alternative.ingredientsQuantities), alternative.distance, 1e-9);
+            for (Map<String, Double> other : recipes) {
+                assertTrue(distance(other, alternative.ingredientsQuantities) >= 2 - 1e-6);
+            }
+            recipes.add(alternative.ingredientsQuantities);
+            previous = alternative.goal;
+        }
+    }
+
+    @Test
+    @DisplayName("Given one sub-solve at a time and a time limit when alternatives are requested then the same recipes come back")
+    void givenSerialSubSolvesAndTimeLimit_whenAlternativesRequested_thenSameRecipes() {
+        DessertSolver serial = new DessertSolver(AssemblyMode.EXPRESSIONS, true, null, SolverMetrics.disabled(),
+                SolverEngineType.AUTO, DessertSolver.DEFAULT_DENSE_MAX_CELLS, DessertSolver.DEFAULT_SENSITIVITY_MAX_CELLS, 1);
+        DessertRequestDTO request = request();
+        request.alternatives = options(3, 0.5, 2);
+        request.timeLimitMs = 60_000;
+
+        List<AlternativeDTO> expected = solver.solve(request).alternatives;
+        List<AlternativeDTO> alternatives = serial.solve(request).alternatives;
+
+        assertEquals(expected.size(), alternatives.size());
+        for (int k = 0; k < expected.size(); k++) {
+            assertEquals(expected.get(k).goal, alternatives.get(k).goal, 1e-9);
+            assertEquals(expected.get(k).ingredientsQuantities, alternatives.get(k).ingredientsQuantities);
+        }
+    }
+
+    @Test
+    @DisplayName("Given no tolerance and a unique optimum, or a distance no recipe keeps, when alternatives are requested then there are none")
+    void givenNoRoom_whenAlternativesRequested_thenNone() {
+        DessertRequestDTO request = request();
+        request.alternatives = options(3, 0, 0);
+        assertTrue(solver.solve(request).alternatives.isEmpty());
+
+        request.alternatives = options(3, 0.5, 25);
+        assertTrue(solver.solve(request).alternatives.isEmpty());
+
+        request.alternatives = null;
+        assertNull(solver.solve(request).alternatives);
+    }
+
+    @Test
+    @DisplayName("Given an integer ingredient when alternatives are requested then they use whole units too")
+    void givenIntegerIngredient_whenAlternativesRequested_thenWholeUnits() {
+        DessertRequestDTO request = request();
+        request.ingredients.get(1).integer = true;
+        request.alternatives = options(2, 0.5, 1);
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        assertFalse(result.alternatives.isEmpty());
+        for (AlternativeDTO alternative : result.alternatives) {
+            double cream = alternative.ingredientsQuantities.get("Cream");
+            assertEquals(Math.rint(cream), cream, 1e-6);
+            assertTrue(alternative.price <= 15 + 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a cached alternatives request when asked again then the alternatives come from the cache")
+    void givenCachedRequest_whenAskedAgain_thenAlternativesKept() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO request = request();
+        request.alternatives = options(2, 0.5, 2);
+
+        DessertResultDTO first = cache.getOrSolve(request, solver::solve);
+        DessertResultDTO second = cache.getOrSolve(request, solver::solve);
+
+        assertNotSame(first, second);
+        assertEquals(first.alternatives.size(), second.alternatives.size());
+        for (int k = 0; k < first.alternatives.size(); k++) {
+            assertNotSame(first.alternatives.get(k), second.alternatives.get(k));
+            assertEquals(first.alternatives.get(k).ingredientsQuantities, second.alternatives.get(k).ingredientsQuantities);
+            assertEquals(first.alternatives.get(k).goal, second.alternatives.get(k).goal, 0.0);
+        }
+        request.alternatives = options(1, 0.5, 2);
+        assertEquals(1, cache.getOrSolve(request, solver::solve).alternatives.size());
+    }
+
+    private static double distance(Map<String, Double> a, Map<String, Double> b) {
+        return a.keySet().stream().mapToDouble(name -> Math.abs(a.get(name) - b.get(name))).sum();
+    }
+
+    private static DessertRequestDTO.AlternativesOptions options(int count, double tolerance, double minDistance) {
+        DessertRequestDTO.AlternativesOptions options = new DessertRequestDTO.AlternativesOptions();
+        options.count = count;
+        options.tolerance = tolerance;
+        options.minDistance = minDistance;
+        return options;
+    }
+
+    // Ten units with at least 8 sugar, cheapest first: all syrup at 10; honey, cream and mint cost more.
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>(List.of(ingredient("Syrup", 1, 100, 2), ingredient("Cream", 2, 300, 0.5),
+                ingredient("Mint", 6, 10, 1), ingredient("Honey", 1.2, 120, 3), ingredient("Milk", 1.5, 60, 0.5)));
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 10;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        DessertRequestDTO.ConstraintDTO sugar = new DessertRequestDTO.ConstraintDTO();
+        sugar.left = "sugar";
+        sugar.op = ConstraintOp.GREATER_THAN_OR_EQUAL;
+        sugar.right = 8;
+        request.constraintsBlock.constraints.add(sugar);
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = TargetType.PRICE;
+        request.goal.direction = Direction.MINIMIZE;
+        return request;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories, double sugar) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        i.attributes = new HashMap<>();
+        i.attributes.put("sugar", sugar);
+        return i;
+    }
+}
@@ -0,0 +1,101 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.BatchResultDTO;
+import anastasiia.demo.solver.BatchSolver;
+import anastasiia.demo.solver.CatalogRegistry;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolutionCache;
+import anastasiia.demo.solver.SolveAdmission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BatchSolver Streaming Tests")
+class BatchSolverTest {
+
+    private static final String REQUEST = """
+            {"ingredients":[{"name":"Chocolate","price":2.0,"calories":500.0},{"name":"Strawberry","price":1.5,"calories":100.0}],
+             "constraintsBlock":{"maxPrice":10.0,"maxCalories":1500.0,"totalWeight":3.0},
+             "goal":{"targetType":"PRICE","direction":"MINIMIZE"}}""".replace("\n", "");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BatchSolver batchSolver = new BatchSolver(new DessertSolver(), new SolutionCache(0, Duration.ZERO), new CatalogRegistry(10, ""),
+            new SolveAdmission(2, 64, Duration.ofSeconds(1)), objectMapper, 2);
+
+    @Test
+    @DisplayName("Given NDJSON with a malformed line when solved then the failure is reported inline")
+    void givenNdjsonWithBadLine_whenSolved_thenErrorIsInline() throws Exception {
+        String body = REQUEST + "\n{\"goal\":{\"targetType\":\"NOPE\"}}\n" + REQUEST + "\n";
+
+        List<BatchResultDTO> results = run(body, true);
+
+        assertEquals(3, results.size());
+        assertEquals("OPTIMAL", results.get(0).result.status);
+        assertNull(results.get(1).result);
+        assertNotNull(results.get(1).error);
+        assertEquals(4.5, results.get(2).result.price, 0.0001);
+    }
+
+    @Test
+    @DisplayName("Given JSON array when solved then every element is tagged with its index")
+    void givenJsonArray_whenSolved_thenAllIndexesReturned() throws Exception {
+        String body = "[" + REQUEST + "," + REQUEST + "," + REQUEST + "]";
+
+        List<BatchResultDTO> results = run(body, false);
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(r -> r.index).toList());
+        results.forEach(r -> assertEquals("OPTIMAL", r.result.status));
+    }
+
+    @Test
+    @DisplayName("Given a client that stops reading when results are written then the batch stops and the failure surfaces")
+    void givenBrokenOutput_whenSolved_thenRemainingItemsAreCancelled() {
+        String body = (REQUEST + "\n").repeat(50);
+        AtomicInteger writes = new AtomicInteger();
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writes.incrementAndGet();
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                write(0);
+            }
+        };
+
+        IOException thrown = assertThrows(IOException.class,
+                () -> batchSolver.solve(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), true, broken));
+
+        assertEquals("Broken pipe", thrown.getMessage());
+        assertTrue(writes.get() <= 2, "only the items already in flight may try to write, got " + writes.get());
+    }
+
+    private List<BatchResultDTO> run(String body, boolean ndjson) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchSolver.solve(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ndjson, out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BatchResultDTO.class);
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                })
+                .sorted(Comparator.comparingInt(r -> r.index))
+                .toList();
+    }
+}
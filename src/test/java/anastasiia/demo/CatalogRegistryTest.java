@@ -0,0 +1,243 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.CatalogInfoDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.CatalogRegistry;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.RequestFingerprint;
+import anastasiia.demo.solver.SolutionCache;
+import anastasiia.demo.solver.StaleCatalogException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CatalogRegistry Tests")
+class CatalogRegistryTest {
+
+    private final DessertSolver solver = new DessertSolver();
+    private final CatalogRegistry catalogs = new CatalogRegistry(10, "");
+
+    @Test
+    @DisplayName("Given a registered catalog when a request references it then the result matches sending the ingredients inline")
+    void givenRegisteredCatalog_whenReferenced_thenSameResultAsInline() {
+        CatalogInfoDTO info = catalogs.put("pastry", catalog(ingredients()));
+        assertEquals(1, info.version);
+        assertEquals(3, info.size);
+
+        DessertRequestDTO inline = request();
+        inline.ingredients = ingredients();
+        DessertRequestDTO referenced = request();
+        referenced.catalog = reference("pastry", 1, null);
+
+        DessertResultDTO expected = solver.solve(inline);
+        DessertResultDTO actual = solver.solve(catalogs.resolve(referenced));
+
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.price, actual.price, 1e-9);
+        assertEquals(expected.ingredientsQuantities, actual.ingredientsQuantities);
+    }
+
+    @Test
+    @DisplayName("Given catalog ingredients with quantity rules when referenced then they are read from the columns and solve like inline ones")
+    void givenQuantityRules_whenReferenced_thenSameResultAsInline() {
+        for (boolean discrete : new boolean[]{false, true}) {
+            List<IngredientDTO> ingredients = ingredients();
+            ingredients.get(0).minQuantity = 0.5;
+            ingredients.get(2).maxQuantity = 1.5;
+            if (discrete) {
+                ingredients.get(1).integer = true;
+                ingredients.get(2).packSize = 0.5;
+            }
+            catalogs.put("rules", catalog(ingredients));
+            DessertRequestDTO inline = request();
+            inline.ingredients = ingredients;
+            inline.sensitivity = !discrete;
+            DessertRequestDTO referenced = request();
+            referenced.catalog = reference("rules", 0, List.of("Strawberry", "Chocolate", "Cream"));
+            referenced.sensitivity = !discrete;
+
+            DessertResultDTO expected = solver.solve(inline);
+            DessertResultDTO actual = solver.solve(catalogs.resolve(referenced));
+
+            assertEquals("OPTIMAL", actual.status);
+            assertEquals(expected.price, actual.price, 1e-9);
+            expected.ingredientsQuantities.forEach((name, qty) -> assertEquals(qty, actual.ingredientsQuantities.get(name), 1e-6, name));
+            if (!discrete) {
+                assertTrue(actual.sensitivity.constraints.stream().anyMatch(row -> row.name.equals("MaxQuantity_Strawberry")));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Given a subset of names in another case when resolved then only those ingredients are used, in the given order")
+    void givenSubset_whenResolved_thenOnlyThoseIngredientsInOrder() {
+        catalogs.put("pastry", catalog(ingredients()));
+        DessertRequestDTO request = request();
+        request.catalog = reference("pastry", 0, List.of("strawberry", "CREAM"));
+
+        DessertResultDTO result = solver.solve(catalogs.resolve(request));
+
+        assertEquals(List.of("Strawberry", "Cream"), List.copyOf(result.ingredientsQuantities.keySet()));
+        assertEquals(1, request.catalog.version);
+        assertEquals(2.0, result.ingredientsQuantities.get("Strawberry"), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Given a replaced catalog when an old version or unknown name is referenced then the request is rejected")
+    void givenReplacedCatalog_whenOldVersionReferenced_thenRejected() {
+        catalogs.put("pastry", catalog(ingredients()));
+        assertEquals(2, catalogs.put("pastry", catalog(ingredients())).version);
+
+        DessertRequestDTO stale = request();
+        stale.catalog = reference("pastry", 1, null);
+        assertThrows(StaleCatalogException.class, () -> catalogs.resolve(stale));
+
+        DessertRequestDTO unknownName = request();
+        unknownName.catalog = reference("pastry", 2, List.of("Vanilla"));
+        assertThrows(IllegalArgumentException.class, () -> catalogs.resolve(unknownName));
+
+        DessertRequestDTO unknownCatalog = request();
+        unknownCatalog.catalog = reference("bakery", 0, null);
+        assertThrows(NoSuchElementException.class, () -> catalogs.resolve(unknownCatalog));
+    }
+
+    @Test
+    @DisplayName("Given catalog requests when cached then the same selection hits and a new version misses")
+    void givenCatalogRequests_whenCached_thenKeyedByVersionAndSelection() {
+        SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+        catalogs.put("pastry", catalog(ingredients()));
+        for (int i = 0; i < 2; i++) {
+            DessertRequestDTO request = request();
+            request.catalog = reference("pastry", 0, List.of("Cream", "Strawberry"));
+            cache.getOrSolve(catalogs.resolve(request), solver::solve);
+        }
+        assertEquals(1, cache.stats().hits);
+
+        catalogs.put("pastry", catalog(ingredients()));
+        DessertRequestDTO request = request();
+        request.catalog = reference("pastry", 0, List.of("Strawberry", "Cream"));
+        cache.getOrSolve(catalogs.resolve(request), solver::solve);
+        assertEquals(2, cache.stats().misses);
+    }
+
+    @Test
+    @DisplayName("Given catalog and streamed ingredients when fingerprinted then keys follow the selection and match inline DTOs")
+    void givenColumnIngredients_whenFingerprinted_thenKeyedWithoutDtos() throws Exception {
+        catalogs.put("pastry", catalog(ingredients()));
+        DessertRequestDTO creamFirst = request();
+        creamFirst.catalog = reference("pastry", 0, List.of("Cream", "Strawberry"));
+        DessertRequestDTO strawberryFirst = request();
+        strawberryFirst.catalog = reference("pastry", 0, List.of("strawberry", "CREAM"));
+        catalogs.resolve(creamFirst);
+        catalogs.resolve(strawberryFirst);
+        assertEquals(RequestFingerprint.of(creamFirst), RequestFingerprint.of(strawberryFirst));
+        assertNotEquals(RequestFingerprint.structureOf(creamFirst), RequestFingerprint.structureOf(strawberryFirst));
+
+        StringBuilder json = new StringBuilder("{\"ingredients\": [");
+        for (int i = 0; i < 300; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\": \"I").append(i).append("\", \"price\": ").append(1 + i % 7)
+                    .append(", \"calories\": ").append(100 + i).append(i % 5 == 0 ? ", \"integer\": true, \"maxQuantity\": 4" : "")
+                    .append(i % 3 == 0 ? ", \"attributes\": {\"Sugar\": " + i + "}" : "").append('}');
+        }
+        DessertRequestDTO streamed = new ObjectMapper().readValue(json.append("]}").toString(), DessertRequestDTO.class);
+        DessertRequestDTO inline = new DessertRequestDTO();
+        inline.ingredients = new ArrayList<>(streamed.ingredients);
+        assertEquals(RequestFingerprint.of(inline), RequestFingerprint.of(streamed));
+        assertEquals(RequestFingerprint.structureOf(inline), RequestFingerprint.structureOf(streamed));
+    }
+
+    @Test
+    @DisplayName("Given a catalog directory when a registry restarts then catalogs are mapped back with their version and solve the same")
+    void givenCatalogDirectory_whenRegistryRestarts_thenCatalogsMappedBack(@TempDir Path directory) throws Exception {
+        CatalogRegistry first = new CatalogRegistry(10, directory.toString());
+        first.put("pastry", catalog(ingredients()));
+        first.put("pastry", catalog(ingredients()));
+        first.put("gone", catalog(ingredients()));
+        first.delete("gone");
+        Files.writeString(directory.resolve("broken.dcat"), "not a catalog");
+        DessertRequestDTO before = request();
+        before.catalog = reference("pastry", 0, List.of("cream", "Strawberry"));
+        DessertResultDTO expected = solver.solve(first.resolve(before));
+
+        CatalogRegistry restarted = new CatalogRegistry(10, directory.toString());
+        assertEquals(2, restarted.get("pastry").version);
+        assertEquals(3, restarted.get("pastry").size);
+        assertThrows(NoSuchElementException.class, () -> restarted.get("gone"));
+        assertThrows(NoSuchElementException.class, () -> restarted.get("broken"));
+        assertThrows(IllegalArgumentException.class, () -> restarted.put("../escape", catalog(ingredients())));
+
+        DessertRequestDTO after = request();
+        after.catalog = reference("pastry", 2, List.of("CREAM", "strawberry"));
+        DessertResultDTO actual = solver.solve(restarted.resolve(after));
+        assertEquals(expected.price, actual.price, 1e-9);
+        assertEquals(expected.totalCalories, actual.totalCalories, 1e-9);
+        assertEquals(expected.ingredientsQuantities, actual.ingredientsQuantities);
+        assertEquals(1.0, actual.ingredientsQuantities.get("Cream"), 1e-6);
+    }
+
+    private static DessertRequestDTO.CatalogRef reference(String id, long version, List<String> names) {
+        DessertRequestDTO.CatalogRef ref = new DessertRequestDTO.CatalogRef();
+        ref.id = id;
+        ref.version = version;
+        ref.names = names;
+        return ref;
+    }
+
+    private static CatalogDTO catalog(List<IngredientDTO> ingredients) {
+        CatalogDTO catalog = new CatalogDTO();
+        catalog.ingredients = ingredients;
+        return catalog;
+    }
+
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 10.0;
+        block.maxCalories = 1500.0;
+        block.totalWeight = 3.0;
+        block.constraints = new ArrayList<>();
+        DessertRequestDTO.ConstraintDTO strawberry = new DessertRequestDTO.ConstraintDTO();
+        strawberry.left = "Strawberry";
+        strawberry.op = ConstraintOp.LESS_THAN_OR_EQUAL;
+        strawberry.right = 2.0;
+        block.constraints.add(strawberry);
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.CALORIES;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static List<IngredientDTO> ingredients() {
+        return new ArrayList<>(List.of(
+                ingredient("Chocolate", 2.0, 500.0),
+                ingredient("Cream", 1.0, 300.0),
+                ingredient("Strawberry", 1.5, 100.0)
+        ));
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
@@ -0,0 +1,253 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.ConflictDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SolverEngineType;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolverMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Conflict Tests")
+class ConflictTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given calorie, weight and sugar rules that clash among harmless ones when diagnosed then exactly those three are reported")
+    void givenClashAmongHarmlessRules_whenDiagnosed_thenExactConflict() {
+        DessertRequestDTO request = clashRequest();
+        request.diagnose = true;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals(List.of("MaxCalories", "TotalWeight", "Custom_sugar_GREATER_THAN_OR_EQUAL"), result.conflict.constraints);
+        assertEquals(List.of(2), result.conflict.customConstraints);
+        assertTrue(result.conflict.minimal);
+        assertTrue(result.conflict.solves > 0);
+        assertIrreducible(request, result.conflict);
+    }
+
+    @Test
+    @DisplayName("Given a discrete request with alternatives and a row-less aesthetic rule when diagnosed then sub-solves stay out of the metrics and the rule out of the conflict")
+    void givenDiscreteRequestWithExtras_whenDiagnosed_thenQuietSubSolves() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DessertSolver metered = new DessertSolver(AssemblyMode.EXPRESSIONS, null, new SolverMetrics(registry, Duration.ofSeconds(1), 0));
+        DessertRequestDTO request = clashRequest();
+        request.ingredients.get(1).integer = true;
+        request.diagnose = true;
+        request.alternatives = new DessertRequestDTO.AlternativesOptions();
+        request.alternatives.count = 2;
+        request.aestheticConstraint = new DessertRequestDTO.AestheticConstraint();
+        request.aestheticConstraint.ingredientName = "Honey";
+        request.aestheticConstraint.ruleType = "min";
+        request.aestheticConstraint.percent = 0.5;
+
+        DessertResultDTO result = metered.solve(request);
+
+        assertEquals(List.of("MaxCalories", "TotalWeight", "Custom_sugar_GREATER_THAN_OR_EQUAL"), result.conflict.constraints);
+        assertTrue(result.conflict.solves > 0);
+        assertEquals(1, registry.get("dessert.solver.results").counters().stream().mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    @DisplayName("Given one sub-solve at a time and a time limit when a discrete request is diagnosed then the same conflict is found")
+    void givenSerialSubSolvesAndTimeLimit_whenDiagnosed_thenSameConflict() {
+        DessertSolver serial = new DessertSolver(AssemblyMode.EXPRESSIONS, true, null, SolverMetrics.disabled(),
+                SolverEngineType.AUTO, DessertSolver.DEFAULT_DENSE_MAX_CELLS, DessertSolver.DEFAULT_SENSITIVITY_MAX_CELLS, 1);
+        DessertRequestDTO request = clashRequest();
+        request.ingredients.get(1).integer = true;
+        request.diagnose = true;
+        request.timeLimitMs = 60_000;
+
+        DessertResultDTO result = serial.solve(request);
+
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals(List.of("MaxCalories", "TotalWeight", "Custom_sugar_GREATER_THAN_OR_EQUAL"), result.conflict.constraints);
+        assertTrue(result.conflict.minimal);
+        assertTrue(result.conflict.millis < 60_000);
+    }
+
+    @Test
+    @DisplayName("Given a discrete ingredient when diagnosed then the same conflict is found, also when only whole units clash")
+    void givenDiscreteIngredient_whenDiagnosed_thenSameConflict() {
+        DessertRequestDTO request = clashRequest();
+        request.ingredients.get(1).integer = true;
+        request.diagnose = true;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals(List.of("MaxCalories", "TotalWeight", "Custom_sugar_GREATER_THAN_OR_EQUAL"), result.conflict.constraints);
+        assertTrue(result.conflict.minimal);
+        assertIrreducible(request, result.conflict);
+
+        // Fractional mixes would fit, so the relaxation has no conflict to start from.
+        DessertRequestDTO whole = request(List.of(ingredient("Syrup", 1, 100, 2)), 2.5, TargetType.PRICE, Direction.MINIMIZE);
+        whole.ingredients.get(0).integer = true;
+        whole.constraintsBlock.maxPrice = 100;
+        whole.constraintsBlock.constraints.add(constraint("sugar", ConstraintOp.LESS_THAN_OR_EQUAL, 40));
+        whole.diagnose = true;
+        result = solver.solve(whole);
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals(List.of("TotalWeight"), result.conflict.constraints);
+        assertIrreducible(whole, result.conflict);
+    }
+
+    @Test
+    @DisplayName("Given random infeasible requests when diagnosed then each conflict is infeasible and any rule left out makes it feasible")
+    void givenRandomInfeasibleRequests_whenDiagnosed_thenConflictsAreIrreducible() {
+        Random random = new Random(5);
+        int checked = 0;
+        for (int round = 0; round < 300 && checked < 60; round++) {
+            DessertRequestDTO request = randomRequest(random);
+            request.diagnose = true;
+            DessertResultDTO result = solver.solve(request);
+            if (!"INFEASIBLE".equals(result.status)) {
+                assertNull(result.conflict, "round " + round);
+                continue;
+            }
+            assertNotNull(result.conflict, "round " + round);
+            assertTrue(result.conflict.minimal, "round " + round);
+            assertIrreducible(request, result.conflict);
+            checked++;
+        }
+        assertTrue(checked >= 20, "only " + checked + " infeasible requests");
+    }
+
+    @Test
+    @DisplayName("Given no diagnose flag, or bounds that clash on their own, when solved then there is no conflict or an empty one")
+    void givenDefaultOrClashingBounds_whenSolved_thenNoOrEmptyConflict() {
+        DessertRequestDTO request = clashRequest();
+        assertNull(solver.solve(request).conflict);
+
+        request = clashRequest();
+        request.constraintsBlock.maxCalories = 0;
+        request.constraintsBlock.constraints.remove(2);
+        request.ingredients.get(2).minQuantity = 4;
+        request.ingredients.get(2).maxQuantity = 3.0;
+        request.diagnose = true;
+        DessertResultDTO result = solver.solve(request);
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals(List.of(), result.conflict.constraints);
+    }
+
+    // The conflict alone is infeasible, and leaving out any one of its rules is not.
+    private void assertIrreducible(DessertRequestDTO request, ConflictDTO conflict) {
+        assertEquals("INFEASIBLE", solver.solve(only(request, conflict, -1)).status, conflict.constraints.toString());
+        for (int k = 0; k < conflict.constraints.size(); k++) {
+            String status = solver.solve(only(request, conflict, k)).status;
+            assertNotEquals("INFEASIBLE", status, conflict.constraints + " without " + conflict.constraints.get(k));
+        }
+    }
+
+    // The request with just the conflict's rules, less the one at {@code skip}.
+    private static DessertRequestDTO only(DessertRequestDTO request, ConflictDTO conflict, int skip) {
+        DessertRequestDTO copy = request(request.ingredients, 0, request.goal.targetType, request.goal.direction);
+        copy.goal = request.goal;
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        int custom = 0;
+        for (int k = 0; k < conflict.constraints.size(); k++) {
+            String name = conflict.constraints.get(k);
+            boolean kept = k != skip;
+            switch (name) {
+                case "MaxPrice" -> copy.constraintsBlock.maxPrice = kept ? block.maxPrice : 0;
+                case "MaxCalories" -> copy.constraintsBlock.maxCalories = kept ? block.maxCalories : 0;
+                case "TotalWeight" -> copy.constraintsBlock.totalWeight = kept ? block.totalWeight : 0;
+                case "AestheticConstraint" -> copy.aestheticConstraint = kept ? request.aestheticConstraint : null;
+                default -> {
+                    int position = conflict.customConstraints.get(custom++);
+                    if (kept) copy.constraintsBlock.constraints.add(block.constraints.get(position));
+                }
+            }
+        }
+        return copy;
+    }
+
+    // Ten units under 500 calories need at least 5.6 of mint, which leaves too little syrup for 15 sugar.
+    private static DessertRequestDTO clashRequest() {
+        DessertRequestDTO request = request(List.of(ingredient("Syrup", 1, 100, 2), ingredient("Cream", 2, 300, 0.5),
+                ingredient("Mint", 6, 10, 1)), 10, TargetType.PRICE, Direction.MINIMIZE);
+        request.constraintsBlock.maxPrice = 100;
+        request.constraintsBlock.maxCalories = 500;
+        request.constraintsBlock.constraints.add(constraint("Cream", ConstraintOp.LESS_THAN_OR_EQUAL, 5));
+        request.constraintsBlock.constraints.add(constraint("Mint", ConstraintOp.GREATER_THAN_OR_EQUAL, 1));
+        request.constraintsBlock.constraints.add(constraint("sugar", ConstraintOp.GREATER_THAN_OR_EQUAL, 15));
+        request.constraintsBlock.constraints.add(constraint("sugar", ConstraintOp.LESS_THAN_OR_EQUAL, 40));
+        return request;
+    }
+
+    private static DessertRequestDTO randomRequest(Random random) {
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        int count = 2 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            IngredientDTO ingredient = ingredient("I" + i, 0.5 + random.nextInt(20) * 0.5, 50 + random.nextInt(12) * 50, random.nextInt(5) * 2.5);
+            if (random.nextInt(6) == 0) ingredient.maxQuantity = 1.0 + random.nextInt(3);
+            ingredients.add(ingredient);
+        }
+        DessertRequestDTO request = request(ingredients, 1 + random.nextInt(8), TargetType.PRICE, Direction.MINIMIZE);
+        if (random.nextBoolean()) request.constraintsBlock.maxPrice = 2 + random.nextInt(30);
+        if (random.nextBoolean()) request.constraintsBlock.maxCalories = 100 + random.nextInt(1500);
+        ConstraintOp[] ops = {ConstraintOp.LESS_THAN_OR_EQUAL, ConstraintOp.GREATER_THAN_OR_EQUAL, ConstraintOp.EQUALS};
+        int constraints = random.nextInt(6);
+        for (int k = 0; k < constraints; k++) {
+            String left = random.nextBoolean() ? "sugar" : "I" + random.nextInt(count);
+            request.constraintsBlock.constraints.add(constraint(left, ops[random.nextInt(ops.length)], random.nextInt(12) * 1.5));
+        }
+        if (random.nextInt(3) == 0) {
+            request.aestheticConstraint = new DessertRequestDTO.AestheticConstraint();
+            request.aestheticConstraint.ingredientName = "I" + random.nextInt(count);
+            request.aestheticConstraint.ruleType = random.nextBoolean() ? "min" : "max";
+            request.aestheticConstraint.percent = 0.1 + random.nextInt(8) * 0.1;
+        }
+        if (random.nextInt(4) == 0) request.ingredients.get(0).integer = true;
+        return request;
+    }
+
+    private static DessertRequestDTO request(List<IngredientDTO> ingredients, double totalWeight, TargetType target, Direction direction) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>(ingredients);
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = totalWeight;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = target;
+        request.goal.direction = direction;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories, double sugar) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        i.attributes = new HashMap<>();
+        i.attributes.put("sugar", sugar);
+        return i;
+    }
+}
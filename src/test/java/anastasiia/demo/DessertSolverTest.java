@@ -3,11 +3,14 @@ package anastasiia.demo;
 import anastasiia.demo.dto.DessertRequestDTO;
 import anastasiia.demo.dto.DessertResultDTO;
 import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
 import anastasiia.demo.enums.ConstraintOp;
 import anastasiia.demo.enums.Direction;
 import anastasiia.demo.enums.TargetType;
 import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.ModelTemplateCache;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -24,6 +27,8 @@ import org.junit.jupiter.params.provider.Arguments;
 class DessertSolverParameterizedTest {
 
     private final DessertSolver solver = new DessertSolver();
+    private final DessertSolver arraySolver = new DessertSolver(AssemblyMode.ARRAYS, null);
+    private final DessertSolver templateSolver = new DessertSolver(AssemblyMode.EXPRESSIONS, new ModelTemplateCache(16));
 
     @ParameterizedTest
     @MethodSource("createTestParameters")
@@ -38,6 +43,47 @@ class DessertSolverParameterizedTest {
         assertEquals(expected.ingredientsQuantities, actual.ingredientsQuantities, "Quantities mismatch");
     }
 
+    @ParameterizedTest
+    @MethodSource("createTestParameters")
+    @DisplayName("Given complete input when assembled from primitive arrays then the same result is returned")
+    void givenCompleteInput_whenAssembledFromArrays_thenReturnsExpected(DessertRequestDTO input, DessertResultDTO expected) {
+        assertSameResult(expected, arraySolver.solve(input));
+    }
+
+    @ParameterizedTest
+    @MethodSource("createTestParameters")
+    @DisplayName("Given complete input when solved from a compiled template then the same result is returned")
+    void givenCompleteInput_whenSolvedFromTemplate_thenReturnsExpected(DessertRequestDTO input, DessertResultDTO expected) {
+        templateSolver.solve(input);
+        assertSameResult(expected, templateSolver.solve(input));
+    }
+
+    private static void assertSameResult(DessertResultDTO expected, DessertResultDTO actual) {
+        assertEquals(expected.status, actual.status, "Status mismatch");
+        assertEquals(expected.totalWeight, actual.totalWeight, 0.0001, "Total weight mismatch");
+        assertEquals(expected.price, actual.price, 0.0001, "Price mismatch");
+        assertEquals(expected.totalCalories, actual.totalCalories, 0.0001, "Calories mismatch");
+        expected.ingredientsQuantities.forEach((name, qty) ->
+                assertEquals(qty, actual.ingredientsQuantities.get(name), 0.0001, "Quantity mismatch for " + name));
+    }
+
+    @Test
+    @DisplayName("Given a compiled template when only bounds change then the new bounds are honoured")
+    void givenCompiledTemplate_whenBoundsChange_thenResultFollows() {
+        DessertRequestDTO request = createCustomConstraintRequest();
+        templateSolver.solve(request);
+
+        request.constraintsBlock.totalWeight = 4.0;
+        request.constraintsBlock.constraints.get(0).right = 1.0;
+        request.goal.direction = Direction.MAXIMIZE;
+        DessertResultDTO actual = templateSolver.solve(request);
+        DessertResultDTO reference = solver.solve(request);
+
+        assertEquals(reference.status, actual.status);
+        assertEquals(reference.price, actual.price, 0.0001);
+        assertEquals(4.0, actual.totalWeight, 0.0001);
+    }
+
     private static Stream<Arguments> createTestParameters() {
         return Stream.of(
                 arguments(createSimpleRequest(), createExpectedSimpleResult()),
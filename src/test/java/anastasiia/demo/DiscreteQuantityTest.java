@@ -0,0 +1,135 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DessertSolver Discrete Quantity Tests")
+class DiscreteQuantityTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given integer and pack-size ingredients when solved then quantities are whole units and packs")
+    void givenDiscreteIngredients_whenSolved_thenQuantitiesAreWholeUnitsAndPacks() {
+        DessertRequestDTO request = request(2.5);
+        request.ingredients.get(0).integer = true;
+        request.ingredients.get(1).packSize = 0.4;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        double eggs = result.ingredientsQuantities.get("Eggs");
+        double cream = result.ingredientsQuantities.get("Cream");
+        assertEquals(Math.rint(eggs), eggs, 1e-6);
+        assertEquals(Math.rint(cream / 0.4), cream / 0.4, 1e-6);
+        assertTrue(eggs + cream + result.ingredientsQuantities.get("Sugar") >= 2.5 - 1e-6);
+        assertNotNull(result.gap);
+        assertTrue(result.gap >= 0);
+
+        // With a budget the relaxation runs on what is left of it, on the same model.
+        request.timeLimitMs = 10_000;
+        DessertResultDTO limited = solver.solve(request);
+        assertEquals(result.ingredientsQuantities, limited.ingredientsQuantities);
+        assertEquals(result.gap, limited.gap, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given a loose gap when solved then the answer is whole units within that gap of the tight optimum")
+    void givenLooseGap_whenSolved_thenWithinGap() {
+        DessertRequestDTO request = request(2.5);
+        request.ingredients.get(0).integer = true;
+        request.ingredients.get(1).packSize = 0.4;
+        double optimum = solver.solve(request).totalCalories;
+
+        request.mip = new DessertRequestDTO.MipOptions();
+        request.mip.gap = 0.5;
+        DessertResultDTO result = solver.solve(request);
+
+        assertTrue(result.status.equals("OPTIMAL") || result.status.equals("FEASIBLE"), result.status);
+        assertEquals(Math.rint(result.ingredientsQuantities.get("Eggs")), result.ingredientsQuantities.get("Eggs"), 1e-6);
+        assertTrue(result.totalCalories <= optimum * 1.5 + 1e-6);
+        assertTrue(result.gap <= 0.5);
+    }
+
+    @Test
+    @DisplayName("Given a small node limit from an older client when solved then it is ignored and the answer stays feasible")
+    void givenSmallNodeLimit_whenSolved_thenFeasible() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        for (int nodeLimit : new int[]{1, 3, 10}) {
+            DessertRequestDTO request = request(2.5);
+            request.ingredients.get(0).integer = true;
+            request.ingredients.get(1).packSize = 0.4;
+            request.mip = mapper.readValue("{\"gap\": 0, \"nodeLimit\": " + nodeLimit + "}", DessertRequestDTO.MipOptions.class);
+
+            DessertResultDTO result = solver.solve(request);
+
+            assertEquals("OPTIMAL", result.status);
+            assertTrue(result.totalWeight >= 2.5 - 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("Given min and max quantities when solved then every quantity stays within its bounds")
+    void givenQuantityBounds_whenSolved_thenQuantitiesWithinBounds() {
+        DessertRequestDTO request = request(3.0);
+        request.ingredients.get(0).minQuantity = 0.5;
+        request.ingredients.get(2).maxQuantity = 1.0;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        assertTrue(result.ingredientsQuantities.get("Eggs") >= 0.5 - 1e-6);
+        assertTrue(result.ingredientsQuantities.get("Sugar") <= 1.0 + 1e-6);
+        assertNull(result.gap);
+    }
+
+    @Test
+    @DisplayName("Given a continuous request when solved then no gap is reported")
+    void givenContinuousRequest_whenSolved_thenNoGap() {
+        DessertResultDTO result = solver.solve(request(2.5));
+
+        assertEquals("OPTIMAL", result.status);
+        assertNull(result.gap);
+    }
+
+    private static DessertRequestDTO request(double totalWeight) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(
+                ingredient("Eggs", 1.0, 150.0),
+                ingredient("Cream", 1.2, 300.0),
+                ingredient("Sugar", 0.5, 400.0)
+        );
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 100.0;
+        block.maxCalories = 2000.0;
+        block.totalWeight = totalWeight;
+        block.constraints = new ArrayList<>();
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.CALORIES;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
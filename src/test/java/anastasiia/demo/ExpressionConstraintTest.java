@@ -0,0 +1,159 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.CatalogRegistry;
+import anastasiia.demo.solver.DessertSolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Expression Constraint Tests")
+class ExpressionConstraintTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given a linear expression when solved then the mix matches the same rule hand-encoded as an attribute, continuous and discrete")
+    void givenLinearExpression_whenSolved_thenMatchesHandEncodedRule() {
+        for (boolean discrete : new boolean[]{false, true}) {
+            DessertRequestDTO expression = request(discrete, constraint("2*cream + sugar <= 0.3*weight", null, 0));
+            // Per unit: 2 for cream, plus sugar, minus 0.3 for the weight.
+            DessertRequestDTO encoded = request(discrete, constraint("combo", ConstraintOp.LESS_THAN_OR_EQUAL, 0));
+
+            DessertResultDTO actual = solver.solve(expression);
+            DessertResultDTO expected = solver.solve(encoded);
+
+            assertEquals("OPTIMAL", actual.status);
+            assertEquals(expected.price, actual.price, 1e-6);
+            expected.ingredientsQuantities.forEach((name, qty) -> assertEquals(qty, actual.ingredientsQuantities.get(name), 1e-6, name));
+            double cream = actual.ingredientsQuantities.get("Cream");
+            assertTrue(2 * cream + actual.totals.get("sugar") <= 0.3 * actual.totalWeight + 1e-6);
+            assertTrue(actual.ingredientsQuantities.get("Syrup") < 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a ratio with its limit on either side when solved then it is multiplied out by the weight, and a constant moves to the right-hand side")
+    void givenRatio_whenSolved_thenMultipliedOut() {
+        DessertResultDTO expected = solver.solve(request(false, constraint("excess", ConstraintOp.LESS_THAN_OR_EQUAL, 0)));
+
+        for (DessertRequestDTO.ConstraintDTO ratio : List.of(
+                constraint("calories/weight <= 150", null, 0),
+                constraint("150 >= calories / weight", ConstraintOp.GREATER_THAN_OR_EQUAL, 0),
+                constraint("calories/(2*weight) <= 75", null, 0),
+                constraint("calories - 100*weight", ConstraintOp.LESS_THAN_OR_EQUAL, 50 * 10))) {
+            DessertResultDTO actual = solver.solve(request(false, ratio));
+
+            assertEquals("OPTIMAL", actual.status, ratio.left);
+            assertEquals(expected.price, actual.price, 1e-6, ratio.left);
+            assertEquals(150, actual.totalCalories / actual.totalWeight, 1e-6, ratio.left);
+        }
+
+        DessertResultDTO plain = solver.solve(request(false, constraint("sugar", ConstraintOp.LESS_THAN_OR_EQUAL, 4)));
+        DessertResultDTO shifted = solver.solve(request(false, constraint("sugar + 1", ConstraintOp.LESS_THAN_OR_EQUAL, 5)));
+        assertEquals(plain.price, shifted.price, 1e-6);
+    }
+
+    @Test
+    @DisplayName("Given a non-linear, unknown, unlimited ratio or contradicting expression when solved then it is rejected")
+    void givenInvalidExpression_whenSolved_thenRejected() {
+        List<DessertRequestDTO.ConstraintDTO> invalid = List.of(
+                constraint("cream * sugar <= 1", null, 0),
+                constraint("crem + sugar <= 1", null, 0),
+                constraint("calories / weight", ConstraintOp.LESS_THAN_OR_EQUAL, 150),
+                constraint("calories / weight + sugar <= 150", null, 0),
+                constraint("sugar / 0 <= 1", null, 0),
+                constraint("sugar <= 1", ConstraintOp.GREATER_THAN_OR_EQUAL, 0),
+                constraint("sugar + 1", null, 0),
+                constraint("(sugar <= 1", null, 0));
+
+        for (DessertRequestDTO.ConstraintDTO constraint : invalid) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> solver.solve(request(false, constraint)), constraint.left);
+            assertTrue(e.getMessage().contains(constraint.left), e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Given plain names with operator characters and a catalog solved twice then names keep their meaning and a new version is compiled afresh")
+    void givenPlainNamesAndCatalog_whenSolved_thenLegacyMeaningAndVersionedCache() {
+        DessertRequestDTO request = request(false, constraint("Half-and-half", ConstraintOp.GREATER_THAN_OR_EQUAL, 1));
+        request.ingredients.add(ingredient("Half-and-half", 4, 200, 0.1));
+        request.constraintsBlock.constraints.add(constraint("no such ingredient", ConstraintOp.LESS_THAN_OR_EQUAL, 1));
+        assertEquals(1.0, solver.solve(request).ingredientsQuantities.get("Half-and-half"), 1e-6);
+
+        CatalogRegistry catalogs = new CatalogRegistry(10, "");
+        CatalogDTO catalog = new CatalogDTO();
+        catalog.ingredients = ingredients();
+        catalogs.put("pantry", catalog);
+        DessertResultDTO first = solver.solve(catalogs.resolve(catalogRequest()));
+        DessertResultDTO again = solver.solve(catalogs.resolve(catalogRequest()));
+        assertEquals(first.ingredientsQuantities, again.ingredientsQuantities);
+        assertTrue(2 * first.ingredientsQuantities.get("Cream") + first.totals.get("sugar") <= 3 + 1e-6);
+
+        // Same names in a new order: the cached positions must not carry over.
+        catalog.ingredients = new ArrayList<>(ingredients());
+        catalog.ingredients.add(0, catalog.ingredients.remove(2));
+        catalogs.put("pantry", catalog);
+        DessertResultDTO reordered = solver.solve(catalogs.resolve(catalogRequest()));
+        first.ingredientsQuantities.forEach((name, qty) -> assertEquals(qty, reordered.ingredientsQuantities.get(name), 1e-6, name));
+    }
+
+    private static DessertRequestDTO catalogRequest() {
+        DessertRequestDTO request = request(false, constraint("2*cream + sugar <= 0.3*weight", null, 0));
+        request.ingredients = null;
+        request.catalog = new DessertRequestDTO.CatalogRef();
+        request.catalog.id = "pantry";
+        return request;
+    }
+
+    // Ten units at the lowest price; syrup is cheapest but sweet and rich, fruit light.
+    private static DessertRequestDTO request(boolean discrete, DessertRequestDTO.ConstraintDTO constraint) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>(ingredients());
+        if (discrete) request.ingredients.get(2).integer = true;
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 10;
+        request.constraintsBlock.constraints = new ArrayList<>(List.of(constraint));
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = TargetType.PRICE;
+        request.goal.direction = Direction.MINIMIZE;
+        return request;
+    }
+
+    private static List<IngredientDTO> ingredients() {
+        return List.of(ingredient("Syrup", 1, 400, 0.8), ingredient("Cream", 2, 300, 0.1), ingredient("Fruit", 3, 50, 0.2));
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    // The hand-encoded rules as attributes: combo for 2*cream + sugar - 0.3*weight, excess for calories - 150*weight.
+    private static IngredientDTO ingredient(String name, double price, double calories, double sugar) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        i.attributes = new HashMap<>();
+        i.attributes.put("sugar", sugar);
+        i.attributes.put("combo", ("Cream".equals(name) ? 2 : 0) + sugar - 0.3);
+        i.attributes.put("excess", calories - 150);
+        return i;
+    }
+}
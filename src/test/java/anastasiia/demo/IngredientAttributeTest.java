@@ -0,0 +1,114 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.CatalogRegistry;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.RequestFingerprint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ingredient Attribute Tests")
+class IngredientAttributeTest {
+
+    @Test
+    @DisplayName("Given a sugar limit and a protein goal when solved then both assembly paths agree and report attribute totals")
+    void givenAttributeConstraintAndGoal_whenSolved_thenPathsAgreeAndTotalsReported() {
+        DessertResultDTO expressions = new DessertSolver().solve(request());
+        DessertResultDTO arrays = new DessertSolver(AssemblyMode.ARRAYS, null).solve(request());
+
+        assertEquals("OPTIMAL", expressions.status);
+        // Protein per unit: Yogurt 10, Nuts 20, Honey 0; the sugar cap holds Nuts at 2.
+        assertEquals(2.0, expressions.ingredientsQuantities.get("Nuts"), 1e-6);
+        assertEquals(1.0, expressions.ingredientsQuantities.get("Yogurt"), 1e-6);
+        assertEquals(50.0, expressions.totals.get("protein"), 1e-6);
+        assertEquals(10.0, expressions.totals.get("sugar"), 1e-6);
+        assertEquals(4.0, expressions.totals.get("fat"), 1e-6);
+        assertEquals(expressions.ingredientsQuantities.keySet(), arrays.ingredientsQuantities.keySet());
+        expressions.ingredientsQuantities.forEach((name, qty) -> assertEquals(qty, arrays.ingredientsQuantities.get(name), 1e-6));
+        assertEquals(expressions.totals.keySet(), arrays.totals.keySet());
+    }
+
+    @Test
+    @DisplayName("Given the same ingredients from a catalog when solved then attributes come from its columns")
+    void givenCatalogIngredients_whenSolved_thenSameAsInline() {
+        CatalogRegistry catalogs = new CatalogRegistry(10, "");
+        CatalogDTO catalog = new CatalogDTO();
+        catalog.ingredients = ingredients();
+        catalogs.put("snacks", catalog);
+        DessertRequestDTO referenced = request();
+        referenced.ingredients = null;
+        referenced.catalog = new DessertRequestDTO.CatalogRef();
+        referenced.catalog.id = "snacks";
+
+        DessertResultDTO inline = new DessertSolver().solve(request());
+        DessertResultDTO fromCatalog = new DessertSolver().solve(catalogs.resolve(referenced));
+
+        assertEquals(inline.ingredientsQuantities, fromCatalog.ingredientsQuantities);
+        assertEquals(inline.totals, fromCatalog.totals);
+        assertEquals(Map.of("sugar", 4.0, "fat", 2.0, "protein", 20.0), referenced.ingredients.get(1).attributes);
+    }
+
+    @Test
+    @DisplayName("Given ingredients differing only in an attribute when fingerprinted then keys differ")
+    void givenDifferentAttributes_whenFingerprinted_thenKeysDiffer() {
+        DessertRequestDTO changed = request();
+        changed.ingredients.get(0).attributes.put("sugar", 3.0);
+        DessertRequestDTO reserved = request();
+        reserved.ingredients.get(0).attributes.put("Price", 1.0);
+
+        assertNotEquals(RequestFingerprint.of(request()), RequestFingerprint.of(changed));
+        assertEquals(RequestFingerprint.of(request()), RequestFingerprint.of(request()));
+        assertThrows(IllegalArgumentException.class, () -> new DessertSolver().solve(reserved));
+    }
+
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = ingredients();
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.totalWeight = 3.0;
+        block.constraints = new ArrayList<>();
+        DessertRequestDTO.ConstraintDTO sugar = new DessertRequestDTO.ConstraintDTO();
+        sugar.left = "Sugar";
+        sugar.op = ConstraintOp.LESS_THAN_OR_EQUAL;
+        sugar.right = 10.0;
+        block.constraints.add(sugar);
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.ATTRIBUTE;
+        goal.targetName = "Protein";
+        goal.direction = Direction.MAXIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static List<IngredientDTO> ingredients() {
+        return List.of(
+                ingredient("Yogurt", Map.of("protein", 10.0, "sugar", 2.0)),
+                ingredient("Nuts", Map.of("sugar", 4.0, "fat", 2.0, "Protein", 20.0)),
+                ingredient("Honey", Map.of("sugar", 8.0))
+        );
+    }
+
+    private static IngredientDTO ingredient(String name, Map<String, Double> attributes) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = 1.0;
+        i.calories = 100.0;
+        i.attributes = new HashMap<>(attributes);
+        return i;
+    }
+}
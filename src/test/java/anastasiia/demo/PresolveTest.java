@@ -0,0 +1,165 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.PresolveReduction;
+import anastasiia.demo.enums.SolverEngineType;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolverMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DessertSolver Presolve Tests")
+class PresolveTest {
+
+    // Presolve runs on the expression path, which AUTO would bypass for these small requests.
+    private final DessertSolver solver = new DessertSolver(AssemblyMode.EXPRESSIONS, true, null, SolverMetrics.disabled(),
+            SolverEngineType.OJALGO, DessertSolver.DEFAULT_DENSE_MAX_CELLS);
+    private final DessertSolver plainSolver = new DessertSolver(AssemblyMode.EXPRESSIONS, false, null, SolverMetrics.disabled(),
+            SolverEngineType.OJALGO, DessertSolver.DEFAULT_DENSE_MAX_CELLS);
+
+    @Test
+    @DisplayName("Given a dominated ingredient and a price cap that cannot bind when solved with debug then both are reported eliminated")
+    void givenDominatedIngredientAndLooseCap_whenSolvedWithDebug_thenReportedEliminated() {
+        DessertRequestDTO request = request(List.of(
+                ingredient("Cream", 0.01, 300.0),
+                ingredient("Heavy Cream", 0.02, 450.0),
+                ingredient("Mint", 0.03, 40.0)
+        ), 1000.0, 900.0, 2.0);
+        request.debug = true;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        assertEquals(0.0, result.ingredientsQuantities.get("Heavy Cream"), 1e-9);
+        assertEquals(List.of("Cream", "Heavy Cream", "Mint"), List.copyOf(result.ingredientsQuantities.keySet()));
+        assertNotNull(result.presolve);
+        assertEquals(PresolveReduction.DOMINATED, result.presolve.eliminatedVariables.get("Heavy Cream"));
+        assertEquals(PresolveReduction.REDUNDANT, result.presolve.removedRows.get("MaxPrice"));
+        assertTrue(result.presolve.reducedVariables < result.presolve.variables);
+        assertTrue(result.presolve.scaledCoefficientRange <= result.presolve.coefficientRange);
+        assertSameResult(plainSolver.solve(request), result);
+    }
+
+    @Test
+    @DisplayName("Given repeated and expression constraints when presolved and when analysed then both name the rows alike")
+    void givenRepeatedAndExpressionConstraints_whenReported_thenSameRowNames() {
+        DessertRequestDTO request = request(List.of(ingredient("Cream", 1.0, 300.0), ingredient("Mint", 2.0, 40.0)), 1000.0, 900.0, 2.0);
+        request.constraintsBlock.constraints.add(constraint("Mint", ConstraintOp.LESS_THAN_OR_EQUAL, 200));
+        request.constraintsBlock.constraints.add(constraint("Mint", ConstraintOp.LESS_THAN_OR_EQUAL, 100));
+        request.constraintsBlock.constraints.add(constraint("Cream + Mint <= 50", null, 0));
+        request.debug = true;
+
+        DessertResultDTO presolved = solver.solve(request);
+        request.debug = false;
+        request.sensitivity = true;
+        DessertResultDTO analysed = new DessertSolver().solve(request);
+
+        List<String> names = List.of("Custom_Mint_LESS_THAN_OR_EQUAL", "Custom_Mint_LESS_THAN_OR_EQUAL#2", "Custom_Cream + Mint <= 50");
+        assertEquals(Set.copyOf(names), Set.copyOf(presolved.presolve.removedRows.keySet()).stream()
+                .filter(name -> name.startsWith("Custom_")).collect(Collectors.toSet()));
+        assertTrue(analysed.sensitivity.constraints.stream().map(row -> row.name).toList().containsAll(names));
+        // Canonical order puts the lower limit first, whichever way the request lists them.
+        assertEquals(100.0, analysed.sensitivity.constraints.stream()
+                .filter(row -> row.name.equals("Custom_Mint_LESS_THAN_OR_EQUAL")).findFirst().orElseThrow().rhs, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given a request without debug when solved then no presolve report is attached")
+    void givenNoDebug_whenSolved_thenNoReport() {
+        DessertRequestDTO request = request(List.of(ingredient("Cream", 1.0, 300.0), ingredient("Mint", 2.0, 40.0)), 10.0, 1000.0, 2.0);
+
+        assertNull(solver.solve(request).presolve);
+    }
+
+    @Test
+    @DisplayName("Given random catalogs when solved with and without presolve then the optimum is the same")
+    void givenRandomCatalogs_whenSolvedWithAndWithoutPresolve_thenSameOptimum() {
+        Random random = new Random(42);
+        for (int round = 0; round < 40; round++) {
+            List<IngredientDTO> ingredients = new ArrayList<>();
+            int count = 2 + random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                IngredientDTO ingredient = ingredient("I" + i, 0.01 + random.nextInt(5) * 0.5, 50 + random.nextInt(4) * 250);
+                if (random.nextInt(4) == 0) ingredient.maxQuantity = (double) random.nextInt(3);
+                if (random.nextInt(6) == 0) ingredient.minQuantity = 0.25;
+                ingredients.add(ingredient);
+            }
+            DessertRequestDTO request = request(ingredients, 1 + random.nextInt(40), 200 + random.nextInt(4000), 1 + random.nextInt(5));
+            if (random.nextBoolean()) {
+                request.constraintsBlock.constraints.add(constraint("I0", ConstraintOp.LESS_THAN_OR_EQUAL, random.nextInt(3)));
+            }
+            if (random.nextBoolean()) {
+                request.goal.targetType = TargetType.CALORIES;
+                request.goal.direction = random.nextBoolean() ? Direction.MINIMIZE : Direction.MAXIMIZE;
+            }
+
+            DessertResultDTO expected = plainSolver.solve(request);
+            DessertResultDTO actual = solver.solve(request);
+
+            assertEquals(isFeasible(expected), isFeasible(actual), "Round " + round);
+            if (isFeasible(expected)) {
+                double objective = request.goal.targetType == TargetType.PRICE ? expected.price : expected.totalCalories;
+                double presolved = request.goal.targetType == TargetType.PRICE ? actual.price : actual.totalCalories;
+                assertEquals(objective, presolved, 1e-6 * Math.max(1, Math.abs(objective)), "Round " + round);
+                assertEquals(expected.totalWeight, actual.totalWeight, 1e-6, "Round " + round);
+            }
+        }
+    }
+
+    private static boolean isFeasible(DessertResultDTO result) {
+        return result.status.equals("OPTIMAL") || result.status.equals("DISTINCT");
+    }
+
+    private static void assertSameResult(DessertResultDTO expected, DessertResultDTO actual) {
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.price, actual.price, 1e-6);
+        assertEquals(expected.totalCalories, actual.totalCalories, 1e-6);
+        assertEquals(expected.totalWeight, actual.totalWeight, 1e-6);
+    }
+
+    private static DessertRequestDTO request(List<IngredientDTO> ingredients, double maxPrice, double maxCalories, double totalWeight) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = ingredients;
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = maxPrice;
+        block.maxCalories = maxCalories;
+        block.totalWeight = totalWeight;
+        block.constraints = new ArrayList<>();
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.PRICE;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
@@ -0,0 +1,215 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.PlanRequestDTO;
+import anastasiia.demo.dto.PlanResultDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.ProductionPlanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductionPlanner Tests")
+class ProductionPlannerTest {
+
+    private final ProductionPlanner planner = new ProductionPlanner(new DessertSolver(), 2, 100, 100);
+
+    @Test
+    @DisplayName("Given scarce shared cream when planned then it goes to the recipe that saves most with it")
+    void givenScarceSharedStock_whenPlanned_thenAllocatedWhereItSavesMost() {
+        // Cream saves 2 per unit in the tart (Mint costs 3) and 4 in the mousse (Mint costs 5).
+        PlanRequestDTO plan = plan(Map.of("Cream", 3.0),
+                recipe("tart", 2.0, ingredient("Cream", 1.0), ingredient("Mint", 3.0)),
+                recipe("mousse", 2.0, ingredient("Cream", 1.0), ingredient("Mint", 5.0)));
+
+        PlanResultDTO result = planner.plan(plan);
+
+        assertEquals("OPTIMAL", result.status);
+        assertEquals(-6.0, result.objective, 1e-6);
+        assertEquals(3.0, result.inventoryUsed.get("Cream"), 1e-6);
+        assertEquals(2.0, result.recipes.get("mousse").ingredientsQuantities.get("Cream"), 1e-6);
+        assertEquals(1.0, result.recipes.get("tart").ingredientsQuantities.get("Cream"), 1e-6);
+        assertEquals(4.0, result.recipes.get("tart").price, 1e-6);
+        assertEquals(0.0, result.gap, 1e-6);
+    }
+
+    @Test
+    @DisplayName("Given whole-unit recipes when planned then each recipe takes whole units and the gap is reported")
+    void givenDiscreteRecipes_whenPlanned_thenWholeUnitsWithinStock() {
+        PlanRequestDTO plan = plan(Map.of("Cream", 3.0),
+                recipe("tart", 2.0, ingredient("Cream", 1.0), ingredient("Mint", 3.0)),
+                recipe("mousse", 2.0, ingredient("Cream", 1.0), ingredient("Mint", 5.0)));
+        for (PlanRequestDTO.RecipeDTO recipe : plan.recipes) {
+            recipe.request.ingredients.forEach(i -> i.integer = true);
+        }
+
+        PlanResultDTO result = planner.plan(plan);
+
+        assertTrue(result.inventoryUsed.get("Cream") <= 3.0 + 1e-6);
+        result.recipes.values().forEach(r -> r.ingredientsQuantities.values()
+                .forEach(qty -> assertEquals(Math.rint(qty), qty, 1e-6)));
+        assertNotNull(result.gap);
+        assertEquals(-6.0, result.objective, 1e-6);
+    }
+
+    @Test
+    @DisplayName("Given stock that cannot cover the recipes when planned then the plan is infeasible")
+    void givenTooLittleStock_whenPlanned_thenInfeasible() {
+        PlanRequestDTO plan = plan(Map.of("cream", 1.0),
+                recipe("tart", 2.0, ingredient("Cream", 1.0)),
+                recipe("mousse", 2.0, ingredient("Cream", 1.0), ingredient("Mint", 5.0)));
+
+        PlanResultDTO result = planner.plan(plan);
+
+        assertEquals("INFEASIBLE", result.status);
+        assertEquals("INFEASIBLE", result.recipes.get("tart").status);
+    }
+
+    @Test
+    @DisplayName("Given no rounds left before any plan fits the stock when planned then it times out with every recipe at zero")
+    void givenRoundsRunOutInPhaseOne_whenPlanned_thenTimeoutWithoutQuantities() {
+        // Any single-ingredient mix needs 3 of one item; only mixing three proposals fits 1 of each.
+        PlanRequestDTO plan = plan(Map.of("Cream", 1.0, "Mint", 1.0, "Honey", 1.0),
+                recipe("tart", 3.0, ingredient("Cream", 1.0), ingredient("Mint", 2.0), ingredient("Honey", 3.0)));
+
+        PlanResultDTO stopped = new ProductionPlanner(new DessertSolver(), 2, 100, 0).plan(plan);
+
+        assertEquals(DessertSolver.TIMEOUT, stopped.status);
+        assertEquals(DessertSolver.TIMEOUT, stopped.recipes.get("tart").status);
+        stopped.recipes.get("tart").ingredientsQuantities.values().forEach(qty -> assertEquals(0.0, qty));
+
+        PlanResultDTO solved = planner.plan(plan);
+
+        assertEquals("OPTIMAL", solved.status);
+        assertEquals(-6.0, solved.objective, 1e-6);
+    }
+
+    @Test
+    @DisplayName("Given many recipes competing for several stock items when planned then the plan matches the flat model optimum")
+    void givenCompetingRecipes_whenPlanned_thenMatchesFlatModel() {
+        PlanRequestDTO plan = competingPlan();
+        Map<String, Double> inventory = plan.inventory;
+
+        PlanResultDTO result = planner.plan(plan);
+
+        assertEquals("OPTIMAL", result.status);
+        assertTrue(result.iterations > 1, "the stock should take several rounds to price");
+        assertEquals(flatOptimum(plan), result.objective, 1e-5);
+        inventory.forEach((item, limit) -> assertTrue(result.inventoryUsed.get(item) <= limit + 1e-6));
+        assertTrue(inventory.entrySet().stream().anyMatch(e -> result.inventoryUsed.get(e.getKey()) >= e.getValue() - 1e-6),
+                "some stock item should be used up");
+    }
+
+    @Test
+    @DisplayName("Given whole-unit recipes and a time limit too short to price them when planned then the plan times out or is feasible, never infeasible")
+    void givenShortTimeLimit_whenPlanned_thenNeverInfeasible() {
+        PlanRequestDTO plan = competingPlan();
+        plan.recipes.forEach(recipe -> recipe.request.ingredients.get(0).integer = true);
+        plan.timeLimitMs = 1;
+
+        long started = System.nanoTime();
+        PlanResultDTO result = planner.plan(plan);
+
+        assertTrue(List.of(DessertSolver.TIMEOUT, "FEASIBLE", "OPTIMAL").contains(result.status), result.status);
+        assertTrue(System.nanoTime() - started < 5_000_000_000L, "each recipe solve should stop at the deadline");
+    }
+
+    /**
+     * Eight recipes drawing on four shared stock items, each with two ingredients of its own.
+     */
+    private static PlanRequestDTO competingPlan() {
+        Random random = new Random(42);
+        String[] shared = {"Cream", "Sugar", "Cocoa", "Butter"};
+        Map<String, Double> inventory = new LinkedHashMap<>();
+        for (String item : shared) inventory.put(item, 2.0 + random.nextInt(3));
+        List<PlanRequestDTO.RecipeDTO> recipes = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            List<IngredientDTO> ingredients = new ArrayList<>();
+            for (String item : shared) {
+                if (random.nextDouble() < 0.75) ingredients.add(ingredient(item, 1.0 + random.nextDouble(), 50 + random.nextInt(350)));
+            }
+            ingredients.add(ingredient("Fruit" + r, 3.0 + 3 * random.nextDouble(), 100.0));
+            ingredients.add(ingredient("Nuts" + r, 3.0 + 3 * random.nextDouble(), 50 + random.nextInt(300)));
+            PlanRequestDTO.RecipeDTO recipe = recipe("recipe" + r, 2.0 + random.nextInt(3), ingredients.toArray(IngredientDTO[]::new));
+            recipe.request.constraintsBlock.maxCalories = 220.0 * recipe.request.constraintsBlock.totalWeight;
+            recipe.weight = 1.0 + random.nextInt(3);
+            recipes.add(recipe);
+        }
+        PlanRequestDTO plan = new PlanRequestDTO();
+        plan.inventory = inventory;
+        plan.recipes = recipes;
+        return plan;
+    }
+
+    /**
+     * The same plan as one model: every recipe's rows side by side plus the shared stock rows.
+     */
+    private static double flatOptimum(PlanRequestDTO plan) {
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Map<String, Expression> stock = new HashMap<>();
+        plan.inventory.forEach((item, limit) -> stock.put(item, model.addExpression("Stock_" + item).upper(limit)));
+        for (PlanRequestDTO.RecipeDTO recipe : plan.recipes) {
+            DessertRequestDTO.ConstraintsBlock block = recipe.request.constraintsBlock;
+            Expression weight = model.addExpression(recipe.name + "_weight").level(block.totalWeight);
+            Expression calories = model.addExpression(recipe.name + "_calories").upper(block.maxCalories);
+            double goalWeight = recipe.weight > 0 ? recipe.weight : 1;
+            for (IngredientDTO ingredient : recipe.request.ingredients) {
+                Variable x = model.addVariable(recipe.name + "_" + ingredient.name).lower(0).weight(-goalWeight * ingredient.price);
+                weight.set(x, 1);
+                calories.set(x, ingredient.calories);
+                if (stock.containsKey(ingredient.name)) stock.get(ingredient.name).set(x, 1);
+            }
+        }
+        Optimisation.Result result = model.maximise();
+        assertTrue(result.getState().isOptimal(), "flat model: " + result.getState());
+        return result.getValue();
+    }
+
+    private static PlanRequestDTO plan(Map<String, Double> inventory, PlanRequestDTO.RecipeDTO... recipes) {
+        PlanRequestDTO plan = new PlanRequestDTO();
+        plan.inventory = inventory;
+        plan.recipes = List.of(recipes);
+        return plan;
+    }
+
+    private static PlanRequestDTO.RecipeDTO recipe(String name, double totalWeight, IngredientDTO... ingredients) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>(List.of(ingredients));
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = totalWeight;
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = TargetType.PRICE;
+        request.goal.direction = Direction.MINIMIZE;
+        PlanRequestDTO.RecipeDTO recipe = new PlanRequestDTO.RecipeDTO();
+        recipe.name = name;
+        recipe.request = request;
+        return recipe;
+    }
+
+    private static IngredientDTO ingredient(String name, double price) {
+        return ingredient(name, price, 100.0);
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
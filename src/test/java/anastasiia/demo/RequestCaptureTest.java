@@ -0,0 +1,206 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.CatalogDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.CatalogRegistry;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.RequestCapture;
+import anastasiia.demo.solver.TrafficReplay;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestCapture and TrafficReplay Tests")
+class RequestCaptureTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Given capture enabled when requests are recorded then names are aliased and the aliased request solves the same")
+    void givenCaptureEnabled_whenRecorded_thenNamesAliasedAndSolvesTheSame() throws Exception {
+        RequestCapture capture = capture(true, DataSize.ofMegabytes(1), 10);
+        capture.record(request());
+        capture.close();
+
+        List<TrafficReplay.Captured> traffic = TrafficReplay.load(List.of(directory));
+        assertEquals(1, traffic.size());
+        String body = new String(traffic.get(0).body());
+        assertFalse(body.contains("Chocolate") || body.contains("Cream"), body);
+
+        DessertRequestDTO replayed = mapper.readValue(traffic.get(0).body(), DessertRequestDTO.class);
+        assertEquals(List.of("I0", "I1"), replayed.ingredients.stream().map(i -> i.name).toList());
+        assertEquals("I1", replayed.constraintsBlock.constraints.get(0).left);
+        assertEquals("weight", replayed.constraintsBlock.constraints.get(1).left);
+        assertEquals("I0", replayed.goal.targetName);
+
+        DessertResultDTO original = new DessertSolver().solve(request());
+        DessertResultDTO aliased = new DessertSolver().solve(replayed);
+        assertEquals(original.status, aliased.status);
+        assertEquals(original.ingredientsQuantities.get("Chocolate"), aliased.ingredientsQuantities.get("I0"), 1e-9);
+        assertEquals(original.price, aliased.price, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given an expression constraint when captured and replayed then the names inside it are aliased and it solves the same")
+    void givenExpressionConstraint_whenCapturedAndReplayed_thenNamesAliasedInside() throws Exception {
+        DessertRequestDTO request = request();
+        request.constraintsBlock.constraints.add(constraint("2*CREAM + 'chocolate' >= 0.5*weight + 0.1", null, 0));
+        request.goal.targetType = TargetType.PRICE;
+        request.goal.targetName = null;
+        request.goal.direction = Direction.MINIMIZE;
+        RequestCapture capture = capture(true, DataSize.ofMegabytes(1), 10);
+        capture.record(request);
+        capture.close();
+
+        List<TrafficReplay.Captured> traffic = TrafficReplay.load(List.of(directory));
+        String body = new String(traffic.get(0).body());
+        assertFalse(body.toLowerCase().contains("chocolate") || body.toLowerCase().contains("cream"), body);
+        DessertRequestDTO replayed = mapper.readValue(traffic.get(0).body(), DessertRequestDTO.class);
+        assertEquals("2*I1 + I0 >= 0.5*weight + 0.1", replayed.constraintsBlock.constraints.get(2).left);
+
+        DessertResultDTO original = new DessertSolver().solve(request);
+        DessertResultDTO aliased = new DessertSolver().solve(replayed);
+        assertEquals("OPTIMAL", aliased.status);
+        assertEquals(original.price, aliased.price, 1e-9);
+        assertEquals(original.ingredientsQuantities.get("Cream"), aliased.ingredientsQuantities.get("I1"), 1e-9);
+        TrafficReplay.Report report = new TrafficReplay(2000, 1, 1).run(traffic, TrafficReplay.inProcess(new DessertSolver()));
+        assertEquals(1L, report.outcomes().get("200"));
+    }
+
+    @Test
+    @DisplayName("Given a catalog request when captured then its subset is expanded on the writer and replays the same")
+    void givenCatalogRequest_whenCaptured_thenSubsetExpandedAndSolvesTheSame() throws Exception {
+        CatalogRegistry catalogs = new CatalogRegistry(10, "");
+        CatalogDTO catalog = new CatalogDTO();
+        catalog.ingredients = List.of(ingredient("Vanilla", 5.0, 100.0), ingredient("Chocolate", 2.0, 500.0), ingredient("Cream", 1.0, 300.0));
+        catalogs.put("pantry", catalog);
+        DessertRequestDTO request = request();
+        request.ingredients = null;
+        request.catalog = new DessertRequestDTO.CatalogRef();
+        request.catalog.id = "pantry";
+        request.catalog.names = List.of("chocolate", "cream");
+        catalogs.resolve(request);
+        RequestCapture capture = capture(true, DataSize.ofMegabytes(1), 10);
+        capture.record(request);
+        capture.close();
+
+        List<TrafficReplay.Captured> traffic = TrafficReplay.load(List.of(directory));
+        String body = new String(traffic.get(0).body());
+        assertFalse(body.contains("Chocolate") || body.contains("pantry") || body.contains("Vanilla"), body);
+        DessertRequestDTO replayed = mapper.readValue(traffic.get(0).body(), DessertRequestDTO.class);
+        assertNull(replayed.catalog);
+        assertEquals(List.of("I0", "I1"), replayed.ingredients.stream().map(i -> i.name).toList());
+        assertEquals(2.0, replayed.ingredients.get(0).price, 1e-9);
+        assertEquals("I1", replayed.constraintsBlock.constraints.get(0).left);
+        assertEquals("I0", replayed.goal.targetName);
+
+        DessertResultDTO original = new DessertSolver().solve(request);
+        DessertResultDTO aliased = new DessertSolver().solve(replayed);
+        assertEquals(original.status, aliased.status);
+        assertEquals(original.ingredientsQuantities.get("Chocolate"), aliased.ingredientsQuantities.get("I0"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given a small file size limit when many requests are recorded then files rotate and only the newest are kept")
+    void givenSmallFileLimit_whenManyRecorded_thenFilesRotateAndOldestDeleted() throws Exception {
+        RequestCapture capture = capture(true, DataSize.ofBytes(600), 2);
+        for (int i = 0; i < 10; i++) {
+            capture.record(request());
+        }
+        capture.flush();
+
+        List<Path> files = files();
+        assertEquals(2, files.size());
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 600 || Files.readAllLines(file).size() == 1, file + " too large");
+        }
+        capture.close();
+
+        RequestCapture disabled = new RequestCapture(mapper, false, directory.resolve("off").toString(), DataSize.ofMegabytes(1), 10, 1.0);
+        disabled.record(request());
+        assertFalse(Files.exists(directory.resolve("off")));
+    }
+
+    @Test
+    @DisplayName("Given captured traffic when replayed in-process then every request is reported with ordered percentiles")
+    void givenCapturedTraffic_whenReplayedInProcess_thenReportCoversEveryRequest() throws Exception {
+        RequestCapture capture = capture(true, DataSize.ofMegabytes(1), 10);
+        for (int i = 0; i < 40; i++) {
+            capture.record(request());
+        }
+        capture.close();
+        List<TrafficReplay.Captured> traffic = new ArrayList<>(TrafficReplay.load(List.of(directory)));
+        traffic.add(new TrafficReplay.Captured(traffic.get(0).at(), "{\"ingredients\": [".getBytes()));
+
+        TrafficReplay.Report report = new TrafficReplay(2000, 1, 4).run(traffic, TrafficReplay.inProcess(new DessertSolver()));
+
+        assertEquals(41, report.requests());
+        assertEquals(40L, report.outcomes().get("200"));
+        assertEquals(1, report.errors());
+        assertTrue(report.throughput() > 0);
+        TrafficReplay.Latency latency = report.latencyMs();
+        assertTrue(latency.p50() <= latency.p95() && latency.p95() <= latency.p99()
+                && latency.p99() <= latency.p999() && latency.p999() <= latency.max(), latency.toString());
+        assertEquals("in-process", report.gc().source());
+    }
+
+    private RequestCapture capture(boolean enabled, DataSize maxFileSize, int maxFiles) {
+        return new RequestCapture(mapper, enabled, directory.toString(), maxFileSize, maxFiles, 1.0);
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.sorted().toList();
+        }
+    }
+
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(ingredient("Chocolate", 2.0, 500.0), ingredient("Cream", 1.0, 300.0));
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 1.0;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        request.constraintsBlock.constraints.add(constraint("cream", ConstraintOp.LESS_THAN_OR_EQUAL, 0.3));
+        request.constraintsBlock.constraints.add(constraint("weight", ConstraintOp.GREATER_THAN_OR_EQUAL, 1.0));
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = TargetType.INGREDIENT;
+        request.goal.targetName = "Chocolate";
+        request.goal.direction = Direction.MAXIMIZE;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO ingredient = new IngredientDTO();
+        ingredient.name = name;
+        ingredient.price = price;
+        ingredient.calories = calories;
+        return ingredient;
+    }
+}
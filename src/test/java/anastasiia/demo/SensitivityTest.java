@@ -0,0 +1,245 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SensitivityDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.ConstraintType;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SolverEngineType;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolverMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Sensitivity Tests")
+class SensitivityTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given a cheapest mix when sensitivity is requested then duals, reduced costs and ranges answer the what-if questions")
+    void givenCheapestMix_whenSensitivityRequested_thenWhatIfAnswers() {
+        DessertRequestDTO request = mintRequest();
+        request.sensitivity = true;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals("OPTIMAL", result.status);
+        assertEquals(10.0, result.price, 1e-9);
+        SensitivityDTO.ConstraintSensitivity weight = row(result, "TotalWeight");
+        assertEquals(ConstraintType.LEVEL, weight.type);
+        assertEquals(1.0, weight.dualValue, 1e-9);
+        assertEquals(4.0, weight.rhsLower, 1e-9);
+        assertNull(weight.rhsUpper);
+        SensitivityDTO.ConstraintSensitivity sugar = row(result, "Custom_sugar_GREATER_THAN_OR_EQUAL");
+        assertEquals(ConstraintType.LOWER, sugar.type);
+        assertEquals(0.0, sugar.dualValue);
+        assertEquals(20.0, sugar.activity, 1e-9);
+        assertEquals(20.0, sugar.rhsUpper, 1e-9);
+
+        SensitivityDTO.IngredientSensitivity mint = ingredient(result, "Mint");
+        assertEquals(0.0, mint.quantity);
+        assertEquals(5.0, mint.reducedCost, 1e-9);
+        assertEquals(1.0, mint.coefficientLower, 1e-9);
+        assertNull(mint.coefficientUpper);
+
+        request.sensitivity = false;
+        request.ingredients.get(2).price = 0.99;
+        assertTrue(solver.solve(request).ingredientsQuantities.get("Mint") > 0);
+        request.ingredients.get(2).price = 1.01;
+        assertEquals(0.0, solver.solve(request).ingredientsQuantities.get("Mint"));
+    }
+
+    @Test
+    @DisplayName("Given a capped ingredient when sensitivity is requested then the cap is a row with its own dual value")
+    void givenCappedIngredient_whenSensitivityRequested_thenCapHasDual() {
+        DessertRequestDTO request = mintRequest();
+        request.ingredients.get(0).maxQuantity = 6.0;
+        request.sensitivity = true;
+
+        DessertResultDTO result = solver.solve(request);
+
+        assertEquals(14.0, result.price, 1e-9);
+        SensitivityDTO.ConstraintSensitivity cap = row(result, "MaxQuantity_Syrup");
+        assertEquals(ConstraintType.UPPER, cap.type);
+        assertEquals(-1.0, cap.dualValue, 1e-9);
+        assertEquals(2.0, row(result, "TotalWeight").dualValue, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given random problems when sensitivity is requested then the mix matches a plain solve and re-solves inside the ranges move the goal by the reported rates")
+    void givenRandomProblems_whenSensitivityRequested_thenRatesMatchResolves() {
+        Random random = new Random(11);
+        int checked = 0;
+        for (int round = 0; round < 200; round++) {
+            DessertRequestDTO request = randomRequest(random);
+            DessertResultDTO plain = solver.solve(request);
+            request.sensitivity = true;
+            DessertResultDTO result = solver.solve(request);
+            request.sensitivity = false;
+
+            String context = "round " + round;
+            assertEquals(plain.status.replace("DISTINCT", "OPTIMAL"), result.status.replace("DISTINCT", "OPTIMAL"), context);
+            if (!"OPTIMAL".equals(result.status)) {
+                assertNull(result.sensitivity, context);
+                continue;
+            }
+            double goal = goal(request, result);
+            assertEquals(goal(request, plain), goal, 1e-6, context);
+
+            for (SensitivityDTO.ConstraintSensitivity row : result.sensitivity.constraints) {
+                BiConsumer<DessertRequestDTO, Double> shift = switch (row.name) {
+                    case "MaxPrice" -> (r, d) -> r.constraintsBlock.maxPrice += d;
+                    case "MaxCalories" -> (r, d) -> r.constraintsBlock.maxCalories += d;
+                    case "TotalWeight" -> (r, d) -> r.constraintsBlock.totalWeight += d;
+                    default -> null;
+                };
+                double delta = step(row.rhs, row.rhsLower, row.rhsUpper);
+                if (shift == null || delta == 0) continue;
+                shift.accept(request, delta);
+                double shifted = goal(request, solver.solve(request));
+                shift.accept(request, -delta);
+                assertEquals(row.dualValue, (shifted - goal) / delta, 1e-6, context + ", " + row.name);
+                checked++;
+            }
+
+            boolean priceGoal = request.goal.targetType == TargetType.PRICE && request.constraintsBlock.maxPrice == 0;
+            if (!priceGoal) continue;
+            for (int j = 0; j < request.ingredients.size(); j++) {
+                SensitivityDTO.IngredientSensitivity column = result.sensitivity.ingredients.get(j);
+                double delta = step(column.coefficient, column.coefficientLower, column.coefficientUpper);
+                if (delta == 0) continue;
+                request.ingredients.get(j).price += delta;
+                double shifted = goal(request, solver.solve(request));
+                request.ingredients.get(j).price -= delta;
+                assertEquals(column.quantity * delta, shifted - goal, 1e-6, context + ", " + column.name);
+                checked++;
+            }
+        }
+        assertTrue(checked > 100, "only " + checked + " rates checked");
+    }
+
+    @Test
+    @DisplayName("Given a discrete ingredient or no sensitivity flag when solved then no sensitivity is attached")
+    void givenDiscreteOrDefault_whenSolved_thenNoSensitivity() {
+        DessertRequestDTO request = mintRequest();
+        assertNull(solver.solve(request).sensitivity);
+
+        request.sensitivity = true;
+        request.ingredients.get(1).integer = true;
+        DessertResultDTO result = solver.solve(request);
+        assertEquals("OPTIMAL", result.status);
+        assertNull(result.sensitivity);
+    }
+
+    @Test
+    @DisplayName("Given a program larger than the sensitivity limit when sensitivity is requested then the request is rejected")
+    void givenProgramOverLimit_whenSensitivityRequested_thenRejected() {
+        DessertSolver limited = new DessertSolver(AssemblyMode.EXPRESSIONS, true, null, SolverMetrics.disabled(),
+                SolverEngineType.AUTO, DessertSolver.DEFAULT_DENSE_MAX_CELLS, 4);
+        DessertRequestDTO request = mintRequest();
+        assertEquals("OPTIMAL", limited.solve(request).status);
+
+        request.sensitivity = true;
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> limited.solve(request));
+        assertTrue(e.getMessage().contains("Sensitivity is limited to 4"), e.getMessage());
+    }
+
+    // Step half way to the nearer end of the range, at most 0.01, upwards when possible; 0 when the range is a point.
+    private static double step(double value, Double lower, Double upper) {
+        if (upper == null || upper - value > 1e-7) return upper == null ? 0.01 : Math.min(0.01, (upper - value) / 2);
+        if (lower == null || value - lower > 1e-7) return lower == null ? -0.01 : -Math.min(0.01, (value - lower) / 2);
+        return 0;
+    }
+
+    private static double goal(DessertRequestDTO request, DessertResultDTO result) {
+        return switch (request.goal.targetType) {
+            case PRICE -> result.price;
+            case CALORIES -> result.totalCalories;
+            case ATTRIBUTE -> result.totals.getOrDefault("sugar", 0.0);
+            default -> result.ingredientsQuantities.get(request.goal.targetName);
+        };
+    }
+
+    private static SensitivityDTO.ConstraintSensitivity row(DessertResultDTO result, String name) {
+        return result.sensitivity.constraints.stream().filter(row -> row.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    private static SensitivityDTO.IngredientSensitivity ingredient(DessertResultDTO result, String name) {
+        return result.sensitivity.ingredients.stream().filter(column -> column.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    // Ten units at least 8 sugar, cheapest first: all syrup, which leaves plenty of sugar.
+    private static DessertRequestDTO mintRequest() {
+        DessertRequestDTO request = request(List.of(ingredient("Syrup", 1, 100, 2), ingredient("Cream", 2, 300, 0.5),
+                ingredient("Mint", 6, 10, 1)), 10, TargetType.PRICE, Direction.MINIMIZE);
+        request.constraintsBlock.constraints.add(constraint("sugar", ConstraintOp.GREATER_THAN_OR_EQUAL, 8));
+        return request;
+    }
+
+    private static DessertRequestDTO randomRequest(Random random) {
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        int count = 2 + random.nextInt(7);
+        for (int i = 0; i < count; i++) {
+            ingredients.add(ingredient("I" + i, 0.5 + random.nextInt(20) * 0.5, 50 + random.nextInt(12) * 50, random.nextInt(5) * 2.5));
+        }
+        TargetType[] goals = {TargetType.PRICE, TargetType.CALORIES, TargetType.ATTRIBUTE, TargetType.INGREDIENT};
+        DessertRequestDTO request = request(ingredients, 1 + random.nextInt(5), goals[random.nextInt(goals.length)],
+                random.nextBoolean() ? Direction.MINIMIZE : Direction.MAXIMIZE);
+        if (random.nextInt(3) == 0) request.constraintsBlock.maxPrice = 2 + random.nextInt(30);
+        if (random.nextInt(3) == 0) request.constraintsBlock.maxCalories = 100 + random.nextInt(2000);
+        ConstraintOp[] ops = {ConstraintOp.LESS_THAN_OR_EQUAL, ConstraintOp.GREATER_THAN_OR_EQUAL, ConstraintOp.EQUALS};
+        int constraints = random.nextInt(3);
+        for (int k = 0; k < constraints; k++) {
+            String left = random.nextBoolean() ? "sugar" : "I" + random.nextInt(count);
+            request.constraintsBlock.constraints.add(constraint(left, ops[random.nextInt(ops.length)], random.nextInt(8) * 0.5));
+        }
+        if (random.nextInt(4) == 0) {
+            request.ingredients.get(random.nextInt(count)).maxQuantity = 0.5 + random.nextInt(4);
+        }
+        return request;
+    }
+
+    private static DessertRequestDTO request(List<IngredientDTO> ingredients, double totalWeight, TargetType target, Direction direction) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>(ingredients);
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = totalWeight;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = target;
+        request.goal.targetName = target == TargetType.ATTRIBUTE ? "sugar" : target == TargetType.INGREDIENT ? "I0" : null;
+        request.goal.direction = direction;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories, double sugar) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        i.attributes = new HashMap<>();
+        i.attributes.put("sugar", sugar);
+        return i;
+    }
+}
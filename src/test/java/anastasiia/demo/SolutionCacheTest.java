@@ -0,0 +1,324 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.CacheStatsDTO;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.RequestFingerprint;
+import anastasiia.demo.solver.SolutionCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SolutionCache Behaviour Tests")
+class SolutionCacheTest {
+
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given reordered and re-cased ingredients when fingerprinted then keys are equal")
+    void givenEquivalentRequests_whenFingerprinted_thenEqual() {
+        DessertRequestDTO first = request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0));
+        DessertRequestDTO second = request(ingredient("strawberry", 1.5, 100.0), ingredient("CHOCOLATE", 2.0, 500.0));
+
+        assertEquals(RequestFingerprint.of(first), RequestFingerprint.of(second));
+        assertNotEquals(RequestFingerprint.of(first), RequestFingerprint.of(request(ingredient("Chocolate", 2.5, 500.0))));
+    }
+
+    @Test
+    @DisplayName("Given equivalent request when cached then solver runs once and caller spelling is kept")
+    void givenEquivalentRequest_whenCached_thenSolvedOnce() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        AtomicInteger solves = new AtomicInteger();
+        Function<DessertRequestDTO, DessertResultDTO> counting = r -> {
+            solves.incrementAndGet();
+            return solver.solve(r);
+        };
+
+        DessertResultDTO first = cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0)), counting);
+        DessertResultDTO second = cache.getOrSolve(request(ingredient("strawberry", 1.5, 100.0), ingredient("Chocolate", 2.0, 500.0)), counting);
+
+        assertEquals(1, solves.get());
+        assertEquals(first.price, second.price, 0.0001);
+        assertEquals(List.of("strawberry", "Chocolate"), List.copyOf(second.ingredientsQuantities.keySet()));
+        assertEquals(3.0, second.ingredientsQuantities.get("strawberry"), 0.0001);
+
+        CacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    @DisplayName("Given two ingredient names that differ only in case when solved through the cache then rejected and nothing cached")
+    void givenCaseCollidingNames_whenSolved_thenRejected() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO colliding = request(ingredient("Chocolate", 2.0, 500.0), ingredient("CHOCOLATE", 1.0, 100.0));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> cache.getOrSolve(colliding, solver::solve));
+
+        assertTrue(e.getMessage().contains("CHOCOLATE"), e.getMessage());
+        assertEquals(0, cache.stats().size);
+    }
+
+    @Test
+    @DisplayName("Given a cached sensitivity result when a caller changes its copy then later hits are unaffected")
+    void givenCachedSensitivity_whenCallerMutates_thenHitsUnaffected() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO request = request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0));
+        request.sensitivity = true;
+
+        DessertResultDTO first = cache.getOrSolve(request, solver::solve);
+        double dual = first.sensitivity.constraints.get(0).dualValue;
+        first.sensitivity.constraints.get(0).dualValue = 42;
+        DessertResultDTO second = cache.getOrSolve(request, solver::solve);
+        second.sensitivity.constraints.clear();
+        DessertResultDTO third = cache.getOrSolve(request, solver::solve);
+
+        assertEquals(2, cache.stats().hits);
+        assertEquals(dual, third.sensitivity.constraints.get(0).dualValue, 0.0);
+        assertNotSame(second.sensitivity, third.sensitivity);
+    }
+
+    @Test
+    @DisplayName("Given a cached debug result when the request repeats then the hit reports no presolve or solve time")
+    void givenCachedDebugResult_whenHit_thenTimingsZero() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO request = request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0));
+        request.debug = true;
+
+        DessertResultDTO first = cache.getOrSolve(request, solver::solve);
+        DessertResultDTO second = cache.getOrSolve(request, solver::solve);
+
+        assertNotNull(first.presolve);
+        assertTrue(first.presolve.presolveMillis + first.presolve.solveMillis > 0);
+        assertEquals(1, cache.stats().hits);
+        assertEquals(first.presolve.rows, second.presolve.rows);
+        assertEquals(0.0, second.presolve.presolveMillis, 0.0);
+        assertEquals(0.0, second.presolve.solveMillis, 0.0);
+    }
+
+    @Test
+    @DisplayName("Given cached alternatives when a re-cased request hits then the alternatives use the caller's spelling")
+    void givenCachedAlternatives_whenRecasedHit_thenCallerSpelling() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO first = request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0));
+        DessertRequestDTO second = request(ingredient("strawberry", 1.5, 100.0), ingredient("CHOCOLATE", 2.0, 500.0));
+        for (DessertRequestDTO request : List.of(first, second)) {
+            request.alternatives = new DessertRequestDTO.AlternativesOptions();
+            request.alternatives.count = 1;
+            request.alternatives.tolerance = 1.0;
+        }
+
+        DessertResultDTO solved = cache.getOrSolve(first, solver::solve);
+        DessertResultDTO replayed = cache.getOrSolve(second, solver::solve);
+
+        assertEquals(1, cache.stats().hits);
+        assertFalse(solved.alternatives.isEmpty());
+        assertEquals(solved.alternatives.size(), replayed.alternatives.size());
+        assertEquals(List.of("strawberry", "CHOCOLATE"), List.copyOf(replayed.alternatives.get(0).ingredientsQuantities.keySet()));
+        assertEquals(solved.alternatives.get(0).ingredientsQuantities.get("Chocolate"),
+                replayed.alternatives.get(0).ingredientsQuantities.get("CHOCOLATE"));
+    }
+
+    @Test
+    @DisplayName("Given a sensitivity request when a re-cased request arrives then it is solved again and named its own way")
+    void givenSensitivityRequest_whenRecased_thenNotReplayed() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO first = request(ingredient("Chocolate", 2.0, 500.0), ingredient("Strawberry", 1.5, 100.0));
+        DessertRequestDTO second = request(ingredient("strawberry", 1.5, 100.0), ingredient("CHOCOLATE", 2.0, 500.0));
+        first.sensitivity = true;
+        second.sensitivity = true;
+
+        cache.getOrSolve(first, solver::solve);
+        DessertResultDTO other = cache.getOrSolve(second, solver::solve);
+
+        assertEquals(0, cache.stats().hits);
+        assertEquals(2, cache.stats().misses);
+        assertEquals("strawberry", other.sensitivity.ingredients.get(0).name);
+        assertEquals("strawberry", cache.getOrSolve(second, solver::solve).sensitivity.ingredients.get(0).name);
+        assertEquals(1, cache.stats().hits);
+    }
+
+    @Test
+    @DisplayName("Given full cache when new request arrives then least recently used entry is evicted")
+    void givenFullCache_whenNewRequest_thenEvicts() {
+        SolutionCache cache = new SolutionCache(1, Duration.ofMinutes(1));
+
+        cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0)), solver::solve);
+        cache.getOrSolve(request(ingredient("Cream", 1.0, 300.0)), solver::solve);
+        cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0)), solver::solve);
+
+        CacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.size);
+        assertEquals(3, stats.misses);
+        assertEquals(2, stats.evictions);
+    }
+
+    @Test
+    @DisplayName("Given zero TTL when request repeats then entry has expired")
+    void givenZeroTtl_whenRepeated_thenExpired() {
+        SolutionCache cache = new SolutionCache(10, Duration.ZERO);
+
+        cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0)), solver::solve);
+        cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0)), solver::solve);
+
+        CacheStatsDTO stats = cache.stats();
+        assertEquals(0, stats.hits);
+        assertEquals(2, stats.misses);
+        assertTrue(stats.expirations >= 1);
+    }
+
+    @Test
+    @DisplayName("Given a timed out result when cached then the next request is solved again")
+    void givenTimedOutResult_whenCached_thenNotStored() {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        DessertRequestDTO request = request(ingredient("Chocolate", 2.0, 500.0));
+
+        cache.getOrSolve(request, DessertSolver::timedOut);
+        DessertResultDTO second = cache.getOrSolve(request, solver::solve);
+
+        assertNotEquals(DessertSolver.TIMEOUT, second.status);
+        assertEquals(2, cache.stats().misses);
+    }
+
+    @Test
+    @DisplayName("Given identical requests arriving while one is solved when coalesced then the solver runs once for all")
+    void givenIdenticalConcurrentRequests_whenCoalesced_thenSolvedOnce() throws Exception {
+        SolutionCache cache = new SolutionCache(0, Duration.ZERO, true);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger solves = new AtomicInteger();
+        Function<DessertRequestDTO, DessertResultDTO> slow = r -> {
+            solves.incrementAndGet();
+            await(release);
+            return solver.solve(r);
+        };
+        ExecutorService clients = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<DessertResultDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(clients.submit(() -> cache.getOrSolve(request(ingredient("Chocolate", 2.0, 500.0)), slow)));
+            }
+            waitFor(() -> cache.stats().coalesced == 5);
+            release.countDown();
+
+            for (Future<DessertResultDTO> result : results) {
+                assertEquals(3.0, result.get(5, TimeUnit.SECONDS).ingredientsQuantities.get("Chocolate"), 0.0001);
+            }
+            assertEquals(1, solves.get());
+            assertEquals(0, cache.stats().inFlight);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Given a cancelled or failing leader when requests wait on it then one takes over or all see the failure")
+    void givenCancelledOrFailingLeader_whenWaiting_thenTakeOverOrFail() throws Exception {
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+        ExecutorService clients = Executors.newFixedThreadPool(3);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger solves = new AtomicInteger();
+            Function<DessertRequestDTO, DessertResultDTO> cancelledFirst = r -> {
+                if (solves.incrementAndGet() == 1) {
+                    await(release);
+                    throw new CancellationException("client went away");
+                }
+                return solver.solve(r);
+            };
+            Future<DessertResultDTO> leader = clients.submit(() -> cache.getOrSolve(request(ingredient("Cream", 1.0, 300.0)), cancelledFirst));
+            waitFor(() -> cache.stats().inFlight == 1);
+            DessertRequestDTO firstRequest = request(ingredient("Cream", 1.0, 300.0));
+            DessertRequestDTO secondRequest = request(ingredient("Cream", 1.0, 300.0));
+            firstRequest.timeLimitMs = 60_000;
+            secondRequest.timeLimitMs = 60_000;
+            Future<DessertResultDTO> first = clients.submit(() -> cache.getOrSolve(firstRequest, cancelledFirst));
+            Future<DessertResultDTO> second = clients.submit(() -> cache.getOrSolve(secondRequest, cancelledFirst));
+            waitFor(() -> cache.stats().coalesced == 2);
+            release.countDown();
+
+            assertInstanceOf(CancellationException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertEquals("OPTIMAL", first.get(5, TimeUnit.SECONDS).status);
+            assertEquals("OPTIMAL", second.get(5, TimeUnit.SECONDS).status);
+            assertEquals(2, solves.get());
+            // The waiter that took over solved on its remaining budget without writing it back, and neither
+            // waiter counted twice.
+            assertEquals(60_000, firstRequest.timeLimitMs);
+            assertEquals(60_000, secondRequest.timeLimitMs);
+            assertEquals(2, cache.stats().coalesced);
+
+            CountDownLatch failing = new CountDownLatch(1);
+            Function<DessertRequestDTO, DessertResultDTO> invalid = r -> {
+                await(failing);
+                throw new IllegalArgumentException("Unknown attribute");
+            };
+            long coalesced = cache.stats().coalesced;
+            Future<DessertResultDTO> failedLeader = clients.submit(() -> cache.getOrSolve(request(ingredient("Mint", 3.0, 40.0)), invalid));
+            waitFor(() -> cache.stats().inFlight == 1);
+            Future<DessertResultDTO> waiter = clients.submit(() -> cache.getOrSolve(request(ingredient("Mint", 3.0, 40.0)), invalid));
+            waitFor(() -> cache.stats().coalesced == coalesced + 1);
+            failing.countDown();
+
+            assertInstanceOf(IllegalArgumentException.class, assertThrows(ExecutionException.class, failedLeader::get).getCause());
+            assertInstanceOf(IllegalArgumentException.class, assertThrows(ExecutionException.class, waiter::get).getCause());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 1000 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+
+    private static DessertRequestDTO request(IngredientDTO... ingredients) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(ingredients);
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 10.0;
+        block.maxCalories = 1500.0;
+        block.totalWeight = 3.0;
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.PRICE;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+}
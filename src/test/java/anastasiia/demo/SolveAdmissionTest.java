@@ -0,0 +1,137 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SweepRequestDTO;
+import anastasiia.demo.dto.SweepResultDTO;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolveAdmission;
+import anastasiia.demo.solver.SolverOverloadedException;
+import anastasiia.demo.solver.SweepSolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SolveAdmission Capacity Tests")
+class SolveAdmissionTest {
+
+    private final SolveAdmission admission = new SolveAdmission(1, 1, Duration.ofSeconds(2));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseBlockedSolve() {
+        release.countDown();
+        admission.shutdown();
+    }
+
+    @Test
+    @DisplayName("Given a busy solver and a full queue when another solve or sweep arrives then it is rejected with a retry hint")
+    void givenFullQueue_whenSubmitted_thenRejected() {
+        admission.submit(request(0), blocking());
+        admission.submit(request(0), blocking());
+
+        SolverOverloadedException e = assertThrows(SolverOverloadedException.class, () -> admission.submit(request(0), blocking()));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertThrows(SolverOverloadedException.class, () -> admission.run(() -> "sweep"));
+    }
+
+    @Test
+    @DisplayName("Given a budget spent in the queue when the solve starts then it times out without solving")
+    void givenBudgetSpentQueueing_whenStarted_thenTimesOut() throws Exception {
+        admission.submit(request(0), blocking());
+        AtomicInteger solves = new AtomicInteger();
+        CompletableFuture<DessertResultDTO> queued = admission.submit(request(20), r -> {
+            solves.incrementAndGet();
+            return new DessertSolver().solve(r);
+        });
+
+        Thread.sleep(50);
+        release.countDown();
+        DessertResultDTO result = queued.get(5, TimeUnit.SECONDS);
+
+        assertEquals(DessertSolver.TIMEOUT, result.status);
+        assertEquals(0, solves.get());
+        assertEquals(0.0, result.ingredientsQuantities.get("Chocolate"));
+    }
+
+    @Test
+    @DisplayName("Given a budget passed alongside the request when solved then the solve sees it and the request is untouched")
+    void givenSeparateBudget_whenSolved_thenRequestNotModified() throws Exception {
+        DessertRequestDTO request = request(0);
+        AtomicLong seen = new AtomicLong();
+
+        admission.submit(request, 60_000, r -> {
+            seen.set(r.timeLimitMs);
+            return new DessertSolver().solve(r);
+        }).get(5, TimeUnit.SECONDS);
+
+        assertTrue(seen.get() > 0 && seen.get() <= 60_000, "solve saw " + seen.get());
+        assertEquals(0, request.timeLimitMs);
+    }
+
+    @Test
+    @DisplayName("Given the only thread busy when a sweep is admitted then it finds no idle slot and still answers every point")
+    void givenBusyThread_whenSweepAdmitted_thenNoIdleSlotAndAllPoints() throws Exception {
+        SolveAdmission pair = new SolveAdmission(2, 1, Duration.ofSeconds(2));
+        try {
+            assertEquals(2, pair.idle());
+            pair.submit(request(0), blocking());
+            SweepSolver sweeps = new SweepSolver(new DessertSolver(), 4, 100, pair);
+            SweepRequestDTO sweep = new SweepRequestDTO();
+            sweep.base = request(0);
+            sweep.parameter = "totalWeight";
+            sweep.from = 1;
+            sweep.to = 4;
+            sweep.step = 1;
+
+            AtomicInteger idle = new AtomicInteger(-1);
+            SweepResultDTO result = pair.run(() -> {
+                idle.set(pair.idle());
+                return sweeps.sweep(sweep);
+            }).get(5, TimeUnit.SECONDS);
+
+            assertEquals(0, idle.get());
+            assertEquals(4, result.points.size());
+            assertTrue(result.points.stream().allMatch(point -> "OPTIMAL".equals(point.result.status)));
+        } finally {
+            release.countDown();
+            pair.shutdown();
+        }
+    }
+
+    private Function<DessertRequestDTO, DessertResultDTO> blocking() {
+        return r -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return DessertSolver.timedOut(r);
+        };
+    }
+
+    private static DessertRequestDTO request(long timeLimitMs) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        IngredientDTO chocolate = new IngredientDTO();
+        chocolate.name = "Chocolate";
+        chocolate.price = 2.0;
+        chocolate.calories = 500.0;
+        request.ingredients = List.of(chocolate);
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 1.0;
+        request.timeLimitMs = timeLimitMs;
+        return request;
+    }
+}
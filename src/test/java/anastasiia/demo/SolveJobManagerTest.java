@@ -0,0 +1,163 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.JobDTO;
+import anastasiia.demo.enums.JobPriority;
+import anastasiia.demo.enums.JobState;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolveJobManager;
+import anastasiia.demo.solver.SolverOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SolveJobManager Tests")
+class SolveJobManagerTest {
+
+    private final SolveJobManager jobs = new SolveJobManager(1, 2, 10, Duration.ofMinutes(5), Duration.ofSeconds(30));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseBlockedJob() {
+        release.countDown();
+        jobs.shutdown();
+    }
+
+    @Test
+    @DisplayName("Given a submitted request when polled then the job finishes with the solver's result")
+    void givenSubmittedRequest_whenPolled_thenDoneWithResult() throws Exception {
+        JobDTO submitted = jobs.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve);
+
+        JobDTO done = await(submitted.id);
+
+        assertEquals(JobState.DONE, done.state);
+        assertEquals("OPTIMAL", done.result.status);
+        assertEquals(1.0, done.result.ingredientsQuantities.get("Chocolate"), 1e-6);
+        assertEquals(1.0, done.progress);
+        assertNotNull(done.finishedAt);
+    }
+
+    @Test
+    @DisplayName("Given a busy worker when jobs of different priority wait then the higher priority runs first")
+    void givenBusyWorker_whenJobsQueued_thenHigherPriorityRunsFirst() throws Exception {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        JobDTO blocker = jobs.submit(request(), JobPriority.NORMAL, blocking());
+        JobDTO low = jobs.submit(request(), JobPriority.LOW, recording(ran, "low"));
+        JobDTO high = jobs.submit(request(), JobPriority.HIGH, recording(ran, "high"));
+
+        assertEquals(JobState.QUEUED, jobs.get(low.id).state);
+        assertEquals(1, jobs.get(low.id).queuePosition);
+        assertEquals(0, jobs.get(high.id).queuePosition);
+        assertThrows(SolverOverloadedException.class, () -> jobs.submit(request(), JobPriority.HIGH, blocking()));
+
+        release.countDown();
+        await(blocker.id);
+        await(low.id);
+
+        assertEquals(List.of("high", "low"), ran);
+    }
+
+    @Test
+    @DisplayName("Given queued, failing and crashing jobs when cancelled or run then their state says so and no result is kept")
+    void givenCancelledAndFailingJobs_whenFinished_thenStateRecorded() throws Exception {
+        JobDTO blocker = jobs.submit(request(), JobPriority.NORMAL, blocking());
+        JobDTO queued = jobs.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve);
+        JobDTO failing = jobs.submit(request(), JobPriority.NORMAL, r -> {
+            throw new IllegalStateException("boom");
+        });
+
+        jobs.cancel(queued.id);
+        release.countDown();
+        await(blocker.id);
+        JobDTO failed = await(failing.id);
+
+        assertEquals(JobState.CANCELLED, jobs.get(queued.id).state);
+        assertNull(jobs.get(queued.id).result);
+        assertEquals(JobState.FAILED, failed.state);
+        assertEquals("IllegalStateException: boom", failed.error);
+
+        JobDTO overflowing = jobs.submit(request(), JobPriority.NORMAL, r -> {
+            throw new StackOverflowError("deep");
+        });
+        JobDTO crashed = await(overflowing.id);
+        assertEquals(JobState.FAILED, crashed.state);
+        assertEquals("StackOverflowError: deep", crashed.error);
+        assertEquals(JobState.DONE, await(jobs.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve).id).state);
+    }
+
+    @Test
+    @DisplayName("Given more finished jobs than the store keeps when polled then the oldest one is gone")
+    void givenMoreFinishedJobsThanRetained_whenPolled_thenOldestEvicted() throws Exception {
+        SolveJobManager small = new SolveJobManager(1, 2, 2, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        JobDTO first = small.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve);
+        await(small, first.id);
+        await(small, small.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve).id);
+        JobDTO third = small.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve);
+        await(small, third.id);
+
+        assertThrows(NoSuchElementException.class, () -> small.get(first.id));
+        assertEquals(JobState.DONE, small.get(third.id).state);
+        small.shutdown();
+
+        SolveJobManager expiring = new SolveJobManager(1, 2, 10, Duration.ofMillis(20), Duration.ofSeconds(30));
+        JobDTO expired = expiring.submit(request(), JobPriority.NORMAL, new DessertSolver()::solve);
+        await(expiring, expired.id);
+        Thread.sleep(50);
+        assertThrows(NoSuchElementException.class, () -> expiring.get(expired.id));
+        expiring.shutdown();
+    }
+
+    private JobDTO await(String id) throws InterruptedException {
+        return await(jobs, id);
+    }
+
+    private static JobDTO await(SolveJobManager manager, String id) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            JobDTO job = manager.get(id);
+            if (job.state != JobState.QUEUED && job.state != JobState.RUNNING) return job;
+            Thread.sleep(5);
+        }
+        return fail("Job " + id + " did not finish");
+    }
+
+    private Function<DessertRequestDTO, DessertResultDTO> blocking() {
+        return r -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return DessertSolver.timedOut(r);
+        };
+    }
+
+    private static Function<DessertRequestDTO, DessertResultDTO> recording(List<String> ran, String name) {
+        return r -> {
+            ran.add(name);
+            return new DessertSolver().solve(r);
+        };
+    }
+
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        IngredientDTO chocolate = new IngredientDTO();
+        chocolate.name = "Chocolate";
+        chocolate.price = 2.0;
+        chocolate.calories = 500.0;
+        request.ingredients = List.of(chocolate);
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 1.0;
+        return request;
+    }
+}
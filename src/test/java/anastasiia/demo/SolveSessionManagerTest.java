@@ -0,0 +1,171 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SessionDTO;
+import anastasiia.demo.dto.SessionDeltaDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SessionDeltaOp;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolveSessionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SolveSessionManager Incremental Tests")
+class SolveSessionManagerTest {
+
+    private final DessertSolver solver = new DessertSolver();
+    private final SolveSessionManager sessions = new SolveSessionManager(solver, 100, Duration.ofMinutes(5), DataSize.ofMegabytes(16));
+
+    @Test
+    @DisplayName("Given bound changes when the optimum still holds then it is reused, otherwise re-solved")
+    void givenBoundChanges_whenApplied_thenReusedOnlyWhileOptimal() {
+        SessionDTO session = sessions.create(request());
+        assertEquals(3.0, session.result.price, 0.0001);
+
+        SessionDTO loosened = sessions.apply(session.id, List.of(set("maxPrice", 20)));
+        assertTrue(loosened.reusedPreviousSolution);
+
+        SessionDTO tightened = sessions.apply(session.id, List.of(set("maxCalories", 1000)));
+        assertTrue(tightened.reusedPreviousSolution);
+
+        SessionDTO violated = sessions.apply(session.id, List.of(set("maxCalories", 600)));
+        assertFalse(violated.reusedPreviousSolution);
+        assertEquals(3, violated.revision);
+
+        DessertRequestDTO fresh = request();
+        fresh.constraintsBlock.maxPrice = 20;
+        fresh.constraintsBlock.maxCalories = 600;
+        DessertResultDTO expected = solver.solve(fresh);
+        assertEquals(expected.price, violated.result.price, 0.0001);
+        assertEquals(3.75, violated.result.price, 0.0001);
+    }
+
+    @Test
+    @DisplayName("Given a request asking for reports when a session is created and edited then every result is the recipe alone")
+    void givenReportFlags_whenSessionSolved_thenNoReports() {
+        DessertRequestDTO request = request();
+        request.debug = true;
+        request.sensitivity = true;
+        request.diagnose = true;
+        request.alternatives = new DessertRequestDTO.AlternativesOptions();
+        request.alternatives.count = 2;
+        request.alternatives.tolerance = 1.0;
+
+        SessionDTO session = sessions.create(request);
+        SessionDTO resolved = sessions.apply(session.id, List.of(set("maxCalories", 600)));
+
+        for (DessertResultDTO result : List.of(session.result, resolved.result)) {
+            assertNull(result.presolve);
+            assertNull(result.sensitivity);
+            assertNull(result.conflict);
+            assertNull(result.alternatives);
+        }
+        assertFalse(resolved.reusedPreviousSolution);
+        assertTrue(request.sensitivity, "the caller's request is left as it was");
+    }
+
+    @Test
+    @DisplayName("Given an unused ingredient when dropped then the previous optimum is kept without it")
+    void givenUnusedIngredient_whenDropped_thenOptimumKept() {
+        SessionDTO session = sessions.create(request());
+
+        SessionDeltaDTO drop = new SessionDeltaDTO();
+        drop.op = SessionDeltaOp.DROP_INGREDIENT;
+        drop.ingredient = "chocolate";
+        SessionDTO dropped = sessions.apply(session.id, List.of(drop));
+
+        assertTrue(dropped.reusedPreviousSolution);
+        assertEquals(List.of("Cream", "Strawberry"), List.copyOf(dropped.result.ingredientsQuantities.keySet()));
+        assertEquals(3.0, dropped.result.price, 0.0001);
+    }
+
+    @Test
+    @DisplayName("Given a sparse request when solved and when reused then zero quantities are left out of both results")
+    void givenSparseRequest_whenSolvedAndReused_thenZeroQuantitiesOmitted() {
+        DessertRequestDTO request = request();
+        request.sparse = true;
+        SessionDTO session = sessions.create(request);
+        assertEquals(List.of("Cream"), List.copyOf(session.result.ingredientsQuantities.keySet()));
+
+        SessionDTO loosened = sessions.apply(session.id, List.of(set("maxPrice", 20)));
+
+        assertTrue(loosened.reusedPreviousSolution);
+        assertEquals(List.of("Cream"), List.copyOf(loosened.result.ingredientsQuantities.keySet()));
+    }
+
+    @Test
+    @DisplayName("Given an invalid delta in a batch when applied then nothing changes")
+    void givenInvalidDelta_whenApplied_thenSessionUnchanged() {
+        SessionDTO session = sessions.create(request());
+
+        SessionDeltaDTO remove = new SessionDeltaDTO();
+        remove.op = SessionDeltaOp.REMOVE_CONSTRAINT;
+        remove.index = 5;
+        assertThrows(IllegalArgumentException.class, () -> sessions.apply(session.id, List.of(set("maxCalories", 600), remove)));
+
+        SessionDTO current = sessions.get(session.id);
+        assertEquals(0, current.revision);
+        assertEquals(3.0, current.result.price, 0.0001);
+    }
+
+    @Test
+    @DisplayName("Given more sessions than the limit when created then the least recently used is evicted")
+    void givenSessionLimit_whenExceeded_thenLeastRecentlyUsedEvicted() {
+        SolveSessionManager small = new SolveSessionManager(solver, 2, Duration.ofMinutes(5), DataSize.ofMegabytes(16));
+        SessionDTO first = small.create(request());
+        SessionDTO second = small.create(request());
+        small.get(first.id);
+        small.create(request());
+
+        assertEquals(2, small.size());
+        assertNotNull(small.get(first.id));
+        assertThrows(NoSuchElementException.class, () -> small.get(second.id));
+    }
+
+    private static SessionDeltaDTO set(String field, double value) {
+        SessionDeltaDTO delta = new SessionDeltaDTO();
+        delta.op = SessionDeltaOp.SET;
+        delta.field = field;
+        delta.value = value;
+        return delta;
+    }
+
+    private static DessertRequestDTO request() {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(
+                ingredient("Chocolate", 2.0, 500.0),
+                ingredient("Cream", 1.0, 300.0),
+                ingredient("Strawberry", 1.5, 100.0)
+        );
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 10.0;
+        block.maxCalories = 1500.0;
+        block.totalWeight = 3.0;
+        block.constraints = new ArrayList<>();
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.PRICE;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
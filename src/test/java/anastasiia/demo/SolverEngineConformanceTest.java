@@ -0,0 +1,188 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SolverEngineType;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolverMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+@DisplayName("Solver Engine Conformance Tests")
+class SolverEngineConformanceTest {
+
+    // The expression-based ojAlgo model is the reference every engine has to agree with.
+    private static final DessertSolver REFERENCE = solver(AssemblyMode.EXPRESSIONS, SolverEngineType.OJALGO);
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    @DisplayName("Given random small problems when solved by an engine then status, objective and totals match the reference")
+    void givenRandomProblems_whenSolvedByEngine_thenMatchesReference(String name, DessertSolver engine) {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            DessertRequestDTO request = randomRequest(random);
+
+            DessertResultDTO expected = REFERENCE.solve(request);
+            DessertResultDTO actual = engine.solve(request);
+
+            String context = name + ", round " + round;
+            assertEquals(normalized(expected.status), normalized(actual.status), context);
+            if (!isFeasible(expected)) continue;
+            double objective = objective(request, expected);
+            assertEquals(objective, objective(request, actual), 1e-6 * Math.max(1, Math.abs(objective)), context);
+            assertEquals(expected.totalWeight, actual.totalWeight, 1e-6, context);
+            assertTrue(satisfiesConstraints(request, actual), context + ": " + actual.ingredientsQuantities);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    @DisplayName("Given a strict bound that cannot hold when solved by an engine then it is infeasible")
+    void givenStrictImpossibleBound_whenSolvedByEngine_thenInfeasible(String name, DessertSolver engine) {
+        DessertRequestDTO request = request(List.of(ingredient("Chocolate", 2.0, 500.0, 0)), 1.0, TargetType.PRICE, Direction.MINIMIZE);
+        request.constraintsBlock.constraints.add(constraint("Chocolate", ConstraintOp.LESS_THAN, 0));
+
+        assertEquals("INFEASIBLE", engine.solve(request).status);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    @DisplayName("Given a maximised goal with no upper limit when solved by an engine then it is unbounded")
+    void givenNoUpperLimit_whenMaximisedByEngine_thenUnbounded(String name, DessertSolver engine) {
+        DessertRequestDTO request = request(List.of(ingredient("Chocolate", 2.0, 500.0, 0), ingredient("Cream", 1.0, 300.0, 0)),
+                0, TargetType.PRICE, Direction.MAXIMIZE);
+        request.constraintsBlock.constraints.add(constraint("Chocolate", ConstraintOp.GREATER_THAN_OR_EQUAL, 1));
+
+        assertEquals(REFERENCE.solve(request).status, engine.solve(request).status);
+    }
+
+    private static Stream<Arguments> engines() {
+        return Stream.of(
+                arguments("OJALGO arrays", solver(AssemblyMode.ARRAYS, SolverEngineType.OJALGO)),
+                arguments("DENSE_SIMPLEX", solver(AssemblyMode.EXPRESSIONS, SolverEngineType.DENSE_SIMPLEX)),
+                arguments("AUTO", solver(AssemblyMode.EXPRESSIONS, SolverEngineType.AUTO))
+        );
+    }
+
+    private static DessertSolver solver(AssemblyMode assembly, SolverEngineType engine) {
+        return new DessertSolver(assembly, true, null, SolverMetrics.disabled(), engine, DessertSolver.DEFAULT_DENSE_MAX_CELLS);
+    }
+
+    private static DessertRequestDTO randomRequest(Random random) {
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        int count = 2 + random.nextInt(7);
+        for (int i = 0; i < count; i++) {
+            ingredients.add(ingredient("I" + i, 0.5 + random.nextInt(20) * 0.5, 50 + random.nextInt(12) * 50, random.nextInt(5) * 2.5));
+        }
+        TargetType[] goals = {TargetType.PRICE, TargetType.CALORIES, TargetType.ATTRIBUTE, TargetType.INGREDIENT};
+        DessertRequestDTO request = request(ingredients, 1 + random.nextInt(5), goals[random.nextInt(goals.length)],
+                random.nextBoolean() ? Direction.MINIMIZE : Direction.MAXIMIZE);
+        if (random.nextInt(3) == 0) request.constraintsBlock.maxPrice = 2 + random.nextInt(30);
+        if (random.nextInt(3) == 0) request.constraintsBlock.maxCalories = 100 + random.nextInt(2000);
+
+        ConstraintOp[] ops = ConstraintOp.values();
+        int constraints = random.nextInt(4);
+        for (int k = 0; k < constraints; k++) {
+            String left = switch (random.nextInt(3)) {
+                case 0 -> "sugar";
+                case 1 -> "weight";
+                default -> "I" + random.nextInt(count);
+            };
+            DessertRequestDTO.ConstraintDTO constraint = constraint(left, ops[random.nextInt(ops.length)], random.nextInt(8) * 0.5);
+            constraint.allowDeviation = random.nextInt(4) == 0;
+            request.constraintsBlock.constraints.add(constraint);
+        }
+        if (random.nextInt(4) == 0) {
+            request.aestheticConstraint = new DessertRequestDTO.AestheticConstraint();
+            request.aestheticConstraint.ingredientName = "I0";
+            request.aestheticConstraint.ruleType = random.nextBoolean() ? "min" : "max";
+            request.aestheticConstraint.percent = 0.1 + random.nextInt(5) * 0.1;
+        }
+        return request;
+    }
+
+    private static double objective(DessertRequestDTO request, DessertResultDTO result) {
+        return switch (request.goal.targetType) {
+            case PRICE -> result.price;
+            case CALORIES -> result.totalCalories;
+            case ATTRIBUTE -> result.totals.getOrDefault("sugar", 0.0);
+            default -> result.ingredientsQuantities.get(request.goal.targetName);
+        };
+    }
+
+    /**
+     * Checks the custom rows and the weight; the objective match already covers price and calorie caps.
+     */
+    private static boolean satisfiesConstraints(DessertRequestDTO request, DessertResultDTO result) {
+        DessertRequestDTO.ConstraintsBlock block = request.constraintsBlock;
+        if (block.totalWeight > 0 && Math.abs(result.totalWeight - block.totalWeight) > 1e-6) return false;
+        for (DessertRequestDTO.ConstraintDTO constraint : block.constraints) {
+            double value = switch (constraint.left) {
+                case "sugar" -> result.totals.getOrDefault("sugar", 0.0);
+                case "weight" -> result.totalWeight;
+                default -> result.ingredientsQuantities.get(constraint.left);
+            };
+            double tolerance = constraint.allowDeviation ? constraint.right * 0.10 : 0;
+            double lower = constraint.op.lowerBound(constraint.right, tolerance);
+            double upper = constraint.op.upperBound(constraint.right, tolerance);
+            if (!Double.isNaN(lower) && value < lower - 1e-6) return false;
+            if (!Double.isNaN(upper) && value > upper + 1e-6) return false;
+        }
+        return result.ingredientsQuantities.values().stream().allMatch(qty -> qty >= -1e-9);
+    }
+
+    private static String normalized(String status) {
+        return "DISTINCT".equals(status) ? "OPTIMAL" : status;
+    }
+
+    private static boolean isFeasible(DessertResultDTO result) {
+        return "OPTIMAL".equals(normalized(result.status));
+    }
+
+    private static DessertRequestDTO request(List<IngredientDTO> ingredients, double totalWeight, TargetType target, Direction direction) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = ingredients;
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = totalWeight;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = target;
+        request.goal.targetName = target == TargetType.ATTRIBUTE ? "sugar" : target == TargetType.INGREDIENT ? "I0" : null;
+        request.goal.direction = direction;
+        return request;
+    }
+
+    private static DessertRequestDTO.ConstraintDTO constraint(String left, ConstraintOp op, double right) {
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = left;
+        constraint.op = op;
+        constraint.right = right;
+        return constraint;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories, double sugar) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        i.attributes = new HashMap<>();
+        i.attributes.put("sugar", sugar);
+        return i;
+    }
+}
@@ -0,0 +1,70 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.AssemblyMode;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolverMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SolverMetrics Instrumentation Tests")
+class SolverMetricsTest {
+
+    @ParameterizedTest
+    @EnumSource(AssemblyMode.class)
+    @DisplayName("Given a solve when instrumented then every phase, the model size and the status are recorded")
+    void givenSolve_whenInstrumented_thenPhasesAndStatusRecorded(AssemblyMode assembly) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DessertSolver solver = new DessertSolver(assembly, null, new SolverMetrics(registry, Duration.ofSeconds(1), 0));
+
+        solver.solve(request(3.0));
+        solver.solve(request(-1.0));
+
+        for (String phase : List.of("build", "solve", "result")) {
+            assertEquals(2, registry.get("dessert.solver.phase").tag("phase", phase).timer().count(), phase);
+        }
+        assertEquals(1, registry.get("dessert.solver.results").tag("status", "OPTIMAL").counter().count());
+        assertEquals(1, registry.get("dessert.solver.results").tag("status", "INFEASIBLE").counter().count());
+        assertTrue(registry.get("dessert.solver.model.variables").summary().max() >= 2);
+        assertEquals(0, registry.get("dessert.solver.active").gauge().value());
+    }
+
+    private static DessertRequestDTO request(double minChocolate) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(ingredient("Chocolate", 2.0, 500.0), ingredient("Cream", 1.0, 300.0));
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.totalWeight = 2.0;
+        block.constraints = new ArrayList<>();
+        DessertRequestDTO.ConstraintDTO constraint = new DessertRequestDTO.ConstraintDTO();
+        constraint.left = "Chocolate";
+        constraint.op = minChocolate < 0 ? ConstraintOp.LESS_THAN : ConstraintOp.GREATER_THAN_OR_EQUAL;
+        constraint.right = minChocolate < 0 ? 0 : 1.0;
+        block.constraints.add(constraint);
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = TargetType.PRICE;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
@@ -0,0 +1,70 @@
+package anastasiia.demo;
+
+import anastasiia.demo.config.NativeConfig;
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.JobDTO;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.QuantitiesSerializer;
+import anastasiia.demo.solver.SolverWarmup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Startup Tests")
+class SolverWarmupTest {
+
+    @Test
+    @DisplayName("Given the warmup samples when solved then each one is optimal and the debug one carries a presolve report")
+    void givenWarmupSamples_whenSolved_thenOptimal() {
+        List<DessertRequestDTO> samples = SolverWarmup.sampleRequests();
+
+        for (DessertRequestDTO sample : samples) {
+            DessertResultDTO result = new DessertSolver().solve(sample);
+            assertTrue("OPTIMAL".equals(result.status) || "DISTINCT".equals(result.status),
+                    sample.goal.targetType + ": " + result.status);
+            assertEquals(sample.debug, result.presolve != null);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a round limit when warming up then every round solves every sample")
+    void givenRoundLimit_whenWarmingUp_thenEveryRoundSolvesEverySample() throws Exception {
+        SolverWarmup warmup = new SolverWarmup(new DessertSolver(), new ObjectMapper(), null, true, 3, Duration.ofSeconds(30), false);
+
+        SolverWarmup.Result result = warmup.warmUp(3, Duration.ofSeconds(30));
+
+        assertEquals(3, result.rounds());
+        assertEquals(3 * SolverWarmup.sampleRequests().size(), result.solves());
+        assertTrue(result.totalMs() >= result.firstRoundMs());
+    }
+
+    @Test
+    @DisplayName("Given the native hints when registered then the DTOs, their nested types and serializers and ojAlgo's reflective classes are covered")
+    void givenNativeHints_whenRegistered_thenReflectiveTypesCovered() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeConfig.Hints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DessertRequestDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DessertRequestDTO.ConstraintsBlock.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TargetType.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(JobDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(QuantitiesSerializer.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(Class.forName("org.ojalgo.matrix.store.Primitive64Store"))
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(Class.forName("org.ojalgo.matrix.Primitive64Matrix"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+}
@@ -0,0 +1,151 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.DessertResultDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.enums.ConstraintOp;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SolutionCache;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Streaming Parse Tests")
+class StreamingParseTest {
+
+    private static final int SIZE = 600;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final DessertSolver solver = new DessertSolver();
+
+    @Test
+    @DisplayName("Given a large request when parsed then the ingredients are read-only columns and the result matches the bound request")
+    void givenLargeRequest_whenParsed_thenSameResultAsBoundRequest() throws Exception {
+        DessertRequestDTO bound = request();
+        DessertRequestDTO parsed = mapper.readValue(mapper.writeValueAsBytes(bound), DessertRequestDTO.class);
+
+        assertFalse(parsed.ingredients instanceof ArrayList);
+        assertEquals(SIZE, parsed.ingredients.size());
+        IngredientDTO last = parsed.ingredients.get(SIZE - 1);
+        assertEquals(bound.ingredients.get(SIZE - 1).price, last.price);
+        assertEquals(bound.ingredients.get(SIZE - 1).attributes.get("sugar"), last.attributes.get("sugar"));
+        assertEquals(2.0, parsed.ingredients.get(7).maxQuantity);
+        assertNull(parsed.ingredients.get(8).maxQuantity);
+        assertThrows(UnsupportedOperationException.class, () -> parsed.ingredients.remove(0));
+
+        DessertResultDTO expected = solver.solve(bound);
+        DessertResultDTO actual = solver.solve(parsed);
+
+        assertEquals("OPTIMAL", actual.status);
+        assertEquals(expected.price, actual.price, 1e-9);
+        assertEquals(expected.ingredientsQuantities, actual.ingredientsQuantities);
+        assertEquals(mapper.writeValueAsString(expected), mapper.writeValueAsString(actual));
+    }
+
+    @Test
+    @DisplayName("Given a sparse request when solved then zero quantities are left out, and a cached copy is full for a dense request")
+    void givenSparseRequest_whenSolved_thenZeroQuantitiesLeftOut() throws Exception {
+        DessertRequestDTO sparse = mapper.readValue(mapper.writeValueAsBytes(request()), DessertRequestDTO.class);
+        sparse.sparse = true;
+        DessertRequestDTO dense = mapper.readValue(mapper.writeValueAsBytes(request()), DessertRequestDTO.class);
+        SolutionCache cache = new SolutionCache(10, Duration.ofMinutes(1));
+
+        DessertResultDTO sparseResult = cache.getOrSolve(sparse, solver::solve);
+        DessertResultDTO denseResult = cache.getOrSolve(dense, solver::solve);
+
+        assertFalse(sparseResult.ingredientsQuantities.isEmpty());
+        assertTrue(sparseResult.ingredientsQuantities.size() < SIZE);
+        assertTrue(sparseResult.ingredientsQuantities.values().stream().allMatch(qty -> qty > 0));
+        assertEquals(SIZE, denseResult.ingredientsQuantities.size());
+        sparseResult.ingredientsQuantities.forEach((name, qty) -> assertEquals(qty, denseResult.ingredientsQuantities.get(name)));
+
+        Map<?, ?> written = (Map<?, ?>) mapper.readValue(mapper.writeValueAsBytes(sparseResult), Map.class).get("ingredientsQuantities");
+        assertEquals(sparseResult.ingredientsQuantities.keySet(), written.keySet());
+    }
+
+    @Test
+    @DisplayName("Given a request in CBOR when solved and answered in CBOR then the round trip matches JSON and is smaller")
+    void givenCborRequest_whenRoundTripped_thenMatchesJson() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        byte[] json = mapper.writeValueAsBytes(request());
+        byte[] binary = cbor.writeValueAsBytes(request());
+
+        DessertResultDTO fromJson = solver.solve(mapper.readValue(json, DessertRequestDTO.class));
+        DessertResultDTO fromCbor = solver.solve(cbor.readValue(binary, DessertRequestDTO.class));
+        DessertResultDTO answered = cbor.readValue(cbor.writeValueAsBytes(fromCbor), DessertResultDTO.class);
+
+        assertTrue(binary.length < json.length);
+        assertEquals(fromJson.ingredientsQuantities, answered.ingredientsQuantities);
+        assertEquals(fromJson.price, answered.price, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Given a large request with a duplicate name when parsed then it is rejected")
+    void givenDuplicateName_whenParsed_thenRejected() throws Exception {
+        DessertRequestDTO request = request();
+        request.ingredients.get(SIZE - 1).name = "i3";
+
+        JsonMappingException e = assertThrows(JsonMappingException.class,
+                () -> mapper.readValue(mapper.writeValueAsBytes(request), DessertRequestDTO.class));
+        assertTrue(e.getMessage().contains("Duplicate ingredient"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Given a duplicate or missing name just below and just past the streaming threshold when parsed then it is rejected alike")
+    void givenInvalidNameAroundThreshold_whenParsed_thenRejectedAlike() throws Exception {
+        for (int size : new int[]{255, 257}) {
+            DessertRequestDTO duplicate = request(size);
+            duplicate.ingredients.get(size - 1).name = "I3";
+            DessertRequestDTO unnamed = request(size);
+            unnamed.ingredients.get(size - 1).name = null;
+
+            JsonMappingException e = assertThrows(JsonMappingException.class,
+                    () -> mapper.readValue(mapper.writeValueAsBytes(duplicate), DessertRequestDTO.class));
+            assertTrue(e.getMessage().contains("Duplicate ingredient I3"), size + ": " + e.getMessage());
+            e = assertThrows(JsonMappingException.class,
+                    () -> mapper.readValue(mapper.writeValueAsBytes(unnamed), DessertRequestDTO.class));
+            assertTrue(e.getMessage().contains("has no name"), size + ": " + e.getMessage());
+        }
+    }
+
+    private static DessertRequestDTO request() {
+        return request(SIZE);
+    }
+
+    // Cheapest sugar-limited blend of many ingredients: only a few end up with a quantity.
+    private static DessertRequestDTO request(int size) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            IngredientDTO ingredient = new IngredientDTO();
+            ingredient.name = "I" + i;
+            ingredient.price = 1 + (i * 37) % 101 / 10.0;
+            ingredient.calories = 50 + (i * 53) % 400;
+            ingredient.attributes = Map.of("sugar", (double) ((i * 7) % 11));
+            if (i % 10 == 7) ingredient.maxQuantity = 2.0;
+            request.ingredients.add(ingredient);
+        }
+        request.constraintsBlock = new DessertRequestDTO.ConstraintsBlock();
+        request.constraintsBlock.totalWeight = 10;
+        request.constraintsBlock.constraints = new ArrayList<>();
+        DessertRequestDTO.ConstraintDTO sugar = new DessertRequestDTO.ConstraintDTO();
+        sugar.left = "sugar";
+        sugar.op = ConstraintOp.GREATER_THAN_OR_EQUAL;
+        sugar.right = 40;
+        request.constraintsBlock.constraints.add(sugar);
+        request.goal = new DessertRequestDTO.GoalDTO();
+        request.goal.targetType = TargetType.PRICE;
+        request.goal.direction = Direction.MINIMIZE;
+        return request;
+    }
+}
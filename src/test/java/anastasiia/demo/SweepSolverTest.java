@@ -0,0 +1,101 @@
+package anastasiia.demo;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import anastasiia.demo.dto.IngredientDTO;
+import anastasiia.demo.dto.SweepRequestDTO;
+import anastasiia.demo.dto.SweepResultDTO;
+import anastasiia.demo.enums.Direction;
+import anastasiia.demo.enums.SweepMode;
+import anastasiia.demo.enums.TargetType;
+import anastasiia.demo.solver.DessertSolver;
+import anastasiia.demo.solver.SweepSolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SweepSolver Frontier Tests")
+class SweepSolverTest {
+
+    private final SweepSolver sweepSolver = new SweepSolver(new DessertSolver(), 2, 100);
+
+    @Test
+    @DisplayName("Given a calorie cap range when swept then price never increases as the cap loosens")
+    void givenCalorieRange_whenSwept_thenPriceIsMonotone() {
+        SweepRequestDTO sweep = new SweepRequestDTO();
+        sweep.base = request(TargetType.PRICE);
+        sweep.parameter = "maxCalories";
+        sweep.from = 1000;
+        sweep.to = 2000;
+        sweep.step = 250;
+
+        SweepResultDTO result = sweepSolver.sweep(sweep);
+
+        assertEquals(List.of(1000.0, 1250.0, 1500.0, 1750.0, 2000.0), result.points.stream().map(p -> p.value).toList());
+        for (int i = 1; i < result.points.size(); i++) {
+            assertTrue(result.points.get(i).result.price <= result.points.get(i - 1).result.price + 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Given pareto mode when traced then every point trades price against calories, without per-point reports")
+    void givenParetoMode_whenTraced_thenPointsAreNonDominated() {
+        SweepRequestDTO sweep = new SweepRequestDTO();
+        sweep.base = request(TargetType.PRICE);
+        sweep.mode = SweepMode.PARETO;
+        sweep.points = 5;
+
+        sweep.base.sensitivity = true;
+        sweep.base.diagnose = true;
+
+        SweepResultDTO result = sweepSolver.sweep(sweep);
+
+        assertEquals("maxCalories", result.parameter);
+        assertFalse(result.points.isEmpty());
+        assertTrue(result.points.stream().allMatch(p -> p.result.sensitivity == null && p.result.conflict == null));
+        for (int i = 1; i < result.points.size(); i++) {
+            assertTrue(result.points.get(i).result.totalCalories > result.points.get(i - 1).result.totalCalories);
+            assertTrue(result.points.get(i).result.price < result.points.get(i - 1).result.price);
+        }
+    }
+
+    @Test
+    @DisplayName("Given an unknown parameter when swept then the request is rejected")
+    void givenUnknownParameter_whenSwept_thenRejected() {
+        SweepRequestDTO sweep = new SweepRequestDTO();
+        sweep.base = request(TargetType.PRICE);
+        sweep.parameter = "constraints[3].right";
+        sweep.step = 1;
+
+        assertThrows(IllegalArgumentException.class, () -> sweepSolver.sweep(sweep));
+    }
+
+    private static DessertRequestDTO request(TargetType target) {
+        DessertRequestDTO request = new DessertRequestDTO();
+        request.ingredients = List.of(
+                ingredient("Chocolate", 2.0, 500.0),
+                ingredient("Cream", 1.0, 300.0),
+                ingredient("Strawberry", 1.5, 100.0)
+        );
+        DessertRequestDTO.ConstraintsBlock block = new DessertRequestDTO.ConstraintsBlock();
+        block.maxPrice = 10.0;
+        block.maxCalories = 1500.0;
+        block.totalWeight = 3.0;
+        request.constraintsBlock = block;
+        DessertRequestDTO.GoalDTO goal = new DessertRequestDTO.GoalDTO();
+        goal.targetType = target;
+        goal.direction = Direction.MINIMIZE;
+        request.goal = goal;
+        return request;
+    }
+
+    private static IngredientDTO ingredient(String name, double price, double calories) {
+        IngredientDTO i = new IngredientDTO();
+        i.name = name;
+        i.price = price;
+        i.calories = calories;
+        return i;
+    }
+}
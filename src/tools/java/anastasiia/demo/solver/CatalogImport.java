@@ -0,0 +1,68 @@
+package anastasiia.demo.solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds {@link CatalogFile} catalogs from CSV exports, for {@code dessert.catalogs.directory}.
+ */
+public final class CatalogImport {
+
+    private CatalogImport() {
+    }
+
+    /**
+     * Convert a CSV export into a catalog file: {@code CatalogImport input.csv output.dcat [version]}.
+     * The first column is the ingredient name, every other column an ingredient field or a further attribute named
+     * by the header row; empty cells read as 0, except in {@code maxQuantity} where they mean unbounded.
+     * Quoted fields are not supported.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CatalogImport input.csv output.dcat [version]");
+            System.exit(2);
+        }
+        List<String> names = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String[] header;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) throw new IOException(args[0] + " is empty");
+            header = line.split(",", -1);
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] cells = line.split(",", -1);
+                double[] values = new double[header.length - 1];
+                for (int c = 1; c < header.length; c++) {
+                    boolean blank = c >= cells.length || cells[c].isBlank();
+                    values[c - 1] = !blank ? Double.parseDouble(cells[c].trim())
+                            : IngredientCatalog.MAX_QUANTITY.equals(header[c].trim()) ? Double.NaN : 0;
+                }
+                if (!seen.add(RequestFingerprint.fold(cells[0].trim()))) {
+                    throw new IOException("Duplicate ingredient " + cells[0].trim());
+                }
+                names.add(cells[0].trim());
+                rows.add(values);
+            }
+        }
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        for (int c = 1; c < header.length; c++) {
+            double[] column = new double[rows.size()];
+            for (int row = 0; row < column.length; row++) column[row] = rows.get(row)[c - 1];
+            String attribute = header[c].trim();
+            columns.put(IngredientCatalog.FIELDS.contains(attribute) ? attribute : AttributeColumns.attributeName(attribute), column);
+        }
+        CatalogFile.write(Path.of(args[1]), args.length > 2 ? Long.parseLong(args[2]) : 1, names, columns);
+        System.out.println("Wrote " + names.size() + " ingredients x " + columns.size() + " attributes to " + args[1]);
+    }
+}
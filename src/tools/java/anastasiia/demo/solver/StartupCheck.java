@@ -0,0 +1,145 @@
+package anastasiia.demo.solver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a build of the service becomes useful: it launches the given command with {@code PORT} set, and
+ * times the first ready {@code /actuator/health/readiness} answer (startup, warmup included) and the first
+ * {@code /solve-dessert} response (time to first solve, from launch). Runs are repeated and the medians compared with optional limits, so the same
+ * check works for the plain jar, the AOT + CDS image and a native executable.
+ * <pre>
+ * StartupCheck [--port 18080] [--runs 5] [--max-startup-ms N] [--max-first-solve-ms N] [--log file] -- command...
+ * </pre>
+ * Exits with 1 when a median is over its limit.
+ */
+public final class StartupCheck {
+
+    private static final Duration LAUNCH_TIMEOUT = Duration.ofMinutes(2);
+
+    public record Run(long startupMs, long firstSolveMs, long timeToFirstSolveMs) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 18080;
+        int runs = 5;
+        long maxStartupMs = 0;
+        long maxFirstSolveMs = 0;
+        Path logFile = null;
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--".equals(args[i])) {
+                command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            }
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                case "--max-startup-ms" -> maxStartupMs = Long.parseLong(args[++i]);
+                case "--max-first-solve-ms" -> maxFirstSolveMs = Long.parseLong(args[++i]);
+                case "--log" -> logFile = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (command.isEmpty()) {
+            System.err.println("Usage: StartupCheck [--port 18080] [--runs 5] [--max-startup-ms N] [--max-first-solve-ms N] "
+                    + "[--log file] -- command...");
+            System.exit(2);
+        }
+
+        byte[] body = new ObjectMapper().writeValueAsBytes(SolverWarmup.sampleRequests().get(0));
+        List<Run> results = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            Run result = measure(command, port, body, logFile);
+            results.add(result);
+            System.out.printf("run %d: startup %d ms, first solve %d ms, time to first solve %d ms%n",
+                    run, result.startupMs(), result.firstSolveMs(), result.timeToFirstSolveMs());
+        }
+        long startup = median(results.stream().mapToLong(Run::startupMs).toArray());
+        long firstSolve = median(results.stream().mapToLong(Run::firstSolveMs).toArray());
+        long timeToFirstSolve = median(results.stream().mapToLong(Run::timeToFirstSolveMs).toArray());
+        System.out.printf("median: startup %d ms, first solve %d ms, time to first solve %d ms%n", startup, firstSolve, timeToFirstSolve);
+
+        boolean failed = false;
+        if (maxStartupMs > 0 && startup > maxStartupMs) {
+            System.out.printf("FAIL: startup %d ms is over the %d ms limit%n", startup, maxStartupMs);
+            failed = true;
+        }
+        if (maxFirstSolveMs > 0 && timeToFirstSolve > maxFirstSolveMs) {
+            System.out.printf("FAIL: time to first solve %d ms is over the %d ms limit%n", timeToFirstSolve, maxFirstSolveMs);
+            failed = true;
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Launch, poll readiness every 10 ms, send one solve, stop the process.
+     */
+    static Run measure(List<String> command, int port, byte[] body, Path logFile) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+        URI readiness = URI.create("http://localhost:" + port + "/actuator/health/readiness");
+        URI solve = URI.create("http://localhost:" + port + "/solve-dessert");
+
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("PORT", String.valueOf(port));
+        builder.redirectOutput(logFile == null ? ProcessBuilder.Redirect.DISCARD : ProcessBuilder.Redirect.appendTo(logFile.toFile()));
+        long launched = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long deadline = launched + LAUNCH_TIMEOUT.toNanos();
+            while (!ready(client, readiness)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with " + process.exitValue() + " before it was ready");
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Not ready after " + LAUNCH_TIMEOUT);
+                }
+                Thread.sleep(10);
+            }
+            long ready = System.nanoTime();
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(solve)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            long solved = System.nanoTime();
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("First solve answered " + response.statusCode() + ": " + response.body());
+            }
+            return new Run(TimeUnit.NANOSECONDS.toMillis(ready - launched), TimeUnit.NANOSECONDS.toMillis(solved - ready),
+                    TimeUnit.NANOSECONDS.toMillis(solved - launched));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean ready(HttpClient client, URI readiness) throws InterruptedException {
+        try {
+            return client.send(HttpRequest.newBuilder(readiness).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,391 @@
+package anastasiia.demo.solver;
+
+import anastasiia.demo.dto.DessertRequestDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Replays traffic recorded by {@link RequestCapture} against a local instance or an in-process {@link DessertSolver},
+ * and reports latency percentiles, throughput, errors and GC pauses.
+ * <p>
+ * Requests are sent open loop: each has a due time, at the captured pace scaled by {@code speed} or at a fixed
+ * {@code rate}, and its latency runs from that due time. When all {@code concurrency} slots are busy the next request
+ * waits, and the wait counts against it, so a saturated server shows up in the percentiles instead of slowing the
+ * load down. GC pauses are the replaying JVM's for the in-process target and read from the instance's
+ * {@code /actuator/prometheus} otherwise.
+ */
+public final class TrafficReplay {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final double rate;
+    private final double speed;
+    private final int concurrency;
+
+    /**
+     * @param rate        requests per second; 0 keeps the captured spacing
+     * @param speed       multiplier on the captured spacing when {@code rate} is 0
+     * @param concurrency requests in flight at most
+     */
+    public TrafficReplay(double rate, double speed, int concurrency) {
+        if (rate < 0 || speed <= 0 || concurrency < 1) {
+            throw new IllegalArgumentException("rate must be >= 0, speed > 0 and concurrency >= 1");
+        }
+        this.rate = rate;
+        this.speed = speed;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * A captured request: when it arrived and its JSON body.
+     */
+    public record Captured(long at, byte[] body) {
+    }
+
+    /**
+     * Where replayed requests go.
+     */
+    public interface Target {
+
+        /**
+         * Send one request body and return its HTTP status.
+         */
+        int send(byte[] body) throws Exception;
+
+        /**
+         * Start counting GC pauses; the returned probe reports those since.
+         */
+        GcProbe watchGc() throws Exception;
+
+        String describe();
+    }
+
+    public interface GcProbe {
+        GcPauses stop() throws Exception;
+    }
+
+    public record GcPauses(String source, long count, double totalMs, double maxMs) {
+    }
+
+    public record Latency(double p50, double p95, double p99, double p999, double max, double mean) {
+    }
+
+    public record Report(String target, int requests, long errors, double errorRate, double seconds, double throughput,
+                         Latency latencyMs, Map<String, Long> outcomes, GcPauses gc,
+                         double rate, double speed, int concurrency) {
+    }
+
+    /**
+     * Read capture files, or every capture file in a directory, ordered by arrival.
+     */
+    public static List<Captured> load(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> listing = Files.list(path)) {
+                    listing.filter(RequestCapture::isCaptureFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        List<Captured> traffic = new ArrayList<>();
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonNode entry = MAPPER.readTree(line);
+                    traffic.add(new Captured(entry.path("at").asLong(), MAPPER.writeValueAsBytes(entry.get("request"))));
+                }
+            }
+        }
+        traffic.sort(Comparator.comparingLong(Captured::at));
+        return traffic;
+    }
+
+    public Report run(List<Captured> traffic, Target target) throws Exception {
+        int n = traffic.size();
+        long[] latencies = new long[n];
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        Semaphore slots = new Semaphore(concurrency);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "replay-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        GcProbe gc = target.watchGc();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < n; i++) {
+                long due = start + offsetNanos(traffic, i);
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                slots.acquire();
+                int index = i;
+                workers.execute(() -> {
+                    String outcome = "Error";
+                    try {
+                        outcome = String.valueOf(target.send(traffic.get(index).body()));
+                    } catch (Exception e) {
+                        outcome = e.getClass().getSimpleName();
+                    } finally {
+                        latencies[index] = System.nanoTime() - due;
+                        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                        slots.release();
+                    }
+                });
+            }
+            slots.acquire(concurrency);
+        } finally {
+            workers.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        GcPauses pauses = gc.stop();
+
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        long errors = counts.entrySet().stream()
+                .filter(e -> !e.getKey().startsWith("2"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        return new Report(target.describe(), n, errors, n == 0 ? 0 : (double) errors / n, seconds,
+                seconds > 0 ? n / seconds : 0, latency(latencies), counts, pauses, rate, speed, concurrency);
+    }
+
+    private long offsetNanos(List<Captured> traffic, int i) {
+        if (rate > 0) return (long) (i * 1e9 / rate);
+        return (long) ((traffic.get(i).at() - traffic.get(0).at()) * 1e6 / speed);
+    }
+
+    private static Latency latency(long[] nanos) {
+        if (nanos.length == 0) return new Latency(0, 0, 0, 0, 0, 0);
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return new Latency(percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6, Arrays.stream(sorted).average().orElse(0) / 1e6);
+    }
+
+    /**
+     * Nearest-rank percentile, in milliseconds.
+     */
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * Solve in this JVM with a default {@link DessertSolver}, parsing each body as the endpoint would. There is no
+     * cache or admission queue in front of it.
+     */
+    public static Target inProcess(DessertSolver solver) {
+        return new Target() {
+            @Override
+            public int send(byte[] body) throws IOException {
+                try {
+                    solver.solve(MAPPER.readValue(body, DessertRequestDTO.class));
+                    return 200;
+                } catch (IllegalArgumentException e) {
+                    return 400;
+                }
+            }
+
+            @Override
+            public GcProbe watchGc() {
+                return new LocalGcProbe();
+            }
+
+            @Override
+            public String describe() {
+                return "in-process";
+            }
+        };
+    }
+
+    /**
+     * POST to {@code <baseUrl>/solve-dessert}.
+     */
+    public static Target http(String baseUrl) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI solve = URI.create(base + "/solve-dessert");
+        URI prometheus = URI.create(base + "/actuator/prometheus");
+        return new Target() {
+            @Override
+            public int send(byte[] body) throws Exception {
+                HttpRequest request = HttpRequest.newBuilder(solve)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            }
+
+            @Override
+            public GcProbe watchGc() throws Exception {
+                double[] before = scrapeGc(client, prometheus);
+                return () -> {
+                    double[] after = scrapeGc(client, prometheus);
+                    if (before == null || after == null) return new GcPauses("unavailable", 0, 0, 0);
+                    return new GcPauses("server", (long) (after[0] - before[0]), (after[1] - before[1]) * 1000, after[2] * 1000);
+                };
+            }
+
+            @Override
+            public String describe() {
+                return base;
+            }
+        };
+    }
+
+    /**
+     * Count, total seconds and recent maximum of {@code jvm_gc_pause_seconds} over all collectors, or null when the
+     * endpoint is not reachable.
+     */
+    private static double[] scrapeGc(HttpClient client, URI prometheus) throws InterruptedException {
+        String text;
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(prometheus).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return null;
+            text = response.body();
+        } catch (IOException e) {
+            return null;
+        }
+        double[] gc = new double[3];
+        for (String line : text.split("\n")) {
+            int value = line.lastIndexOf(' ');
+            if (line.startsWith("#") || value < 0) continue;
+            if (line.startsWith("jvm_gc_pause_seconds_count")) gc[0] += Double.parseDouble(line.substring(value + 1));
+            else if (line.startsWith("jvm_gc_pause_seconds_sum")) gc[1] += Double.parseDouble(line.substring(value + 1));
+            else if (line.startsWith("jvm_gc_pause_seconds_max")) gc[2] = Math.max(gc[2], Double.parseDouble(line.substring(value + 1)));
+        }
+        return gc;
+    }
+
+    /**
+     * Listens for collections in this JVM. Concurrent cycles (ZGC and Shenandoah "Cycles" collectors) are not pauses
+     * and are left out, as in Micrometer's {@code jvm.gc.pause}.
+     */
+    private static final class LocalGcProbe implements GcProbe {
+
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicInteger maxMs = new AtomicInteger();
+        private final NotificationListener listener = (notification, handback) -> {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (info.getGcName().endsWith("Cycles") || "No GC".equals(info.getGcCause())) return;
+            long duration = info.getGcInfo().getDuration();
+            count.increment();
+            totalMs.add(duration);
+            maxMs.accumulateAndGet((int) duration, Math::max);
+        };
+
+        LocalGcProbe() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(listener, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        @Override
+        public GcPauses stop() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException ignored) {
+                    // Already gone
+                }
+            }
+            return new GcPauses("in-process", count.sum(), totalMs.sum(), maxMs.get());
+        }
+    }
+
+    /**
+     * {@code TrafficReplay [--target in-process|http://host:port] [--rate N] [--speed X] [--concurrency N]
+     * [--out report.json] capture...}, where each capture is a file or a directory of capture files.
+     */
+    public static void main(String[] args) throws Exception {
+        String target = "in-process";
+        double rate = 0;
+        double speed = 1;
+        int concurrency = 16;
+        Path out = null;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--target" -> target = args[++i];
+                case "--rate" -> rate = Double.parseDouble(args[++i]);
+                case "--speed" -> speed = Double.parseDouble(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                default -> inputs.add(Path.of(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: TrafficReplay [--target in-process|http://host:port] [--rate N] [--speed X] "
+                    + "[--concurrency N] [--out report.json] capture...");
+            System.exit(2);
+        }
+        List<Captured> traffic = load(inputs);
+        Target destination = "in-process".equals(target) ? inProcess(new DessertSolver()) : http(target);
+        Report report = new TrafficReplay(rate, speed, concurrency).run(traffic, destination);
+
+        Latency l = report.latencyMs();
+        System.out.printf("%d requests to %s in %.1f s: %.1f req/s, %d errors (%.2f%%)%n", report.requests(), report.target(),
+                report.seconds(), report.throughput(), report.errors(), report.errorRate() * 100);
+        System.out.printf("latency ms  p50 %.2f  p95 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n", l.p50(), l.p95(), l.p99(), l.p999(), l.max());
+        System.out.printf("outcomes    %s%n", report.outcomes());
+        System.out.printf("gc pauses   %s: %d, %.1f ms total, %.1f ms max%n", report.gc().source(), report.gc().count(),
+                report.gc().totalMs(), report.gc().maxMs());
+        if (out != null) {
+            MAPPER.writeValue(out.toFile(), report);
+            System.out.println("Report written to " + out);
+        }
+    }
+}